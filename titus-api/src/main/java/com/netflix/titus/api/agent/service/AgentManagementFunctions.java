@@ -18,7 +18,9 @@ package com.netflix.titus.api.agent.service;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.function.Predicate;
@@ -75,6 +77,21 @@ public final class AgentManagementFunctions {
                 .map(instanceGroups -> instanceGroups.stream().map(AgentInstanceGroup::getId).collect(Collectors.toList()));
     }
 
+    /**
+     * Emits sets of ids of instance groups which are neither active nor phased out.
+     */
+    public static Observable<Set<String>> observeInactiveInstanceGroupIds(AgentManagementService agentManagementService) {
+        return agentManagementService.events(false)
+                .flatMap(event -> {
+                    if (event instanceof AgentInstanceGroupUpdateEvent || event instanceof AgentInstanceGroupRemovedEvent) {
+                        return Observable.just(findInactiveInstanceGroupIds(agentManagementService));
+                    }
+                    return Observable.empty();
+                })
+                .compose(ObservableExt.head(() -> singletonList(findInactiveInstanceGroupIds(agentManagementService))))
+                .distinctUntilChanged();
+    }
+
     private static SortedSet<AgentInstanceGroup> findActiveInstanceGroups(AgentManagementService agentManagementService) {
         SortedSet<AgentInstanceGroup> activeInstanceGroups = new TreeSet<>(Comparator.comparing(AgentInstanceGroup::getId));
         agentManagementService.getInstanceGroups().stream()
@@ -83,6 +100,14 @@ public final class AgentManagementFunctions {
         return activeInstanceGroups;
     }
 
+    private static Set<String> findInactiveInstanceGroupIds(AgentManagementService agentManagementService) {
+        Set<String> inactiveInstanceGroupIds = new HashSet<>();
+        agentManagementService.getInstanceGroups().stream()
+                .filter(instanceGroup -> !isActiveOrPhasedOut(instanceGroup))
+                .forEach(instanceGroup -> inactiveInstanceGroupIds.add(instanceGroup.getId()));
+        return inactiveInstanceGroupIds;
+    }
+
     public static boolean isActiveOrPhasedOut(AgentInstanceGroup instanceGroup) {
         return instanceGroup.getLifecycleStatus().getState() == InstanceGroupLifecycleState.Active ||
                 instanceGroup.getLifecycleStatus().getState() == InstanceGroupLifecycleState.PhasedOut;
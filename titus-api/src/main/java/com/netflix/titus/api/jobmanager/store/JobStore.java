@@ -141,6 +141,17 @@ public interface JobStore {
      */
     Observable<Task> retrieveArchivedTasksForJob(String jobId);
 
+    /**
+     * Retrieve a page of the archived task ids for a specific job. The ids are returned in the store order, so
+     * any sorting must be done by the caller.
+     *
+     * @param jobId
+     * @param pageSize    maximum number of task ids to return
+     * @param pagingState value returned with the previous page, or an empty string to start from the beginning
+     * @return a page of archived task ids, and the paging state for the next page (an empty string if this is the last one)
+     */
+    Observable<Pair<List<String>, String>> retrieveArchivedTaskIdsForJob(String jobId, int pageSize, String pagingState);
+
     /**
      * Retrieve a specific archived task.
      *
@@ -16,6 +16,7 @@
 
 package com.netflix.titus.runtime.connector.eviction;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
@@ -27,12 +28,15 @@ import com.netflix.titus.api.model.Level;
 import com.netflix.titus.api.model.Tier;
 import com.netflix.titus.api.model.reference.Reference;
 import com.netflix.titus.api.model.reference.TierReference;
-import com.netflix.titus.common.util.CollectionsExt;
+import com.netflix.titus.common.util.collections.PersistentHashMap;
 import com.netflix.titus.runtime.connector.common.replicator.ReplicatedSnapshot;
 
 import static com.netflix.titus.common.util.CollectionsExt.copyAndAdd;
 
 /**
+ * Capacity group and job quotas are kept in {@link PersistentHashMap}s, so an update creates a new snapshot in
+ * O(log(n)) time, sharing the unchanged data with the previous one.
+ * <p>
  * TODO Removed job cleanup (not critical, as forced reconnects and the snapshot rebuild will do the work).
  */
 public class EvictionDataSnapshot extends ReplicatedSnapshot {
@@ -49,8 +53,8 @@ public class EvictionDataSnapshot extends ReplicatedSnapshot {
 
     private final EvictionQuota systemEvictionQuota;
     private final Map<Tier, EvictionQuota> tierEvictionQuotas;
-    private final Map<String, EvictionQuota> capacityGroupEvictionQuotas;
-    private final Map<String, EvictionQuota> jobEvictionQuotas;
+    private final PersistentHashMap<String, EvictionQuota> capacityGroupEvictionQuotas;
+    private final PersistentHashMap<String, EvictionQuota> jobEvictionQuotas;
 
     private final String signature;
 
@@ -62,8 +66,8 @@ public class EvictionDataSnapshot extends ReplicatedSnapshot {
         this.snapshotId = snapshotId;
         this.systemEvictionQuota = systemEvictionQuota;
         this.tierEvictionQuotas = tierEvictionQuotas;
-        this.capacityGroupEvictionQuotas = capacityGroupEvictionQuotas;
-        this.jobEvictionQuotas = jobEvictionQuotas;
+        this.capacityGroupEvictionQuotas = PersistentHashMap.of(capacityGroupEvictionQuotas);
+        this.jobEvictionQuotas = PersistentHashMap.of(jobEvictionQuotas);
         this.signature = computeSignature();
     }
 
@@ -95,12 +99,15 @@ public class EvictionDataSnapshot extends ReplicatedSnapshot {
             case Tier:
                 return tierEvictionQuotas.get(Tier.valueOf(reference.getName()));
             case CapacityGroup:
-                return capacityGroupEvictionQuotas.computeIfAbsent(reference.getName(), c -> EvictionQuota.newBuilder()
-                        .withReference(Reference.capacityGroup(c))
+                EvictionQuota capacityGroupEvictionQuota = capacityGroupEvictionQuotas.get(reference.getName());
+                if (capacityGroupEvictionQuota != null) {
+                    return capacityGroupEvictionQuota;
+                }
+                return EvictionQuota.newBuilder()
+                        .withReference(Reference.capacityGroup(reference.getName()))
                         .withQuota(ReadOnlyEvictionOperations.VERY_HIGH_QUOTA)
                         .withMessage("Not supported yet")
-                        .build()
-                );
+                        .build();
             case Job:
                 EvictionQuota jobEvictionQuota = jobEvictionQuotas.get(reference.getName());
                 if (jobEvictionQuota == null) {
@@ -128,41 +135,59 @@ public class EvictionDataSnapshot extends ReplicatedSnapshot {
     }
 
     public Optional<EvictionDataSnapshot> updateEvictionQuota(EvictionQuota quota) {
-        switch (quota.getReference().getLevel()) {
-            case System:
-                return Optional.of(new EvictionDataSnapshot(
-                        snapshotId,
-                        quota,
-                        this.tierEvictionQuotas,
-                        this.capacityGroupEvictionQuotas,
-                        jobEvictionQuotas
-                ));
-            case Tier:
-                return Optional.of(new EvictionDataSnapshot(
-                        snapshotId,
-                        this.systemEvictionQuota,
-                        copyAndAdd(this.tierEvictionQuotas, ((TierReference) quota.getReference()).getTier(), quota),
-                        this.capacityGroupEvictionQuotas,
-                        jobEvictionQuotas
-                ));
-            case CapacityGroup:
-                return Optional.of(new EvictionDataSnapshot(
-                        snapshotId,
-                        this.systemEvictionQuota,
-                        this.tierEvictionQuotas,
-                        copyAndAdd(this.capacityGroupEvictionQuotas, quota.getReference().getName(), quota),
-                        jobEvictionQuotas
-                ));
-            case Job:
-                return Optional.of(new EvictionDataSnapshot(
-                        snapshotId,
-                        this.systemEvictionQuota,
-                        this.tierEvictionQuotas,
-                        this.capacityGroupEvictionQuotas,
-                        CollectionsExt.copyAndAdd(jobEvictionQuotas, quota.getReference().getName(), quota)
-                ));
+        return updateEvictionQuotas(Collections.singletonList(quota));
+    }
+
+    /**
+     * Applies all quota updates, and creates a single new snapshot. Returns {@link Optional#empty()} if none of the
+     * updates changes the snapshot.
+     */
+    public Optional<EvictionDataSnapshot> updateEvictionQuotas(Collection<EvictionQuota> quotas) {
+        EvictionQuota newSystemEvictionQuota = systemEvictionQuota;
+        Map<Tier, EvictionQuota> newTierEvictionQuotas = tierEvictionQuotas;
+        PersistentHashMap<String, EvictionQuota> newCapacityGroupEvictionQuotas = capacityGroupEvictionQuotas;
+        PersistentHashMap<String, EvictionQuota> newJobEvictionQuotas = jobEvictionQuotas;
+
+        boolean changed = false;
+        for (EvictionQuota quota : quotas) {
+            switch (quota.getReference().getLevel()) {
+                case System:
+                    if (!quota.equals(newSystemEvictionQuota)) {
+                        newSystemEvictionQuota = quota;
+                        changed = true;
+                    }
+                    break;
+                case Tier:
+                    Tier tier = ((TierReference) quota.getReference()).getTier();
+                    if (!quota.equals(newTierEvictionQuotas.get(tier))) {
+                        newTierEvictionQuotas = copyAndAdd(newTierEvictionQuotas, tier, quota);
+                        changed = true;
+                    }
+                    break;
+                case CapacityGroup:
+                    if (!quota.equals(newCapacityGroupEvictionQuotas.get(quota.getReference().getName()))) {
+                        newCapacityGroupEvictionQuotas = newCapacityGroupEvictionQuotas.plus(quota.getReference().getName(), quota);
+                        changed = true;
+                    }
+                    break;
+                case Job:
+                    if (!quota.equals(newJobEvictionQuotas.get(quota.getReference().getName()))) {
+                        newJobEvictionQuotas = newJobEvictionQuotas.plus(quota.getReference().getName(), quota);
+                        changed = true;
+                    }
+                    break;
+            }
+        }
+        if (!changed) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.of(new EvictionDataSnapshot(
+                snapshotId,
+                newSystemEvictionQuota,
+                newTierEvictionQuotas,
+                newCapacityGroupEvictionQuotas,
+                newJobEvictionQuotas
+        ));
     }
 
     @Override
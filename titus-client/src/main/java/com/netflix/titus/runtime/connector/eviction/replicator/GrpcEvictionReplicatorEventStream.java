@@ -17,6 +17,7 @@
 package com.netflix.titus.runtime.connector.eviction.replicator;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,8 +30,8 @@ import com.netflix.titus.api.eviction.model.event.EvictionEvent;
 import com.netflix.titus.api.eviction.model.event.EvictionQuotaEvent;
 import com.netflix.titus.api.eviction.model.event.EvictionSnapshotEndEvent;
 import com.netflix.titus.api.eviction.service.ReadOnlyEvictionOperations;
+import com.netflix.titus.api.model.Level;
 import com.netflix.titus.api.model.Tier;
-import com.netflix.titus.api.model.reference.TierReference;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.runtime.connector.common.replicator.AbstractReplicatorEventStream;
 import com.netflix.titus.runtime.connector.common.replicator.DataReplicatorMetrics;
@@ -90,27 +91,15 @@ public class GrpcEvictionReplicatorEventStream extends AbstractReplicatorEventSt
 
         private Flux<ReplicatorEvent<EvictionDataSnapshot, EvictionEvent>> buildInitialCache() {
             EvictionQuota systemEvictionQuota = null;
-            Map<Tier, EvictionQuota> tierEvictionQuotas = new HashMap<>();
-            Map<String, EvictionQuota> capacityGroupEvictionQuotas = new HashMap<>();
-            Map<String, EvictionQuota> jobEvictionQuotas = new HashMap<>();
+            List<EvictionQuota> quotas = new ArrayList<>();
 
             for (EvictionEvent event : snapshotEvents) {
                 if (event instanceof EvictionQuotaEvent) {
                     EvictionQuota quota = ((EvictionQuotaEvent) event).getQuota();
-                    switch (quota.getReference().getLevel()) {
-                        case System:
-                            systemEvictionQuota = quota;
-                            break;
-                        case Tier:
-                            tierEvictionQuotas.put(((TierReference) quota.getReference()).getTier(), quota);
-                            break;
-                        case CapacityGroup:
-                            capacityGroupEvictionQuotas.put(quota.getReference().getName(), quota);
-                            break;
-                        case Job:
-                            jobEvictionQuotas.put(quota.getReference().getName(), quota);
-                            break;
+                    if (quota.getReference().getLevel() == Level.System) {
+                        systemEvictionQuota = quota;
                     }
+                    quotas.add(quota);
                 }
             }
 
@@ -118,16 +107,18 @@ public class GrpcEvictionReplicatorEventStream extends AbstractReplicatorEventSt
             snapshotEvents.clear();
 
             checkNotNull(systemEvictionQuota, "System eviction quota missing");
-            tierEvictionQuotas.computeIfAbsent(Tier.Flex, tier -> EvictionQuota.tierQuota(tier, ReadOnlyEvictionOperations.VERY_HIGH_QUOTA, "Not supported yet"));
-            tierEvictionQuotas.computeIfAbsent(Tier.Critical, tier -> EvictionQuota.tierQuota(tier, ReadOnlyEvictionOperations.VERY_HIGH_QUOTA, "Not supported yet"));
+            Map<Tier, EvictionQuota> tierEvictionQuotas = new HashMap<>();
+            tierEvictionQuotas.put(Tier.Flex, EvictionQuota.tierQuota(Tier.Flex, ReadOnlyEvictionOperations.VERY_HIGH_QUOTA, "Not supported yet"));
+            tierEvictionQuotas.put(Tier.Critical, EvictionQuota.tierQuota(Tier.Critical, ReadOnlyEvictionOperations.VERY_HIGH_QUOTA, "Not supported yet"));
 
-            EvictionDataSnapshot initialSnapshot = new EvictionDataSnapshot(
+            EvictionDataSnapshot emptySnapshot = new EvictionDataSnapshot(
                     UUID.randomUUID().toString(),
                     systemEvictionQuota,
                     tierEvictionQuotas,
-                    capacityGroupEvictionQuotas,
-                    jobEvictionQuotas
+                    Collections.emptyMap(),
+                    Collections.emptyMap()
             );
+            EvictionDataSnapshot initialSnapshot = emptySnapshot.updateEvictionQuotas(quotas).orElse(emptySnapshot);
 
             lastSnapshotRef.set(initialSnapshot);
             logger.info("Eviction snapshot loaded: {}", initialSnapshot.toSummaryString());
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.runtime.connector.eviction;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.netflix.titus.api.eviction.model.EvictionQuota;
+import com.netflix.titus.api.model.reference.Reference;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EvictionDataSnapshotTest {
+
+    private final EvictionDataSnapshot snapshot = new EvictionDataSnapshot(
+            "test",
+            EvictionQuota.systemQuota(10, "Test"),
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            Collections.singletonMap("job1", EvictionQuota.jobQuota("job1", 1, "Test"))
+    );
+
+    @Test
+    public void testBatchUpdate() {
+        EvictionDataSnapshot updated = snapshot.updateEvictionQuotas(Arrays.asList(
+                EvictionQuota.systemQuota(20, "Test"),
+                EvictionQuota.jobQuota("job1", 2, "Test"),
+                EvictionQuota.jobQuota("job2", 3, "Test")
+        )).get();
+
+        assertThat(updated.getSystemEvictionQuota().getQuota()).isEqualTo(20);
+        assertThat(updated.getEvictionQuota(Reference.job("job1")).getQuota()).isEqualTo(2);
+        assertThat(updated.getEvictionQuota(Reference.job("job2")).getQuota()).isEqualTo(3);
+
+        // The original snapshot is not modified.
+        assertThat(snapshot.getSystemEvictionQuota().getQuota()).isEqualTo(10);
+        assertThat(snapshot.getEvictionQuota(Reference.job("job1")).getQuota()).isEqualTo(1);
+        assertThat(snapshot.findEvictionQuota(Reference.job("job2"))).isEmpty();
+    }
+
+    @Test
+    public void testUnchangedQuotasDoNotCreateNewSnapshot() {
+        assertThat(snapshot.updateEvictionQuotas(Arrays.asList(
+                EvictionQuota.systemQuota(10, "Test"),
+                EvictionQuota.jobQuota("job1", 1, "Test")
+        ))).isEmpty();
+        assertThat(snapshot.updateEvictionQuota(EvictionQuota.jobQuota("job1", 2, "Test"))).isPresent();
+    }
+
+    @Test
+    public void testNoUpdates() {
+        assertThat(snapshot.updateEvictionQuotas(Collections.emptyList())).isEmpty();
+    }
+}
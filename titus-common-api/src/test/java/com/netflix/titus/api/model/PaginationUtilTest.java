@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.api.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import com.netflix.titus.common.util.tuple.Pair;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PaginationUtilTest {
+
+    private static final Comparator<PaginableItem> COMPARATOR = Comparator.comparingLong(PaginableItem::getTimestamp).thenComparing(PaginableItem::getId);
+
+    private final Random random = new Random(123);
+
+    @Test
+    public void testSelectPageWithCursorParityWhenPagingThroughAllItems() {
+        for (int count : new int[]{0, 1, 7, 100}) {
+            for (int pageSize : new int[]{1, 3, 10, 200}) {
+                List<PaginableItem> items = shuffledItems(count);
+
+                Page page = Page.newBuilder().withPageSize(pageSize).build();
+                int fetched = 0;
+                while (true) {
+                    Pair<List<PaginableItem>, Pagination> expected = takePage(page, items);
+                    Pair<List<PaginableItem>, Pagination> actual = selectPage(page, items);
+                    assertThat(actual).isEqualTo(expected);
+
+                    fetched += actual.getLeft().size();
+                    if (!actual.getRight().hasMore()) {
+                        break;
+                    }
+                    page = page.toBuilder().withCursor(actual.getRight().getCursor()).build();
+                }
+                assertThat(fetched).isEqualTo(count);
+            }
+        }
+    }
+
+    @Test
+    public void testSelectPageWithPageNumberParity() {
+        List<PaginableItem> items = shuffledItems(50);
+        for (int pageNumber = 0; pageNumber < 8; pageNumber++) {
+            Page page = Page.newBuilder().withPageSize(7).withPageNumber(pageNumber).build();
+            assertThat(selectPage(page, items)).isEqualTo(takePage(page, items));
+        }
+    }
+
+    @Test
+    public void testSelectPageWithCursorOfRemovedItemParity() {
+        List<PaginableItem> items = PaginableItems.items(20);
+        PaginableItem removed = items.remove(10);
+        Collections.shuffle(items, random);
+
+        Page page = Page.newBuilder().withPageSize(4).withCursor(encode(removed)).build();
+        assertThat(selectPage(page, items)).isEqualTo(takePage(page, items));
+    }
+
+    @Test
+    public void testSelectPageWithCursorPastLastItemParity() {
+        List<PaginableItem> items = shuffledItems(10);
+
+        Page page = Page.newBuilder().withPageSize(4).withCursor(encode(new PaginableItem("last", Long.MAX_VALUE / 2))).build();
+        Pair<List<PaginableItem>, Pagination> actual = selectPage(page, items);
+        assertThat(actual.getLeft()).isEmpty();
+        assertThat(actual).isEqualTo(takePage(page, items));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSelectPageWithBadCursor() {
+        selectPage(Page.newBuilder().withPageSize(4).withCursor("badCursor").build(), shuffledItems(10));
+    }
+
+    private List<PaginableItem> shuffledItems(int count) {
+        List<PaginableItem> items = new ArrayList<>(PaginableItems.items(count));
+        Collections.shuffle(items, random);
+        return items;
+    }
+
+    private Pair<List<PaginableItem>, Pagination> takePage(Page page, List<PaginableItem> items) {
+        return PaginationUtil.takePageWithCursor(page, items, COMPARATOR, PaginationUtilTest::indexOf, PaginationUtilTest::encode);
+    }
+
+    private Pair<List<PaginableItem>, Pagination> selectPage(Page page, List<PaginableItem> items) {
+        return PaginationUtil.selectPageWithCursor(page, items, COMPARATOR, PaginationUtilTest::decode, PaginationUtilTest::encode);
+    }
+
+    private static String encode(PaginableItem item) {
+        return item.getId() + '@' + item.getTimestamp();
+    }
+
+    private static Optional<PaginableItem> decode(String cursor) {
+        int idx = cursor.lastIndexOf('@');
+        if (idx < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new PaginableItem(cursor.substring(0, idx), Long.parseLong(cursor.substring(idx + 1))));
+    }
+
+    private static Optional<Integer> indexOf(List<PaginableItem> items, String cursor) {
+        return decode(cursor).map(reference -> {
+            int idx = Collections.binarySearch(items, reference, COMPARATOR);
+            if (idx >= 0) {
+                return idx;
+            }
+            return Math.max(-1, -idx - 2);
+        });
+    }
+}
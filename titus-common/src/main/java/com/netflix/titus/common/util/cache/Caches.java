@@ -39,4 +39,16 @@ public class Caches {
                 .build();
         return new InstrumentedCache<>(metricNameRoot, cache, registry);
     }
+
+    /**
+     * Creates a cache, in which entries expire only after the given time without being read or written.
+     */
+    public static <K, V> Cache<K, V> instrumentedCacheWithMaxSizeAndIdleTimeout(long maxSize, Duration idleTimeout, String metricNameRoot, Registry registry) {
+        com.github.benmanes.caffeine.cache.Cache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        return new InstrumentedCache<>(metricNameRoot, cache, registry);
+    }
 }
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.common.util.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An immutable hash map (hash array mapped trie), in which each modification produces a new map instance, sharing
+ * all unchanged nodes with the original one. {@link #plus(Object, Object)}, {@link #minus(Object)} and lookups are
+ * O(log32(n)). Null keys and values are not allowed.
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0);
+
+    private final BitmapNode root;
+    private final int size;
+
+    private PersistentHashMap(BitmapNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        return (V) root.find(hash(key), key, 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map with the given key mapped to the given value. If the key is already mapped to the same value
+     * instance, the current map is returned.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        Preconditions.checkNotNull(key, "Null key");
+        Preconditions.checkNotNull(value, "Null value");
+
+        int hash = hash(key);
+        boolean[] added = new boolean[1];
+        BitmapNode newRoot = root.put(hash, new Leaf(hash, key, value), 0, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the given key. If the key is not present, the current map is returned.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (key == null) {
+            return this;
+        }
+        int hash = hash(key);
+        Object result = root.remove(hash, key, 0);
+        if (result == root) {
+            return this;
+        }
+        if (result == null) {
+            return empty();
+        }
+        if (result instanceof Leaf) {
+            Leaf leaf = (Leaf) result;
+            return new PersistentHashMap<>(new BitmapNode(bit(leaf.hash, 0), new Object[]{leaf}), size - 1);
+        }
+        return new PersistentHashMap<>((BitmapNode) result, size - 1);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<Entry<K, V>> iterator() {
+                List<Leaf> leaves = new ArrayList<>(size);
+                root.collect(leaves);
+                return Collections.unmodifiableList((List<Entry<K, V>>) (List) leaves).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent copy of the given map. If the map is already a {@link PersistentHashMap} instance,
+     * it is returned as is.
+     */
+    public static <K, V> PersistentHashMap<K, V> of(Map<K, V> map) {
+        if (map instanceof PersistentHashMap) {
+            return (PersistentHashMap<K, V>) map;
+        }
+        PersistentHashMap<K, V> result = empty();
+        for (Entry<K, V> entry : map.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Object[] replace(Object[] slots, int index, Object slot) {
+        Object[] result = slots.clone();
+        result[index] = slot;
+        return result;
+    }
+
+    /**
+     * Creates a sub-tree holding two leaves with different keys. As the hash has 32 bits, two different hashes
+     * always diverge at a shift not greater than 30, so the recursion is bounded.
+     */
+    private static Node merge(Leaf first, Leaf second, int shift) {
+        if (first.hash == second.hash) {
+            return new CollisionNode(first.hash, new Leaf[]{first, second});
+        }
+        int firstIndex = (first.hash >>> shift) & MASK;
+        int secondIndex = (second.hash >>> shift) & MASK;
+        if (firstIndex == secondIndex) {
+            return new BitmapNode(1 << firstIndex, new Object[]{merge(first, second, shift + BITS)});
+        }
+        return new BitmapNode(
+                (1 << firstIndex) | (1 << secondIndex),
+                firstIndex < secondIndex ? new Object[]{first, second} : new Object[]{second, first}
+        );
+    }
+
+    private static final class Leaf extends SimpleImmutableEntry<Object, Object> {
+
+        private final int hash;
+
+        private Leaf(int hash, Object key, Object value) {
+            super(key, value);
+            this.hash = hash;
+        }
+
+        private boolean matches(int hash, Object key) {
+            return this.hash == hash && getKey().equals(key);
+        }
+    }
+
+    private static abstract class Node {
+
+        /**
+         * Returns the value mapped to the key, or null if not found.
+         */
+        abstract Object find(int hash, Object key, int shift);
+
+        abstract Node put(int hash, Leaf leaf, int shift, boolean[] added);
+
+        /**
+         * Returns this node if the key is not found, null if the node is empty after the removal, a {@link Leaf}
+         * if a single leaf is left, or a new node.
+         */
+        abstract Object remove(int hash, Object key, int shift);
+
+        abstract void collect(List<Leaf> leaves);
+    }
+
+    /**
+     * A node holding up to 32 slots, where each slot is either a {@link Leaf} or a child {@link Node}. Only slots
+     * that are set in the bitmap are allocated.
+     */
+    private static final class BitmapNode extends Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        private BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                return leaf.matches(hash, key) ? leaf.getValue() : null;
+            }
+            return ((Node) slot).find(hash, key, shift + BITS);
+        }
+
+        @Override
+        BitmapNode put(int hash, Leaf leaf, int shift, boolean[] added) {
+            int bit = bit(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = leaf;
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                return new BitmapNode(bitmap | bit, newSlots);
+            }
+
+            Object slot = slots[index];
+            Object newSlot;
+            if (slot instanceof Leaf) {
+                Leaf existing = (Leaf) slot;
+                if (existing.matches(hash, leaf.getKey())) {
+                    if (existing.getValue() == leaf.getValue()) {
+                        return this;
+                    }
+                    newSlot = leaf;
+                } else {
+                    added[0] = true;
+                    newSlot = merge(existing, leaf, shift + BITS);
+                }
+            } else {
+                Node child = (Node) slot;
+                Node newChild = child.put(hash, leaf, shift + BITS, added);
+                if (newChild == child) {
+                    return this;
+                }
+                newSlot = newChild;
+            }
+            return new BitmapNode(bitmap, replace(slots, index, newSlot));
+        }
+
+        @Override
+        Object remove(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object slot = slots[index];
+
+            Object newSlot;
+            if (slot instanceof Leaf) {
+                if (!((Leaf) slot).matches(hash, key)) {
+                    return this;
+                }
+                newSlot = null;
+            } else {
+                Node child = (Node) slot;
+                newSlot = child.remove(hash, key, shift + BITS);
+                if (newSlot == child) {
+                    return this;
+                }
+            }
+
+            if (newSlot == null) {
+                if (slots.length == 1) {
+                    return null;
+                }
+                // A single remaining leaf is moved up to the parent node.
+                if (slots.length == 2 && slots[1 - index] instanceof Leaf) {
+                    return slots[1 - index];
+                }
+                Object[] newSlots = new Object[slots.length - 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                System.arraycopy(slots, index + 1, newSlots, index, slots.length - index - 1);
+                return new BitmapNode(bitmap & ~bit, newSlots);
+            }
+            if (slots.length == 1 && newSlot instanceof Leaf) {
+                return newSlot;
+            }
+            return new BitmapNode(bitmap, replace(slots, index, newSlot));
+        }
+
+        @Override
+        void collect(List<Leaf> leaves) {
+            for (Object slot : slots) {
+                if (slot instanceof Leaf) {
+                    leaves.add((Leaf) slot);
+                } else {
+                    ((Node) slot).collect(leaves);
+                }
+            }
+        }
+    }
+
+    /**
+     * Leaves with different keys, but the same hash value.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Leaf[] leaves;
+
+        private CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        Object find(int hash, Object key, int shift) {
+            if (this.hash != hash) {
+                return null;
+            }
+            for (Leaf leaf : leaves) {
+                if (leaf.getKey().equals(key)) {
+                    return leaf.getValue();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node put(int hash, Leaf leaf, int shift, boolean[] added) {
+            if (this.hash != hash) {
+                // Push this node one level down, so the new leaf can be stored next to it.
+                return new BitmapNode(bit(this.hash, shift), new Object[]{this}).put(hash, leaf, shift, added);
+            }
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].getKey().equals(leaf.getKey())) {
+                    if (leaves[i].getValue() == leaf.getValue()) {
+                        return this;
+                    }
+                    Leaf[] newLeaves = leaves.clone();
+                    newLeaves[i] = leaf;
+                    return new CollisionNode(hash, newLeaves);
+                }
+            }
+            added[0] = true;
+            Leaf[] newLeaves = new Leaf[leaves.length + 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+            newLeaves[leaves.length] = leaf;
+            return new CollisionNode(hash, newLeaves);
+        }
+
+        @Override
+        Object remove(int hash, Object key, int shift) {
+            if (this.hash != hash) {
+                return this;
+            }
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].getKey().equals(key)) {
+                    if (leaves.length == 2) {
+                        return leaves[1 - i];
+                    }
+                    Leaf[] newLeaves = new Leaf[leaves.length - 1];
+                    System.arraycopy(leaves, 0, newLeaves, 0, i);
+                    System.arraycopy(leaves, i + 1, newLeaves, i, leaves.length - i - 1);
+                    return new CollisionNode(hash, newLeaves);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        void collect(List<Leaf> leaves) {
+            Collections.addAll(leaves, this.leaves);
+        }
+    }
+}
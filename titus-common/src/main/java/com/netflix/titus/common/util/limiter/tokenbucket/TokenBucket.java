@@ -16,6 +16,9 @@
 
 package com.netflix.titus.common.util.limiter.tokenbucket;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
 /**
  * Create a token bucket that can be used to rate limit both synchronously and asynchronously based on the number of
  * available tokens. Tokens will get refilled based on the {@link RefillStrategy}.
@@ -53,7 +56,8 @@ public interface TokenBucket {
     boolean tryTake(long numberOfTokens);
 
     /**
-     * Take a token from the bucket and block until the token is taken.
+     * Take a token from the bucket and block until the token is taken. Use {@link #reserve()} to avoid blocking
+     * the calling thread.
      */
     void take();
 
@@ -64,6 +68,31 @@ public interface TokenBucket {
      */
     void take(long numberOfTokens);
 
+    /**
+     * Non-blocking version of {@link #take()}.
+     *
+     * @return a {@link Mono} that completes when the token is taken
+     */
+    Mono<Void> reserve();
+
+    /**
+     * Non-blocking version of {@link #take(long)}. The tokens are retried at the next refill time using the
+     * default parallel scheduler.
+     *
+     * @param numberOfTokens the number of tokens to take
+     * @return a {@link Mono} that completes when the tokens are taken
+     */
+    Mono<Void> reserve(long numberOfTokens);
+
+    /**
+     * Non-blocking version of {@link #take(long)}, with the retries executed on the given scheduler.
+     *
+     * @param numberOfTokens the number of tokens to take
+     * @param scheduler      the scheduler on which to wait for the next refill
+     * @return a {@link Mono} that completes when the tokens are taken
+     */
+    Mono<Void> reserve(long numberOfTokens, Scheduler scheduler);
+
     /**
      * Refill the token bucket with specified number of tokens. Note that this is an out of bound
      * way to add more tokens to the bucket, but the {@link RefillStrategy} should be doing this.
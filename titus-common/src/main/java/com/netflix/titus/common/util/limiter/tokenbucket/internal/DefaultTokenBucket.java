@@ -16,22 +16,42 @@
 
 package com.netflix.titus.common.util.limiter.tokenbucket.internal;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.netflix.titus.common.util.limiter.tokenbucket.RefillStrategy;
 import com.netflix.titus.common.util.limiter.tokenbucket.TokenBucket;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+/**
+ * Lock free token bucket. The number of tokens is updated with CAS operations, and the refill is delegated to
+ * the {@link RefillStrategy}, which is expected to be thread safe and cheap when there is nothing to refill.
+ */
 public class DefaultTokenBucket implements TokenBucket {
 
-    private final Object mutex = new Object();
+    /**
+     * Lower bound on the retry delay of {@link #reserve(long, Scheduler)}, to avoid a busy loop when the refill
+     * strategy reports no wait time, but there are not enough tokens in the bucket.
+     */
+    private static final long MIN_RESERVE_RETRY_DELAY_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Upper bound on the retry delay of {@link #reserve(long, Scheduler)}.
+     */
+    private static final long MAX_RESERVE_RETRY_DELAY_NS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int MAX_RESERVE_BACKOFF_SHIFT = 10;
 
     private final String name;
     private final long capacity;
     private final RefillStrategy refillStrategy;
-    private volatile long numberOfTokens;
+    private final AtomicLong numberOfTokens;
 
     public DefaultTokenBucket(String name, long capacity, RefillStrategy refillStrategy, long initialNumberOfTokens) {
 
@@ -43,7 +63,7 @@ public class DefaultTokenBucket implements TokenBucket {
         this.name = name;
         this.capacity = capacity;
         this.refillStrategy = refillStrategy;
-        this.numberOfTokens = initialNumberOfTokens;
+        this.numberOfTokens = new AtomicLong(initialNumberOfTokens);
     }
 
     @Override
@@ -59,7 +79,7 @@ public class DefaultTokenBucket implements TokenBucket {
     @Override
     public long getNumberOfTokens() {
         refill(refillStrategy.refill());
-        return numberOfTokens;
+        return numberOfTokens.get();
     }
 
     @Override
@@ -69,19 +89,18 @@ public class DefaultTokenBucket implements TokenBucket {
 
     @Override
     public boolean tryTake(long numberOfTokens) {
+        checkNumberOfTokens(numberOfTokens);
 
-        Preconditions.checkArgument(numberOfTokens > 0, "Number of tokens must be greater than 0.");
-        Preconditions.checkArgument(numberOfTokens <= capacity, "Number of tokens must not be greater than the capacity.");
-
-        synchronized (mutex) {
-            refill(refillStrategy.refill());
+        refill(refillStrategy.refill());
 
-            if (numberOfTokens <= this.numberOfTokens) {
-                this.numberOfTokens -= numberOfTokens;
+        while (true) {
+            long current = this.numberOfTokens.get();
+            if (current < numberOfTokens) {
+                return false;
+            }
+            if (this.numberOfTokens.compareAndSet(current, current - numberOfTokens)) {
                 return true;
             }
-
-            return false;
         }
     }
 
@@ -92,9 +111,7 @@ public class DefaultTokenBucket implements TokenBucket {
 
     @Override
     public void take(long numberOfTokens) {
-
-        Preconditions.checkArgument(numberOfTokens > 0, "Number of tokens must be greater than 0.");
-        Preconditions.checkArgument(numberOfTokens <= capacity, "Number of tokens must not be greater than the capacity.");
+        checkNumberOfTokens(numberOfTokens);
 
         while (true) {
             if (tryTake(numberOfTokens)) {
@@ -107,10 +124,49 @@ public class DefaultTokenBucket implements TokenBucket {
         }
     }
 
+    @Override
+    public Mono<Void> reserve() {
+        return reserve(1);
+    }
+
+    @Override
+    public Mono<Void> reserve(long numberOfTokens) {
+        return reserve(numberOfTokens, Schedulers.parallel());
+    }
+
+    @Override
+    public Mono<Void> reserve(long numberOfTokens, Scheduler scheduler) {
+        checkNumberOfTokens(numberOfTokens);
+
+        return Mono.defer(() -> tryTake(numberOfTokens) ? Mono.just(Boolean.TRUE) : Mono.<Boolean>empty())
+                .repeatWhenEmpty(attempts -> attempts.concatMap(attempt -> Mono.delay(Duration.ofNanos(getRetryDelayNs(attempt)), scheduler)))
+                .then();
+    }
+
+    /**
+     * Waits until the next refill time. If the refill strategy reports no wait time, but there are still not enough
+     * tokens, the delay grows exponentially with each attempt. The delay is always within
+     * [{@link #MIN_RESERVE_RETRY_DELAY_NS}, {@link #MAX_RESERVE_RETRY_DELAY_NS}].
+     */
+    private long getRetryDelayNs(long attempt) {
+        long timeUntilNextRefillNs = refillStrategy.getTimeUntilNextRefill(TimeUnit.NANOSECONDS);
+        long delayNs = timeUntilNextRefillNs >= MIN_RESERVE_RETRY_DELAY_NS
+                ? timeUntilNextRefillNs
+                : MIN_RESERVE_RETRY_DELAY_NS << Math.min(attempt, MAX_RESERVE_BACKOFF_SHIFT);
+        return Math.min(MAX_RESERVE_RETRY_DELAY_NS, delayNs);
+    }
+
     @Override
     public void refill(long numberOfTokens) {
-        synchronized (mutex) {
-            this.numberOfTokens = Math.min(capacity, Math.max(0, this.numberOfTokens + numberOfTokens));
+        if (numberOfTokens == 0) {
+            return;
+        }
+        while (true) {
+            long current = this.numberOfTokens.get();
+            long next = Math.min(capacity, Math.max(0, current + numberOfTokens));
+            if (next == current || this.numberOfTokens.compareAndSet(current, next)) {
+                return;
+            }
         }
     }
 
@@ -118,4 +174,9 @@ public class DefaultTokenBucket implements TokenBucket {
     public RefillStrategy getRefillStrategy() {
         return refillStrategy;
     }
+
+    private void checkNumberOfTokens(long numberOfTokens) {
+        Preconditions.checkArgument(numberOfTokens > 0, "Number of tokens must be greater than 0.");
+        Preconditions.checkArgument(numberOfTokens <= capacity, "Number of tokens must not be greater than the capacity.");
+    }
 }
@@ -17,20 +17,23 @@
 package com.netflix.titus.common.util.limiter.tokenbucket.internal;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.base.Stopwatch;
 import com.netflix.titus.common.util.DateTimeExt;
 import com.netflix.titus.common.util.limiter.tokenbucket.RefillStrategy;
 
+/**
+ * Lock free refill strategy. The last refill time is advanced with a CAS operation, so only one of the concurrent
+ * callers observing a new interval gets the tokens for it.
+ */
 public class FixedIntervalRefillStrategy implements RefillStrategy {
-    private final Object mutex = new Object();
 
     private final Stopwatch stopwatch;
     private final long numberOfTokensPerInterval;
     private final long intervalInNanos;
     private final String toStringValue;
-    private long lastRefillTime;
-    private long nextRefillTime;
+    private final AtomicLong lastRefillTime;
 
     public FixedIntervalRefillStrategy(Stopwatch stopwatch, long numberOfTokensPerInterval, long interval, TimeUnit unit) {
         this.stopwatch = stopwatch;
@@ -38,8 +41,7 @@ public class FixedIntervalRefillStrategy implements RefillStrategy {
         this.intervalInNanos = unit.toNanos(interval);
         this.toStringValue = "FixedIntervalRefillStrategy{refillRate=" + DateTimeExt.toRateString(interval, numberOfTokensPerInterval, unit, "refill") + '}';
 
-        this.lastRefillTime = -intervalInNanos;
-        this.nextRefillTime = -intervalInNanos;
+        this.lastRefillTime = new AtomicLong(-intervalInNanos);
 
         if (!this.stopwatch.isRunning()) {
             this.stopwatch.start();
@@ -48,22 +50,23 @@ public class FixedIntervalRefillStrategy implements RefillStrategy {
 
     @Override
     public long refill() {
-        synchronized (mutex) {
-            long elapsed = stopwatch.elapsed(TimeUnit.NANOSECONDS);
-            if (elapsed < nextRefillTime) {
+        long elapsed = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+        while (true) {
+            long last = lastRefillTime.get();
+            long numberOfIntervals = (elapsed - last) / intervalInNanos;
+            if (numberOfIntervals <= 0) {
                 return 0;
             }
-            long numberOfIntervals = Math.max(0, (elapsed - lastRefillTime) / intervalInNanos);
-            lastRefillTime += numberOfIntervals * intervalInNanos;
-            nextRefillTime = lastRefillTime + intervalInNanos;
-
-            return numberOfIntervals * numberOfTokensPerInterval;
+            if (lastRefillTime.compareAndSet(last, last + numberOfIntervals * intervalInNanos)) {
+                return numberOfIntervals * numberOfTokensPerInterval;
+            }
         }
     }
 
     @Override
     public long getTimeUntilNextRefill(TimeUnit unit) {
         long elapsed = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+        long nextRefillTime = lastRefillTime.get() + intervalInNanos;
         return unit.convert(Math.max(0, nextRefillTime - elapsed), TimeUnit.NANOSECONDS);
     }
 
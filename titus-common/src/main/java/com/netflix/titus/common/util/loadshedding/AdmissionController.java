@@ -23,4 +23,15 @@ import java.util.function.Function;
  * should be allowed or discarded.
  */
 public interface AdmissionController extends Function<AdmissionControllerRequest, AdmissionControllerResponse> {
+
+    /**
+     * Called when execution of an allowed request completes. Controllers adapting their limits to the observed
+     * latencies use it to track requests in flight. Controllers wrapping other controllers must forward it.
+     *
+     * @param response   the response returned by {@link #apply} for this request
+     * @param elapsedNs  request execution time
+     * @param overloaded true if the request failed with an error indicating that the server is overloaded
+     */
+    default void onCompleted(AdmissionControllerRequest request, AdmissionControllerResponse response, long elapsedNs, boolean overloaded) {
+    }
 }
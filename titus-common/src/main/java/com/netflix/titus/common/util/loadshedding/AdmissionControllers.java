@@ -20,6 +20,8 @@ import java.util.function.Supplier;
 
 import com.netflix.archaius.api.Config;
 import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.loadshedding.adaptive.AdaptiveConcurrencyAdmissionController;
+import com.netflix.titus.common.util.loadshedding.adaptive.AdaptiveConcurrencyConfiguration;
 import com.netflix.titus.common.util.loadshedding.tokenbucket.ArchaiusTokenBucketAdmissionConfigurationParser;
 import com.netflix.titus.common.util.loadshedding.tokenbucket.ConfigurableTokenBucketAdmissionController;
 
@@ -36,6 +38,12 @@ public final class AdmissionControllers {
         return new SpectatorAdmissionController(delegate, titusRuntime);
     }
 
+    public static AdmissionController adaptiveConcurrency(AdmissionController delegate,
+                                                          AdaptiveConcurrencyConfiguration configuration,
+                                                          TitusRuntime titusRuntime) {
+        return new AdaptiveConcurrencyAdmissionController(delegate, configuration, titusRuntime);
+    }
+
     public static AdmissionController tokenBucketsFromArchaius(Config config, TitusRuntime titusRuntime) {
         return new ConfigurableTokenBucketAdmissionController(new ArchaiusTokenBucketAdmissionConfigurationParser(config), titusRuntime);
     }
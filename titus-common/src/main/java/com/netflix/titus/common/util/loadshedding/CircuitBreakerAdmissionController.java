@@ -45,4 +45,10 @@ public class CircuitBreakerAdmissionController implements AdmissionController {
         }
         return OK_FROM_CIRCUIT_BREAKER;
     }
+
+    @Override
+    public void onCompleted(AdmissionControllerRequest request, AdmissionControllerResponse response, long elapsedNs, boolean overloaded) {
+        // Forwarded even if disabled, as the request might have been admitted by the delegate before the change.
+        delegate.onCompleted(request, response, elapsedNs, overloaded);
+    }
 }
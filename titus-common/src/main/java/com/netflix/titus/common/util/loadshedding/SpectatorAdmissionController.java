@@ -62,4 +62,9 @@ public class SpectatorAdmissionController implements AdmissionController {
             throw e;
         }
     }
+
+    @Override
+    public void onCompleted(AdmissionControllerRequest request, AdmissionControllerResponse response, long elapsedNs, boolean overloaded) {
+        delegate.onCompleted(request, response, elapsedNs, overloaded);
+    }
 }
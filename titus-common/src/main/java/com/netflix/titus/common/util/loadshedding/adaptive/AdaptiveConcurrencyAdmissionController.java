@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.loadshedding.adaptive;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.cache.Cache;
+import com.netflix.titus.common.util.cache.Caches;
+import com.netflix.titus.common.util.loadshedding.AdmissionController;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerRequest;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerResponse;
+import com.netflix.titus.common.util.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admission controller limiting the number of requests in flight for each endpoint. The limits are not configured
+ * explicitly, but adapt to the observed request latencies (see {@link EndpointConcurrencyLimiter}). Requests are
+ * first evaluated by the delegate controller, and only those allowed by it are checked against the concurrency
+ * limit. For the limits to work, each allowed request must be reported back via {@link #onCompleted}.
+ * <p>
+ * Limiters of endpoints that receive no requests for {@link #LIMITER_IDLE_TIMEOUT} are discarded. The response of an
+ * allowed request carries the limiter instance that admitted it, and the completion is always reported to that
+ * instance, even if it was discarded in the meantime and a new one took its place.
+ */
+public class AdaptiveConcurrencyAdmissionController implements AdmissionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyAdmissionController.class);
+
+    private static final String DECISION_POINT = AdaptiveConcurrencyAdmissionController.class.getSimpleName();
+
+    private static final int MAX_CACHE_SIZE = 1_000;
+    private static final Duration LIMITER_IDLE_TIMEOUT = Duration.ofSeconds(600);
+
+    private final AdmissionController delegate;
+    private final AdaptiveConcurrencyConfiguration configuration;
+    private final Registry registry;
+
+    private final Cache<String, EndpointConcurrencyLimiter> limitersByEndpoint;
+
+    private volatile Pair<String, Pattern> excludedEndpointPattern = Pair.of("", null);
+
+    public AdaptiveConcurrencyAdmissionController(AdmissionController delegate,
+                                                  AdaptiveConcurrencyConfiguration configuration,
+                                                  TitusRuntime titusRuntime) {
+        this.delegate = delegate;
+        this.configuration = configuration;
+        this.registry = titusRuntime.getRegistry();
+        this.limitersByEndpoint = Caches.instrumentedCacheWithMaxSizeAndIdleTimeout(
+                MAX_CACHE_SIZE,
+                LIMITER_IDLE_TIMEOUT,
+                "titus.adaptiveConcurrencyAdmissionController.cache",
+                registry
+        );
+    }
+
+    @Override
+    public AdmissionControllerResponse apply(AdmissionControllerRequest request) {
+        AdmissionControllerResponse delegateResponse = delegate.apply(request);
+        if (!delegateResponse.isAllowed() || !configuration.isEnabled() || isExcluded(request.getEndpointName())) {
+            return delegateResponse;
+        }
+        return limitersByEndpoint
+                .get(request.getEndpointName(), endpointName -> new EndpointConcurrencyLimiter(endpointName, DECISION_POINT, configuration, registry))
+                .tryAcquire();
+    }
+
+    @Override
+    public void onCompleted(AdmissionControllerRequest request, AdmissionControllerResponse response, long elapsedNs, boolean overloaded) {
+        if (!response.isAllowed() || !(response instanceof EndpointConcurrencyLimiter.LimiterAdmissionResponse)) {
+            delegate.onCompleted(request, response, elapsedNs, overloaded);
+            return;
+        }
+        ((EndpointConcurrencyLimiter.LimiterAdmissionResponse) response).getLimiter().release(elapsedNs, overloaded);
+    }
+
+    @VisibleForTesting
+    EndpointConcurrencyLimiter getLimiter(String endpointName) {
+        return limitersByEndpoint.getIfPresent(endpointName);
+    }
+
+    @VisibleForTesting
+    void evictLimiter(String endpointName) {
+        limitersByEndpoint.invalidate(endpointName);
+    }
+
+    private boolean isExcluded(String endpointName) {
+        Pattern pattern = getExcludedEndpointPattern();
+        return pattern != null && pattern.matcher(endpointName).matches();
+    }
+
+    private Pattern getExcludedEndpointPattern() {
+        String patternString = configuration.getExcludedEndpointPattern();
+        Pair<String, Pattern> current = excludedEndpointPattern;
+        if (current.getLeft().equals(patternString)) {
+            return current.getRight();
+        }
+        Pattern pattern;
+        try {
+            pattern = patternString.isEmpty() ? null : Pattern.compile(patternString);
+        } catch (Exception e) {
+            logger.warn("Invalid excluded endpoint pattern: {}", patternString);
+            pattern = current.getRight();
+        }
+        this.excludedEndpointPattern = Pair.of(patternString, pattern);
+        return pattern;
+    }
+}
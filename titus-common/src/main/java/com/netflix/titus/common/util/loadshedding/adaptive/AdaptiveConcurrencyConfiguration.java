@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.loadshedding.adaptive;
+
+import com.netflix.archaius.api.annotations.DefaultValue;
+
+public interface AdaptiveConcurrencyConfiguration {
+
+    @DefaultValue("false")
+    boolean isEnabled();
+
+    /**
+     * Endpoints matching this pattern are not subject to the concurrency limits. Long running calls (like
+     * event streams) must be excluded, as they would hold their slot for the whole subscription time.
+     */
+    @DefaultValue(".*[Oo]bserve.*")
+    String getExcludedEndpointPattern();
+
+    /**
+     * Number of concurrent requests allowed for an endpoint before the first limit update.
+     */
+    @DefaultValue("20")
+    int getInitialLimit();
+
+    @DefaultValue("5")
+    int getMinLimit();
+
+    @DefaultValue("1000")
+    int getMaxLimit();
+
+    /**
+     * Number of completed requests, from which the average latency is computed and the limit is updated.
+     */
+    @DefaultValue("50")
+    int getSampleWindowSize();
+
+    /**
+     * Weight of a new limit estimate in the range (0, 1]. Lower values make the limit changes smoother.
+     */
+    @DefaultValue("0.2")
+    double getSmoothing();
+
+    /**
+     * How much the latency of the recent requests may exceed the long term latency, before the limit is lowered.
+     */
+    @DefaultValue("1.5")
+    double getLatencyTolerance();
+
+    /**
+     * Multiplicative decrease applied to the limit when a request fails due to server overload.
+     */
+    @DefaultValue("0.9")
+    double getBackoffRatio();
+}
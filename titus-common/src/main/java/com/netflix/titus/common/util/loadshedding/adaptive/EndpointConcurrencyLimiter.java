@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.loadshedding.adaptive;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Gauge;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerResponse;
+
+/**
+ * Concurrency limit of a single endpoint, estimated with the gradient algorithm. The long term average latency
+ * is compared with the average latency of the most recent sample window. If the recent latency grows, the limit is
+ * lowered proportionally, otherwise it grows by the square root of its current value. Requests failing due to
+ * overload, reduce the limit multiplicatively.
+ */
+class EndpointConcurrencyLimiter {
+
+    private static final String METRIC_ROOT = "titus.admissionController.adaptive.";
+
+    /**
+     * Weight of a sample window in the long term latency average.
+     */
+    private static final double LONG_TERM_LATENCY_WEIGHT = 0.05;
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final String endpointName;
+    private final AdaptiveConcurrencyConfiguration configuration;
+
+    private final AdmissionControllerResponse allowedResponse;
+    private final AdmissionControllerResponse rejectedResponse;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private final Gauge limitGauge;
+    private final Gauge inFlightGauge;
+    private final Counter rejectedCounter;
+    private final Counter overloadedCounter;
+
+    // Guarded by 'this'
+    private double estimatedLimit;
+    private double longTermLatencyNs = -1;
+    private int windowSize;
+    private long windowLatencySumNs;
+    private int windowMaxInFlight;
+
+    EndpointConcurrencyLimiter(String endpointName,
+                               String decisionPoint,
+                               AdaptiveConcurrencyConfiguration configuration,
+                               Registry registry) {
+        this.endpointName = endpointName;
+        this.configuration = configuration;
+        this.estimatedLimit = configuration.getInitialLimit();
+        this.limit = configuration.getInitialLimit();
+
+        this.allowedResponse = new LimiterAdmissionResponse(this, decisionPoint);
+        this.rejectedResponse = AdmissionControllerResponse.newBuilder()
+                .withAllowed(false)
+                .withReasonMessage("Adaptive concurrency limit reached: endpoint=" + endpointName)
+                .withDecisionPoint(decisionPoint)
+                .withEquivalenceGroup(endpointName)
+                .build();
+
+        this.limitGauge = registry.gauge(newId(registry, "limit"));
+        this.inFlightGauge = registry.gauge(newId(registry, "inFlight"));
+        this.rejectedCounter = registry.counter(newId(registry, "rejected"));
+        this.overloadedCounter = registry.counter(newId(registry, "overloaded"));
+        limitGauge.set(limit);
+    }
+
+    private Id newId(Registry registry, String name) {
+        return registry.createId(METRIC_ROOT + name, "endpointName", endpointName);
+    }
+
+    String getEndpointName() {
+        return endpointName;
+    }
+
+    @VisibleForTesting
+    int getLimit() {
+        return limit;
+    }
+
+    @VisibleForTesting
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    AdmissionControllerResponse tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejectedCounter.increment();
+                return rejectedResponse;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                inFlightGauge.set(current + 1);
+                return allowedResponse;
+            }
+        }
+    }
+
+    void release(long elapsedNs, boolean overloaded) {
+        // Never go below zero, so a duplicate completion report cannot raise the effective limit.
+        int inFlightBeforeRelease = inFlight.getAndUpdate(current -> Math.max(0, current - 1));
+        inFlightGauge.set(Math.max(0, inFlightBeforeRelease - 1));
+
+        synchronized (this) {
+            if (overloaded) {
+                overloadedCounter.increment();
+                setLimit(estimatedLimit * configuration.getBackoffRatio());
+                resetWindow();
+                return;
+            }
+
+            windowSize++;
+            windowLatencySumNs += elapsedNs;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBeforeRelease);
+            if (windowSize >= configuration.getSampleWindowSize()) {
+                updateLimit(Math.max(1, windowLatencySumNs / windowSize), windowMaxInFlight);
+                resetWindow();
+            }
+        }
+    }
+
+    private void updateLimit(double shortTermLatencyNs, int maxInFlight) {
+        if (longTermLatencyNs < 0) {
+            longTermLatencyNs = shortTermLatencyNs;
+        } else {
+            longTermLatencyNs = longTermLatencyNs * (1 - LONG_TERM_LATENCY_WEIGHT) + shortTermLatencyNs * LONG_TERM_LATENCY_WEIGHT;
+        }
+        // After an overload period the long term latency is high, and it would take too long for the average to
+        // catch up with the current state. Let it decay faster in this case.
+        if (longTermLatencyNs / shortTermLatencyNs > 2) {
+            longTermLatencyNs = longTermLatencyNs * 0.95;
+        }
+
+        // Do not change the limit if the load is too low to observe the effect of the current limit.
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, configuration.getLatencyTolerance() * longTermLatencyNs / shortTermLatencyNs));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        double smoothing = configuration.getSmoothing();
+        setLimit(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private void setLimit(double newLimit) {
+        this.estimatedLimit = Math.max(configuration.getMinLimit(), Math.min(configuration.getMaxLimit(), newLimit));
+        this.limit = (int) estimatedLimit;
+        limitGauge.set(limit);
+    }
+
+    private void resetWindow() {
+        windowSize = 0;
+        windowLatencySumNs = 0;
+        windowMaxInFlight = 0;
+    }
+
+    /**
+     * Response of an admitted request, which holds a reference to the limiter instance that admitted it.
+     */
+    static class LimiterAdmissionResponse extends AdmissionControllerResponse {
+
+        private final EndpointConcurrencyLimiter limiter;
+
+        private LimiterAdmissionResponse(EndpointConcurrencyLimiter limiter, String decisionPoint) {
+            super(true, "Within the adaptive concurrency limit", decisionPoint, limiter.getEndpointName());
+            this.limiter = limiter;
+        }
+
+        EndpointConcurrencyLimiter getLimiter() {
+            return limiter;
+        }
+    }
+}
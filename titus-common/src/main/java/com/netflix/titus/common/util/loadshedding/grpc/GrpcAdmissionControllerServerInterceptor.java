@@ -16,11 +16,14 @@
 
 package com.netflix.titus.common.util.loadshedding.grpc;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 import com.netflix.titus.common.util.loadshedding.AdmissionController;
 import com.netflix.titus.common.util.loadshedding.AdmissionControllerRequest;
 import com.netflix.titus.common.util.loadshedding.AdmissionControllerResponse;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
 import io.grpc.Metadata;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
@@ -47,9 +50,10 @@ public class GrpcAdmissionControllerServerInterceptor implements ServerIntercept
 
     @Override
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        AdmissionControllerRequest request;
         AdmissionControllerResponse result;
         try {
-            AdmissionControllerRequest request = AdmissionControllerRequest.newBuilder()
+            request = AdmissionControllerRequest.newBuilder()
                     .withCallerId(callerIdResolver.get())
                     .withEndpointName(call.getMethodDescriptor().getFullMethodName())
                     .build();
@@ -62,10 +66,65 @@ public class GrpcAdmissionControllerServerInterceptor implements ServerIntercept
         }
 
         if (result.isAllowed()) {
-            return next.startCall(call, headers);
+            return startTrackedCall(call, headers, next, request, result);
         }
 
         call.close(Status.RESOURCE_EXHAUSTED.withDescription(result.getReasonMessage()), new Metadata());
         return (ServerCall.Listener<ReqT>) NO_OP_LISTENER;
     }
+
+    /**
+     * Reports the completion of an allowed call back to the admission controller, when the call is closed or cancelled.
+     */
+    private <ReqT, RespT> ServerCall.Listener<ReqT> startTrackedCall(ServerCall<ReqT, RespT> call,
+                                                                   Metadata headers,
+                                                                   ServerCallHandler<ReqT, RespT> next,
+                                                                   AdmissionControllerRequest request,
+                                                                   AdmissionControllerResponse result) {
+        long startTimeNs = System.nanoTime();
+        AtomicBoolean completed = new AtomicBoolean();
+
+        ServerCall<ReqT, RespT> trackedCall = new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (completed.compareAndSet(false, true)) {
+                    onCompleted(request, result, startTimeNs, isOverloaded(status));
+                }
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(trackedCall, headers);
+        } catch (RuntimeException e) {
+            if (completed.compareAndSet(false, true)) {
+                onCompleted(request, result, startTimeNs, false);
+            }
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(listener) {
+            @Override
+            public void onCancel() {
+                if (completed.compareAndSet(false, true)) {
+                    onCompleted(request, result, startTimeNs, false);
+                }
+                super.onCancel();
+            }
+        };
+    }
+
+    private void onCompleted(AdmissionControllerRequest request, AdmissionControllerResponse result, long startTimeNs, boolean overloaded) {
+        try {
+            admissionController.onCompleted(request, result, System.nanoTime() - startTimeNs, overloaded);
+        } catch (Exception e) {
+            logger.warn("Admission controller error: {}", e.getMessage());
+            logger.debug("Stack trace", e);
+        }
+    }
+
+    private static boolean isOverloaded(Status status) {
+        Status.Code code = status.getCode();
+        return code == Status.Code.RESOURCE_EXHAUSTED || code == Status.Code.DEADLINE_EXCEEDED;
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.loadshedding.servlet;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.titus.common.util.loadshedding.AdmissionController;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerRequest;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * REST counterpart of {@link com.netflix.titus.common.util.loadshedding.grpc.GrpcAdmissionControllerServerInterceptor}.
+ * Rejected requests are completed with the HTTP status code 429 (too many requests).
+ */
+public class AdmissionControllerServletFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControllerServletFilter.class);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Number of leading path segments included in the endpoint name. Deeper segments usually hold resource ids
+     * (for example /api/v3/jobs/{jobId}), which must not create separate endpoints.
+     */
+    private static final int ENDPOINT_PATH_SEGMENTS = 3;
+
+    private final AdmissionController admissionController;
+    private final Supplier<String> callerIdResolver;
+
+    public AdmissionControllerServletFilter(AdmissionController admissionController,
+                                            Supplier<String> callerIdResolver) {
+        this.admissionController = admissionController;
+        this.callerIdResolver = callerIdResolver;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain) throws IOException, ServletException {
+        if (!(servletRequest instanceof HttpServletRequest)) {
+            chain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+        HttpServletRequest httpRequest = (HttpServletRequest) servletRequest;
+        HttpServletResponse httpResponse = (HttpServletResponse) servletResponse;
+
+        AdmissionControllerRequest request;
+        AdmissionControllerResponse result;
+        try {
+            request = AdmissionControllerRequest.newBuilder()
+                    .withCallerId(callerIdResolver.get())
+                    .withEndpointName(toEndpointName(httpRequest))
+                    .build();
+            result = admissionController.apply(request);
+        } catch (Exception e) {
+            logger.warn("Admission controller error: {}", e.getMessage());
+            logger.debug("Stack trace", e);
+
+            chain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        if (!result.isAllowed()) {
+            httpResponse.sendError(TOO_MANY_REQUESTS, result.getReasonMessage());
+            return;
+        }
+
+        long startTimeNs = System.nanoTime();
+        try {
+            chain.doFilter(servletRequest, servletResponse);
+        } finally {
+            int status = httpResponse.getStatus();
+            boolean overloaded = status == TOO_MANY_REQUESTS
+                    || status == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+                    || status == HttpServletResponse.SC_GATEWAY_TIMEOUT;
+            try {
+                admissionController.onCompleted(request, result, System.nanoTime() - startTimeNs, overloaded);
+            } catch (Exception e) {
+                logger.warn("Admission controller error: {}", e.getMessage());
+                logger.debug("Stack trace", e);
+            }
+        }
+    }
+
+    static String toEndpointName(HttpServletRequest httpRequest) {
+        String path = httpRequest.getRequestURI();
+        if (path == null) {
+            return httpRequest.getMethod();
+        }
+        int end = 0;
+        for (int segment = 0; segment < ENDPOINT_PATH_SEGMENTS && end >= 0; segment++) {
+            end = path.indexOf('/', end + 1);
+        }
+        return httpRequest.getMethod() + ' ' + (end < 0 ? path : path.substring(0, end));
+    }
+}
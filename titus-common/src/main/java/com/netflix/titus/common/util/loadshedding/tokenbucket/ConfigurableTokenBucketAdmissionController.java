@@ -104,6 +104,11 @@ public class ConfigurableTokenBucketAdmissionController implements AdmissionCont
         return delegate.apply(request);
     }
 
+    @Override
+    public void onCompleted(AdmissionControllerRequest request, AdmissionControllerResponse response, long elapsedNs, boolean overloaded) {
+        delegate.onCompleted(request, response, elapsedNs, overloaded);
+    }
+
     private void reload(ExecutionContext context) {
         List<TokenBucketConfiguration> current = configurationSupplier.get();
         if (!current.equals(activeConfiguration)) {
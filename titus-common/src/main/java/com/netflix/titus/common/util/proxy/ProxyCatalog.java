@@ -53,10 +53,26 @@ public final class ProxyCatalog {
                                                                        INSTANCE instance,
                                                                        TitusRuntime titusRuntime,
                                                                        boolean followObservableResults) {
+        return createSpectatorProxy(instanceName, apiInterface, instance, titusRuntime, followObservableResults, 1);
+    }
+
+    /**
+     * A variant of {@link #createSpectatorProxy(String, Class, Object, TitusRuntime, boolean)}, which updates the
+     * emitted items counter of observable results once per the given number of items, instead of on each item.
+     */
+    public static <API, INSTANCE extends API> API createSpectatorProxy(String instanceName,
+                                                                       Class<API> apiInterface,
+                                                                       INSTANCE instance,
+                                                                       TitusRuntime titusRuntime,
+                                                                       boolean followObservableResults,
+                                                                       int emitSamplingInterval) {
         return (API) Proxy.newProxyInstance(
                 apiInterface.getClassLoader(),
                 new Class<?>[]{apiInterface},
-                new InvocationHandlerBridge<>(new SpectatorInvocationHandler<>(instanceName, apiInterface, titusRuntime, followObservableResults), instance)
+                new InvocationHandlerBridge<>(
+                        new SpectatorInvocationHandler<>(instanceName, apiInterface, titusRuntime, followObservableResults, emitSamplingInterval),
+                        instance
+                )
         );
     }
 
@@ -19,6 +19,8 @@ package com.netflix.titus.common.util.proxy.internal;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.netflix.titus.common.util.ReflectionExt;
 import com.netflix.titus.common.util.proxy.ProxyInvocationChain;
@@ -40,6 +42,11 @@ abstract class InterceptingInvocationHandler<API, NATIVE, CONTEXT> extends Abstr
     private final Set<Method> completableResultFollowers;
     private final Set<Method> monoResultFollowers;
 
+    /**
+     * Invoked method to its API interface method mapping, so the reflection lookup is done once per method.
+     */
+    private final ConcurrentMap<Method, Method> effectiveMethods = new ConcurrentHashMap<>();
+
     InterceptingInvocationHandler(Class<API> apiInterface, boolean followObservableResults) {
         super(apiInterface);
 
@@ -52,7 +59,10 @@ abstract class InterceptingInvocationHandler<API, NATIVE, CONTEXT> extends Abstr
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args, NATIVE nativeHandler, ProxyInvocationChain chain) throws Throwable {
-        Method effectiveMethod = ReflectionExt.findInterfaceMethod(method).orElse(method);
+        Method effectiveMethod = effectiveMethods.get(method);
+        if (effectiveMethod == null) {
+            effectiveMethod = effectiveMethods.computeIfAbsent(method, m -> ReflectionExt.findInterfaceMethod(m).orElse(m));
+        }
         if (!getIncludedMethods().contains(effectiveMethod)) {
             return chain.invoke(proxy, method, args, nativeHandler);
         }
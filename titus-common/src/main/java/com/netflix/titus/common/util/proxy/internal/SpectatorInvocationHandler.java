@@ -19,14 +19,21 @@ package com.netflix.titus.common.util.proxy.internal;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.google.common.base.Preconditions;
 import com.netflix.spectator.api.BasicTag;
-import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Tag;
+import com.netflix.spectator.api.Timer;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.time.Clock;
 import reactor.core.Disposable;
@@ -39,7 +46,8 @@ import rx.Subscription;
 import static java.util.Arrays.asList;
 
 /**
- * Method invocation metrics collector.
+ * Method invocation metrics collector. All meters that do not depend on the invocation outcome are resolved once
+ * per method when the handler is created, so the successful invocation path does not allocate or look up metric ids.
  */
 public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocationHandler<API, NATIVE, Long> {
 
@@ -58,17 +66,39 @@ public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocat
 
     private final Registry registry;
     private final Clock clock;
+    private final int emitSamplingInterval;
 
     private final List<Tag> commonTags;
 
+    private final Map<Method, MethodMetrics> metricsByMethod;
+    private final ConcurrentMap<Method, MethodMetrics> otherMethodMetrics = new ConcurrentHashMap<>();
+
     public SpectatorInvocationHandler(String instanceName, Class<API> apiInterface, TitusRuntime titusRuntime, boolean followObservableResults) {
+        this(instanceName, apiInterface, titusRuntime, followObservableResults, 1);
+    }
+
+    /**
+     * @param emitSamplingInterval if greater than one, the emitted items counter of a subscription is updated once per the
+     *                             given number of items (and on subscription termination), instead of on each item
+     */
+    public SpectatorInvocationHandler(String instanceName,
+                                      Class<API> apiInterface,
+                                      TitusRuntime titusRuntime,
+                                      boolean followObservableResults,
+                                      int emitSamplingInterval) {
         super(apiInterface, followObservableResults);
+        Preconditions.checkArgument(emitSamplingInterval > 0, "Emit sampling interval must be > 0: %s", emitSamplingInterval);
         this.registry = titusRuntime.getRegistry();
         this.clock = titusRuntime.getClock();
+        this.emitSamplingInterval = emitSamplingInterval;
         this.commonTags = asList(
                 new BasicTag("instance", instanceName),
                 new BasicTag("class", apiInterface.getName())
         );
+
+        Map<Method, MethodMetrics> metricsByMethod = new HashMap<>();
+        getIncludedMethods().forEach(method -> metricsByMethod.put(method, new MethodMetrics(method)));
+        this.metricsByMethod = metricsByMethod;
     }
 
     @Override
@@ -78,23 +108,19 @@ public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocat
 
     @Override
     protected void after(Method method, Object result, Long startTime) {
-        registry.counter(
-                INVOCATION_COUNTER_METRIC_NAME,
-                tags(
-                        "method", method.getName(),
-                        "status", "success"
-                )
-        ).increment();
+        MethodMetrics metrics = metricsOf(method);
+        metrics.successCounter.increment();
 
-        reportExecutionTime(method, startTime, TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_METHOD_EXIT);
+        recordExecutionTime(metrics.successOnMethodExitTimer, startTime);
 
         if (!isAsynchronous(result)) {
-            reportExecutionTime(method, startTime, TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_COMPLETED);
+            recordExecutionTime(metrics.successOnCompletedTimer, startTime);
         }
     }
 
     @Override
     protected void afterException(Method method, Throwable error, Long startTime) {
+        MethodMetrics metrics = metricsOf(method);
         registry.counter(
                 INVOCATION_COUNTER_METRIC_NAME,
                 tags(
@@ -104,63 +130,40 @@ public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocat
                 )
         ).increment();
 
-        reportExecutionTime(method, startTime, TAG_STATUS_ERROR, TAG_CALL_STAGE_ON_METHOD_EXIT);
+        recordExecutionTime(metrics.errorOnMethodExitTimer, startTime);
     }
 
     @Override
     protected Observable<Object> afterObservable(Method method, Observable<Object> result, Long startTime) {
+        MethodMetrics metrics = metricsOf(method);
         long methodExitTime = clock.wallTime();
 
         return Observable.unsafeCreate(subscriber -> {
             long subscriptionTime = clock.wallTime();
 
-            registry.counter(
-                    RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                    tags(
-                            "method", method.getName(),
-                            "subscriptionStage", "subscribed"
-                    )
-            ).increment();
-            reportSubscriptionExecutionTime(method, methodExitTime, subscriptionTime);
+            metrics.subscribedCounter.increment();
+            metrics.subscriptionTimer.record(subscriptionTime - methodExitTime, TimeUnit.MILLISECONDS);
 
+            EmitCounter emitCounter = new EmitCounter(metrics.emitsCounter);
             Subscription subscription = result.doOnUnsubscribe(() -> {
-                registry.counter(
-                        RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                        tags(
-                                "method", method.getName(),
-                                "subscriptionStage", "unsubscribed"
-                        )
-                ).increment();
+                emitCounter.flush();
+                metrics.unsubscribedCounter.increment();
             }).subscribe(
                     next -> {
-                        registry.counter(
-                                RESULT_SUBSCRIPTION_EMITS_METRIC_NAME,
-                                tags("method", method.getName())
-                        ).increment();
+                        emitCounter.increment();
                         subscriber.onNext(next);
                     },
                     error -> {
-                        registry.counter(
-                                RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                tags(
-                                        "method", method.getName(),
-                                        "subscriptionStage", "onError",
-                                        "exception", getExceptionName(error)
-                                )
-                        ).increment();
-                        reportExecutionTime(method, subscriptionTime, TAG_STATUS_ERROR, TAG_CALL_STAGE_ON_COMPLETED);
+                        emitCounter.flush();
+                        metrics.subscriptionErrorCounter(error).increment();
+                        recordExecutionTime(metrics.errorOnCompletedTimer, subscriptionTime);
 
                         subscriber.onError(error);
                     },
                     () -> {
-                        registry.counter(
-                                RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                tags(
-                                        "method", method.getName(),
-                                        "subscriptionStage", "onCompleted"
-                                )
-                        ).increment();
-                        reportExecutionTime(method, subscriptionTime, TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_COMPLETED);
+                        emitCounter.flush();
+                        metrics.onCompletedCounter.increment();
+                        recordExecutionTime(metrics.successOnCompletedTimer, subscriptionTime);
 
                         subscriber.onCompleted();
                     }
@@ -172,58 +175,35 @@ public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocat
 
     @Override
     protected Flux<Object> afterFlux(Method method, Flux<Object> result, Long startTime) {
+        MethodMetrics metrics = metricsOf(method);
         long methodExitTime = clock.wallTime();
 
         return Flux.create(emitter -> {
             long subscriptionTime = clock.wallTime();
 
-            registry.counter(
-                    RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                    tags(
-                            "method", method.getName(),
-                            "subscriptionStage", "subscribed"
-                    )
-            ).increment();
-            reportSubscriptionExecutionTime(method, methodExitTime, subscriptionTime);
+            metrics.subscribedCounter.increment();
+            metrics.subscriptionTimer.record(subscriptionTime - methodExitTime, TimeUnit.MILLISECONDS);
 
+            EmitCounter emitCounter = new EmitCounter(metrics.emitsCounter);
             Disposable subscription = result.doOnCancel(() -> {
-                registry.counter(
-                        RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                        tags(
-                                "method", method.getName(),
-                                "subscriptionStage", "unsubscribed"
-                        )
-                ).increment();
+                emitCounter.flush();
+                metrics.unsubscribedCounter.increment();
             }).subscribe(
                     next -> {
-                        registry.counter(
-                                RESULT_SUBSCRIPTION_EMITS_METRIC_NAME,
-                                tags("method", method.getName())
-                        ).increment();
+                        emitCounter.increment();
                         emitter.next(next);
                     },
                     error -> {
-                        registry.counter(
-                                RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                tags(
-                                        "method", method.getName(),
-                                        "subscriptionStage", "onError",
-                                        "exception", getExceptionName(error)
-                                )
-                        ).increment();
-                        reportExecutionTime(method, subscriptionTime, TAG_STATUS_ERROR, TAG_CALL_STAGE_ON_COMPLETED);
+                        emitCounter.flush();
+                        metrics.subscriptionErrorCounter(error).increment();
+                        recordExecutionTime(metrics.errorOnCompletedTimer, subscriptionTime);
 
                         emitter.error(error);
                     },
                     () -> {
-                        registry.counter(
-                                RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                tags(
-                                        "method", method.getName(),
-                                        "subscriptionStage", "onCompleted"
-                                )
-                        ).increment();
-                        reportExecutionTime(method, subscriptionTime, TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_COMPLETED);
+                        emitCounter.flush();
+                        metrics.onCompletedCounter.increment();
+                        recordExecutionTime(metrics.successOnCompletedTimer, subscriptionTime);
 
                         emitter.complete();
                     }
@@ -235,52 +215,27 @@ public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocat
 
     @Override
     protected Completable afterCompletable(Method method, Completable result, Long aLong) {
+        MethodMetrics metrics = metricsOf(method);
         long methodExitTime = clock.wallTime();
 
         return Completable.create(subscriber -> {
             long subscriptionTime = clock.wallTime();
 
-            registry.counter(
-                    RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                    tags(
-                            "method", method.getName(),
-                            "subscriptionStage", "subscribed"
-                    )
-            ).increment();
-            reportSubscriptionExecutionTime(method, methodExitTime, subscriptionTime);
+            metrics.subscribedCounter.increment();
+            metrics.subscriptionTimer.record(subscriptionTime - methodExitTime, TimeUnit.MILLISECONDS);
 
             Subscription subscription = result
-                    .doOnUnsubscribe(() -> {
-                        registry.counter(
-                                RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                tags(
-                                        "method", method.getName(),
-                                        "subscriptionStage", "unsubscribed"
-                                )
-                        ).increment();
-                    }).subscribe(
+                    .doOnUnsubscribe(metrics.unsubscribedCounter::increment)
+                    .subscribe(
                             () -> {
-                                registry.counter(
-                                        RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                        tags(
-                                                "method", method.getName(),
-                                                "subscriptionStage", "onCompleted"
-                                        )
-                                ).increment();
-                                reportExecutionTime(method, subscriptionTime, TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_COMPLETED);
+                                metrics.onCompletedCounter.increment();
+                                recordExecutionTime(metrics.successOnCompletedTimer, subscriptionTime);
 
                                 subscriber.onCompleted();
                             },
                             error -> {
-                                registry.counter(
-                                        RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                        tags(
-                                                "method", method.getName(),
-                                                "subscriptionStage", "onError",
-                                                "exception", getExceptionName(error)
-                                        )
-                                ).increment();
-                                reportExecutionTime(method, subscriptionTime, TAG_STATUS_ERROR, TAG_CALL_STAGE_ON_COMPLETED);
+                                metrics.subscriptionErrorCounter(error).increment();
+                                recordExecutionTime(metrics.errorOnCompletedTimer, subscriptionTime);
 
                                 subscriber.onError(error);
                             }
@@ -292,69 +247,36 @@ public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocat
 
     @Override
     protected Mono<Object> afterMono(Method method, Mono<Object> result, Long aLong) {
+        MethodMetrics metrics = metricsOf(method);
         long methodExitTime = clock.wallTime();
 
         return Mono.create(sink -> {
             long subscriptionTime = clock.wallTime();
 
-            registry.counter(
-                    RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                    tags(
-                            "method", method.getName(),
-                            "subscriptionStage", "subscribed"
-                    )
-            ).increment();
-            reportSubscriptionExecutionTime(method, methodExitTime, subscriptionTime);
+            metrics.subscribedCounter.increment();
+            metrics.subscriptionTimer.record(subscriptionTime - methodExitTime, TimeUnit.MILLISECONDS);
 
             AtomicBoolean emittedValue = new AtomicBoolean();
             Disposable subscription = result
-                    .doOnCancel(() -> {
-                        registry.counter(
-                                RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                tags(
-                                        "method", method.getName(),
-                                        "subscriptionStage", "unsubscribed"
-                                )
-                        ).increment();
-                    }).subscribe(
+                    .doOnCancel(metrics.unsubscribedCounter::increment)
+                    .subscribe(
                             next -> {
                                 emittedValue.set(true);
-                                registry.counter(
-                                        RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                        tags(
-                                                "method", method.getName(),
-                                                "subscriptionStage", "onSuccess",
-                                                "monoWithValue", "true"
-                                        )
-                                ).increment();
-                                reportExecutionTime(method, subscriptionTime, TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_MONO_SUCCESS);
+                                metrics.monoWithValueCounter.increment();
+                                recordExecutionTime(metrics.successOnMonoSuccessTimer, subscriptionTime);
 
                                 sink.success(next);
                             },
                             error -> {
-                                registry.counter(
-                                        RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                        tags(
-                                                "method", method.getName(),
-                                                "subscriptionStage", "onError",
-                                                "exception", getExceptionName(error)
-                                        )
-                                ).increment();
-                                reportExecutionTime(method, subscriptionTime, TAG_STATUS_ERROR, TAG_CALL_STAGE_ON_MONO_SUCCESS);
+                                metrics.subscriptionErrorCounter(error).increment();
+                                recordExecutionTime(metrics.errorOnMonoSuccessTimer, subscriptionTime);
 
                                 sink.error(error);
                             },
                             () -> {
                                 if (!emittedValue.get()) {
-                                    registry.counter(
-                                            RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
-                                            tags(
-                                                    "method", method.getName(),
-                                                    "subscriptionStage", "onSuccess",
-                                                    "monoWithValue", "false"
-                                            )
-                                    ).increment();
-                                    reportExecutionTime(method, subscriptionTime, TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_MONO_SUCCESS);
+                                    metrics.monoWithoutValueCounter.increment();
+                                    recordExecutionTime(metrics.successOnMonoSuccessTimer, subscriptionTime);
 
                                     sink.success();
                                 }
@@ -365,18 +287,16 @@ public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocat
         });
     }
 
-    private void reportExecutionTime(Method method, Long startTime, Tag... tags) {
-        Id id = registry.createId(INVOCATION_TIME_METRIC_NAME,
-                tags("method", method.getName())
-        ).withTags(tags);
-        registry.timer(id).record(clock.wallTime() - startTime, TimeUnit.MILLISECONDS);
+    private MethodMetrics metricsOf(Method method) {
+        MethodMetrics metrics = metricsByMethod.get(method);
+        if (metrics != null) {
+            return metrics;
+        }
+        return otherMethodMetrics.computeIfAbsent(method, MethodMetrics::new);
     }
 
-    private void reportSubscriptionExecutionTime(Method method, Long startTime, long endTime) {
-        registry.timer(
-                RESULT_SUBSCRIPTION_TIME_METRIC_NAME,
-                tags("method", method.getName())
-        ).record(endTime - startTime, TimeUnit.MILLISECONDS);
+    private void recordExecutionTime(Timer timer, long startTime) {
+        timer.record(clock.wallTime() - startTime, TimeUnit.MILLISECONDS);
     }
 
     private boolean isAsynchronous(Object result) {
@@ -397,4 +317,96 @@ public class SpectatorInvocationHandler<API, NATIVE> extends InterceptingInvocat
         }
         return result;
     }
+
+    private class MethodMetrics {
+
+        private final String methodName;
+
+        private final Counter successCounter;
+
+        private final Timer successOnMethodExitTimer;
+        private final Timer successOnCompletedTimer;
+        private final Timer successOnMonoSuccessTimer;
+        private final Timer errorOnMethodExitTimer;
+        private final Timer errorOnCompletedTimer;
+        private final Timer errorOnMonoSuccessTimer;
+
+        private final Timer subscriptionTimer;
+        private final Counter subscribedCounter;
+        private final Counter unsubscribedCounter;
+        private final Counter onCompletedCounter;
+        private final Counter monoWithValueCounter;
+        private final Counter monoWithoutValueCounter;
+        private final Counter emitsCounter;
+
+        private MethodMetrics(Method method) {
+            this.methodName = method.getName();
+
+            this.successCounter = registry.counter(INVOCATION_COUNTER_METRIC_NAME, tags("method", methodName, "status", "success"));
+
+            this.successOnMethodExitTimer = executionTimer(TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_METHOD_EXIT);
+            this.successOnCompletedTimer = executionTimer(TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_COMPLETED);
+            this.successOnMonoSuccessTimer = executionTimer(TAG_STATUS_SUCCESS, TAG_CALL_STAGE_ON_MONO_SUCCESS);
+            this.errorOnMethodExitTimer = executionTimer(TAG_STATUS_ERROR, TAG_CALL_STAGE_ON_METHOD_EXIT);
+            this.errorOnCompletedTimer = executionTimer(TAG_STATUS_ERROR, TAG_CALL_STAGE_ON_COMPLETED);
+            this.errorOnMonoSuccessTimer = executionTimer(TAG_STATUS_ERROR, TAG_CALL_STAGE_ON_MONO_SUCCESS);
+
+            this.subscriptionTimer = registry.timer(RESULT_SUBSCRIPTION_TIME_METRIC_NAME, tags("method", methodName));
+            this.subscribedCounter = subscriptionCounter("subscribed");
+            this.unsubscribedCounter = subscriptionCounter("unsubscribed");
+            this.onCompletedCounter = subscriptionCounter("onCompleted");
+            this.monoWithValueCounter = registry.counter(
+                    RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
+                    tags("method", methodName, "subscriptionStage", "onSuccess", "monoWithValue", "true")
+            );
+            this.monoWithoutValueCounter = registry.counter(
+                    RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
+                    tags("method", methodName, "subscriptionStage", "onSuccess", "monoWithValue", "false")
+            );
+            this.emitsCounter = registry.counter(RESULT_SUBSCRIPTION_EMITS_METRIC_NAME, tags("method", methodName));
+        }
+
+        private Counter subscriptionErrorCounter(Throwable error) {
+            return registry.counter(
+                    RESULT_SUBSCRIPTION_COUNT_METRIC_NAME,
+                    tags("method", methodName, "subscriptionStage", "onError", "exception", getExceptionName(error))
+            );
+        }
+
+        private Timer executionTimer(Tag... tags) {
+            return registry.timer(registry.createId(INVOCATION_TIME_METRIC_NAME, tags("method", methodName)).withTags(tags));
+        }
+
+        private Counter subscriptionCounter(String subscriptionStage) {
+            return registry.counter(RESULT_SUBSCRIPTION_COUNT_METRIC_NAME, tags("method", methodName, "subscriptionStage", subscriptionStage));
+        }
+    }
+
+    /**
+     * Per subscription emitted items counter, which updates the shared meter every {@link #emitSamplingInterval} items.
+     */
+    private class EmitCounter {
+
+        private final Counter counter;
+        private final AtomicLong pending = new AtomicLong();
+
+        private EmitCounter(Counter counter) {
+            this.counter = counter;
+        }
+
+        private void increment() {
+            if (emitSamplingInterval == 1) {
+                counter.increment();
+            } else if (pending.incrementAndGet() >= emitSamplingInterval) {
+                counter.increment(pending.getAndSet(0));
+            }
+        }
+
+        private void flush() {
+            long count = pending.getAndSet(0);
+            if (count > 0) {
+                counter.increment(count);
+            }
+        }
+    }
 }
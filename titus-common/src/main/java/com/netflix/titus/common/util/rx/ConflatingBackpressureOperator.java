@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.common.util.rx;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.DistributionSummary;
+import com.netflix.spectator.api.Registry;
+import rx.Observable;
+import rx.Subscriber;
+import rx.internal.operators.BackpressureUtils;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * See {@link ObservableExt#onBackpressureConflate(Function, Predicate, String, Registry)}.
+ */
+class ConflatingBackpressureOperator<T> implements Observable.Operator<T, T> {
+
+    private final Function<T, Object> keyExtractor;
+    private final Predicate<T> pinnedPredicate;
+
+    private final Counter receivedCounter;
+    private final Counter emittedCounter;
+    private final DistributionSummary conflationRatio;
+
+    ConflatingBackpressureOperator(Function<T, Object> keyExtractor,
+                                   Predicate<T> pinnedPredicate,
+                                   String metricNameRoot,
+                                   Registry registry) {
+        this.keyExtractor = keyExtractor;
+        this.pinnedPredicate = pinnedPredicate;
+        this.receivedCounter = registry.counter(metricNameRoot + ".received");
+        this.emittedCounter = registry.counter(metricNameRoot + ".emitted");
+        this.conflationRatio = registry.distributionSummary(metricNameRoot + ".conflationRatio");
+    }
+
+    @Override
+    public Subscriber<? super T> call(Subscriber<? super T> child) {
+        ConflatingSubscriber parent = new ConflatingSubscriber(child);
+        child.add(parent);
+        child.add(Subscriptions.create(parent::recordStatistics));
+        child.setProducer(parent::requestMore);
+        return parent;
+    }
+
+    /**
+     * A pending value. A slot that is not pinned is replaced in place, so it keeps its original position in the queue.
+     */
+    private static class Slot<T> {
+
+        private final Object key;
+        private T value;
+        private boolean pinned;
+
+        private Slot(Object key, T value, boolean pinned) {
+            this.key = key;
+            this.value = value;
+            this.pinned = pinned;
+        }
+    }
+
+    private class ConflatingSubscriber extends Subscriber<T> {
+
+        private final Subscriber<? super T> child;
+
+        private final Deque<Slot<T>> queue = new ArrayDeque<>();
+        private final Map<Object, Slot<T>> pendingByKey = new HashMap<>();
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean statisticsRecorded = new AtomicBoolean();
+
+        private volatile boolean done;
+        private volatile Throwable error;
+
+        private long receivedCount;
+        private long emittedCount;
+
+        private ConflatingSubscriber(Subscriber<? super T> child) {
+            this.child = child;
+        }
+
+        @Override
+        public void onStart() {
+            request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(T value) {
+            Object key = keyExtractor.apply(value);
+            boolean pinned = pinnedPredicate.test(value);
+            synchronized (queue) {
+                receivedCount++;
+                Slot<T> slot = key == null ? null : pendingByKey.get(key);
+                if (slot != null && !slot.pinned) {
+                    slot.value = value;
+                    slot.pinned = pinned;
+                } else {
+                    slot = new Slot<>(key, value, pinned);
+                    queue.add(slot);
+                    if (key != null) {
+                        pendingByKey.put(key, slot);
+                    }
+                }
+            }
+            receivedCounter.increment();
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onCompleted() {
+            done = true;
+            drain();
+        }
+
+        private void requestMore(long n) {
+            if (n > 0) {
+                BackpressureUtils.getAndAddRequest(requested, n);
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long r = requested.get();
+                long e = 0;
+                while (e != r) {
+                    if (child.isUnsubscribed()) {
+                        return;
+                    }
+                    boolean terminated = done;
+                    T value = poll();
+                    if (value == null) {
+                        if (terminated) {
+                            terminate();
+                            return;
+                        }
+                        break;
+                    }
+                    child.onNext(value);
+                    emittedCounter.increment();
+                    e++;
+                }
+                if (e == r && done && isEmpty()) {
+                    terminate();
+                    return;
+                }
+                if (e != 0) {
+                    BackpressureUtils.produced(requested, e);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private T poll() {
+            synchronized (queue) {
+                Slot<T> slot = queue.poll();
+                if (slot == null) {
+                    return null;
+                }
+                if (slot.key != null && pendingByKey.get(slot.key) == slot) {
+                    pendingByKey.remove(slot.key);
+                }
+                emittedCount++;
+                return slot.value;
+            }
+        }
+
+        private boolean isEmpty() {
+            synchronized (queue) {
+                return queue.isEmpty();
+            }
+        }
+
+        private void terminate() {
+            if (child.isUnsubscribed()) {
+                return;
+            }
+            if (error != null) {
+                child.onError(error);
+            } else {
+                child.onCompleted();
+            }
+        }
+
+        private void recordStatistics() {
+            if (!statisticsRecorded.compareAndSet(false, true)) {
+                return;
+            }
+            long received;
+            long emitted;
+            synchronized (queue) {
+                received = receivedCount;
+                emitted = emittedCount + queue.size();
+            }
+            if (received > 0) {
+                // Percentage of received values, that were replaced by a later version of the same entity.
+                conflationRatio.record(100 * (received - emitted) / received);
+            }
+        }
+    }
+}
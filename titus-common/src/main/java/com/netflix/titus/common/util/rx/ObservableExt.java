@@ -27,6 +27,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.netflix.spectator.api.Registry;
@@ -308,6 +309,21 @@ public class ObservableExt {
         });
     }
 
+    /**
+     * Adds a backpressure handler to an observable stream, which keeps only the latest pending value for each key
+     * returned by the key extractor. A pending value keeps its original position in the queue when it is replaced, so
+     * the values are emitted in the order in which their keys were first buffered. Pinned values (for example entities
+     * in a terminal state) are never replaced. Values with a null key are always buffered. The buffer size is thus bounded
+     * by the number of distinct keys, rather than the rate of updates.
+     */
+    public static <T> Observable.Transformer<T, T> onBackpressureConflate(Function<T, Object> keyExtractor,
+                                                                          Predicate<T> pinnedPredicate,
+                                                                          String metricNameRoot,
+                                                                          Registry registry) {
+        ConflatingBackpressureOperator<T> operator = new ConflatingBackpressureOperator<>(keyExtractor, pinnedPredicate, metricNameRoot, registry);
+        return observable -> observable.lift(operator);
+    }
+
     /**
      * Unsubscribe, ignoring null subscription values.
      */
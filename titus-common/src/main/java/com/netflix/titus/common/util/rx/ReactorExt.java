@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -183,6 +184,20 @@ public final class ReactorExt {
         return new ReactorMapWithStateTransformer<>(() -> zero, transformer, cleanupActions);
     }
 
+    /**
+     * Equivalent to {@link Flux#flatMap(Function, int)}, except that items with the same key are processed strictly
+     * sequentially (the mapper for the next item is called only after the publisher of the previous one completes),
+     * while items with different keys are processed in parallel, up to the given concurrency limit. If the coalescer
+     * is not null, items queued for a key that is busy are merged into a single one, so a slow key does not
+     * accumulate a backlog of intermediate states.
+     */
+    public static <T, K, R> Function<Flux<T>, Publisher<R>> flatMapKeyedSerial(Function<T, K> keyExtractor,
+                                                                              BinaryOperator<T> coalescer,
+                                                                              Function<T, Publisher<R>> mapper,
+                                                                              int concurrency) {
+        return new ReactorKeyedSerialTransformer<>(keyExtractor, coalescer, mapper, concurrency);
+    }
+
     /**
      * Merge a map of {@link Mono}s, and return the combined result as a map. If a mono with a given key succeeded, the
      * returned map will contain value {@link Optional#empty()} for that key. Otherwise it will contain an error entry.
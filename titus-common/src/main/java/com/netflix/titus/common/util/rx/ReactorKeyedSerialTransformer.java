@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.common.util.rx;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import com.google.common.base.Preconditions;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * See {@link ReactorExt#flatMapKeyedSerial(Function, BinaryOperator, Function, int)}.
+ */
+class ReactorKeyedSerialTransformer<T, K, R> implements Function<Flux<T>, Publisher<R>> {
+
+    private final Function<T, K> keyExtractor;
+    private final BinaryOperator<T> coalescer;
+    private final Function<T, Publisher<R>> mapper;
+    private final int concurrency;
+
+    ReactorKeyedSerialTransformer(Function<T, K> keyExtractor,
+                                  BinaryOperator<T> coalescer,
+                                  Function<T, Publisher<R>> mapper,
+                                  int concurrency) {
+        Preconditions.checkArgument(concurrency > 0, "Concurrency limit must be > 0: %s", concurrency);
+        this.keyExtractor = keyExtractor;
+        this.coalescer = coalescer;
+        this.mapper = mapper;
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public Publisher<R> apply(Flux<T> source) {
+        return Flux.create(sink -> {
+            Processor processor = new Processor(sink);
+            sink.onDispose(processor.subscriptions);
+            processor.subscriptions.add(source.subscribe(processor::onSourceNext, processor::onError, processor::onSourceComplete));
+        });
+    }
+
+    private static class KeyState<T> {
+
+        private final Queue<T> queue = new ArrayDeque<>();
+        private boolean active;
+    }
+
+    private class Processor {
+
+        private final FluxSink<R> sink;
+        private final Disposable.Composite subscriptions = Disposables.composite();
+
+        private final Map<K, KeyState<T>> keyStates = new HashMap<>();
+        private final Queue<K> readyKeys = new ArrayDeque<>();
+        private int activeCount;
+        private boolean sourceCompleted;
+        private boolean terminated;
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Processor(FluxSink<R> sink) {
+            this.sink = sink;
+        }
+
+        private void onSourceNext(T value) {
+            K key = keyExtractor.apply(value);
+            synchronized (this) {
+                KeyState<T> keyState = keyStates.computeIfAbsent(key, k -> new KeyState<>());
+                Queue<T> queue = keyState.queue;
+                if (coalescer != null && !queue.isEmpty()) {
+                    // There is at most one queued item per key if coalescing is enabled.
+                    queue.add(coalescer.apply(queue.poll(), value));
+                } else {
+                    queue.add(value);
+                    if (!keyState.active && queue.size() == 1) {
+                        readyKeys.add(key);
+                    }
+                }
+            }
+            drain();
+        }
+
+        private void onSourceComplete() {
+            synchronized (this) {
+                sourceCompleted = true;
+            }
+            drain();
+        }
+
+        private void onError(Throwable error) {
+            synchronized (this) {
+                if (terminated) {
+                    return;
+                }
+                terminated = true;
+            }
+            subscriptions.dispose();
+            sink.error(error);
+        }
+
+        private void onInnerComplete(K key) {
+            synchronized (this) {
+                activeCount--;
+                KeyState<T> keyState = keyStates.get(key);
+                keyState.active = false;
+                if (keyState.queue.isEmpty()) {
+                    keyStates.remove(key);
+                } else {
+                    readyKeys.add(key);
+                }
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                boolean completed = false;
+                while (true) {
+                    K key;
+                    T value;
+                    synchronized (this) {
+                        if (terminated) {
+                            return;
+                        }
+                        if (activeCount == 0 && readyKeys.isEmpty() && sourceCompleted) {
+                            terminated = true;
+                            completed = true;
+                            break;
+                        }
+                        if (activeCount >= concurrency || readyKeys.isEmpty()) {
+                            break;
+                        }
+                        key = readyKeys.poll();
+                        KeyState<T> keyState = keyStates.get(key);
+                        value = keyState.queue.poll();
+                        keyState.active = true;
+                        activeCount++;
+                    }
+                    subscribeInner(key, value);
+                }
+                if (completed) {
+                    sink.complete();
+                    return;
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private void subscribeInner(K key, T value) {
+            Publisher<R> inner;
+            try {
+                inner = mapper.apply(value);
+            } catch (Throwable e) {
+                onError(e);
+                return;
+            }
+
+            AtomicBoolean done = new AtomicBoolean();
+            Disposable[] innerSubscription = new Disposable[1];
+            innerSubscription[0] = Flux.from(inner).subscribe(
+                    sink::next,
+                    this::onError,
+                    () -> {
+                        done.set(true);
+                        if (innerSubscription[0] != null) {
+                            subscriptions.remove(innerSubscription[0]);
+                        }
+                        onInnerComplete(key);
+                    }
+            );
+            if (!done.get()) {
+                subscriptions.add(innerSubscription[0]);
+                if (done.get()) {
+                    subscriptions.remove(innerSubscription[0]);
+                }
+            }
+        }
+    }
+}
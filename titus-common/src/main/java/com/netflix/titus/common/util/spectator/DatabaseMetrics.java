@@ -36,6 +36,7 @@ public class DatabaseMetrics {
     private static final String ROOT_NAME = ".jooq.";
     private static final String OPERATION_LATENCY = "latency";
     private static final String OPERATION_ERROR = "error";
+    private static final String BATCH_SIZE = "batchSize";
 
     private static final String RECORD_OP_TAG = "operation";
     private static final String RECORD_COUNT_TAG = "count";
@@ -44,9 +45,11 @@ public class DatabaseMetrics {
 
     private final Id operationLatency;
     private final Id errorCounter;
+    private final Id batchSize;
 
     private enum Operations {
         INSERT,
+        BATCH_INSERT,
         SELECT,
         SCAN,
         DELETE,
@@ -62,6 +65,7 @@ public class DatabaseMetrics {
         String metricsRoot = metricsNamespace + ROOT_NAME;
         this.operationLatency = registry.createId(metricsRoot + databaseName + "." + OPERATION_LATENCY, commonTags);
         this.errorCounter = registry.createId(metricsRoot + databaseName + "." + OPERATION_ERROR, commonTags);
+        this.batchSize = registry.createId(metricsRoot + databaseName + "." + BATCH_SIZE, commonTags);
     }
 
     public void registerInsertLatency(long startTimeMs, int numRecordsInserted, String tableName, List<Tag> additionalTags) {
@@ -73,6 +77,18 @@ public class DatabaseMetrics {
                 System.currentTimeMillis() - startTimeMs);
     }
 
+    /**
+     * Records the commit latency of a multi-row insert, and the number of rows written. Unlike
+     * {@link #registerInsertLatency(long, int, String, List)}, the row count is recorded as a distribution, not as a tag.
+     */
+    public void registerBatchInsertLatency(long startTimeMs, int numRecordsInserted, String tableName, List<Tag> additionalTags) {
+        registerLatency(Operations.BATCH_INSERT, tableName, additionalTags, System.currentTimeMillis() - startTimeMs);
+        registry.distributionSummary(batchSize
+                .withTag(RECORD_TABLE_TAG, tableName)
+                .withTags(additionalTags))
+                .record(numRecordsInserted);
+    }
+
     public void registerScanLatency(long startTimeMs, String tableName, List<Tag> additionalTags) {
         registerLatency(Operations.SCAN, tableName, additionalTags, System.currentTimeMillis() - startTimeMs);
     }
@@ -94,6 +110,10 @@ public class DatabaseMetrics {
         registerError(Operations.INSERT, tableName, throwable, additionalTags);
     }
 
+    public void registerBatchInsertError(String tableName, Throwable throwable, Iterable<Tag> additionalTags) {
+        registerError(Operations.BATCH_INSERT, tableName, throwable, additionalTags);
+    }
+
     public void registerSelectError(String tableName, Throwable throwable, Iterable<Tag> additionalTags) {
         registerError(Operations.SELECT, tableName, throwable, additionalTags);
     }
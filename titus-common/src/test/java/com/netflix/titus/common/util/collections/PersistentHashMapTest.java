@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.common.util.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class PersistentHashMapTest {
+
+    @Test
+    public void testPlusAndMinus() {
+        PersistentHashMap<String, Integer> empty = PersistentHashMap.empty();
+        PersistentHashMap<String, Integer> one = empty.plus("a", 1);
+        PersistentHashMap<String, Integer> two = one.plus("b", 2);
+
+        assertThat(empty).isEmpty();
+        assertThat(one).containsOnly(entry("a", 1));
+        assertThat(two).containsOnly(entry("a", 1), entry("b", 2));
+
+        PersistentHashMap<String, Integer> removed = two.minus("a");
+        assertThat(removed).containsOnly(entry("b", 2));
+        assertThat(two).containsOnly(entry("a", 1), entry("b", 2));
+
+        assertThat(removed.minus("b")).isEmpty();
+        assertThat(removed.minus("c")).isSameAs(removed);
+    }
+
+    @Test
+    public void testSameValueUpdateReturnsSameMap() {
+        Integer value = 1000;
+        PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty().plus("a", value);
+        assertThat(map.plus("a", value)).isSameAs(map);
+        assertThat(map.plus("a", 2000).get("a")).isEqualTo(2000);
+    }
+
+    @Test
+    public void testHashCollisions() {
+        PersistentHashMap<CollidingKey, String> map = PersistentHashMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.plus(new CollidingKey(i), "v" + i);
+        }
+        assertThat(map).hasSize(10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(map.get(new CollidingKey(i))).isEqualTo("v" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            map = map.minus(new CollidingKey(i));
+            assertThat(map).hasSize(9 - i);
+            assertThat(map.get(new CollidingKey(i))).isNull();
+        }
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        Random random = new Random(123);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> actual = PersistentHashMap.empty();
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(5_000) * (random.nextBoolean() ? 1 : 65_536);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                actual = actual.minus(key);
+            } else {
+                expected.put(key, i);
+                actual = actual.plus(key, i);
+            }
+            assertThat(actual.size()).isEqualTo(expected.size());
+        }
+        assertThat(actual).isEqualTo(expected);
+        assertThat(PersistentHashMap.of(expected)).isEqualTo(expected);
+    }
+
+    private static class CollidingKey {
+
+        private final int id;
+
+        private CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.limiter.tokenbucket.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.netflix.titus.common.util.limiter.Limiters;
+import com.netflix.titus.common.util.limiter.tokenbucket.TokenBucket;
+
+/**
+ * Measures {@link DefaultTokenBucket#tryTake()} throughput with a growing number of contending threads.
+ */
+public class DefaultTokenBucketPerf {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    private static final long RUN_TIME_MS = 5_000;
+
+    private void doRun() throws InterruptedException {
+        for (int threadCount : THREAD_COUNTS) {
+            runWith(threadCount);
+        }
+    }
+
+    private void runWith(int threadCount) throws InterruptedException {
+        TokenBucket tokenBucket = Limiters.createFixedIntervalTokenBucket(
+                "perf", 1_000_000, 1_000_000, 1_000, 1, TimeUnit.MILLISECONDS
+        );
+
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong successes = new AtomicLong();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + RUN_TIME_MS;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException ignore) {
+                    return;
+                }
+                long localAttempts = 0;
+                long localSuccesses = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    for (int j = 0; j < 1_000; j++) {
+                        localAttempts++;
+                        if (tokenBucket.tryTake()) {
+                            localSuccesses++;
+                        }
+                    }
+                }
+                attempts.addAndGet(localAttempts);
+                successes.addAndGet(localSuccesses);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.println(String.format("threads=%3s, attempts/sec=%12s, successes/sec=%12s",
+                threadCount, attempts.get() * 1000 / RUN_TIME_MS, successes.get() * 1000 / RUN_TIME_MS
+        ));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        new DefaultTokenBucketPerf().doRun();
+    }
+}
@@ -16,12 +16,20 @@
 
 package com.netflix.titus.common.util.limiter.tokenbucket.internal;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.netflix.titus.common.util.limiter.tokenbucket.RefillStrategy;
 import com.netflix.titus.common.util.limiter.tokenbucket.TokenBucket;
 import org.junit.Test;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -63,6 +71,71 @@ public class DefaultTokenBucketTest {
         tokenBucket.take(10);
     }
 
+    @Test
+    public void concurrentTryTakeShouldNotTakeMoreTokensThanAvailable() throws InterruptedException {
+        TestRefillStrategy testRefillStrategy = createTestRefillStrategy();
+        TokenBucket tokenBucket = createTokenBucket(1_000, testRefillStrategy, 1_000);
+
+        int threadCount = 8;
+        AtomicLong taken = new AtomicLong();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException ignore) {
+                    return;
+                }
+                for (int j = 0; j < 1_000; j++) {
+                    if (tokenBucket.tryTake()) {
+                        taken.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1_000, taken.get());
+        assertEquals(0, tokenBucket.getNumberOfTokens());
+    }
+
+    @Test
+    public void reserveShouldCompleteAfterRefill() {
+        TestRefillStrategy testRefillStrategy = createTestRefillStrategy();
+        testRefillStrategy.setTimeUntilNextRefill(1, TimeUnit.SECONDS);
+        TokenBucket tokenBucket = createTokenBucket(10, testRefillStrategy, 0);
+        VirtualTimeScheduler testScheduler = VirtualTimeScheduler.create();
+
+        StepVerifier.withVirtualTime(() -> tokenBucket.reserve(5, testScheduler), () -> testScheduler, Long.MAX_VALUE)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(1))
+                .then(() -> testRefillStrategy.setAmountToRefill(5))
+                .thenAwait(Duration.ofSeconds(1))
+                .verifyComplete();
+    }
+
+    @Test
+    public void reserveShouldRetryManyTimesWithoutNesting() {
+        TestRefillStrategy testRefillStrategy = createTestRefillStrategy();
+        testRefillStrategy.setTimeUntilNextRefill(1, TimeUnit.MILLISECONDS);
+        TokenBucket tokenBucket = createTokenBucket(10, testRefillStrategy, 0);
+        VirtualTimeScheduler testScheduler = VirtualTimeScheduler.create();
+
+        // 1ms retry interval, so 10 seconds is 10_000 retries.
+        StepVerifier.withVirtualTime(() -> tokenBucket.reserve(5, testScheduler), () -> testScheduler, Long.MAX_VALUE)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(10))
+                .then(() -> testRefillStrategy.setAmountToRefill(5))
+                .thenAwait(Duration.ofMillis(1))
+                .verifyComplete();
+    }
+
     private static class TestRefillStrategy implements RefillStrategy {
 
         private final Object mutex = new Object();
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.loadshedding.adaptive;
+
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.loadshedding.AdmissionController;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerRequest;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveConcurrencyAdmissionControllerTest {
+
+    private static final int INITIAL_LIMIT = 10;
+    private static final int SAMPLE_WINDOW_SIZE = 10;
+
+    private static final AdmissionControllerRequest REQUEST = AdmissionControllerRequest.newBuilder()
+            .withCallerId("myUser")
+            .withEndpointName("getX")
+            .build();
+
+    private static final AdmissionControllerResponse DELEGATE_OK = AdmissionControllerResponse.newBuilder()
+            .withAllowed(true)
+            .withDecisionPoint("delegate")
+            .build();
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.internal();
+
+    private final AdaptiveConcurrencyConfiguration configuration = mock(AdaptiveConcurrencyConfiguration.class);
+
+    private AdmissionController delegate = request -> DELEGATE_OK;
+
+    private AdaptiveConcurrencyAdmissionController controller;
+
+    @Before
+    public void setUp() {
+        when(configuration.isEnabled()).thenReturn(true);
+        when(configuration.getExcludedEndpointPattern()).thenReturn("observe.*");
+        when(configuration.getInitialLimit()).thenReturn(INITIAL_LIMIT);
+        when(configuration.getMinLimit()).thenReturn(2);
+        when(configuration.getMaxLimit()).thenReturn(100);
+        when(configuration.getSampleWindowSize()).thenReturn(SAMPLE_WINDOW_SIZE);
+        when(configuration.getSmoothing()).thenReturn(1.0);
+        when(configuration.getLatencyTolerance()).thenReturn(1.0);
+        when(configuration.getBackoffRatio()).thenReturn(0.5);
+
+        controller = new AdaptiveConcurrencyAdmissionController(request -> delegate.apply(request), configuration, titusRuntime);
+    }
+
+    @Test
+    public void testInFlightLimit() {
+        AdmissionControllerResponse lastAllowed = null;
+        for (int i = 0; i < INITIAL_LIMIT; i++) {
+            lastAllowed = controller.apply(REQUEST);
+            assertThat(lastAllowed.isAllowed()).isTrue();
+            assertThat(lastAllowed.getDecisionPoint()).isEqualTo(AdaptiveConcurrencyAdmissionController.class.getSimpleName());
+        }
+        assertThat(controller.apply(REQUEST).isAllowed()).isFalse();
+
+        controller.onCompleted(REQUEST, lastAllowed, TimeUnit.MILLISECONDS.toNanos(1), false);
+        assertThat(controller.apply(REQUEST).isAllowed()).isTrue();
+    }
+
+    @Test
+    public void testLimitGrowsWhenLatencyIsStable() {
+        runWindow(1);
+        int limitAfterFirstWindow = limiter().getLimit();
+        assertThat(limitAfterFirstWindow).isGreaterThan(INITIAL_LIMIT);
+
+        runWindow(1);
+        assertThat(limiter().getLimit()).isGreaterThan(limitAfterFirstWindow);
+    }
+
+    @Test
+    public void testLimitDropsWhenLatencyGrows() {
+        runWindow(1);
+        int limitBefore = limiter().getLimit();
+
+        runWindow(100);
+        assertThat(limiter().getLimit()).isLessThan(limitBefore);
+    }
+
+    @Test
+    public void testLimitDropsOnOverload() {
+        AdmissionControllerResponse response = controller.apply(REQUEST);
+        controller.onCompleted(REQUEST, response, TimeUnit.MILLISECONDS.toNanos(1), true);
+
+        assertThat(limiter().getLimit()).isEqualTo(INITIAL_LIMIT / 2);
+        assertThat(limiter().getInFlight()).isZero();
+    }
+
+    @Test
+    public void testReleaseAfterLimiterEviction() {
+        AdmissionControllerResponse[] oldResponses = new AdmissionControllerResponse[INITIAL_LIMIT];
+        for (int i = 0; i < INITIAL_LIMIT; i++) {
+            oldResponses[i] = controller.apply(REQUEST);
+        }
+        EndpointConcurrencyLimiter oldLimiter = limiter();
+        assertThat(oldLimiter.getInFlight()).isEqualTo(INITIAL_LIMIT);
+
+        controller.evictLimiter(REQUEST.getEndpointName());
+        AdmissionControllerResponse newResponse = controller.apply(REQUEST);
+        EndpointConcurrencyLimiter newLimiter = limiter();
+        assertThat(newLimiter).isNotSameAs(oldLimiter);
+        assertThat(newLimiter.getInFlight()).isEqualTo(1);
+
+        // Completions of requests admitted before the eviction must not be charged to the new limiter.
+        for (AdmissionControllerResponse response : oldResponses) {
+            controller.onCompleted(REQUEST, response, TimeUnit.MILLISECONDS.toNanos(1), false);
+        }
+        assertThat(oldLimiter.getInFlight()).isZero();
+        assertThat(newLimiter.getInFlight()).isEqualTo(1);
+
+        controller.onCompleted(REQUEST, newResponse, TimeUnit.MILLISECONDS.toNanos(1), false);
+        assertThat(newLimiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void testInFlightNeverGoesBelowZero() {
+        AdmissionControllerResponse response = controller.apply(REQUEST);
+        controller.onCompleted(REQUEST, response, TimeUnit.MILLISECONDS.toNanos(1), false);
+        controller.onCompleted(REQUEST, response, TimeUnit.MILLISECONDS.toNanos(1), false);
+        assertThat(limiter().getInFlight()).isZero();
+
+        for (int i = 0; i < INITIAL_LIMIT; i++) {
+            assertThat(controller.apply(REQUEST).isAllowed()).isTrue();
+        }
+        assertThat(controller.apply(REQUEST).isAllowed()).isFalse();
+    }
+
+    @Test
+    public void testDelegateRejectionIsNotTracked() {
+        AdmissionControllerResponse rejected = AdmissionControllerResponse.newBuilder().withAllowed(false).withDecisionPoint("delegate").build();
+        delegate = request -> rejected;
+
+        assertThat(controller.apply(REQUEST)).isEqualTo(rejected);
+        assertThat(limiter()).isNull();
+    }
+
+    @Test
+    public void testExcludedEndpoint() {
+        AdmissionControllerRequest observeRequest = AdmissionControllerRequest.newBuilder()
+                .withCallerId("myUser")
+                .withEndpointName("observeJobs")
+                .build();
+        for (int i = 0; i <= INITIAL_LIMIT; i++) {
+            assertThat(controller.apply(observeRequest)).isEqualTo(DELEGATE_OK);
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        when(configuration.isEnabled()).thenReturn(false);
+        for (int i = 0; i <= INITIAL_LIMIT; i++) {
+            assertThat(controller.apply(REQUEST)).isEqualTo(DELEGATE_OK);
+        }
+    }
+
+    /**
+     * Runs a full sample window with all requests in flight at the same time, so the limit is fully utilized.
+     */
+    private void runWindow(long latencyMs) {
+        int count = Math.min(SAMPLE_WINDOW_SIZE, limiterLimitOrInitial());
+        AdmissionControllerResponse[] responses = new AdmissionControllerResponse[SAMPLE_WINDOW_SIZE];
+        for (int i = 0; i < count; i++) {
+            responses[i] = controller.apply(REQUEST);
+            assertThat(responses[i].isAllowed()).isTrue();
+        }
+        for (int i = 0; i < count; i++) {
+            controller.onCompleted(REQUEST, responses[i], TimeUnit.MILLISECONDS.toNanos(latencyMs), false);
+        }
+    }
+
+    private int limiterLimitOrInitial() {
+        EndpointConcurrencyLimiter limiter = limiter();
+        return limiter == null ? INITIAL_LIMIT : limiter.getLimit();
+    }
+
+    private EndpointConcurrencyLimiter limiter() {
+        return controller.getLimiter(REQUEST.getEndpointName());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.loadshedding.grpc;
+
+import com.netflix.titus.common.util.loadshedding.AdmissionController;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerRequest;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerResponse;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+public class GrpcAdmissionControllerServerInterceptorTest {
+
+    private static final MethodDescriptor<String, String> METHOD = MethodDescriptor.<String, String>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName("TestService/getX")
+            .setRequestMarshaller(mock(MethodDescriptor.Marshaller.class))
+            .setResponseMarshaller(mock(MethodDescriptor.Marshaller.class))
+            .build();
+
+    private static final AdmissionControllerResponse ALLOWED = AdmissionControllerResponse.newBuilder()
+            .withAllowed(true)
+            .withDecisionPoint("test")
+            .build();
+
+    private static final AdmissionControllerResponse REJECTED = AdmissionControllerResponse.newBuilder()
+            .withAllowed(false)
+            .withReasonMessage("rejected")
+            .withDecisionPoint("test")
+            .build();
+
+    private final AdmissionController admissionController = mock(AdmissionController.class);
+
+    private final ServerCall<String, String> call = mock(ServerCall.class);
+    private final ServerCallHandler<String, String> next = mock(ServerCallHandler.class);
+    private final ServerCall.Listener<String> nextListener = mock(ServerCall.Listener.class);
+
+    private final GrpcAdmissionControllerServerInterceptor interceptor = new GrpcAdmissionControllerServerInterceptor(
+            admissionController, () -> "myUser"
+    );
+
+    @Before
+    public void setUp() {
+        when(call.getMethodDescriptor()).thenReturn(METHOD);
+        when(next.startCall(any(), any())).thenReturn(nextListener);
+    }
+
+    @Test
+    public void testAllowedCallCompletionIsReportedOnClose() {
+        when(admissionController.apply(any())).thenReturn(ALLOWED);
+
+        interceptor.interceptCall(call, new Metadata(), next);
+        ServerCall<String, String> trackedCall = captureStartedCall();
+        verify(admissionController, never()).onCompleted(any(), any(), anyLong(), anyBoolean());
+
+        trackedCall.close(Status.OK, new Metadata());
+        verify(call).close(eq(Status.OK), any());
+        verifyCompleted(false);
+    }
+
+    @Test
+    public void testOverloadStatusIsReported() {
+        when(admissionController.apply(any())).thenReturn(ALLOWED);
+
+        interceptor.interceptCall(call, new Metadata(), next);
+        captureStartedCall().close(Status.RESOURCE_EXHAUSTED, new Metadata());
+
+        verifyCompleted(true);
+    }
+
+    @Test
+    public void testCancelledCallIsReportedOnce() {
+        when(admissionController.apply(any())).thenReturn(ALLOWED);
+
+        ServerCall.Listener<String> listener = interceptor.interceptCall(call, new Metadata(), next);
+        listener.onCancel();
+        verify(nextListener).onCancel();
+
+        // Closing a cancelled call must not release the admission slot again.
+        captureStartedCall().close(Status.CANCELLED, new Metadata());
+        verifyCompleted(false);
+    }
+
+    @Test
+    public void testFailedCallStartIsReported() {
+        when(admissionController.apply(any())).thenReturn(ALLOWED);
+        when(next.startCall(any(), any())).thenThrow(new RuntimeException("simulated error"));
+
+        assertThatThrownBy(() -> interceptor.interceptCall(call, new Metadata(), next)).isInstanceOf(RuntimeException.class);
+        verifyCompleted(false);
+    }
+
+    @Test
+    public void testRejectedCall() {
+        when(admissionController.apply(any())).thenReturn(REJECTED);
+
+        interceptor.interceptCall(call, new Metadata(), next);
+
+        ArgumentCaptor<Status> statusCaptor = ArgumentCaptor.forClass(Status.class);
+        verify(call).close(statusCaptor.capture(), any());
+        assertThat(statusCaptor.getValue().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        verify(next, never()).startCall(any(), any());
+        verify(admissionController, never()).onCompleted(any(), any(), anyLong(), anyBoolean());
+    }
+
+    private ServerCall<String, String> captureStartedCall() {
+        ArgumentCaptor<ServerCall<String, String>> callCaptor = ArgumentCaptor.forClass(ServerCall.class);
+        verify(next).startCall(callCaptor.capture(), any());
+        return callCaptor.getValue();
+    }
+
+    private void verifyCompleted(boolean overloaded) {
+        ArgumentCaptor<AdmissionControllerRequest> requestCaptor = ArgumentCaptor.forClass(AdmissionControllerRequest.class);
+        verify(admissionController, times(1)).onCompleted(requestCaptor.capture(), eq(ALLOWED), anyLong(), eq(overloaded));
+        assertThat(requestCaptor.getValue().getEndpointName()).isEqualTo(METHOD.getFullMethodName());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.loadshedding.servlet;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.titus.common.util.loadshedding.AdmissionController;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerRequest;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerResponse;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdmissionControllerServletFilterTest {
+
+    private static final AdmissionControllerResponse ALLOWED = AdmissionControllerResponse.newBuilder()
+            .withAllowed(true)
+            .withDecisionPoint("test")
+            .build();
+
+    private static final AdmissionControllerResponse REJECTED = AdmissionControllerResponse.newBuilder()
+            .withAllowed(false)
+            .withReasonMessage("rejected")
+            .withDecisionPoint("test")
+            .build();
+
+    private final AdmissionController admissionController = mock(AdmissionController.class);
+
+    private final AdmissionControllerServletFilter filter = new AdmissionControllerServletFilter(admissionController, () -> "myUser");
+
+    @Test
+    public void testAllowedRequestCompletionIsReported() throws Exception {
+        when(admissionController.apply(any())).thenReturn(ALLOWED);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(newRequest("/api/v3/jobs/job123"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        ArgumentCaptor<AdmissionControllerRequest> requestCaptor = ArgumentCaptor.forClass(AdmissionControllerRequest.class);
+        verify(admissionController).onCompleted(requestCaptor.capture(), eq(ALLOWED), anyLong(), eq(false));
+        assertThat(requestCaptor.getValue().getEndpointName()).isEqualTo("GET /api/v3/jobs");
+    }
+
+    @Test
+    public void testOverloadStatusIsReported() throws Exception {
+        when(admissionController.apply(any())).thenReturn(ALLOWED);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(newRequest("/api/v3/jobs"), response, (request, servletResponse) ->
+                ((HttpServletResponse) servletResponse).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE)
+        );
+
+        verify(admissionController).onCompleted(any(), eq(ALLOWED), anyLong(), eq(true));
+    }
+
+    @Test
+    public void testFailedRequestCompletionIsReported() throws Exception {
+        when(admissionController.apply(any())).thenReturn(ALLOWED);
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new ServletException("simulated error")).when(chain).doFilter(any(), any());
+
+        assertThatThrownBy(() -> filter.doFilter(newRequest("/api/v3/jobs"), new MockHttpServletResponse(), chain))
+                .isInstanceOf(ServletException.class);
+        verify(admissionController).onCompleted(any(), eq(ALLOWED), anyLong(), anyBoolean());
+    }
+
+    @Test
+    public void testRejectedRequest() throws Exception {
+        when(admissionController.apply(any())).thenReturn(REJECTED);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(newRequest("/api/v3/jobs"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(chain.getRequest()).isNull();
+        verify(admissionController, never()).onCompleted(any(), any(), anyLong(), anyBoolean());
+    }
+
+    private MockHttpServletRequest newRequest(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
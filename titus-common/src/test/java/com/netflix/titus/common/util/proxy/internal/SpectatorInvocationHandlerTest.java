@@ -16,11 +16,16 @@
 
 package com.netflix.titus.common.util.proxy.internal;
 
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import com.netflix.spectator.api.Registry;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.runtime.TitusRuntimes;
 import com.netflix.titus.common.util.proxy.MyApi;
 import com.netflix.titus.common.util.proxy.ProxyCatalog;
 import org.junit.Test;
+import reactor.core.publisher.Flux;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -76,4 +81,43 @@ public class SpectatorInvocationHandlerTest {
     public void testMonoVoid() {
         assertThat(myApi.okMonoVoid().block()).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSuccessfulInvocationMetricsDoNotAllocate() throws Exception {
+        SpectatorInvocationHandler<MyApi, Object> handler = new SpectatorInvocationHandler<>("myInstance", MyApi.class, titusRuntime, true);
+        Method method = MyApi.class.getMethod("echo", String.class);
+        Long startTime = titusRuntime.getClock().wallTime();
+
+        int iterations = 100_000;
+        for (int i = 0; i < iterations; i++) {
+            handler.after(method, "abc", startTime);
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            handler.after(method, "abc", startTime);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Less than one byte per call, so only the measurement itself may allocate.
+        assertThat(allocated).isLessThan(iterations);
+    }
+
+    @Test
+    public void testSampledEmitCounter() throws Exception {
+        SpectatorInvocationHandler<MyApi, Object> handler = new SpectatorInvocationHandler<>("myInstance", MyApi.class, titusRuntime, true, 10);
+        Method method = MyApi.class.getMethod("fluxEcho", String.class);
+
+        Registry registry = titusRuntime.getRegistry();
+        long emitted = handler.afterFlux(method, Flux.range(1, 25).cast(Object.class), 0L).count().block();
+        assertThat(emitted).isEqualTo(25);
+        assertThat(registry.counter(registry.createId(
+                "titusMaster.api.invocation.subscriptionEmits",
+                "instance", "myInstance",
+                "class", MyApi.class.getName(),
+                "method", "fluxEcho"
+        )).count()).isEqualTo(25);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.common.util.rx;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.common.util.tuple.Pair;
+import org.junit.Test;
+import rx.observers.AssertableSubscriber;
+import rx.subjects.PublishSubject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConflatingBackpressureOperatorTest {
+
+    private static final String FINISHED = "finished";
+
+    private final Registry registry = new DefaultRegistry();
+
+    private final PublishSubject<Pair<String, String>> subject = PublishSubject.create();
+
+    private final AssertableSubscriber<Pair<String, String>> testSubscriber = subject
+            .compose(ObservableExt.<Pair<String, String>>onBackpressureConflate(Pair::getLeft, pair -> FINISHED.equals(pair.getRight()), "test", registry))
+            .test(0);
+
+    @Test
+    public void testValuesArePassedThroughWhenNotBackpressured() {
+        testSubscriber.requestMore(Long.MAX_VALUE);
+        subject.onNext(Pair.of("a", "v1"));
+        subject.onNext(Pair.of("a", "v2"));
+
+        testSubscriber.assertValues(Pair.of("a", "v1"), Pair.of("a", "v2"));
+    }
+
+    @Test
+    public void testLatestValueIsEmittedInInsertionOrder() {
+        subject.onNext(Pair.of("a", "v1"));
+        subject.onNext(Pair.of("b", "v1"));
+        subject.onNext(Pair.of("a", "v2"));
+        subject.onNext(Pair.of("c", "v1"));
+
+        testSubscriber.requestMore(1);
+        testSubscriber.assertValues(Pair.of("a", "v2"));
+
+        subject.onNext(Pair.of("a", "v3"));
+        subject.onNext(Pair.of("b", "v2"));
+        testSubscriber.requestMore(10);
+        testSubscriber.assertValues(Pair.of("a", "v2"), Pair.of("b", "v2"), Pair.of("c", "v1"), Pair.of("a", "v3"));
+    }
+
+    @Test
+    public void testPinnedValuesAreNotReplaced() {
+        subject.onNext(Pair.of("a", "v1"));
+        subject.onNext(Pair.of("a", FINISHED));
+        subject.onNext(Pair.of("a", "v2"));
+        subject.onNext(Pair.of("a", "v3"));
+
+        testSubscriber.requestMore(10);
+        testSubscriber.assertValues(Pair.of("a", FINISHED), Pair.of("a", "v3"));
+    }
+
+    @Test
+    public void testCompletionIsDeliveredAfterPendingValues() {
+        subject.onNext(Pair.of("a", "v1"));
+        subject.onCompleted();
+        testSubscriber.assertNotCompleted();
+
+        testSubscriber.requestMore(1);
+        testSubscriber.assertValues(Pair.of("a", "v1"));
+        testSubscriber.assertCompleted();
+    }
+
+    @Test
+    public void testConflationRatioIsRecordedOnUnsubscribe() {
+        subject.onNext(Pair.of("a", "v1"));
+        subject.onNext(Pair.of("a", "v2"));
+        subject.onNext(Pair.of("a", "v3"));
+        subject.onNext(Pair.of("b", "v1"));
+        testSubscriber.requestMore(10);
+        testSubscriber.unsubscribe();
+
+        assertThat(registry.counter("test.received").count()).isEqualTo(4);
+        assertThat(registry.counter("test.emitted").count()).isEqualTo(2);
+        assertThat(registry.distributionSummary("test.conflationRatio").totalAmount()).isEqualTo(50);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.common.util.rx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+
+import com.netflix.titus.testkit.rx.TitusRxSubscriber;
+import org.junit.Test;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.MonoProcessor;
+
+import static com.netflix.titus.common.util.rx.ReactorExt.flatMapKeyedSerial;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReactorKeyedSerialTransformerTest {
+
+    private final DirectProcessor<String> source = DirectProcessor.create();
+
+    private final List<String> started = new ArrayList<>();
+    private final List<MonoProcessor<String>> running = new ArrayList<>();
+
+    private final TitusRxSubscriber<String> testSubscriber = new TitusRxSubscriber<>();
+
+    @Test
+    public void testSequentialPerKeyAndParallelAcrossKeys() {
+        subscribe(false, 10);
+
+        source.onNext("a1");
+        source.onNext("a2");
+        source.onNext("b1");
+        assertThat(started).containsExactly("a1", "b1");
+
+        complete("a1");
+        assertThat(testSubscriber.takeNext()).isEqualTo("a1");
+        assertThat(started).containsExactly("a1", "b1", "a2");
+
+        complete("b1");
+        complete("a2");
+        assertThat(testSubscriber.getAllItems()).containsExactly("a1", "b1", "a2");
+    }
+
+    @Test
+    public void testCoalescing() {
+        subscribe(true, 10);
+
+        source.onNext("a1");
+        source.onNext("a2");
+        source.onNext("a3");
+        source.onNext("a4");
+        assertThat(started).containsExactly("a1");
+
+        complete("a1");
+        assertThat(started).containsExactly("a1", "a4");
+    }
+
+    @Test
+    public void testConcurrencyLimit() {
+        subscribe(false, 1);
+
+        source.onNext("a1");
+        source.onNext("b1");
+        assertThat(started).containsExactly("a1");
+
+        complete("a1");
+        assertThat(started).containsExactly("a1", "b1");
+    }
+
+    @Test
+    public void testCompletesAfterAllInnerPublishersComplete() {
+        subscribe(false, 10);
+
+        source.onNext("a1");
+        source.onComplete();
+        assertThat(testSubscriber.isOpen()).isTrue();
+
+        complete("a1");
+        assertThat(testSubscriber.isOpen()).isFalse();
+        assertThat(testSubscriber.hasError()).isFalse();
+    }
+
+    @Test
+    public void testInnerErrorIsPropagated() {
+        subscribe(false, 10);
+
+        source.onNext("a1");
+        running.get(0).onError(new RuntimeException("simulated error"));
+        assertThat(testSubscriber.hasError()).isTrue();
+    }
+
+    @Test
+    public void testSynchronousInnerPublishers() {
+        List<String> result = Flux.just("a1", "b1", "a2", "b2")
+                .compose(flatMapKeyedSerial(value -> value.substring(0, 1), null, Flux::just, 10))
+                .collectList()
+                .block();
+        assertThat(result).containsExactly("a1", "b1", "a2", "b2");
+    }
+
+    private void subscribe(boolean coalesce, int concurrency) {
+        BinaryOperator<String> coalescer = coalesce ? (previous, next) -> next : null;
+        source.compose(flatMapKeyedSerial(
+                value -> value.substring(0, 1),
+                coalescer,
+                value -> {
+                    MonoProcessor<String> processor = MonoProcessor.create();
+                    started.add(value);
+                    running.add(processor);
+                    return processor;
+                },
+                concurrency
+        )).subscribe(testSubscriber);
+    }
+
+    private void complete(String value) {
+        running.get(started.indexOf(value)).onNext(value);
+    }
+}
@@ -30,6 +30,7 @@ import javax.inject.Singleton;
 
 import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PagingState;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.QueryTrace;
 import com.datastax.driver.core.ResultSet;
@@ -57,6 +58,7 @@ import com.netflix.titus.api.json.ObjectMappers;
 import com.netflix.titus.common.framework.fit.FitFramework;
 import com.netflix.titus.common.framework.fit.FitInjection;
 import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.StringExt;
 import com.netflix.titus.common.util.guice.annotation.ProxyConfiguration;
 import com.netflix.titus.common.util.tuple.Either;
 import com.netflix.titus.common.util.tuple.Pair;
@@ -630,6 +632,26 @@ public class CassandraJobStore implements JobStore {
                 }));
     }
 
+    @Override
+    public Observable<Pair<List<String>, String>> retrieveArchivedTaskIdsForJob(String jobId, int pageSize, String pagingState) {
+        return Observable.fromCallable(() -> {
+            Statement statement = retrieveArchivedTaskIdsForJobStatement.bind(jobId).setFetchSize(pageSize);
+            if (!StringExt.isEmpty(pagingState)) {
+                statement.setPagingState(PagingState.fromString(pagingState));
+            }
+            return statement;
+        }).flatMap(statement -> execute(statement).map(taskIdsResultSet -> {
+            // Read only the rows of the current page, without triggering a fetch of the next one.
+            int available = taskIdsResultSet.getAvailableWithoutFetching();
+            List<String> taskIds = new ArrayList<>(available);
+            for (int i = 0; i < available; i++) {
+                taskIds.add(taskIdsResultSet.one().getString(0));
+            }
+            PagingState nextPagingState = taskIdsResultSet.getExecutionInfo().getPagingState();
+            return Pair.of(taskIds, nextPagingState == null ? "" : nextPagingState.toString());
+        }));
+    }
+
     @Override
     public Observable<Task> retrieveArchivedTask(String taskId) {
         return Observable.fromCallable((Callable<Statement>) () -> retrieveArchivedTaskStatement.bind(taskId))
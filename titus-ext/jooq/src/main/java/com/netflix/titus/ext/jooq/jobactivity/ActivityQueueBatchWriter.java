@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.jooq.jobactivity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import com.netflix.titus.common.util.spectator.DatabaseMetrics;
+import com.netflix.titus.ext.jooq.activity.schema.tables.records.JActivityQueueRecord;
+import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep3;
+import org.jooq.impl.DSL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static com.netflix.titus.ext.jooq.activity.schema.tables.JActivityQueue.ACTIVITY_QUEUE;
+
+/**
+ * Group commit writer for the activity queue table. Records are accumulated for up to {@link #maxBatchDelayMs}, or
+ * until {@link #maxBatchSize} records are pending, and written with a single multi-row insert in one transaction.
+ * While a batch is being committed, new records accumulate for the next one, so the batch size grows with the load.
+ * <p>
+ * The queue index is assigned in the same critical section in which a record is appended to the pending queue, so
+ * the pending queue is always ordered by the queue index, regardless of the number of concurrent producers. All
+ * batches are committed sequentially by a single worker thread, so records are also committed in the index order.
+ */
+class ActivityQueueBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityQueueBatchWriter.class);
+
+    private static final String WRITER_THREAD_NAME = "jobActivityQueueWriter";
+
+    private final DSLContext dslContext;
+    private final DatabaseMetrics databaseMetrics;
+    private final int maxBatchSize;
+    private final long maxBatchDelayMs;
+    private final int maxPendingRecords;
+    private final LongSupplier queueIndexAllocator;
+
+    private final Object writeLock = new Object();
+    private final BlockingQueue<PendingRecord> pendingRecords;
+    private final Scheduler scheduler;
+    private final Scheduler.Worker worker;
+
+    private final AtomicBoolean immediateFlushScheduled = new AtomicBoolean();
+    private final AtomicBoolean delayedFlushScheduled = new AtomicBoolean();
+
+    private volatile boolean shutdown;
+
+    ActivityQueueBatchWriter(DSLContext dslContext,
+                             DatabaseMetrics databaseMetrics,
+                             int maxBatchSize,
+                             long maxBatchDelayMs,
+                             int maxPendingRecords,
+                             LongSupplier queueIndexAllocator) {
+        this.dslContext = dslContext;
+        this.databaseMetrics = databaseMetrics;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayMs = maxBatchDelayMs;
+        this.maxPendingRecords = maxPendingRecords;
+        this.queueIndexAllocator = queueIndexAllocator;
+        this.pendingRecords = new LinkedBlockingQueue<>(maxPendingRecords);
+        this.scheduler = Schedulers.newSingle(WRITER_THREAD_NAME, true);
+        this.worker = scheduler.createWorker();
+    }
+
+    /**
+     * Stops the writer. Records not yet picked by the worker are failed, and all subsequent writes are rejected.
+     */
+    void shutdown() {
+        List<PendingRecord> notWritten = new ArrayList<>();
+        synchronized (writeLock) {
+            shutdown = true;
+            pendingRecords.drainTo(notWritten);
+        }
+        IllegalStateException error = new IllegalStateException("Activity queue writer shut down");
+        notWritten.forEach(record -> record.sink.error(error));
+
+        worker.dispose();
+        scheduler.dispose();
+    }
+
+    /**
+     * Returns a {@link Mono} that completes when the record is committed. The queue index is assigned to the record
+     * only when it is accepted. The number of records waiting for a commit is bounded. Callers are expected to limit
+     * the number of concurrent writes to this bound, so the backpressure is propagated to the event source. A write
+     * above the limit fails immediately with {@link ActivityQueueFullException}, and may be retried.
+     */
+    Mono<Void> write(short eventType, byte[] serializedEvent) {
+        return Mono.create(sink -> {
+            synchronized (writeLock) {
+                if (shutdown) {
+                    sink.error(new IllegalStateException("Activity queue writer shut down"));
+                    return;
+                }
+                if (pendingRecords.remainingCapacity() == 0) {
+                    sink.error(new ActivityQueueFullException(maxPendingRecords));
+                    return;
+                }
+                pendingRecords.add(new PendingRecord(queueIndexAllocator.getAsLong(), eventType, serializedEvent, sink));
+            }
+            if (pendingRecords.size() >= maxBatchSize) {
+                if (immediateFlushScheduled.compareAndSet(false, true)) {
+                    worker.schedule(this::flush);
+                }
+            } else if (delayedFlushScheduled.compareAndSet(false, true)) {
+                worker.schedule(this::flush, maxBatchDelayMs, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void flush() {
+        immediateFlushScheduled.set(false);
+        delayedFlushScheduled.set(false);
+
+        List<PendingRecord> batch = new ArrayList<>(maxBatchSize);
+        do {
+            batch.clear();
+            pendingRecords.drainTo(batch, maxBatchSize);
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+        } while (pendingRecords.size() >= maxBatchSize);
+
+        if (!pendingRecords.isEmpty() && delayedFlushScheduled.compareAndSet(false, true)) {
+            worker.schedule(this::flush, maxBatchDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) {
+        long startTimeMs = System.currentTimeMillis();
+        try {
+            dslContext.transaction(configuration -> {
+                InsertValuesStep3<JActivityQueueRecord, Long, Short, byte[]> insert = DSL.using(configuration)
+                        .insertInto(ACTIVITY_QUEUE,
+                                ACTIVITY_QUEUE.QUEUE_INDEX,
+                                ACTIVITY_QUEUE.EVENT_TYPE,
+                                ACTIVITY_QUEUE.SERIALIZED_EVENT);
+                for (PendingRecord record : batch) {
+                    insert = insert.values(record.queueIndex, record.eventType, record.serializedEvent);
+                }
+                insert.execute();
+            });
+            databaseMetrics.registerBatchInsertLatency(startTimeMs, batch.size(), ACTIVITY_QUEUE.getName(), Collections.emptyList());
+        } catch (Exception e) {
+            logger.warn("Failed to write a batch of {} records to the activity queue: {}", batch.size(), e.getMessage());
+            databaseMetrics.registerBatchInsertError(ACTIVITY_QUEUE.getName(), e, Collections.emptyList());
+            batch.forEach(record -> record.sink.error(e));
+            return;
+        }
+        batch.forEach(record -> record.sink.success());
+    }
+
+    /**
+     * Raised when the number of records waiting for a commit reached the limit. The write can be retried after
+     * the current batches are committed.
+     */
+    static class ActivityQueueFullException extends RuntimeException {
+
+        private ActivityQueueFullException(int maxPendingRecords) {
+            super("Too many records pending write to the activity queue: limit=" + maxPendingRecords);
+        }
+    }
+
+    private static class PendingRecord {
+
+        private final long queueIndex;
+        private final short eventType;
+        private final byte[] serializedEvent;
+        private final MonoSink<Void> sink;
+
+        private PendingRecord(long queueIndex, short eventType, byte[] serializedEvent, MonoSink<Void> sink) {
+            this.queueIndex = queueIndex;
+            this.eventType = eventType;
+            this.serializedEvent = serializedEvent;
+            this.sink = sink;
+        }
+    }
+}
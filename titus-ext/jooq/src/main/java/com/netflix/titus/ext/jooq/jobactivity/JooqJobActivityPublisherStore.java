@@ -16,9 +16,11 @@
 
 package com.netflix.titus.ext.jooq.jobactivity;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -54,15 +56,38 @@ public class JooqJobActivityPublisherStore implements JobActivityPublisherStore
 
     private static final String JOOQ_METRICS_DATABASE_NAME = "JobActivityPublisher";
 
+    /**
+     * Maximum number of records written to the activity queue in a single transaction.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Maximum amount of time a record waits for other records to be grouped with.
+     */
+    public static final long MAX_BATCH_DELAY_MS = 5;
+
+    /**
+     * Maximum number of records waiting for a commit. Writers should not have more publish operations in flight.
+     */
+    public static final int MAX_PENDING_RECORDS = 5_000;
+
+    /**
+     * Maximum number of attempts to queue a record, when the pending record limit is reached.
+     */
+    private static final int MAX_QUEUE_FULL_RETRIES = 10;
+
     private final LogStorageInfo<Task> logStorageInfo;
     private final DSLContext dslContext;
     private final DatabaseMetrics databaseMetrics;
+    private final long maxBatchDelayMs;
+    private final ActivityQueueBatchWriter batchWriter;
 
     /**
      * Tracks the current queue index (e.g., tail of the queue is the highest index value). This approach has
      * the following caveats:
      * 1) The index value keyspace may be sparse if some insert operations fail.
-     * 2) We expect only a single producer/writer to the table.
+     * 2) We expect only a single producer/writer to the table. Within this process, the index values are assigned by
+     * {@link ActivityQueueBatchWriter} when a record is queued, so concurrent publishers cannot commit them out of order.
      * 3) The index value can decrease between restarts (e.g., queue gets drained). This is OK as index
      * values can be reused and will reset to the highest value after restart.
      * 4) The value is interpreted as an unsigned long. Realistically it is not going to wrap. However, if we
@@ -75,14 +100,27 @@ public class JooqJobActivityPublisherStore implements JobActivityPublisherStore
     public JooqJobActivityPublisherStore(DSLContext dslContext,
                                          TitusRuntime runtime,
                                          LogStorageInfo<Task> logStorageInfo) {
-        this(dslContext, runtime, logStorageInfo,true);
+        this(dslContext, runtime, logStorageInfo, true);
     }
 
     @VisibleForTesting
     public JooqJobActivityPublisherStore(DSLContext dslContext, TitusRuntime runtime, LogStorageInfo<Task> logStorageInfo, boolean createIfNotExist) {
+        this(dslContext, runtime, logStorageInfo, createIfNotExist, MAX_BATCH_SIZE, MAX_BATCH_DELAY_MS);
+    }
+
+    @VisibleForTesting
+    public JooqJobActivityPublisherStore(DSLContext dslContext,
+                                         TitusRuntime runtime,
+                                         LogStorageInfo<Task> logStorageInfo,
+                                         boolean createIfNotExist,
+                                         int maxBatchSize,
+                                         long maxBatchDelayMs) {
         this.logStorageInfo = logStorageInfo;
         this.dslContext = dslContext;
         this.databaseMetrics = new DatabaseMetrics(runtime.getRegistry(), "titus", JOOQ_METRICS_DATABASE_NAME);
+        this.maxBatchDelayMs = maxBatchDelayMs;
+        this.batchWriter = new ActivityQueueBatchWriter(dslContext, databaseMetrics, maxBatchSize, maxBatchDelayMs, MAX_PENDING_RECORDS,
+                () -> queueIndex.getAndIncrement());
 
         if (createIfNotExist) {
             createSchemaIfNotExist();
@@ -91,6 +129,11 @@ public class JooqJobActivityPublisherStore implements JobActivityPublisherStore
         logger.info("Loaded initial job activity publisher queue index {}", queueIndex);
     }
 
+    @PreDestroy
+    public void shutdown() {
+        batchWriter.shutdown();
+    }
+
     private void createSchemaIfNotExist() {
         dslContext.createSchemaIfNotExists(JActivity.ACTIVITY)
                 .execute();
@@ -148,24 +191,16 @@ public class JooqJobActivityPublisherStore implements JobActivityPublisherStore
     }
 
     private Mono<Void> publishByteString(JobActivityPublisherRecord.RecordType recordType, String recordId, byte[] serializedRecord) {
-        long assignedQueueIndex = queueIndex.getAndIncrement();
-
-        return JooqUtils.executeAsyncMono(() -> {
-            long startTimeMs = System.currentTimeMillis();
-            int numInserts = dslContext
-                    .insertInto(ACTIVITY_QUEUE,
-                            ACTIVITY_QUEUE.QUEUE_INDEX,
-                            ACTIVITY_QUEUE.EVENT_TYPE,
-                            ACTIVITY_QUEUE.SERIALIZED_EVENT)
-                    .values(assignedQueueIndex,
-                            (short) recordType.ordinal(),
-                            serializedRecord)
-                    .execute();
-            databaseMetrics.registerInsertLatency(startTimeMs, 1, ACTIVITY_QUEUE.getName(), Collections.emptyList());
-            return numInserts;
-        }, dslContext)
-                .onErrorMap(e -> JobActivityStoreException.jobActivityUpdateRecordException(recordId, e))
-                .then();
+        return batchWriter.write((short) recordType.ordinal(), serializedRecord)
+                .retryWhen(errors -> errors.index().concatMap(indexedError -> {
+                    Throwable error = indexedError.getT2();
+                    long attempt = indexedError.getT1() + 1;
+                    if (error instanceof ActivityQueueBatchWriter.ActivityQueueFullException && attempt < MAX_QUEUE_FULL_RETRIES) {
+                        return Mono.delay(Duration.ofMillis(maxBatchDelayMs * attempt));
+                    }
+                    return Mono.error(error);
+                }))
+                .onErrorMap(e -> JobActivityStoreException.jobActivityUpdateRecordException(recordId, e));
     }
 
     @VisibleForTesting
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.jooq.activity;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Stopwatch;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.ext.jooq.jobactivity.JooqJobActivityPublisherStore;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DefaultConnectionProvider;
+import org.jooq.impl.DefaultDSLContext;
+import reactor.core.publisher.Flux;
+
+/**
+ * Measures the activity queue write throughput on the embedded database. Run with the number of events, and
+ * optionally the number of concurrent publish operations, as arguments.
+ */
+public class JooqJobActivityPublisherStorePerf {
+
+    public static void main(String[] args) throws Exception {
+        int numTasks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : JooqJobActivityPublisherStore.MAX_PENDING_RECORDS;
+
+        try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:perf", "SA", "")) {
+            DefaultDSLContext dslContext = new DefaultDSLContext(new DefaultConnectionProvider(connection), SQLDialect.HSQLDB);
+            JooqJobActivityPublisherStore publisher = new JooqJobActivityPublisherStore(dslContext, TitusRuntimes.internal(), EmptyLogStorageInfo.empty());
+
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            Flux.fromIterable(JobGenerator.batchTasks(JobGenerator.batchJobs(JobDescriptorGenerator.oneTaskBatchJobDescriptor()).getValue()).batch(numTasks).getValue())
+                    .flatMap(publisher::publishTask, concurrency)
+                    .then()
+                    .block();
+            long elapsedMs = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+
+            System.out.printf("Inserted %d records with concurrency %d in %dms: %d events/sec%n",
+                    numTasks, concurrency, elapsedMs, numTasks * 1000L / elapsedMs);
+
+            publisher.shutdown();
+            dslContext.execute("SHUTDOWN");
+        }
+    }
+}
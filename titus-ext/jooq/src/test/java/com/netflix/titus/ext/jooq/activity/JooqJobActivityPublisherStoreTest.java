@@ -16,11 +16,14 @@
 
 package com.netflix.titus.ext.jooq.activity;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.netflix.titus.api.jobactivity.store.JobActivityPublisherRecord;
+import com.netflix.titus.api.jobactivity.store.JobActivityStoreException;
 import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
@@ -40,6 +43,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -93,6 +97,47 @@ public class JooqJobActivityPublisherStoreTest {
                 .verifyComplete();
     }
 
+    /**
+     * Publishes events from many threads concurrently, so they are grouped into multi-row inserts. The queue
+     * indexes must be assigned without gaps, in the order the records are committed.
+     */
+    @Test
+    public void testConcurrentPublishesAreCommittedInIndexOrder() {
+        int numTasks = 2_000;
+
+        StepVerifier.create(observeTasks(numTasks)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(batchJobTask -> publisher.publishTask(batchJobTask))
+                .then()
+        ).verifyComplete();
+
+        List<Long> queueIndexes = publisher.getRecords()
+                .map(JobActivityPublisherRecord::getQueueIndex)
+                .collectList()
+                .block();
+        assertThat(queueIndexes).hasSize(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            assertThat(queueIndexes.get(i)).isEqualTo(i);
+        }
+        assertThat(publisher.getQueueIndex()).isEqualTo(numTasks);
+    }
+
+    @Test
+    public void testPendingWritesFailOnShutdown() {
+        JooqJobActivityPublisherStore slowPublisher = new JooqJobActivityPublisherStore(jooqResource.getDslContext(),
+                TitusRuntimes.internal(), EmptyLogStorageInfo.empty(), false, 500, 60_000);
+
+        StepVerifier.create(slowPublisher.publishTask(batchTasksGenerator.getValue()))
+                .then(slowPublisher::shutdown)
+                .expectError(JobActivityStoreException.class)
+                .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(slowPublisher.publishTask(batchTasksGenerator.getValue()))
+                .expectError(JobActivityStoreException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
     @Test
     public void testActivityTableScan() {
         StepVerifier.create(publishJobs(20)).verifyComplete();
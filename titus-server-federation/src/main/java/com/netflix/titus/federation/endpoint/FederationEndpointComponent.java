@@ -22,6 +22,7 @@ import com.netflix.titus.common.util.archaius2.Archaius2Ext;
 import com.netflix.titus.common.util.archaius2.SpringConfig;
 import com.netflix.titus.common.util.loadshedding.AdmissionController;
 import com.netflix.titus.common.util.loadshedding.AdmissionControllers;
+import com.netflix.titus.common.util.loadshedding.adaptive.AdaptiveConcurrencyConfiguration;
 import com.netflix.titus.common.util.loadshedding.grpc.GrpcAdmissionControllerServerInterceptor;
 import com.netflix.titus.federation.endpoint.grpc.FederationGrpcComponent;
 import com.netflix.titus.federation.endpoint.rest.FederationRestComponent;
@@ -41,6 +42,7 @@ import org.springframework.stereotype.Component;
 public class FederationEndpointComponent {
 
     private static final String ADMISSION_CONTROLLER_CONFIGURATION_PREFIX = "titus.federation.admissionController.buckets";
+    private static final String ADAPTIVE_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX = "titus.federation.admissionController.adaptive";
     private static final String UNIDENTIFIED = "unidentified";
 
     @Bean
@@ -57,8 +59,13 @@ public class FederationEndpointComponent {
                 new SpringConfig(ADMISSION_CONTROLLER_CONFIGURATION_PREFIX, environment),
                 titusRuntime
         );
-        AdmissionController circuitBreaker = AdmissionControllers.circuitBreaker(
+        AdmissionController adaptive = AdmissionControllers.adaptiveConcurrency(
                 mainController,
+                Archaius2Ext.newConfiguration(AdaptiveConcurrencyConfiguration.class, ADAPTIVE_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX, environment),
+                titusRuntime
+        );
+        AdmissionController circuitBreaker = AdmissionControllers.circuitBreaker(
+                adaptive,
                 configuration::isAdmissionControllerEnabled
         );
         AdmissionController spectator = AdmissionControllers.spectator(circuitBreaker, titusRuntime);
@@ -24,8 +24,10 @@ import com.netflix.archaius.ConfigProxyFactory;
 import com.netflix.archaius.api.Config;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.CollectionsExt;
+import com.netflix.titus.common.util.archaius2.Archaius2Ext;
 import com.netflix.titus.common.util.loadshedding.AdmissionController;
 import com.netflix.titus.common.util.loadshedding.AdmissionControllers;
+import com.netflix.titus.common.util.loadshedding.adaptive.AdaptiveConcurrencyConfiguration;
 import com.netflix.titus.common.util.loadshedding.grpc.GrpcAdmissionControllerServerInterceptor;
 import com.netflix.titus.federation.endpoint.grpc.FederationGrpcModule;
 import com.netflix.titus.federation.endpoint.rest.JerseyModule;
@@ -34,6 +36,7 @@ import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
 
 public class FederationEndpointModule extends AbstractModule {
     private static final String ADMISSION_CONTROLLER_CONFIGURATION_PREFIX = "titus.federation.admissionController.buckets";
+    private static final String ADAPTIVE_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX = "titus.federation.admissionController.adaptive";
     private static final String UNIDENTIFIED = "unidentified";
 
     @Override
@@ -59,8 +62,13 @@ public class FederationEndpointModule extends AbstractModule {
                 config.getPrefixedView(ADMISSION_CONTROLLER_CONFIGURATION_PREFIX),
                 titusRuntime
         );
-        AdmissionController circuitBreaker = AdmissionControllers.circuitBreaker(
+        AdmissionController adaptive = AdmissionControllers.adaptiveConcurrency(
                 mainController,
+                Archaius2Ext.newConfiguration(AdaptiveConcurrencyConfiguration.class, ADAPTIVE_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX, config),
+                titusRuntime
+        );
+        AdmissionController circuitBreaker = AdmissionControllers.circuitBreaker(
+                adaptive,
                 configuration::isAdmissionControllerEnabled
         );
         AdmissionController spectator = AdmissionControllers.spectator(circuitBreaker, titusRuntime);
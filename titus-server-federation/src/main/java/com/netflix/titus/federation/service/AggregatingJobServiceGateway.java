@@ -80,12 +80,11 @@ import reactor.core.publisher.Mono;
 import rx.Completable;
 import rx.Emitter;
 import rx.Observable;
+import rx.schedulers.Schedulers;
 
 import static com.netflix.titus.api.jobmanager.JobAttributes.JOB_ATTRIBUTES_STACK;
 import static com.netflix.titus.api.jobmanager.TaskAttributes.TASK_ATTRIBUTES_STACK;
 import static com.netflix.titus.federation.service.CellConnectorUtil.callToCell;
-import static com.netflix.titus.federation.service.PageAggregationUtil.combinePagination;
-import static com.netflix.titus.federation.service.PageAggregationUtil.takeCombinedPage;
 import static com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobQueryModelConverters.emptyGrpcPagination;
 import static com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil.createRequestObservable;
 import static com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil.createWrappedStub;
@@ -256,46 +255,36 @@ public class AggregatingJobServiceGateway implements JobServiceGateway {
     }
 
     private Observable<JobQueryResult> findJobsWithCursorPagination(JobQuery request, Set<String> fields) {
-        return aggregatingClient.call(JobManagementServiceGrpc::newStub, findJobsInCell(request))
-                .map(CellResponse::getResult)
-                .map(this::addStackName)
-                .reduce(this::combineJobResults)
-                .map(combinedResults -> {
-                    Pair<List<Job>, Pagination> combinedPage = takeCombinedPage(
-                            request.getPage(),
-                            combinedResults.getItemsList(),
-                            combinedResults.getPagination(),
-                            JobManagerCursors.jobCursorOrderComparator(),
-                            JobManagerCursors::newCursorFrom
-                    );
-
-                    if (!CollectionsExt.isNullOrEmpty(fields)) {
-                        combinedPage = combinedPage.mapLeft(jobs -> jobs.stream()
-                                .map(job -> ProtobufExt.copy(job, fields))
-                                .collect(Collectors.toList())
-                        );
-                    }
-
-                    return JobQueryResult.newBuilder()
-                            .addAllItems(combinedPage.getLeft())
-                            .setPagination(combinedPage.getRight())
-                            .build();
-                });
+        CellPageCollector<Job> collector = new CellPageCollector<>(
+                getCells(),
+                (cell, cellPage) -> callToCell(cell, connector, JobManagementServiceGrpc::newStub, findJobsInCell(request.toBuilder().setPage(cellPage).build()))
+                        .map(result -> Pair.of(result.getItemsList(), result.getPagination())),
+                JobManagerCursors.jobCursorOrderComparator(),
+                JobManagerCursors::newCursorFrom,
+                grpcConfiguration.getQueryCellDeadlineMs(),
+                Schedulers.computation()
+        );
+        return collector.takePage(request.getPage()).map(page -> {
+            Pair<List<Job>, Pagination> combinedPage = page.mapLeft(jobs -> jobs.stream().map(this::addStackName).collect(Collectors.toList()));
+
+            if (!CollectionsExt.isNullOrEmpty(fields)) {
+                combinedPage = combinedPage.mapLeft(jobs -> jobs.stream()
+                        .map(job -> ProtobufExt.copy(job, fields))
+                        .collect(Collectors.toList())
+                );
+            }
+
+            return JobQueryResult.newBuilder()
+                    .addAllItems(combinedPage.getLeft())
+                    .setPagination(combinedPage.getRight())
+                    .build();
+        });
     }
 
     private ClientCall<JobQueryResult> findJobsInCell(JobQuery request) {
         return (client, streamObserver) -> wrap(client).findJobs(request, streamObserver);
     }
 
-    private JobQueryResult combineJobResults(JobQueryResult one, JobQueryResult other) {
-        Pagination pagination = combinePagination(one.getPagination(), other.getPagination());
-        return JobQueryResult.newBuilder()
-                .setPagination(pagination)
-                .addAllItems(one.getItemsList())
-                .addAllItems(other.getItemsList())
-                .build();
-    }
-
     @Override
     public Observable<JobChangeNotification> observeJob(String jobId) {
         JobId request = JobId.newBuilder().setId(jobId).build();
@@ -378,46 +367,36 @@ public class AggregatingJobServiceGateway implements JobServiceGateway {
     }
 
     private Observable<TaskQueryResult> findTasksWithCursorPagination(TaskQuery request, Set<String> fields) {
-        return aggregatingClient.call(JobManagementServiceGrpc::newStub, findTasksInCell(request))
-                .map(CellResponse::getResult)
-                .map(this::addStackName)
-                .reduce(this::combineTaskResults)
-                .map(combinedResults -> {
-                    Pair<List<Task>, Pagination> combinedPage = takeCombinedPage(
-                            request.getPage(),
-                            combinedResults.getItemsList(),
-                            combinedResults.getPagination(),
-                            JobManagerCursors.taskCursorOrderComparator(),
-                            JobManagerCursors::newCursorFrom
-                    );
-
-                    if (!CollectionsExt.isNullOrEmpty(fields)) {
-                        combinedPage = combinedPage.mapLeft(tasks -> tasks.stream()
-                                .map(task -> ProtobufExt.copy(task, fields))
-                                .collect(Collectors.toList())
-                        );
-                    }
-
-                    return TaskQueryResult.newBuilder()
-                            .addAllItems(combinedPage.getLeft())
-                            .setPagination(combinedPage.getRight())
-                            .build();
-                });
+        CellPageCollector<Task> collector = new CellPageCollector<>(
+                getCells(),
+                (cell, cellPage) -> callToCell(cell, connector, JobManagementServiceGrpc::newStub, findTasksInCell(request.toBuilder().setPage(cellPage).build()))
+                        .map(result -> Pair.of(result.getItemsList(), result.getPagination())),
+                JobManagerCursors.taskCursorOrderComparator(),
+                JobManagerCursors::newCursorFrom,
+                grpcConfiguration.getQueryCellDeadlineMs(),
+                Schedulers.computation()
+        );
+        return collector.takePage(request.getPage()).map(page -> {
+            Pair<List<Task>, Pagination> combinedPage = page.mapLeft(tasks -> tasks.stream().map(this::addStackName).collect(Collectors.toList()));
+
+            if (!CollectionsExt.isNullOrEmpty(fields)) {
+                combinedPage = combinedPage.mapLeft(tasks -> tasks.stream()
+                        .map(task -> ProtobufExt.copy(task, fields))
+                        .collect(Collectors.toList())
+                );
+            }
+
+            return TaskQueryResult.newBuilder()
+                    .addAllItems(combinedPage.getLeft())
+                    .setPagination(combinedPage.getRight())
+                    .build();
+        });
     }
 
     private ClientCall<TaskQueryResult> findTasksInCell(TaskQuery request) {
         return (client, streamObserver) -> wrap(client).findTasks(request, streamObserver);
     }
 
-    private TaskQueryResult combineTaskResults(TaskQueryResult one, TaskQueryResult other) {
-        Pagination pagination = combinePagination(one.getPagination(), other.getPagination());
-        return TaskQueryResult.newBuilder()
-                .setPagination(pagination)
-                .addAllItems(one.getItemsList())
-                .addAllItems(other.getItemsList())
-                .build();
-    }
-
     @Override
     public Completable killTask(TaskKillRequest request) {
         Optional<CallMetadata> context = callMetadataResolver.resolve();
@@ -453,16 +432,6 @@ public class AggregatingJobServiceGateway implements JobServiceGateway {
         return result.toCompletable();
     }
 
-    private JobQueryResult addStackName(JobQueryResult result) {
-        List<Job> withStackName = result.getItemsList().stream().map(this::addStackName).collect(Collectors.toList());
-        return result.toBuilder().clearItems().addAllItems(withStackName).build();
-    }
-
-    private TaskQueryResult addStackName(TaskQueryResult result) {
-        List<Task> withStackName = result.getItemsList().stream().map(this::addStackName).collect(Collectors.toList());
-        return result.toBuilder().clearItems().addAllItems(withStackName).build();
-    }
-
     private JobDescriptor addStackName(JobDescriptor jobDescriptor) {
         return jobDescriptor.toBuilder()
                 .putAttributes(JOB_ATTRIBUTES_STACK, federationConfiguration.getStack())
@@ -512,6 +481,13 @@ public class AggregatingJobServiceGateway implements JobServiceGateway {
         return createWrappedStub(client, callMetadataResolver);
     }
 
+    /**
+     * All cells, in a stable order.
+     */
+    private List<Cell> getCells() {
+        return connector.getChannels().keySet().stream().sorted().collect(Collectors.toList());
+    }
+
     private <T> Observable<T> singleCellCall(Cell cell, ClientCall<T> clientCall) {
         return callToCell(cell, connector, JobManagementServiceGrpc::newStub,
                 (client, streamObserver) -> clientCall.accept(wrap(client), streamObserver));
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.federation.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.netflix.titus.api.federation.model.Cell;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.Pagination;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Scheduler;
+
+/**
+ * Builds a federated page with a streaming k-way merge over the cell pages, which are already sorted in the
+ * cursor order.
+ * <ul>
+ * <li>Each cell is queried from its own position, kept in the {@link FederatedCursor}.</li>
+ * <li>Each cell is asked only for about as many items as it contributed to the previous page. If the merge
+ * consumes all items of a cell which has more, the merge stops and that cell is asked for the remaining number
+ * of items, before the merge continues.</li>
+ * <li>A cell that does not respond within the deadline is left out of the page, and its position is not
+ * advanced. The partial page is returned with <tt>hasMore</tt> set, so no item is skipped. If no cell with items
+ * responds in time, the request fails with a {@link TimeoutException}.</li>
+ * </ul>
+ * As items of a cell that timed out may be returned in a later page, the global cursor order across pages
+ * holds only as long as all cells respond in time.
+ */
+class CellPageCollector<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CellPageCollector.class);
+
+    private static final int MAX_INITIAL_PAGE_CAPACITY = 1_000;
+
+    private final Collection<Cell> cells;
+    private final BiFunction<Cell, Page, Observable<Pair<List<T>, Pagination>>> cellQuery;
+    private final Comparator<T> cursorComparator;
+    private final Function<T, String> cursorFactory;
+    private final long cellDeadlineMs;
+    private final Scheduler scheduler;
+
+    CellPageCollector(Collection<Cell> cells,
+                      BiFunction<Cell, Page, Observable<Pair<List<T>, Pagination>>> cellQuery,
+                      Comparator<T> cursorComparator,
+                      Function<T, String> cursorFactory,
+                      long cellDeadlineMs,
+                      Scheduler scheduler) {
+        this.cells = cells;
+        this.cellQuery = cellQuery;
+        this.cursorComparator = cursorComparator;
+        this.cursorFactory = cursorFactory;
+        this.cellDeadlineMs = cellDeadlineMs;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns a single page. With no cells, the result is an empty page with no more items.
+     */
+    Observable<Pair<List<T>, Pagination>> takePage(Page requested) {
+        FederatedCursor cursor = FederatedCursor.decode(requested.getCursor());
+        int pageSize = requested.getPageSize();
+
+        List<Observable<CellState>> initialQueries = cells.stream()
+                .map(cell -> {
+                    CellState cellState = new CellState(cell, cursor);
+                    return queryCell(cellState, getInitialDemand(cell, cursor, pageSize)).map(page -> {
+                        cellState.onInitialPage(page);
+                        return cellState;
+                    });
+                })
+                .collect(Collectors.toList());
+
+        return Observable.merge(initialQueries)
+                .toList()
+                .flatMap(cellStates -> {
+                    // Keep the configured cell order, so the cursor encoding is stable.
+                    Map<String, CellState> byName = new LinkedHashMap<>();
+                    cells.forEach(cell -> cellStates.stream()
+                            .filter(state -> state.cell.equals(cell))
+                            .findFirst()
+                            .ifPresent(state -> byName.put(cell.getName(), state))
+                    );
+                    MergeState mergeState = new MergeState(byName.values(), pageSize);
+                    return merge(mergeState);
+                })
+                .flatMap(mergeState -> {
+                    if (mergeState.pageItems.isEmpty() && mergeState.hasTimedOutCells()) {
+                        return Observable.error(new TimeoutException("No cell with items responded within " + cellDeadlineMs + "ms"));
+                    }
+                    return Observable.just(Pair.of(mergeState.pageItems, mergeState.buildPagination(requested)));
+                });
+    }
+
+    private Observable<MergeState> merge(MergeState mergeState) {
+        Optional<CellState> blocked = mergeState.mergeUntilBlocked();
+        if (!blocked.isPresent()) {
+            return Observable.just(mergeState);
+        }
+        CellState cellState = blocked.get();
+        return queryCell(cellState, mergeState.getRemaining()).flatMap(page -> {
+            cellState.onTopUpPage(page);
+            mergeState.onTopUp(cellState);
+            return merge(mergeState);
+        });
+    }
+
+    private int getInitialDemand(Cell cell, FederatedCursor cursor, int pageSize) {
+        return cursor.getCellLastPageItems(cell.getName())
+                .map(lastPageItems -> lastPageItems >= pageSize / 2 ? pageSize : 2 * lastPageItems + 1)
+                .orElse(pageSize);
+    }
+
+    /**
+     * Queries a single cell from its current position. Emits empty if the cell did not respond within the deadline.
+     */
+    private Observable<Optional<Pair<List<T>, Pagination>>> queryCell(CellState cellState, int demand) {
+        Page cellPage = Page.newBuilder()
+                .setPageSize(demand)
+                .setCursor(cellState.cursor)
+                .build();
+        return cellQuery.apply(cellState.cell, cellPage)
+                .timeout(cellDeadlineMs, TimeUnit.MILLISECONDS, scheduler)
+                .map(Optional::of)
+                .onErrorResumeNext(error -> {
+                    if (isTimeout(error)) {
+                        logger.info("Cell {} did not respond to a query within {}ms", cellState.cell.getName(), cellDeadlineMs);
+                        return Observable.just(Optional.empty());
+                    }
+                    return Observable.error(error);
+                });
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        return error instanceof TimeoutException || Status.fromThrowable(error).getCode() == Status.Code.DEADLINE_EXCEEDED;
+    }
+
+    private class CellState {
+
+        private final Cell cell;
+
+        /**
+         * Cursor pointing to the last item of this cell included in the page, or the initial cell cursor.
+         */
+        private String cursor;
+        private final Optional<Integer> initialPosition;
+
+        private boolean timedOut;
+        private boolean hasMore;
+        private int precedingItems;
+        private int totalItems;
+        private int consumed;
+        private final Deque<T> fetched = new ArrayDeque<>();
+
+        private CellState(Cell cell, FederatedCursor federatedCursor) {
+            this.cell = cell;
+            this.cursor = federatedCursor.getCellCursor(cell.getName());
+            this.initialPosition = federatedCursor.getCellPosition(cell.getName());
+        }
+
+        private void onInitialPage(Optional<Pair<List<T>, Pagination>> page) {
+            if (!page.isPresent()) {
+                this.timedOut = true;
+                this.precedingItems = initialPosition.orElse(0);
+                return;
+            }
+            List<T> items = page.get().getLeft();
+            Pagination pagination = page.get().getRight();
+            // The cell cursor position points to the last returned item (or the last item before the cursor, if
+            // nothing was returned), which gives the number of cell items preceding this page.
+            this.precedingItems = pagination.getTotalItems() == 0 ? 0 : Math.max(0, pagination.getCursorPosition() + 1 - items.size());
+            onPage(items, pagination);
+        }
+
+        private void onTopUpPage(Optional<Pair<List<T>, Pagination>> page) {
+            if (!page.isPresent()) {
+                this.timedOut = true;
+                return;
+            }
+            onPage(page.get().getLeft(), page.get().getRight());
+        }
+
+        private void onPage(List<T> items, Pagination pagination) {
+            this.fetched.addAll(items);
+            this.hasMore = pagination.getHasMore();
+            this.totalItems = pagination.getTotalItems();
+        }
+
+        private T consume() {
+            T item = fetched.poll();
+            consumed++;
+            cursor = cursorFactory.apply(item);
+            return item;
+        }
+
+        /**
+         * True, if all fetched items are consumed, but the cell has more, so the merge cannot continue without them.
+         */
+        private boolean isBlocking() {
+            return !timedOut && fetched.isEmpty() && hasMore;
+        }
+
+        private boolean hasMoreItems() {
+            return timedOut || hasMore || !fetched.isEmpty();
+        }
+    }
+
+    private class MergeState {
+
+        private final Collection<CellState> cellStates;
+        private final int pageSize;
+        private final List<T> pageItems;
+        private final PriorityQueue<Pair<T, CellState>> heads;
+
+        private MergeState(Collection<CellState> cellStates, int pageSize) {
+            this.cellStates = cellStates;
+            this.pageSize = pageSize;
+            this.pageItems = new ArrayList<>(Math.min(pageSize, MAX_INITIAL_PAGE_CAPACITY));
+            this.heads = new PriorityQueue<>(Math.max(1, cellStates.size()), (first, second) -> cursorComparator.compare(first.getLeft(), second.getLeft()));
+            cellStates.forEach(this::addHead);
+        }
+
+        private int getRemaining() {
+            return pageSize - pageItems.size();
+        }
+
+        private boolean hasTimedOutCells() {
+            return cellStates.stream().anyMatch(state -> state.timedOut);
+        }
+
+        /**
+         * Merges the fetched items until the page is full, or a cell runs out of fetched items while it has more.
+         * In the latter case that cell is returned, and must be topped up before the merge continues.
+         */
+        private Optional<CellState> mergeUntilBlocked() {
+            while (pageItems.size() < pageSize && !heads.isEmpty()) {
+                CellState cellState = heads.poll().getRight();
+                pageItems.add(cellState.consume());
+                if (!addHead(cellState) && cellState.isBlocking() && pageItems.size() < pageSize) {
+                    return Optional.of(cellState);
+                }
+            }
+            return Optional.empty();
+        }
+
+        private void onTopUp(CellState cellState) {
+            addHead(cellState);
+        }
+
+        private boolean addHead(CellState cellState) {
+            T head = cellState.fetched.peek();
+            if (head == null) {
+                return false;
+            }
+            heads.add(Pair.of(head, cellState));
+            return true;
+        }
+
+        private Pagination buildPagination(Page requested) {
+            int firstItemPosition = 0;
+            int totalItems = 0;
+            boolean hasMore = false;
+            FederatedCursor.Builder cursorBuilder = FederatedCursor.newBuilder();
+            for (CellState cellState : cellStates) {
+                firstItemPosition += cellState.precedingItems;
+                totalItems += cellState.totalItems;
+                hasMore |= cellState.hasMoreItems();
+                cursorBuilder.withCell(cellState.cell.getName(), cellState.cursor, cellState.precedingItems + cellState.consumed, cellState.consumed);
+            }
+            int totalPages = (int) ((totalItems + (long) pageSize - 1) / pageSize);
+
+            return Pagination.newBuilder()
+                    .setCurrentPage(Page.newBuilder(requested).setPageNumber(firstItemPosition / pageSize))
+                    .setHasMore(hasMore)
+                    .setTotalItems(totalItems)
+                    .setTotalPages(totalPages)
+                    .setCursor(pageItems.isEmpty() && !hasMore ? "" : cursorBuilder.build().encode())
+                    .setCursorPosition(Math.max(0, firstItemPosition + pageItems.size() - 1))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.federation.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.netflix.titus.common.util.StringExt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pagination cursor returned by the federation. It holds a separate position for each cell, so each cell can be
+ * queried from the place where the previous page stopped consuming its items. The cursor is opaque to clients.
+ * Cursors not produced by the federation (for example, a cursor returned by a cell) are applied to all cells as is.
+ */
+final class FederatedCursor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FederatedCursor.class);
+
+    private static final String VERSION_PREFIX = "fc1";
+    private static final char ENTRY_SEPARATOR = ';';
+    private static final char FIELD_SEPARATOR = ',';
+
+    private static final FederatedCursor EMPTY = new FederatedCursor("", Collections.emptyMap());
+
+    private final String sharedCursor;
+    private final Map<String, CellPosition> cellPositions;
+
+    private FederatedCursor(String sharedCursor, Map<String, CellPosition> cellPositions) {
+        this.sharedCursor = sharedCursor;
+        this.cellPositions = cellPositions;
+    }
+
+    /**
+     * Cursor of the given cell. Cells not known to this cursor are queried with the shared cursor.
+     */
+    String getCellCursor(String cellName) {
+        CellPosition position = cellPositions.get(cellName);
+        return position == null ? sharedCursor : position.getCursor();
+    }
+
+    /**
+     * The number of cell items preceding the cell cursor, or empty if not known.
+     */
+    Optional<Integer> getCellPosition(String cellName) {
+        return Optional.ofNullable(cellPositions.get(cellName)).map(CellPosition::getPosition);
+    }
+
+    /**
+     * The number of cell items included in the page, that returned this cursor, or empty if not known.
+     */
+    Optional<Integer> getCellLastPageItems(String cellName) {
+        return Optional.ofNullable(cellPositions.get(cellName)).map(CellPosition::getLastPageItems);
+    }
+
+    String encode() {
+        StringBuilder sb = new StringBuilder(VERSION_PREFIX);
+        cellPositions.forEach((cellName, position) -> sb.append(ENTRY_SEPARATOR)
+                .append(cellName).append(FIELD_SEPARATOR)
+                .append(position.getPosition()).append(FIELD_SEPARATOR)
+                .append(position.getLastPageItems()).append(FIELD_SEPARATOR)
+                .append(encodeBase64(position.getCursor()))
+        );
+        return encodeBase64(sb.toString());
+    }
+
+    static FederatedCursor decode(String cursor) {
+        if (StringExt.isEmpty(cursor)) {
+            return EMPTY;
+        }
+        return decodeFederated(cursor).orElseGet(() -> new FederatedCursor(cursor, Collections.emptyMap()));
+    }
+
+    static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private static Optional<FederatedCursor> decodeFederated(String cursor) {
+        String decoded;
+        try {
+            decoded = decodeBase64(cursor);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+        if (!decoded.startsWith(VERSION_PREFIX + ENTRY_SEPARATOR) && !decoded.equals(VERSION_PREFIX)) {
+            return Optional.empty();
+        }
+
+        Map<String, CellPosition> cellPositions = new HashMap<>();
+        try {
+            for (String entry : decoded.substring(VERSION_PREFIX.length()).split(String.valueOf(ENTRY_SEPARATOR))) {
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                // The cell cursor is base64 encoded, as it may contain the separator characters.
+                String[] fields = entry.split(String.valueOf(FIELD_SEPARATOR), 4);
+                cellPositions.put(fields[0], new CellPosition(decodeBase64(fields[3]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2])));
+            }
+        } catch (Exception e) {
+            logger.debug("Invalid federated cursor: {}", decoded, e);
+            return Optional.empty();
+        }
+        return Optional.of(new FederatedCursor("", cellPositions));
+    }
+
+    private static String encodeBase64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeBase64(String value) {
+        return new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FederatedCursor that = (FederatedCursor) o;
+        return Objects.equals(sharedCursor, that.sharedCursor) &&
+                Objects.equals(cellPositions, that.cellPositions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sharedCursor, cellPositions);
+    }
+
+    @Override
+    public String toString() {
+        return "FederatedCursor{" +
+                "sharedCursor='" + sharedCursor + '\'' +
+                ", cellPositions=" + cellPositions +
+                '}';
+    }
+
+    static final class Builder {
+
+        private final Map<String, CellPosition> cellPositions = new HashMap<>();
+
+        private Builder() {
+        }
+
+        Builder withCell(String cellName, String cursor, int position, int lastPageItems) {
+            cellPositions.put(cellName, new CellPosition(cursor, position, lastPageItems));
+            return this;
+        }
+
+        FederatedCursor build() {
+            return new FederatedCursor("", cellPositions);
+        }
+    }
+
+    private static final class CellPosition {
+
+        private final String cursor;
+        private final int position;
+        private final int lastPageItems;
+
+        private CellPosition(String cursor, int position, int lastPageItems) {
+            this.cursor = cursor;
+            this.position = position;
+            this.lastPageItems = lastPageItems;
+        }
+
+        private String getCursor() {
+            return cursor;
+        }
+
+        private int getPosition() {
+            return position;
+        }
+
+        private int getLastPageItems() {
+            return lastPageItems;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CellPosition that = (CellPosition) o;
+            return position == that.position &&
+                    lastPageItems == that.lastPageItems &&
+                    Objects.equals(cursor, that.cursor);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cursor, position, lastPageItems);
+        }
+
+        @Override
+        public String toString() {
+            return "CellPosition{" +
+                    "cursor='" + cursor + '\'' +
+                    ", position=" + position +
+                    ", lastPageItems=" + lastPageItems +
+                    '}';
+        }
+    }
+}
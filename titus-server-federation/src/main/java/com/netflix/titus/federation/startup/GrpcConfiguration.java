@@ -24,4 +24,11 @@ public interface GrpcConfiguration {
 
     @DefaultValue("10000")
     long getRequestTimeoutMs();
+
+    /**
+     * Maximum amount of time to wait for a single cell response to a findJobs or findTasks query. Cells that do not
+     * respond in time are left out of the returned page, which is then a partial page.
+     */
+    @DefaultValue("5000")
+    long getQueryCellDeadlineMs();
 }
@@ -116,6 +116,7 @@ public class AggregatingJobServiceGatewayTest {
 
         GrpcConfiguration grpcConfiguration = mock(GrpcConfiguration.class);
         when(grpcConfiguration.getRequestTimeoutMs()).thenReturn(GRPC_REQUEST_TIMEOUT_MS);
+        when(grpcConfiguration.getQueryCellDeadlineMs()).thenReturn(GRPC_REQUEST_TIMEOUT_MS);
 
         TitusFederationConfiguration titusFederationConfiguration = mock(TitusFederationConfiguration.class);
         when(titusFederationConfiguration.getStack()).thenReturn(stackName);
@@ -340,6 +341,34 @@ public class AggregatingJobServiceGatewayTest {
         testSubscriber.assertNoValues();
     }
 
+    @Test
+    public void findJobsWithTimedOutCellReturnsPartialPage() {
+        List<Job> cellTwoSnapshot = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            cellTwoSnapshot.addAll(dataGenerator.newBatchJobs(5, GrpcJobManagementModelConverters::toGrpcJob));
+            clock.advanceTime(1, TimeUnit.MINUTES);
+        }
+        cellOne.getServiceRegistry().addService(new CellWithFailingJobManagementService(DEADLINE_EXCEEDED));
+        cellTwo.getServiceRegistry().addService(new CellWithFixedJobsService(cellTwoSnapshot, cellTwoUpdates.serialize()));
+
+        JobQuery query = JobQuery.newBuilder()
+                .setPage(toGrpcPage(Page.unlimited()))
+                .build();
+
+        final AssertableSubscriber<JobQueryResult> testSubscriber = service.findJobs(query).test();
+        testSubscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+        testSubscriber.assertNoErrors().assertValueCount(1);
+
+        JobQueryResult result = testSubscriber.getOnNextEvents().get(0);
+        List<Job> expected = cellTwoSnapshot.stream()
+                .sorted(JobManagerCursors.jobCursorOrderComparator())
+                .map(this::withStackName)
+                .collect(Collectors.toList());
+        assertThat(result.getItemsList()).containsExactlyElementsOf(expected);
+        // Items of the timed out cell were not seen yet.
+        assertThat(result.getPagination().getHasMore()).isTrue();
+    }
+
     @Test
     public void findJobsWithFieldFiltering() {
         Pair<List<Job>, List<Job>> cellSnapshots = generateTestJobs();
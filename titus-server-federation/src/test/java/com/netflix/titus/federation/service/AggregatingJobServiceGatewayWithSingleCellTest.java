@@ -74,6 +74,7 @@ public class AggregatingJobServiceGatewayWithSingleCellTest {
 
         GrpcConfiguration grpcClientConfiguration = mock(GrpcConfiguration.class);
         when(grpcClientConfiguration.getRequestTimeoutMs()).thenReturn(1000L);
+        when(grpcClientConfiguration.getQueryCellDeadlineMs()).thenReturn(1000L);
 
         TitusFederationConfiguration titusFederationConfiguration = mock(TitusFederationConfiguration.class);
         when(titusFederationConfiguration.getStack()).thenReturn(stackName);
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.federation.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.netflix.titus.api.federation.model.Cell;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.Pagination;
+import org.junit.Test;
+import rx.Observable;
+import rx.observers.AssertableSubscriber;
+import rx.schedulers.TestScheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CellPageCollectorTest {
+
+    private static final long CELL_DEADLINE_MS = 1_000;
+
+    private static final Cell CELL_ONE = new Cell("one", "1");
+    private static final Cell CELL_TWO = new Cell("two", "2");
+    private static final Cell CELL_THREE = new Cell("three", "3");
+
+    private final TestScheduler testScheduler = new TestScheduler();
+
+    private final Map<Cell, List<Integer>> cellItems = new HashMap<>();
+    private final Map<Cell, List<Integer>> cellDemands = new HashMap<>();
+    private final Set<Cell> hangingCells = new HashSet<>();
+
+    @Test
+    public void testWalkAllPages() {
+        cellItems.put(CELL_ONE, itemsFrom(0, 3, 50));
+        cellItems.put(CELL_TWO, itemsFrom(1, 3, 50));
+        cellItems.put(CELL_THREE, itemsFrom(2, 3, 50));
+        List<Integer> expected = IntStream.range(0, 150).boxed().collect(Collectors.toList());
+
+        for (int pageSize : Arrays.asList(1, 7, 10, 149, 150, 1_000)) {
+            assertThat(walkAllPages(newCollector(CELL_ONE, CELL_TWO, CELL_THREE), pageSize))
+                    .describedAs("Page size %s", pageSize)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    public void testWalkAllPagesWithUnevenCells() {
+        cellItems.put(CELL_ONE, IntStream.range(0, 90).boxed().collect(Collectors.toList()));
+        cellItems.put(CELL_TWO, IntStream.range(90, 100).boxed().collect(Collectors.toList()));
+        cellItems.put(CELL_THREE, Collections.emptyList());
+        List<Integer> expected = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+        assertThat(walkAllPages(newCollector(CELL_ONE, CELL_TWO, CELL_THREE), 10)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void testPaginationOfFirstPage() {
+        cellItems.put(CELL_ONE, itemsFrom(0, 2, 10));
+        cellItems.put(CELL_TWO, itemsFrom(1, 2, 10));
+
+        Pair<List<Integer>, Pagination> page = takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(5, ""));
+
+        assertThat(page.getLeft()).containsExactly(0, 1, 2, 3, 4);
+        Pagination pagination = page.getRight();
+        assertThat(pagination.getHasMore()).isTrue();
+        assertThat(pagination.getTotalItems()).isEqualTo(20);
+        assertThat(pagination.getTotalPages()).isEqualTo(4);
+        assertThat(pagination.getCurrentPage().getPageNumber()).isEqualTo(0);
+        assertThat(pagination.getCursorPosition()).isEqualTo(4);
+
+        FederatedCursor cursor = FederatedCursor.decode(pagination.getCursor());
+        assertThat(cursor.getCellCursor(CELL_ONE.getName())).isEqualTo("4");
+        assertThat(cursor.getCellCursor(CELL_TWO.getName())).isEqualTo("3");
+        assertThat(cursor.getCellPosition(CELL_ONE.getName())).contains(3);
+        assertThat(cursor.getCellPosition(CELL_TWO.getName())).contains(2);
+
+        Pair<List<Integer>, Pagination> nextPage = takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(5, pagination.getCursor()));
+        assertThat(nextPage.getLeft()).containsExactly(5, 6, 7, 8, 9);
+        assertThat(nextPage.getRight().getCurrentPage().getPageNumber()).isEqualTo(1);
+        assertThat(nextPage.getRight().getCursorPosition()).isEqualTo(9);
+    }
+
+    @Test
+    public void testCellDemandFollowsPreviousPage() {
+        cellItems.put(CELL_ONE, IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+        cellItems.put(CELL_TWO, IntStream.range(1_000, 1_100).boxed().collect(Collectors.toList()));
+
+        Pair<List<Integer>, Pagination> page = takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(10, ""));
+        assertThat(page.getLeft()).hasSize(10);
+        cellDemands.clear();
+
+        takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(10, page.getRight().getCursor()));
+
+        // Cell one filled the whole previous page, so it is asked for the full page. Cell two contributed nothing,
+        // so it is asked for a single item only.
+        assertThat(cellDemands.get(CELL_ONE)).containsExactly(10);
+        assertThat(cellDemands.get(CELL_TWO)).containsExactly(1);
+    }
+
+    @Test
+    public void testCellIsToppedUpWhenItRunsOutOfItems() {
+        cellItems.put(CELL_ONE, IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+        cellItems.put(CELL_TWO, IntStream.range(1_000, 1_100).boxed().collect(Collectors.toList()));
+
+        Pair<List<Integer>, Pagination> page = takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(10, ""));
+        // Move cell one to its end, so cell two must provide the items.
+        page = takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(90, page.getRight().getCursor()));
+        assertThat(page.getLeft()).hasSize(90);
+        cellDemands.clear();
+
+        page = takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(10, page.getRight().getCursor()));
+
+        assertThat(page.getLeft()).containsExactlyElementsOf(IntStream.range(1_000, 1_010).boxed().collect(Collectors.toList()));
+        assertThat(cellDemands.get(CELL_TWO)).containsExactly(1, 9);
+    }
+
+    @Test
+    public void testTimedOutCellIsLeftOutOfPage() {
+        cellItems.put(CELL_ONE, itemsFrom(0, 2, 10));
+        cellItems.put(CELL_TWO, itemsFrom(1, 2, 10));
+        hangingCells.add(CELL_TWO);
+
+        AssertableSubscriber<Pair<List<Integer>, Pagination>> subscriber = newCollector(CELL_ONE, CELL_TWO).takePage(pageOf(5, "")).test();
+        testScheduler.advanceTimeBy(CELL_DEADLINE_MS, TimeUnit.MILLISECONDS);
+        subscriber.assertNoErrors().assertValueCount(1);
+
+        Pair<List<Integer>, Pagination> page = subscriber.getOnNextEvents().get(0);
+        assertThat(page.getLeft()).containsExactly(0, 2, 4, 6, 8);
+        assertThat(page.getRight().getHasMore()).isTrue();
+
+        // Once the cell responds again, its items are returned from its original position.
+        hangingCells.clear();
+        List<Integer> remaining = new ArrayList<>();
+        String cursor = page.getRight().getCursor();
+        while (true) {
+            Pair<List<Integer>, Pagination> next = takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(5, cursor));
+            remaining.addAll(next.getLeft());
+            if (!next.getRight().getHasMore()) {
+                break;
+            }
+            cursor = next.getRight().getCursor();
+        }
+        assertThat(remaining).containsExactlyInAnyOrderElementsOf(Arrays.asList(1, 3, 5, 7, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19));
+    }
+
+    @Test
+    public void testAllCellsTimingOutFails() {
+        cellItems.put(CELL_ONE, itemsFrom(0, 2, 10));
+        cellItems.put(CELL_TWO, itemsFrom(1, 2, 10));
+        hangingCells.add(CELL_ONE);
+        hangingCells.add(CELL_TWO);
+
+        AssertableSubscriber<Pair<List<Integer>, Pagination>> subscriber = newCollector(CELL_ONE, CELL_TWO).takePage(pageOf(5, "")).test();
+        testScheduler.advanceTimeBy(CELL_DEADLINE_MS, TimeUnit.MILLISECONDS);
+
+        subscriber.assertError(TimeoutException.class);
+    }
+
+    @Test
+    public void testNoCellsReturnsEmptyPage() {
+        Pair<List<Integer>, Pagination> page = takePage(newCollector(), pageOf(5, ""));
+
+        assertThat(page.getLeft()).isEmpty();
+        assertThat(page.getRight().getHasMore()).isFalse();
+        assertThat(page.getRight().getTotalItems()).isEqualTo(0);
+        assertThat(page.getRight().getCursor()).isEmpty();
+    }
+
+    @Test
+    public void testCellCursorIsAppliedToAllCells() {
+        cellItems.put(CELL_ONE, itemsFrom(0, 2, 10));
+        cellItems.put(CELL_TWO, itemsFrom(1, 2, 10));
+
+        Pair<List<Integer>, Pagination> page = takePage(newCollector(CELL_ONE, CELL_TWO), pageOf(3, "9"));
+
+        assertThat(page.getLeft()).containsExactly(10, 11, 12);
+    }
+
+    @Test
+    public void testFederatedCursorEncoding() {
+        FederatedCursor cursor = FederatedCursor.newBuilder()
+                .withCell("one", "abc,def;ghi", 10, 2)
+                .withCell("two", "", 0, 0)
+                .build();
+
+        FederatedCursor decoded = FederatedCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.getCellCursor("one")).isEqualTo("abc,def;ghi");
+        assertThat(decoded.getCellPosition("one")).contains(10);
+        assertThat(decoded.getCellLastPageItems("one")).contains(2);
+        assertThat(decoded.getCellCursor("three")).isEmpty();
+        assertThat(decoded.getCellPosition("three")).isEmpty();
+    }
+
+    @Test
+    public void testNonFederatedCursorIsSharedByAllCells() {
+        FederatedCursor decoded = FederatedCursor.decode("someCellCursor");
+
+        assertThat(decoded.getCellCursor("one")).isEqualTo("someCellCursor");
+        assertThat(decoded.getCellCursor("two")).isEqualTo("someCellCursor");
+        assertThat(decoded.getCellLastPageItems("one")).isEmpty();
+    }
+
+    private CellPageCollector<Integer> newCollector(Cell... cells) {
+        return new CellPageCollector<>(
+                Arrays.asList(cells),
+                this::queryCell,
+                Integer::compare,
+                String::valueOf,
+                CELL_DEADLINE_MS,
+                testScheduler
+        );
+    }
+
+    private List<Integer> walkAllPages(CellPageCollector<Integer> collector, int pageSize) {
+        List<Integer> all = new ArrayList<>();
+        String cursor = "";
+        while (true) {
+            Pair<List<Integer>, Pagination> page = takePage(collector, pageOf(pageSize, cursor));
+            all.addAll(page.getLeft());
+            assertThat(page.getLeft().size()).isLessThanOrEqualTo(pageSize);
+            if (!page.getRight().getHasMore()) {
+                return all;
+            }
+            assertThat(page.getLeft()).hasSize(pageSize);
+            cursor = page.getRight().getCursor();
+        }
+    }
+
+    private Pair<List<Integer>, Pagination> takePage(CellPageCollector<Integer> collector, Page page) {
+        AssertableSubscriber<Pair<List<Integer>, Pagination>> subscriber = collector.takePage(page).test();
+        subscriber.assertNoErrors().assertCompleted().assertValueCount(1);
+        return subscriber.getOnNextEvents().get(0);
+    }
+
+    /**
+     * Follows the cell pagination semantics: the cursor position points to the last returned item, or to the last
+     * item before the cursor, if no items are returned.
+     */
+    private Observable<Pair<List<Integer>, Pagination>> queryCell(Cell cell, Page page) {
+        cellDemands.computeIfAbsent(cell, c -> new ArrayList<>()).add(page.getPageSize());
+        if (hangingCells.contains(cell)) {
+            return Observable.never();
+        }
+        List<Integer> items = cellItems.getOrDefault(cell, Collections.emptyList());
+        int offset = 0;
+        if (!page.getCursor().isEmpty()) {
+            int cursorValue = Integer.parseInt(page.getCursor());
+            while (offset < items.size() && items.get(offset) <= cursorValue) {
+                offset++;
+            }
+        }
+        int end = Math.min(items.size(), offset + page.getPageSize());
+        List<Integer> pageItems = new ArrayList<>(items.subList(offset, end));
+        Pagination pagination = Pagination.newBuilder()
+                .setCurrentPage(page)
+                .setHasMore(end < items.size())
+                .setTotalItems(items.size())
+                .setCursorPosition(pageItems.isEmpty() ? Math.max(0, offset - 1) : end - 1)
+                .build();
+        return Observable.just(Pair.of(pageItems, pagination));
+    }
+
+    private static List<Integer> itemsFrom(int start, int step, int count) {
+        return IntStream.range(0, count).map(i -> start + i * step).boxed().collect(Collectors.toList());
+    }
+
+    private static Page pageOf(int pageSize, String cursor) {
+        return Page.newBuilder().setPageSize(pageSize).setCursor(cursor).build();
+    }
+}
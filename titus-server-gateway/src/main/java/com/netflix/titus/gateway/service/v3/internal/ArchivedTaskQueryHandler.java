@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.gateway.service.v3.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.LogStorageInfo;
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.api.jobmanager.store.JobStore;
+import com.netflix.titus.api.jobmanager.store.JobStoreException;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.StringExt;
+import com.netflix.titus.common.util.time.Clock;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.grpc.protogen.JobDescriptor;
+import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.Task;
+import com.netflix.titus.grpc.protogen.TaskQuery;
+import com.netflix.titus.grpc.protogen.TaskStatus;
+import com.netflix.titus.runtime.endpoint.JobQueryCriteria;
+import com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobManagementModelConverters;
+import com.netflix.titus.runtime.jobmanager.JobManagerCursors;
+import rx.Observable;
+
+import static com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobQueryModelConverters.toJobQueryCriteria;
+
+/**
+ * Reads the archived tasks of a job, page by page, and keeps only those that may be part of the requested page.
+ * Finished tasks never change, so their GRPC representations are cached in a cache bounded by the serialized size.
+ */
+@Singleton
+class ArchivedTaskQueryHandler {
+
+    private static final int MAX_CONCURRENT_JOBS_TO_RETRIEVE = 10;
+    private static final int MAX_CONCURRENT_TASKS_TO_RETRIEVE = 50;
+
+    private final GatewayConfiguration configuration;
+    private final JobStore store;
+    private final LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo;
+    private final Clock clock;
+
+    private final Cache<String, Pair<com.netflix.titus.api.jobmanager.model.job.Task, Task>> finishedTasks;
+
+    @Inject
+    ArchivedTaskQueryHandler(GatewayConfiguration configuration,
+                             JobStore store,
+                             LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo,
+                             TitusRuntime titusRuntime) {
+        this.configuration = configuration;
+        this.store = store;
+        this.logStorageInfo = logStorageInfo;
+        this.clock = titusRuntime.getClock();
+        this.finishedTasks = CacheBuilder.newBuilder()
+                .maximumWeight(configuration.getArchivedTaskCacheMaxSizeBytes())
+                .<String, Pair<com.netflix.titus.api.jobmanager.model.job.Task, Task>>weigher((taskId, tasks) -> tasks.getRight().getSerializedSize())
+                .build();
+    }
+
+    /**
+     * Returns the archived tasks of the given jobs that may be included in the page requested by the task query,
+     * in the cursor order, together with the total number of archived tasks matching the query.
+     */
+    Observable<Pair<List<Task>, Integer>> findArchivedTasks(Set<String> jobIds, TaskQuery taskQuery) {
+        JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> taskQueryCriteria = toJobQueryCriteria(taskQuery);
+
+        return Observable.from(jobIds)
+                .flatMap(this::retrieveArchivedTasksForJob, MAX_CONCURRENT_JOBS_TO_RETRIEVE)
+                .filter(tasks -> matches(taskQueryCriteria, tasks.getLeft()))
+                .map(Pair::getRight)
+                .collect(() -> new PageWindow(taskQuery.getPage()), PageWindow::add)
+                .map(PageWindow::toResult);
+    }
+
+    private Observable<Pair<com.netflix.titus.api.jobmanager.model.job.Task, Task>> retrieveArchivedTasksForJob(String jobId) {
+        return retrieveArchivedTaskIdPages(jobId, "").concatMap(taskIds ->
+                Observable.from(taskIds).flatMap(this::retrieveArchivedTask, MAX_CONCURRENT_TASKS_TO_RETRIEVE)
+        );
+    }
+
+    private Observable<List<String>> retrieveArchivedTaskIdPages(String jobId, String pagingState) {
+        return store.retrieveArchivedTaskIdsForJob(jobId, configuration.getArchivedTaskReadPageSize(), pagingState).concatMap(page -> {
+            Observable<List<String>> current = Observable.just(page.getLeft());
+            if (StringExt.isEmpty(page.getRight())) {
+                return current;
+            }
+            return current.concatWith(Observable.defer(() -> retrieveArchivedTaskIdPages(jobId, page.getRight())));
+        });
+    }
+
+    private Observable<Pair<com.netflix.titus.api.jobmanager.model.job.Task, Task>> retrieveArchivedTask(String taskId) {
+        Pair<com.netflix.titus.api.jobmanager.model.job.Task, Task> cached = finishedTasks.getIfPresent(taskId);
+        if (cached != null) {
+            return Observable.just(cached);
+        }
+        return store.retrieveArchivedTask(taskId)
+                .map(task -> {
+                    if (task.getStatus().getState() == TaskState.Finished) {
+                        Pair<com.netflix.titus.api.jobmanager.model.job.Task, Task> tasks = Pair.of(task, GrpcJobManagementModelConverters.toGrpcTask(task, logStorageInfo));
+                        finishedTasks.put(taskId, tasks);
+                        return tasks;
+                    }
+                    com.netflix.titus.api.jobmanager.model.job.Task fixedTask = JobFunctions.fixArchivedTaskStatus(task, clock);
+                    return Pair.of(fixedTask, GrpcJobManagementModelConverters.toGrpcTask(fixedTask, logStorageInfo));
+                })
+                .onErrorResumeNext(e -> {
+                    // The task id and the task record are not written atomically, so a missing record is not an error.
+                    if (e instanceof JobStoreException && ((JobStoreException) e).getErrorCode() == JobStoreException.ErrorCode.TASK_DOES_NOT_EXIST) {
+                        return Observable.empty();
+                    }
+                    return Observable.error(e);
+                });
+    }
+
+    /**
+     * We cannot use V3TaskQueryCriteriaEvaluator here as we do not have the job record, and requesting it
+     * is expensive. To get here, a user has to provide job id(s) for which finished tasks are requested.
+     * Because of that we do not need all the filtering criteria which mostly work at the job level to
+     * exclude jobs from the query result. Instead we implement a few that make sense for task.
+     */
+    private boolean matches(JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> taskQueryCriteria,
+                            com.netflix.titus.api.jobmanager.model.job.Task task) {
+        Set<String> expectedStateReasons = taskQueryCriteria.getTaskStateReasons();
+        if (!expectedStateReasons.isEmpty() && !expectedStateReasons.contains(task.getStatus().getReasonCode())) {
+            return false;
+        }
+        if (taskQueryCriteria.isSkipSystemFailures()) {
+            if (com.netflix.titus.api.jobmanager.model.job.TaskStatus.isSystemError(task.getStatus())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the smallest (in the cursor order) tasks that follow the query cursor. The window is large enough to
+     * compute the requested page, and to tell if there are more items after it, when merged with the active tasks.
+     */
+    private static class PageWindow {
+
+        private final Comparator<Task> comparator = JobManagerCursors.taskCursorOrderComparator();
+
+        private final int limit;
+        private final Optional<Task> cursorTask;
+        private final PriorityQueue<Task> largestFirst;
+
+        private int matchingTasks;
+
+        private PageWindow(Page page) {
+            if (StringExt.isEmpty(page.getCursor())) {
+                this.limit = (int) Math.min(Integer.MAX_VALUE, (page.getPageNumber() + 1L) * page.getPageSize() + 1);
+                this.cursorTask = Optional.empty();
+            } else {
+                this.limit = page.getPageSize() + 1;
+                this.cursorTask = JobManagerCursors.decode(page.getCursor()).map(cursorValues -> Task.newBuilder()
+                        .setId(cursorValues.getLeft())
+                        .setStatus(TaskStatus.newBuilder().setState(TaskStatus.TaskState.Accepted).setTimestamp(cursorValues.getRight()))
+                        .build()
+                );
+            }
+            this.largestFirst = new PriorityQueue<>(comparator.reversed());
+        }
+
+        private void add(Task task) {
+            matchingTasks++;
+            if (cursorTask.isPresent() && comparator.compare(task, cursorTask.get()) <= 0) {
+                return;
+            }
+            if (largestFirst.size() < limit) {
+                largestFirst.add(task);
+            } else if (comparator.compare(task, largestFirst.peek()) < 0) {
+                largestFirst.poll();
+                largestFirst.add(task);
+            }
+        }
+
+        private Pair<List<Task>, Integer> toResult() {
+            List<Task> tasks = new ArrayList<>(largestFirst);
+            tasks.sort(comparator);
+            return Pair.of(tasks, matchingTasks);
+        }
+    }
+}
@@ -27,4 +27,30 @@ public interface GatewayConfiguration {
      */
     @DefaultValue("5000")
     int getMaxTaskPageSize();
+
+    /**
+     * If set to true, the active job and task queries (findJob, findJobs, findTask, findTasks) are served from the
+     * gateway local job data replica, instead of calling TitusMaster. The queries are proxied to TitusMaster if
+     * the replica is more stale than {@link #getMaxReplicatedJobDataStalenessMs()}.
+     */
+    @DefaultValue("false")
+    boolean isJobQueryFromReplicaEnabled();
+
+    /**
+     * Maximum staleness of the local job data replica, above which the job and task queries are proxied to TitusMaster.
+     */
+    @DefaultValue("5000")
+    long getMaxReplicatedJobDataStalenessMs();
+
+    /**
+     * Number of archived task ids read from the job store in a single request.
+     */
+    @DefaultValue("500")
+    int getArchivedTaskReadPageSize();
+
+    /**
+     * Maximum size (in bytes of the serialized GRPC representation) of the finished tasks kept in the archived task cache.
+     */
+    @DefaultValue("67108864")
+    long getArchivedTaskCacheMaxSizeBytes();
 }
@@ -48,17 +48,16 @@ import com.netflix.titus.common.util.StringExt;
 import com.netflix.titus.common.util.time.Clock;
 import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.grpc.protogen.Job;
-import com.netflix.titus.grpc.protogen.JobDescriptor;
 import com.netflix.titus.grpc.protogen.JobId;
 import com.netflix.titus.grpc.protogen.JobManagementServiceGrpc.JobManagementServiceStub;
+import com.netflix.titus.grpc.protogen.JobQuery;
+import com.netflix.titus.grpc.protogen.JobQueryResult;
 import com.netflix.titus.grpc.protogen.Page;
 import com.netflix.titus.grpc.protogen.Task;
 import com.netflix.titus.grpc.protogen.TaskId;
 import com.netflix.titus.grpc.protogen.TaskQuery;
 import com.netflix.titus.grpc.protogen.TaskQueryResult;
-import com.netflix.titus.grpc.protogen.TaskStatus;
 import com.netflix.titus.runtime.connector.GrpcRequestConfiguration;
-import com.netflix.titus.runtime.endpoint.JobQueryCriteria;
 import com.netflix.titus.common.model.admission.AdmissionSanitizer;
 import com.netflix.titus.common.model.admission.AdmissionValidator;
 import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
@@ -84,7 +83,6 @@ import static com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil.createRequ
 import static com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil.createSimpleClientResponseObserver;
 import static com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil.createWrappedStub;
 import static com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobQueryModelConverters.toGrpcPagination;
-import static com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobQueryModelConverters.toJobQueryCriteria;
 import static com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobQueryModelConverters.toPage;
 
 /**
@@ -95,8 +93,6 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
 
     private static Logger logger = LoggerFactory.getLogger(GatewayJobServiceGateway.class);
 
-    private static final int MAX_CONCURRENT_JOBS_TO_RETRIEVE = 10;
-
     private final GrpcRequestConfiguration tunablesConfiguration;
     private final GatewayConfiguration gatewayConfiguration;
     private final JobManagementServiceStub client;
@@ -105,6 +101,8 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
     private final LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo;
     private final TaskRelocationDataInjector taskRelocationDataInjector;
     private final NeedsMigrationQueryHandler needsMigrationQueryHandler;
+    private final ReplicatedJobQueryHandler replicatedJobQueryHandler;
+    private final ArchivedTaskQueryHandler archivedTaskQueryHandler;
     private final Clock clock;
 
     @Inject
@@ -117,6 +115,8 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
                                     LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo,
                                     TaskRelocationDataInjector taskRelocationDataInjector,
                                     NeedsMigrationQueryHandler needsMigrationQueryHandler,
+                                    ReplicatedJobQueryHandler replicatedJobQueryHandler,
+                                    ArchivedTaskQueryHandler archivedTaskQueryHandler,
                                     @Named(JOB_STRICT_SANITIZER) EntitySanitizer entitySanitizer,
                                     DisruptionBudgetSanitizer disruptionBudgetSanitizer,
                                     @Named(SECURITY_GROUPS_REQUIRED_FEATURE) Predicate<com.netflix.titus.api.jobmanager.model.job.JobDescriptor> securityGroupsRequiredPredicate,
@@ -145,15 +145,28 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
         this.logStorageInfo = logStorageInfo;
         this.taskRelocationDataInjector = taskRelocationDataInjector;
         this.needsMigrationQueryHandler = needsMigrationQueryHandler;
+        this.replicatedJobQueryHandler = replicatedJobQueryHandler;
+        this.archivedTaskQueryHandler = archivedTaskQueryHandler;
         this.clock = titusRuntime.getClock();
     }
 
+    @Override
+    public Observable<JobQueryResult> findJobs(JobQuery jobQuery) {
+        return Observable.defer(() -> replicatedJobQueryHandler.findJobs(jobQuery)
+                .map(Observable::just)
+                .orElseGet(() -> super.findJobs(jobQuery))
+        );
+    }
+
     @Override
     public Observable<Job> findJob(String jobId) {
-        Observable<Job> observable = createRequestObservable(emitter -> {
-            StreamObserver<Job> streamObserver = createSimpleClientResponseObserver(emitter);
-            createWrappedStub(client, callMetadataResolver, tunablesConfiguration.getRequestTimeoutMs()).findJob(JobId.newBuilder().setId(jobId).build(), streamObserver);
-        }, tunablesConfiguration.getRequestTimeoutMs());
+        Observable<Job> observable = Observable.defer(() -> replicatedJobQueryHandler.findJob(jobId)
+                .map(Observable::just)
+                .orElseGet(() -> createRequestObservable(emitter -> {
+                    StreamObserver<Job> streamObserver = createSimpleClientResponseObserver(emitter);
+                    createWrappedStub(client, callMetadataResolver, tunablesConfiguration.getRequestTimeoutMs()).findJob(JobId.newBuilder().setId(jobId).build(), streamObserver);
+                }, tunablesConfiguration.getRequestTimeoutMs()))
+        );
 
         return observable.onErrorResumeNext(e -> {
             if (e instanceof StatusRuntimeException &&
@@ -167,12 +180,15 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
 
     @Override
     public Observable<Task> findTask(String taskId) {
-        Observable<Task> observable = createRequestObservable(
-                emitter -> {
-                    StreamObserver<Task> streamObserver = createSimpleClientResponseObserver(emitter);
-                    createWrappedStub(client, callMetadataResolver, tunablesConfiguration.getRequestTimeoutMs()).findTask(TaskId.newBuilder().setId(taskId).build(), streamObserver);
-                },
-                tunablesConfiguration.getRequestTimeoutMs()
+        Observable<Task> observable = Observable.defer(() -> replicatedJobQueryHandler.findTask(taskId)
+                .map(Observable::just)
+                .orElseGet(() -> createRequestObservable(
+                        emitter -> {
+                            StreamObserver<Task> streamObserver = createSimpleClientResponseObserver(emitter);
+                            createWrappedStub(client, callMetadataResolver, tunablesConfiguration.getRequestTimeoutMs()).findTask(TaskId.newBuilder().setId(taskId).build(), streamObserver);
+                        },
+                        tunablesConfiguration.getRequestTimeoutMs()
+                ))
         );
         observable = taskRelocationDataInjector.injectIntoTask(taskId, observable);
 
@@ -229,7 +245,9 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
                 }
 
                 observable = observable.flatMap(result ->
-                        retrieveArchivedTasksForJobs(v3JobIds, taskQuery).map(archivedTasks -> combineTaskResults(taskQuery, result, archivedTasks))
+                        archivedTaskQueryHandler.findArchivedTasks(v3JobIds, taskQuery).map(archivedTasks ->
+                                combineTaskResults(taskQuery, result, archivedTasks.getLeft(), archivedTasks.getRight())
+                        )
                 );
             }
         }
@@ -238,10 +256,13 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
     }
 
     private Observable<TaskQueryResult> newActiveTaskQueryAction(TaskQuery taskQuery) {
-        return createRequestObservable(emitter -> {
-            StreamObserver<TaskQueryResult> streamObserver = createSimpleClientResponseObserver(emitter);
-            createWrappedStub(client, callMetadataResolver, tunablesConfiguration.getRequestTimeoutMs()).findTasks(taskQuery, streamObserver);
-        }, tunablesConfiguration.getRequestTimeoutMs());
+        return Observable.defer(() -> replicatedJobQueryHandler.findTasks(taskQuery)
+                .map(Observable::just)
+                .orElseGet(() -> createRequestObservable(emitter -> {
+                    StreamObserver<TaskQueryResult> streamObserver = createSimpleClientResponseObserver(emitter);
+                    createWrappedStub(client, callMetadataResolver, tunablesConfiguration.getRequestTimeoutMs()).findTasks(taskQuery, streamObserver);
+                }, tunablesConfiguration.getRequestTimeoutMs()))
+        );
     }
 
     private Observable<Job> retrieveArchivedJob(String jobId) {
@@ -257,37 +278,6 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
                 }).map(GrpcJobManagementModelConverters::toGrpcJob);
     }
 
-    private Observable<List<Task>> retrieveArchivedTasksForJobs(Set<String> jobIds, TaskQuery taskQuery) {
-        JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> taskQueryCriteria = toJobQueryCriteria(taskQuery);
-
-        return Observable.fromCallable(() -> jobIds.stream().map(store::retrieveArchivedTasksForJob).collect(Collectors.toList()))
-                .flatMap(observables -> Observable.merge(observables, MAX_CONCURRENT_JOBS_TO_RETRIEVE))
-                .filter(task -> {
-                    // We cannot use V3TaskQueryCriteriaEvaluator here as we do not have the job record, and requesting it
-                    // is expensive. To get here, a user has to provide job id(s) for which finished tasks are requested.
-                    // Because of that we do not need all the filtering criteria which mostly work at the job level to
-                    // exclude jobs from the query result. Instead we implement a few that make sense for task.
-                    Set<String> expectedStateReasons = taskQueryCriteria.getTaskStateReasons();
-                    if (!expectedStateReasons.isEmpty() && !expectedStateReasons.contains(task.getStatus().getReasonCode())) {
-                        return false;
-                    }
-                    if(taskQueryCriteria.isSkipSystemFailures()) {
-                        if(com.netflix.titus.api.jobmanager.model.job.TaskStatus.isSystemError(task.getStatus())) {
-                            return false;
-                        }
-                    }
-
-                    return true;
-                })
-                .map(task -> {
-                    com.netflix.titus.api.jobmanager.model.job.Task fixedTask = task.getStatus().getState() == TaskState.Finished
-                            ? task
-                            : JobFunctions.fixArchivedTaskStatus(task, clock);
-                    return GrpcJobManagementModelConverters.toGrpcTask(fixedTask, logStorageInfo);
-                })
-                .toSortedList((first, second) -> Long.compare(first.getStatus().getTimestamp(), second.getStatus().getTimestamp()));
-    }
-
     private Observable<Task> retrieveArchivedTask(String taskId) {
         return store.retrieveArchivedTask(taskId)
                 .onErrorResumeNext(e -> {
@@ -311,6 +301,19 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
     static TaskQueryResult combineTaskResults(TaskQuery taskQuery,
                                               TaskQueryResult activeTasksResult,
                                               List<Task> archivedTasks) {
+        return combineTaskResults(taskQuery, activeTasksResult, archivedTasks, archivedTasks.size());
+    }
+
+    /**
+     * Merges the active tasks with the archived ones. The archived task list may be limited to the tasks that
+     * can be included in the requested page, in which case <code>archivedTasksCount</code> is the total number of
+     * the archived tasks matching the query.
+     */
+    @VisibleForTesting
+    static TaskQueryResult combineTaskResults(TaskQuery taskQuery,
+                                              TaskQueryResult activeTasksResult,
+                                              List<Task> archivedTasks,
+                                              int archivedTasksCount) {
         List<Task> tasks = deDupTasks(activeTasksResult.getItemsList(), archivedTasks);
 
         Pair<List<Task>, Pagination> paginationPair = PaginationUtil.takePageWithCursor(
@@ -324,7 +327,7 @@ public class GatewayJobServiceGateway extends JobServiceGatewayDelegate {
         // Fix pagination result, as the total items count does not include all active tasks.
         // The total could be larger than the actual number of tasks, as we are not filtering duplicates.
         // This could be fixed in the future, when the gateway stores all active tasks in a local cache.
-        int allTasksCount = activeTasksResult.getPagination().getTotalItems() + archivedTasks.size();
+        int allTasksCount = activeTasksResult.getPagination().getTotalItems() + archivedTasksCount;
         Pair<List<Task>, Pagination> fixedPaginationPair = paginationPair.mapRight(p -> p.toBuilder()
                 .withTotalItems(allTasksCount)
                 .withTotalPages(PaginationUtil.numberOfPages(toPage(taskQuery.getPage()), allTasksCount))
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.gateway.service.v3.internal;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.LogStorageInfo;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.model.Pagination;
+import com.netflix.titus.api.model.PaginationUtil;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.ProtobufExt;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.grpc.protogen.JobQuery;
+import com.netflix.titus.grpc.protogen.JobQueryResult;
+import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.TaskQuery;
+import com.netflix.titus.grpc.protogen.TaskQueryResult;
+import com.netflix.titus.runtime.connector.jobmanager.JobDataReplicator;
+import com.netflix.titus.runtime.connector.jobmanager.JobSnapshot;
+import com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobManagementModelConverters;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3JobQueryCriteriaEvaluator;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3TaskQueryCriteriaEvaluator;
+import com.netflix.titus.runtime.jobmanager.JobManagerCursors;
+
+import static com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobQueryModelConverters.toGrpcPagination;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobQueryModelConverters.toJobQueryCriteria;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobQueryModelConverters.toPage;
+import static com.netflix.titus.runtime.jobmanager.gateway.JobServiceGateway.JOB_MINIMUM_FIELD_SET;
+import static com.netflix.titus.runtime.jobmanager.gateway.JobServiceGateway.TASK_MINIMUM_FIELD_SET;
+
+/**
+ * Serves the active job and task queries from the local {@link JobDataReplicator} snapshot, applying the same
+ * filtering, ordering and pagination rules as TitusMaster. An empty result means that the query cannot be served
+ * locally (feature disabled, stale replica, invalid page, or an entity not found in the replica), and the caller
+ * should proxy it to TitusMaster.
+ */
+@Singleton
+class ReplicatedJobQueryHandler {
+
+    private static final String METRIC_ROOT = "titusGateway.replicatedJobQuery";
+
+    private final GatewayConfiguration configuration;
+    private final JobDataReplicator jobDataReplicator;
+    private final LogStorageInfo<Task> logStorageInfo;
+    private final TitusRuntime titusRuntime;
+
+    private final Counter localQueries;
+    private final Counter staleReplicaQueries;
+
+    @Inject
+    ReplicatedJobQueryHandler(GatewayConfiguration configuration,
+                              JobDataReplicator jobDataReplicator,
+                              LogStorageInfo<Task> logStorageInfo,
+                              TitusRuntime titusRuntime) {
+        this.configuration = configuration;
+        this.jobDataReplicator = jobDataReplicator;
+        this.logStorageInfo = logStorageInfo;
+        this.titusRuntime = titusRuntime;
+
+        Registry registry = titusRuntime.getRegistry();
+        this.localQueries = registry.counter(METRIC_ROOT, "result", "local");
+        this.staleReplicaQueries = registry.counter(METRIC_ROOT, "result", "staleReplica");
+    }
+
+    Optional<JobQueryResult> findJobs(JobQuery jobQuery) {
+        if (!isValid(jobQuery.getPage()) || !useReplica()) {
+            return Optional.empty();
+        }
+
+        V3JobQueryCriteriaEvaluator queryFilter = new V3JobQueryCriteriaEvaluator(toJobQueryCriteria(jobQuery), titusRuntime);
+        List<Job<?>> matchingJobs = jobDataReplicator.getCurrent().getJobsAndTasks().stream()
+                .filter(queryFilter)
+                .map(Pair::getLeft)
+                .collect(Collectors.toList());
+
+        Pair<List<Job<?>>, Pagination> queryResult = PaginationUtil.selectPageWithCursor(
+                toPage(jobQuery.getPage()),
+                matchingJobs,
+                JobManagerCursors.coreJobCursorOrderComparator(),
+                JobManagerCursors::coreJobCursorReference,
+                JobManagerCursors::newCoreCursorFrom
+        );
+
+        Set<String> fields = toFieldSet(jobQuery.getFieldsList(), JOB_MINIMUM_FIELD_SET);
+        List<com.netflix.titus.grpc.protogen.Job> grpcJobs = queryResult.getLeft().stream()
+                .map(GrpcJobManagementModelConverters::toGrpcJob)
+                .map(job -> fields.isEmpty() ? job : ProtobufExt.copy(job, fields))
+                .collect(Collectors.toList());
+
+        localQueries.increment();
+        return Optional.of(JobQueryResult.newBuilder()
+                .addAllItems(grpcJobs)
+                .setPagination(toGrpcPagination(queryResult.getRight()))
+                .build()
+        );
+    }
+
+    Optional<com.netflix.titus.grpc.protogen.Job> findJob(String jobId) {
+        if (!useReplica()) {
+            return Optional.empty();
+        }
+        Optional<com.netflix.titus.grpc.protogen.Job> result = jobDataReplicator.getCurrent().findJob(jobId).map(GrpcJobManagementModelConverters::toGrpcJob);
+        result.ifPresent(job -> localQueries.increment());
+        return result;
+    }
+
+    Optional<TaskQueryResult> findTasks(TaskQuery taskQuery) {
+        if (!isValid(taskQuery.getPage()) || !useReplica()) {
+            return Optional.empty();
+        }
+
+        V3TaskQueryCriteriaEvaluator queryFilter = new V3TaskQueryCriteriaEvaluator(toJobQueryCriteria(taskQuery), titusRuntime);
+        List<Task> matchingTasks = jobDataReplicator.getCurrent().getJobsAndTasks().stream()
+                .flatMap(jobAndTasks -> jobAndTasks.getRight().stream().map(task -> Pair.<Job<?>, Task>of(jobAndTasks.getLeft(), task)))
+                .filter(queryFilter)
+                .map(Pair::getRight)
+                .collect(Collectors.toList());
+
+        Pair<List<Task>, Pagination> queryResult = PaginationUtil.selectPageWithCursor(
+                toPage(taskQuery.getPage()),
+                matchingTasks,
+                JobManagerCursors.coreTaskCursorOrderComparator(),
+                JobManagerCursors::coreTaskCursorReference,
+                JobManagerCursors::newCoreCursorFrom
+        );
+
+        Set<String> fields = toFieldSet(taskQuery.getFieldsList(), TASK_MINIMUM_FIELD_SET);
+        List<com.netflix.titus.grpc.protogen.Task> grpcTasks = queryResult.getLeft().stream()
+                .map(task -> GrpcJobManagementModelConverters.toGrpcTask(task, logStorageInfo))
+                .map(task -> fields.isEmpty() ? task : ProtobufExt.copy(task, fields))
+                .collect(Collectors.toList());
+
+        localQueries.increment();
+        return Optional.of(TaskQueryResult.newBuilder()
+                .addAllItems(grpcTasks)
+                .setPagination(toGrpcPagination(queryResult.getRight()))
+                .build()
+        );
+    }
+
+    Optional<com.netflix.titus.grpc.protogen.Task> findTask(String taskId) {
+        if (!useReplica()) {
+            return Optional.empty();
+        }
+        JobSnapshot snapshot = jobDataReplicator.getCurrent();
+        Optional<com.netflix.titus.grpc.protogen.Task> result = snapshot.findTaskById(taskId)
+                .map(jobAndTask -> GrpcJobManagementModelConverters.toGrpcTask(jobAndTask.getRight(), logStorageInfo));
+        result.ifPresent(task -> localQueries.increment());
+        return result;
+    }
+
+    private boolean useReplica() {
+        if (!configuration.isJobQueryFromReplicaEnabled()) {
+            return false;
+        }
+        if (jobDataReplicator.getStalenessMs() > configuration.getMaxReplicatedJobDataStalenessMs()) {
+            staleReplicaQueries.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Invalid pages are rejected by TitusMaster. We proxy such requests, so the client gets the same error.
+     */
+    private boolean isValid(Page page) {
+        return page.getPageSize() > 0 && page.getPageNumber() >= 0;
+    }
+
+    private Set<String> toFieldSet(List<String> requestedFields, Set<String> minimumFieldSet) {
+        if (requestedFields.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> fields = new HashSet<>(requestedFields);
+        fields.addAll(minimumFieldSet);
+        return fields;
+    }
+}
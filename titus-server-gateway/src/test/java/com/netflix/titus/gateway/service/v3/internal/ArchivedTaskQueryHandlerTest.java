@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.gateway.service.v3.internal;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.api.jobmanager.model.job.TaskStatus;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.Task;
+import com.netflix.titus.grpc.protogen.TaskQuery;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.runtime.jobmanager.JobManagerCursors;
+import com.netflix.titus.runtime.store.v3.memory.InMemoryJobStore;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.netflix.titus.common.util.CollectionsExt.asSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ArchivedTaskQueryHandlerTest {
+
+    private static final String JOB_ID = "job1";
+    private static final int ARCHIVED_TASK_COUNT = 20;
+    private static final int PAGE_SIZE = 5;
+
+    private final GatewayConfiguration configuration = mock(GatewayConfiguration.class);
+
+    private final InMemoryJobStore store = spy(new InMemoryJobStore());
+
+    private ArchivedTaskQueryHandler handler;
+
+    @Before
+    public void setUp() {
+        when(configuration.getArchivedTaskReadPageSize()).thenReturn(3);
+        when(configuration.getArchivedTaskCacheMaxSizeBytes()).thenReturn(1_000_000L);
+
+        for (int i = 0; i < ARCHIVED_TASK_COUNT; i++) {
+            com.netflix.titus.api.jobmanager.model.job.Task task = JobGenerator.oneBatchTask().toBuilder()
+                    .withId(String.format("task%02d", i))
+                    .withJobId(JOB_ID)
+                    .withStatus(TaskStatus.newBuilder().withState(TaskState.Finished).withTimestamp(1_000_000 + i).build())
+                    .withStatusHistory(TaskStatus.newBuilder().withState(TaskState.Accepted).withTimestamp(i * 1_000).build())
+                    .build();
+            store.deleteTask(task).await();
+        }
+
+        handler = new ArchivedTaskQueryHandler(configuration, store, EmptyLogStorageInfo.empty(), TitusRuntimes.internal());
+    }
+
+    @Test
+    public void testFirstPage() {
+        Pair<List<Task>, Integer> result = findArchivedTasks(Page.newBuilder().setPageSize(PAGE_SIZE).build());
+        assertThat(result.getRight()).isEqualTo(ARCHIVED_TASK_COUNT);
+        assertThat(taskIds(result.getLeft())).containsExactly("task00", "task01", "task02", "task03", "task04", "task05");
+    }
+
+    @Test
+    public void testPageWithCursor() {
+        Pair<List<Task>, Integer> firstPage = findArchivedTasks(Page.newBuilder().setPageSize(PAGE_SIZE).build());
+        String cursor = JobManagerCursors.newCursorFrom(firstPage.getLeft().get(PAGE_SIZE - 1));
+
+        Pair<List<Task>, Integer> result = findArchivedTasks(Page.newBuilder().setPageSize(PAGE_SIZE).setCursor(cursor).build());
+        assertThat(result.getRight()).isEqualTo(ARCHIVED_TASK_COUNT);
+        assertThat(taskIds(result.getLeft())).containsExactly("task05", "task06", "task07", "task08", "task09", "task10");
+    }
+
+    @Test
+    public void testPageWithPageNumber() {
+        Pair<List<Task>, Integer> result = findArchivedTasks(Page.newBuilder().setPageSize(PAGE_SIZE).setPageNumber(2).build());
+        assertThat(result.getLeft()).hasSize(3 * PAGE_SIZE + 1);
+        assertThat(result.getLeft().get(0).getId()).isEqualTo("task00");
+    }
+
+    @Test
+    public void testFinishedTasksAreCached() {
+        findArchivedTasks(Page.newBuilder().setPageSize(PAGE_SIZE).build());
+        findArchivedTasks(Page.newBuilder().setPageSize(PAGE_SIZE).build());
+        verify(store, times(ARCHIVED_TASK_COUNT)).retrieveArchivedTask(anyString());
+    }
+
+    private Pair<List<Task>, Integer> findArchivedTasks(Page page) {
+        TaskQuery taskQuery = TaskQuery.newBuilder()
+                .putFilteringCriteria("jobIds", JOB_ID)
+                .putFilteringCriteria("taskStates", "Finished")
+                .setPage(page)
+                .build();
+        return handler.findArchivedTasks(asSet(JOB_ID), taskQuery).toBlocking().single();
+    }
+
+    private List<String> taskIds(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
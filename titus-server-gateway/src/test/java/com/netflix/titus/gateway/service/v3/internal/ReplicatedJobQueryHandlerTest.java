@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.gateway.service.v3.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.grpc.protogen.JobQuery;
+import com.netflix.titus.grpc.protogen.JobQueryResult;
+import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.TaskQuery;
+import com.netflix.titus.grpc.protogen.TaskQueryResult;
+import com.netflix.titus.runtime.connector.jobmanager.JobDataReplicator;
+import com.netflix.titus.runtime.connector.jobmanager.JobSnapshot;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplicatedJobQueryHandlerTest {
+
+    private static final Page FIRST_PAGE = Page.newBuilder().setPageSize(10).build();
+
+    private static final Job<?> JOB1 = JobGenerator.oneBatchJob().toBuilder().withId("job1").build();
+    private static final Job<?> JOB2 = JobGenerator.oneBatchJob().toBuilder().withId("job2").build();
+
+    private static final Task TASK1 = JobGenerator.oneBatchTask().toBuilder().withId("task1").withJobId("job1").build();
+    private static final Task TASK2 = JobGenerator.oneBatchTask().toBuilder().withId("task2").withJobId("job2").build();
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.internal();
+
+    private final GatewayConfiguration configuration = mock(GatewayConfiguration.class);
+    private final JobDataReplicator jobDataReplicator = mock(JobDataReplicator.class);
+
+    private final ReplicatedJobQueryHandler handler = new ReplicatedJobQueryHandler(
+            configuration,
+            jobDataReplicator,
+            EmptyLogStorageInfo.empty(),
+            titusRuntime
+    );
+
+    @Before
+    public void setUp() {
+        when(configuration.isJobQueryFromReplicaEnabled()).thenReturn(true);
+        when(configuration.getMaxReplicatedJobDataStalenessMs()).thenReturn(5_000L);
+        when(jobDataReplicator.getStalenessMs()).thenReturn(0L);
+
+        Map<String, Job<?>> jobsById = new HashMap<>();
+        jobsById.put(JOB1.getId(), JOB1);
+        jobsById.put(JOB2.getId(), JOB2);
+        Map<String, List<Task>> tasksByJobId = new HashMap<>();
+        tasksByJobId.put(JOB1.getId(), Collections.singletonList(TASK1));
+        tasksByJobId.put(JOB2.getId(), Collections.singletonList(TASK2));
+        when(jobDataReplicator.getCurrent()).thenReturn(JobSnapshot.newInstance("snapshot1", jobsById, tasksByJobId));
+    }
+
+    @Test
+    public void testFindJobs() {
+        Optional<JobQueryResult> result = handler.findJobs(JobQuery.newBuilder().setPage(FIRST_PAGE).build());
+        assertThat(result).isPresent();
+        assertThat(result.get().getItemsList()).hasSize(2);
+        assertThat(result.get().getPagination().getHasMore()).isFalse();
+    }
+
+    @Test
+    public void testFindJobsWithPagination() {
+        Optional<JobQueryResult> firstPage = handler.findJobs(JobQuery.newBuilder().setPage(Page.newBuilder().setPageSize(1)).build());
+        assertThat(firstPage).isPresent();
+        assertThat(firstPage.get().getItemsList()).hasSize(1);
+        assertThat(firstPage.get().getPagination().getHasMore()).isTrue();
+
+        Optional<JobQueryResult> secondPage = handler.findJobs(JobQuery.newBuilder()
+                .setPage(Page.newBuilder().setPageSize(1).setCursor(firstPage.get().getPagination().getCursor()))
+                .build()
+        );
+        assertThat(secondPage).isPresent();
+        assertThat(secondPage.get().getItemsList()).hasSize(1);
+        assertThat(secondPage.get().getPagination().getHasMore()).isFalse();
+        assertThat(secondPage.get().getItems(0).getId()).isNotEqualTo(firstPage.get().getItems(0).getId());
+    }
+
+    @Test
+    public void testFindJobsWithFieldFilter() {
+        Optional<JobQueryResult> result = handler.findJobs(JobQuery.newBuilder()
+                .setPage(FIRST_PAGE)
+                .addAllFields(Arrays.asList("id", "status"))
+                .build()
+        );
+        assertThat(result).isPresent();
+        assertThat(result.get().getItemsList()).allSatisfy(job -> {
+            assertThat(job.getId()).isNotEmpty();
+            assertThat(job.hasJobDescriptor()).isFalse();
+        });
+    }
+
+    @Test
+    public void testFindJob() {
+        assertThat(handler.findJob(JOB1.getId()).map(com.netflix.titus.grpc.protogen.Job::getId)).contains(JOB1.getId());
+        assertThat(handler.findJob("missingJob")).isEmpty();
+    }
+
+    @Test
+    public void testFindTasks() {
+        Optional<TaskQueryResult> result = handler.findTasks(TaskQuery.newBuilder().setPage(FIRST_PAGE).build());
+        assertThat(result).isPresent();
+        assertThat(result.get().getItemsList()).hasSize(2);
+    }
+
+    @Test
+    public void testFindTask() {
+        assertThat(handler.findTask(TASK1.getId()).map(com.netflix.titus.grpc.protogen.Task::getId)).contains(TASK1.getId());
+        assertThat(handler.findTask("missingTask")).isEmpty();
+    }
+
+    @Test
+    public void testStaleReplicaIsNotUsed() {
+        when(jobDataReplicator.getStalenessMs()).thenReturn(10_000L);
+        assertThat(handler.findJobs(JobQuery.newBuilder().setPage(FIRST_PAGE).build())).isEmpty();
+        assertThat(handler.findTasks(TaskQuery.newBuilder().setPage(FIRST_PAGE).build())).isEmpty();
+        assertThat(handler.findJob(JOB1.getId())).isEmpty();
+        assertThat(handler.findTask(TASK1.getId())).isEmpty();
+    }
+
+    @Test
+    public void testReplicaIsNotUsedWhenDisabled() {
+        when(configuration.isJobQueryFromReplicaEnabled()).thenReturn(false);
+        assertThat(handler.findJobs(JobQuery.newBuilder().setPage(FIRST_PAGE).build())).isEmpty();
+        assertThat(handler.findJob(JOB1.getId())).isEmpty();
+    }
+
+    @Test
+    public void testInvalidPageIsProxied() {
+        assertThat(handler.findJobs(JobQuery.newBuilder().setPage(Page.newBuilder().setPageSize(0)).build())).isEmpty();
+        assertThat(handler.findTasks(TaskQuery.newBuilder().setPage(Page.newBuilder().setPageSize(-1)).build())).isEmpty();
+    }
+}
@@ -34,6 +34,19 @@ public interface AgentManagementConfiguration {
     @DefaultValue(".*")
     String getAgentInstanceGroupPattern();
 
+    /**
+     * Time window during which instance group refresh requests are collected, and sent to the cloud provider
+     * in a single call.
+     */
+    @DefaultValue("100")
+    long getCloudRequestBatchWindowMs();
+
+    /**
+     * Maximum time to wait for a batched instance group request to the cloud provider to complete.
+     */
+    @DefaultValue("60000")
+    long getCloudRequestTimeoutMs();
+
     @DefaultValue("2")
     int getAutoScaleRuleMinIdleToKeep();
 
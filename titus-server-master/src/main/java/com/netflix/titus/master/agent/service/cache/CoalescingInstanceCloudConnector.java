@@ -0,0 +1,277 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.agent.service.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.api.connector.cloud.Instance;
+import com.netflix.titus.api.connector.cloud.InstanceCloudConnector;
+import com.netflix.titus.api.connector.cloud.InstanceGroup;
+import com.netflix.titus.api.connector.cloud.InstanceLaunchConfiguration;
+import com.netflix.titus.api.model.ResourceDimension;
+import com.netflix.titus.common.util.tuple.Either;
+import com.netflix.titus.master.agent.service.AgentManagementConfiguration;
+import rx.Completable;
+import rx.Observable;
+import rx.Scheduler;
+import rx.subjects.AsyncSubject;
+import rx.subjects.PublishSubject;
+
+import static com.netflix.titus.master.MetricConstants.METRIC_AGENT_CACHE;
+
+/**
+ * {@link InstanceCloudConnector} decorator used by {@link InstanceCache}, that reduces the number of cloud provider
+ * calls made during the instance group refresh cycles:
+ * <ul>
+ * <li>instance group requests issued within {@link AgentManagementConfiguration#getCloudRequestBatchWindowMs()} are
+ * sent to the cloud provider in a single call (up to {@link #MAX_INSTANCE_GROUP_BATCH_SIZE} instance groups)</li>
+ * <li>concurrent requests for the same instance group, or the instances of the same instance group share
+ * a single in-flight call</li>
+ * </ul>
+ * All other operations are delegated as is.
+ * <p>
+ * A batched instance group call that does not complete within {@link AgentManagementConfiguration#getCloudRequestTimeoutMs()}
+ * fails all requests waiting for it. On shutdown, the in-flight calls are cancelled, and the pending requests fail.
+ */
+class CoalescingInstanceCloudConnector implements InstanceCloudConnector {
+
+    private static final String METRIC_ROOT = METRIC_AGENT_CACHE + "coalescingConnector.";
+
+    /**
+     * AWS returns up to 50 auto scaling groups in a single, not paged response.
+     */
+    static final int MAX_INSTANCE_GROUP_BATCH_SIZE = 50;
+
+    private final InstanceCloudConnector delegate;
+    private final AgentManagementConfiguration configuration;
+    private final Scheduler scheduler;
+    private final Scheduler.Worker worker;
+
+    private final Object lock = new Object();
+    private final Map<String, AsyncSubject<Optional<InstanceGroup>>> inFlightInstanceGroups = new HashMap<>();
+    private List<String> pendingInstanceGroupIds = new ArrayList<>();
+    private boolean flushScheduled;
+    private boolean shutdown;
+    private final PublishSubject<Void> shutdownSubject = PublishSubject.create();
+
+    private final ConcurrentMap<String, Observable<List<Instance>>> inFlightInstances = new ConcurrentHashMap<>();
+
+    private final Counter instanceGroupRequestsCounter;
+    private final Counter instanceGroupCallsCounter;
+    private final Counter instanceRequestsCounter;
+    private final Counter instanceCallsCounter;
+
+    CoalescingInstanceCloudConnector(InstanceCloudConnector delegate,
+                                     AgentManagementConfiguration configuration,
+                                     Registry registry,
+                                     Scheduler scheduler) {
+        this.delegate = delegate;
+        this.configuration = configuration;
+        this.scheduler = scheduler;
+        this.worker = scheduler.createWorker();
+
+        this.instanceGroupRequestsCounter = registry.counter(METRIC_ROOT + "requests", "operation", "getInstanceGroups");
+        this.instanceGroupCallsCounter = registry.counter(METRIC_ROOT + "calls", "operation", "getInstanceGroups");
+        this.instanceRequestsCounter = registry.counter(METRIC_ROOT + "requests", "operation", "getInstancesByInstanceGroupId");
+        this.instanceCallsCounter = registry.counter(METRIC_ROOT + "calls", "operation", "getInstancesByInstanceGroupId");
+    }
+
+    void shutdown() {
+        Map<String, AsyncSubject<Optional<InstanceGroup>>> pending;
+        synchronized (lock) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            pending = new HashMap<>(inFlightInstanceGroups);
+            inFlightInstanceGroups.clear();
+            pendingInstanceGroupIds.clear();
+        }
+        worker.unsubscribe();
+        shutdownSubject.onNext(null);
+        pending.values().forEach(subject -> subject.onError(newShutdownException()));
+    }
+
+    @Override
+    public Observable<List<InstanceGroup>> getInstanceGroups() {
+        return delegate.getInstanceGroups();
+    }
+
+    @Override
+    public Observable<List<InstanceGroup>> getInstanceGroups(List<String> instanceGroupIds) {
+        if (instanceGroupIds.isEmpty()) {
+            return Observable.just(Collections.emptyList());
+        }
+        return Observable.defer(() -> {
+            List<Observable<Optional<InstanceGroup>>> results = instanceGroupIds.stream()
+                    .map(this::requestInstanceGroup)
+                    .collect(Collectors.toList());
+            // Each result is a completed or pending AsyncSubject, so subscribing to them one by one does not delay the calls.
+            return Observable.concat(Observable.from(results))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .toList();
+        });
+    }
+
+    @Override
+    public Observable<List<InstanceLaunchConfiguration>> getInstanceLaunchConfiguration(List<String> launchConfigurationIds) {
+        return delegate.getInstanceLaunchConfiguration(launchConfigurationIds);
+    }
+
+    @Override
+    public ResourceDimension getInstanceTypeResourceDimension(String instanceType) {
+        return delegate.getInstanceTypeResourceDimension(instanceType);
+    }
+
+    @Override
+    public Observable<List<Instance>> getInstances(List<String> instanceIds) {
+        return delegate.getInstances(instanceIds);
+    }
+
+    @Override
+    public Observable<List<Instance>> getInstancesByInstanceGroupId(String instanceGroupId) {
+        return Observable.defer(() -> {
+            instanceRequestsCounter.increment();
+            return inFlightInstances.computeIfAbsent(instanceGroupId, this::newInstancesRequest);
+        });
+    }
+
+    @Override
+    public Completable updateCapacity(String instanceGroupId, Optional<Integer> min, Optional<Integer> desired) {
+        return delegate.updateCapacity(instanceGroupId, min, desired);
+    }
+
+    @Override
+    public Completable scaleUp(String instanceGroupId, int scaleUpCount) {
+        return delegate.scaleUp(instanceGroupId, scaleUpCount);
+    }
+
+    @Override
+    public Observable<List<Either<Boolean, Throwable>>> terminateInstances(String instanceGroup, List<String> instanceIds, boolean shrink) {
+        return delegate.terminateInstances(instanceGroup, instanceIds, shrink);
+    }
+
+    private Observable<List<Instance>> newInstancesRequest(String instanceGroupId) {
+        return Observable.defer(() -> {
+            instanceCallsCounter.increment();
+            return delegate.getInstancesByInstanceGroupId(instanceGroupId);
+        }).doOnTerminate(() -> inFlightInstances.remove(instanceGroupId))
+                .doOnUnsubscribe(() -> inFlightInstances.remove(instanceGroupId))
+                .share();
+    }
+
+    private Observable<Optional<InstanceGroup>> requestInstanceGroup(String instanceGroupId) {
+        instanceGroupRequestsCounter.increment();
+
+        AsyncSubject<Optional<InstanceGroup>> result;
+        List<String> batch = null;
+        synchronized (lock) {
+            if (shutdown) {
+                return Observable.error(newShutdownException());
+            }
+            result = inFlightInstanceGroups.get(instanceGroupId);
+            if (result != null) {
+                return result;
+            }
+            result = AsyncSubject.create();
+            inFlightInstanceGroups.put(instanceGroupId, result);
+            pendingInstanceGroupIds.add(instanceGroupId);
+
+            if (pendingInstanceGroupIds.size() >= MAX_INSTANCE_GROUP_BATCH_SIZE) {
+                batch = takePendingInstanceGroupIds();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                worker.schedule(this::flushPendingInstanceGroupIds, configuration.getCloudRequestBatchWindowMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            fetchInstanceGroups(batch);
+        }
+        return result;
+    }
+
+    private void flushPendingInstanceGroupIds() {
+        List<String> batch;
+        synchronized (lock) {
+            flushScheduled = false;
+            batch = takePendingInstanceGroupIds();
+        }
+        if (!batch.isEmpty()) {
+            fetchInstanceGroups(batch);
+        }
+    }
+
+    private List<String> takePendingInstanceGroupIds() {
+        List<String> batch = pendingInstanceGroupIds;
+        pendingInstanceGroupIds = new ArrayList<>();
+        return batch;
+    }
+
+    private void fetchInstanceGroups(List<String> instanceGroupIds) {
+        instanceGroupCallsCounter.increment();
+        delegate.getInstanceGroups(instanceGroupIds)
+                .timeout(configuration.getCloudRequestTimeoutMs(), TimeUnit.MILLISECONDS, scheduler)
+                .reduce(new ArrayList<InstanceGroup>(), (acc, next) -> {
+                    acc.addAll(next);
+                    return acc;
+                })
+                // Requests still waiting when the call is cancelled would never get a result otherwise.
+                .doOnUnsubscribe(() -> takeInFlight(instanceGroupIds).forEach((id, subject) -> subject.onError(newShutdownException())))
+                .takeUntil(shutdownSubject)
+                .subscribe(
+                        instanceGroups -> {
+                            Map<String, InstanceGroup> byId = instanceGroups.stream().collect(Collectors.toMap(InstanceGroup::getId, Function.identity(), (a, b) -> b));
+                            takeInFlight(instanceGroupIds).forEach((id, subject) -> {
+                                subject.onNext(Optional.ofNullable(byId.get(id)));
+                                subject.onCompleted();
+                            });
+                        },
+                        e -> takeInFlight(instanceGroupIds).forEach((id, subject) -> subject.onError(e))
+                );
+    }
+
+    private static IllegalStateException newShutdownException() {
+        return new IllegalStateException("Coalescing instance cloud connector shut down");
+    }
+
+    private Map<String, AsyncSubject<Optional<InstanceGroup>>> takeInFlight(List<String> instanceGroupIds) {
+        Map<String, AsyncSubject<Optional<InstanceGroup>>> subjects = new HashMap<>();
+        synchronized (lock) {
+            instanceGroupIds.forEach(id -> {
+                AsyncSubject<Optional<InstanceGroup>> subject = inFlightInstanceGroups.remove(id);
+                if (subject != null) {
+                    subjects.put(id, subject);
+                }
+            });
+        }
+        return subjects;
+    }
+}
@@ -68,6 +68,8 @@ import static java.util.Collections.singletonList;
  * <li>Each known instance group (including instances) is refreshed every {@link AgentManagementConfiguration#getCacheRefreshIntervalMs()}</li>
  * <li>List of known instance groups is refreshed every {@link AgentManagementConfiguration#getFullCacheRefreshIntervalMs()} ()}</li>
  * </ul>
+ * Requests to the cloud provider go through {@link CoalescingInstanceCloudConnector}, so refreshes of many instance
+ * groups result in few batched calls.
  */
 class InstanceCache {
 
@@ -79,7 +81,7 @@ class InstanceCache {
     private static final long MAX_REFRESH_TIMEOUT = 600_000;
 
     private final AgentManagementConfiguration configuration;
-    private final InstanceCloudConnector connector;
+    private final CoalescingInstanceCloudConnector connector;
     private final Registry registry;
     private final InstrumentedEventLoop eventLoop;
 
@@ -101,7 +103,7 @@ class InstanceCache {
                           long bootRetryDelayMs,
                           Scheduler scheduler) {
         this.configuration = configuration;
-        this.connector = connector;
+        this.connector = new CoalescingInstanceCloudConnector(connector, configuration, registry, scheduler);
         this.registry = registry;
         this.cacheSnapshot = InstanceCacheDataSnapshot.empty();
         this.eventLoop = ObservableExt.createEventLoop(METRIC_AGENT_CACHE + "eventLoop", registry, scheduler);
@@ -144,6 +146,7 @@ class InstanceCache {
 
     void shutdown() {
         eventLoop.shutdown();
+        connector.shutdown();
         ObservableExt.safeUnsubscribe(findNewInstanceGroupSubscription, instanceGroupRefreshSubscription);
         fullInstanceGroupRefreshMetricsTransformer.remove();
     }
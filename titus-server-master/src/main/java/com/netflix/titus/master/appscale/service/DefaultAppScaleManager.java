@@ -18,9 +18,13 @@ package com.netflix.titus.master.appscale.service;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -83,6 +87,18 @@ public class DefaultAppScaleManager implements AppScaleManager {
     private TitusRuntime titusRuntime;
 
     private volatile Map<String, AutoScalableTarget> scalableTargets;
+
+    /**
+     * Policies indexed by job id, so job events for jobs without policies are ignored without the store lookup.
+     */
+    private final ConcurrentMap<String, Set<String>> policyRefIdsByJobId = new ConcurrentHashMap<>();
+
+    /**
+     * Jobs with a scalable target update action waiting for execution. A scalable target is shared by all job
+     * policies, so a single update per job is enough.
+     */
+    private final Set<String> pendingTargetUpdateJobIds = ConcurrentHashMap.newKeySet();
+
     private volatile Subscription reconcileFinishedJobsSub;
     private volatile Subscription reconcileAllPendingRequests;
     private volatile Subscription reconcileScalableTargetsSub;
@@ -136,6 +152,9 @@ public class DefaultAppScaleManager implements AppScaleManager {
         this.appScaleActionsSub = appScaleActionsSubject
                 .onBackpressureDrop(appScaleAction -> {
                     logger.warn("Dropping {}", appScaleAction);
+                    if (appScaleAction.getType() == AppScaleAction.ActionType.UPDATE_SCALABLE_TARGET) {
+                        pendingTargetUpdateJobIds.remove(appScaleAction.getJobId());
+                    }
                     metrics.reportDroppedRequest();
                 })
                 .observeOn(awsInteractionScheduler, ASYNC_HANDLER_BUFFER_CAPACITY)
@@ -160,6 +179,9 @@ public class DefaultAppScaleManager implements AppScaleManager {
         this.appScalePolicyStore.retrievePolicies(true)
                 .map(autoScalingPolicy -> {
                     addScalableTargetIfNew(autoScalingPolicy.getJobId());
+                    if (autoScalingPolicy.getStatus() != PolicyStatus.Deleting && autoScalingPolicy.getStatus() != PolicyStatus.Deleted) {
+                        indexPolicy(autoScalingPolicy.getJobId(), autoScalingPolicy.getRefId());
+                    }
                     metrics.reportPolicyStatusTransition(autoScalingPolicy, autoScalingPolicy.getStatus());
                     return autoScalingPolicy.getRefId();
                 })
@@ -170,22 +192,20 @@ public class DefaultAppScaleManager implements AppScaleManager {
         checkForScalingPolicyActions().toCompletable().await(appScaleManagerConfiguration.getStoreInitTimeoutSeconds(),
                 TimeUnit.SECONDS);
 
-        reconcileAllPendingRequests = Observable.interval(
-                appScaleManagerConfiguration.getReconcileAllPendingAndDeletingRequestsIntervalMins(), TimeUnit.MINUTES,
-                Schedulers.io())
+        reconcileAllPendingRequests = sweepInterval(appScaleManagerConfiguration.getReconcileAllPendingAndDeletingRequestsIntervalMins(), Schedulers.io())
                 .flatMap(ignored -> titusRuntime.persistentStream(checkForScalingPolicyActions()))
                 .subscribe(policy -> logger.info("Reconciliation - policy request processed : {}.", policy.getPolicyId()),
                         e -> logger.error("error in reconciliation (ReconcileAllPendingRequests) stream", e),
                         () -> logger.info("reconciliation (ReconcileAllPendingRequests) stream closed"));
 
-        reconcileFinishedJobsSub = Observable.interval(appScaleManagerConfiguration.getReconcileFinishedJobsIntervalMins(), TimeUnit.MINUTES)
+        reconcileFinishedJobsSub = sweepInterval(appScaleManagerConfiguration.getReconcileFinishedJobsIntervalMins(), Schedulers.computation())
                 .observeOn(Schedulers.io())
                 .flatMap(ignored -> titusRuntime.persistentStream(reconcileFinishedJobs()))
                 .subscribe(jobId -> logger.info("reconciliation for FinishedJob : {} policies cleaned up.", jobId),
                         e -> logger.error("error in reconciliation (FinishedJob) stream", e),
                         () -> logger.info("reconciliation (FinishedJob) stream closed"));
 
-        reconcileScalableTargetsSub = Observable.interval(appScaleManagerConfiguration.getReconcileTargetsIntervalMins(), TimeUnit.MINUTES)
+        reconcileScalableTargetsSub = sweepInterval(appScaleManagerConfiguration.getReconcileTargetsIntervalMins(), Schedulers.computation())
                 .observeOn(Schedulers.io())
                 .flatMap(ignored -> titusRuntime.persistentStream(reconcileScalableTargets()))
                 .subscribe(jobId -> logger.info("Reconciliation (TargetUpdated) : {} target updated", jobId),
@@ -227,6 +247,16 @@ public class DefaultAppScaleManager implements AppScaleManager {
         }
     }
 
+    /**
+     * The periodic reconciliation is a safety net for the event driven updates. The first sweep is randomly delayed
+     * within the interval, so the sweeps of different kinds and different instances do not run at the same time.
+     */
+    private Observable<Long> sweepInterval(long intervalMins, Scheduler scheduler) {
+        long intervalMs = TimeUnit.MINUTES.toMillis(intervalMins);
+        long initialDelayMs = ThreadLocalRandom.current().nextLong(Math.max(1, intervalMs));
+        return Observable.interval(initialDelayMs, intervalMs, TimeUnit.MILLISECONDS, scheduler);
+    }
+
     private Observable<AutoScalingPolicy> checkForScalingPolicyActions() {
         return appScalePolicyStore.retrievePolicies(false)
                 .map(autoScalingPolicy -> {
@@ -256,6 +286,7 @@ public class DefaultAppScaleManager implements AppScaleManager {
                     return shouldRefreshScalableTargetForJob(jobId, getJobScalingConstraints(autoScalingPolicy.getRefId(),
                             jobId));
                 })
+                .filter(autoScalingPolicy -> pendingTargetUpdateJobIds.add(autoScalingPolicy.getJobId()))
                 .map(this::sendUpdateTargetAction)
                 .map(AppScaleAction::getJobId)
                 .doOnError(e -> logger.error("Exception in reconcileScalableTargets -> ", e))
@@ -268,7 +299,9 @@ public class DefaultAppScaleManager implements AppScaleManager {
                 .filter(event -> {
                     if (event instanceof JobUpdateEvent) {
                         JobUpdateEvent jobUpdateEvent = (JobUpdateEvent) event;
-                        return jobUpdateEvent.getCurrent().getStatus().getState() != JobState.Finished;
+                        return policyRefIdsByJobId.containsKey(jobUpdateEvent.getCurrent().getId())
+                                && jobUpdateEvent.getCurrent().getStatus().getState() != JobState.Finished
+                                && isCapacityChanged(jobUpdateEvent);
                     }
                     return false;
                 })
@@ -277,6 +310,7 @@ public class DefaultAppScaleManager implements AppScaleManager {
                         appScalePolicyStore.retrievePoliciesForJob(event.getCurrent().getId())
                                 .filter(autoScalingPolicy -> shouldRefreshScalableTargetForJob(autoScalingPolicy.getJobId(),
                                         getJobScalingConstraints(autoScalingPolicy.getRefId(), autoScalingPolicy.getJobId())))
+                                .filter(autoScalingPolicy -> pendingTargetUpdateJobIds.add(autoScalingPolicy.getJobId()))
                                 .map(this::sendUpdateTargetAction)
                                 .map(AppScaleAction::getJobId)
                                 .doOnError(e -> logger.error("Exception in v3LiveStreamTargetUpdates -> ", e))
@@ -295,7 +329,9 @@ public class DefaultAppScaleManager implements AppScaleManager {
                 })
                 .cast(JobUpdateEvent.class)
                 .map(event -> event.getCurrent().getId()) // extract jobId from event
-                .flatMap(jobId -> removePoliciesForJob(jobId).andThen(Observable.just(jobId)))
+                .flatMap(jobId -> removePoliciesForJob(jobId)
+                        .doOnCompleted(() -> policyRefIdsByJobId.remove(jobId))
+                        .andThen(Observable.just(jobId)))
                 .doOnError(e -> logger.error("Exception in v3LiveStreamPolicyCleanup -> ", e))
                 .onErrorResumeNext(e -> saveStatusOnError(e).andThen(Observable.empty()));
     }
@@ -310,6 +346,7 @@ public class DefaultAppScaleManager implements AppScaleManager {
         return appScalePolicyStore.storePolicy(autoScalingPolicy)
                 .map(policyRefId -> {
                     addScalableTargetIfNew(autoScalingPolicy.getJobId());
+                    indexPolicy(autoScalingPolicy.getJobId(), policyRefId);
                     AutoScalingPolicy newPolicy = AutoScalingPolicy.newBuilder().withAutoScalingPolicy(autoScalingPolicy).withRefId(policyRefId).build();
                     sendCreatePolicyAction(newPolicy);
                     metrics.reportPolicyStatusTransition(newPolicy, PolicyStatus.Pending);
@@ -356,6 +393,7 @@ public class DefaultAppScaleManager implements AppScaleManager {
                         logger.info("Removing policy {} for job {}", autoScalingPolicy.getRefId(), autoScalingPolicy.getJobId());
                         metrics.reportPolicyStatusTransition(autoScalingPolicy, PolicyStatus.Deleting);
                         return appScalePolicyStore.updatePolicyStatus(autoScalingPolicy.getRefId(), PolicyStatus.Deleting)
+                                .doOnCompleted(() -> unindexPolicy(autoScalingPolicy.getJobId(), autoScalingPolicy.getRefId()))
                                 .andThen(Observable.fromCallable(() -> sendDeletePolicyAction(autoScalingPolicy)));
                     } else {
                         return Observable.empty();
@@ -369,6 +407,49 @@ public class DefaultAppScaleManager implements AppScaleManager {
                 .flatMapCompletable(autoScalingPolicy -> removeAutoScalingPolicy(autoScalingPolicy.getRefId())).toCompletable();
     }
 
+    private void indexPolicy(String jobId, String policyRefId) {
+        policyRefIdsByJobId.compute(jobId, (id, policyRefIds) -> {
+            Set<String> result = policyRefIds == null ? ConcurrentHashMap.newKeySet() : policyRefIds;
+            result.add(policyRefId);
+            return result;
+        });
+    }
+
+    /**
+     * Policies being deleted, or deleted, do not need the scalable target updates. A job with no other policies is
+     * removed from the index.
+     */
+    private void unindexPolicy(String jobId, String policyRefId) {
+        policyRefIdsByJobId.computeIfPresent(jobId, (id, policyRefIds) -> {
+            policyRefIds.remove(policyRefId);
+            return policyRefIds.isEmpty() ? null : policyRefIds;
+        });
+    }
+
+    private void unindexPolicy(String policyRefId) {
+        policyRefIdsByJobId.keySet().forEach(jobId -> unindexPolicy(jobId, policyRefId));
+    }
+
+    /**
+     * Job creation events have no previous job version, and reconciler resync events carry the same job version as
+     * the current and the previous one (a real update without changes is never emitted). Both are treated as a change.
+     */
+    private boolean isCapacityChanged(JobUpdateEvent jobUpdateEvent) {
+        if (!jobUpdateEvent.getPrevious().isPresent()) {
+            return true;
+        }
+        Job<?> previous = (Job<?>) jobUpdateEvent.getPrevious().get();
+        if (previous.equals(jobUpdateEvent.getCurrent())) {
+            return true;
+        }
+        Object currentExt = jobUpdateEvent.getCurrent().getJobDescriptor().getExtensions();
+        Object previousExt = previous.getJobDescriptor().getExtensions();
+        if (!(currentExt instanceof ServiceJobExt) || !(previousExt instanceof ServiceJobExt)) {
+            return true;
+        }
+        return !Objects.equals(((ServiceJobExt) currentExt).getCapacity(), ((ServiceJobExt) previousExt).getCapacity());
+    }
+
     private boolean shouldRefreshScalableTargetForJob(String jobId, JobScalingConstraints jobScalingConstraints) {
         return !scalableTargets.containsKey(jobId) ||
                 scalableTargets.get(jobId).getMinCapacity() != jobScalingConstraints.getMinCapacity() ||
@@ -395,6 +476,7 @@ public class DefaultAppScaleManager implements AppScaleManager {
             AutoScalingPolicy autoScalingPolicy = AutoScalingPolicy.newBuilder().withRefId(autoScalePolicyException.getPolicyRefId()).build();
             if (autoScalePolicyException.getErrorCode() == AutoScalePolicyException.ErrorCode.UnknownScalingPolicy) {
                 metrics.reportPolicyStatusTransition(autoScalingPolicy, PolicyStatus.Deleted);
+                unindexPolicy(autoScalePolicyException.getPolicyRefId());
                 return appScalePolicyStore.updateStatusMessage(autoScalePolicyException.getPolicyRefId(), statusMessage)
                         .andThen(appScalePolicyStore.updatePolicyStatus(autoScalePolicyException.getPolicyRefId(), PolicyStatus.Deleted));
             } else if (isPolicyCreationError(autoScalePolicyException)) {
@@ -494,6 +576,7 @@ public class DefaultAppScaleManager implements AppScaleManager {
                         }
                         break;
                     case UPDATE_SCALABLE_TARGET:
+                        pendingTargetUpdateJobIds.remove(appScaleAction.getJobId());
                         if (appScaleAction.getPolicyRefId().isPresent()) {
                             logger.info("Asked to remove {}", appScaleAction.getPolicyRefId());
                             AutoScalableTarget updatedTarget = updateScalableTargetWorkflow(appScaleAction.getPolicyRefId().get(), appScaleAction.getJobId()).toBlocking().first();
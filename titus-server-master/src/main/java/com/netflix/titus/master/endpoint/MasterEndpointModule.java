@@ -24,9 +24,13 @@ import com.netflix.archaius.ConfigProxyFactory;
 import com.netflix.archaius.api.Config;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.CollectionsExt;
+import com.netflix.titus.common.util.archaius2.Archaius2Ext;
 import com.netflix.titus.common.util.loadshedding.AdmissionController;
+import com.netflix.titus.common.util.loadshedding.AdmissionControllerResponse;
 import com.netflix.titus.common.util.loadshedding.AdmissionControllers;
+import com.netflix.titus.common.util.loadshedding.adaptive.AdaptiveConcurrencyConfiguration;
 import com.netflix.titus.common.util.loadshedding.grpc.GrpcAdmissionControllerServerInterceptor;
+import com.netflix.titus.common.util.loadshedding.servlet.AdmissionControllerServletFilter;
 import com.netflix.titus.master.endpoint.grpc.GrpcMasterEndpointConfiguration;
 import com.netflix.titus.master.endpoint.grpc.TitusMasterGrpcServer;
 import com.netflix.titus.runtime.endpoint.authorization.AuthorizationServiceModule;
@@ -37,6 +41,10 @@ public class MasterEndpointModule extends AbstractModule {
 
     public static final String GRPC_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX = "titus.master.grpcServer.admissionController.buckets";
 
+    public static final String GRPC_ADAPTIVE_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX = "titus.master.grpcServer.admissionController.adaptive";
+
+    public static final String REST_ADAPTIVE_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX = "titus.master.restServer.admissionController.adaptive";
+
     private static final String UNIDENTIFIED = "unidentified";
 
     @Override
@@ -62,20 +70,46 @@ public class MasterEndpointModule extends AbstractModule {
                 config.getPrefixedView(GRPC_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX),
                 titusRuntime
         );
-        AdmissionController circuitBreaker = AdmissionControllers.circuitBreaker(
+        AdmissionController adaptive = AdmissionControllers.adaptiveConcurrency(
                 mainController,
+                Archaius2Ext.newConfiguration(AdaptiveConcurrencyConfiguration.class, GRPC_ADAPTIVE_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX, config),
+                titusRuntime
+        );
+        AdmissionController circuitBreaker = AdmissionControllers.circuitBreaker(
+                adaptive,
                 configuration::isAdmissionControllerEnabled
         );
         AdmissionController spectator = AdmissionControllers.spectator(circuitBreaker, titusRuntime);
 
-        return new GrpcAdmissionControllerServerInterceptor(
-                spectator,
-                () -> callMetadataResolver.resolve().map(c -> {
-                    if (CollectionsExt.isNullOrEmpty(c.getCallers())) {
-                        return UNIDENTIFIED;
-                    }
-                    return c.getCallers().get(0).getId();
-                }).orElse(UNIDENTIFIED)
+        return new GrpcAdmissionControllerServerInterceptor(spectator, () -> resolveCallerId(callMetadataResolver));
+    }
+
+    @Provides
+    @Singleton
+    public AdmissionControllerServletFilter getAdmissionControllerServletFilter(Config config,
+                                                                                GrpcMasterEndpointConfiguration configuration,
+                                                                                CallMetadataResolver callMetadataResolver,
+                                                                                TitusRuntime titusRuntime) {
+        AdmissionController adaptive = AdmissionControllers.adaptiveConcurrency(
+                request -> AdmissionControllerResponse.newBuilder().withAllowed(true).build(),
+                Archaius2Ext.newConfiguration(AdaptiveConcurrencyConfiguration.class, REST_ADAPTIVE_ADMISSION_CONTROLLER_CONFIGURATION_PREFIX, config),
+                titusRuntime
+        );
+        AdmissionController circuitBreaker = AdmissionControllers.circuitBreaker(
+                adaptive,
+                configuration::isAdmissionControllerEnabled
         );
+        AdmissionController spectator = AdmissionControllers.spectator(circuitBreaker, titusRuntime);
+
+        return new AdmissionControllerServletFilter(spectator, () -> resolveCallerId(callMetadataResolver));
+    }
+
+    private static String resolveCallerId(CallMetadataResolver callMetadataResolver) {
+        return callMetadataResolver.resolve().map(c -> {
+            if (CollectionsExt.isNullOrEmpty(c.getCallers())) {
+                return UNIDENTIFIED;
+            }
+            return c.getCallers().get(0).getId();
+        }).orElse(UNIDENTIFIED);
     }
 }
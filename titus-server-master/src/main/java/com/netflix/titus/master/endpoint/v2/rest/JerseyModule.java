@@ -25,6 +25,7 @@ import com.netflix.archaius.ConfigProxyFactory;
 import com.netflix.governator.guice.jersey.GovernatorServletContainer;
 import com.netflix.governator.providers.Advises;
 import com.netflix.titus.common.framework.scheduler.endpoint.LocalSchedulerResource;
+import com.netflix.titus.common.util.loadshedding.servlet.AdmissionControllerServletFilter;
 import com.netflix.titus.master.endpoint.v2.rest.filter.LeaderRedirectingFilter;
 import com.netflix.titus.master.scheduler.endpoint.http.OpportunisticAvailabilityResource;
 import com.netflix.titus.master.supervisor.endpoint.http.SupervisorResource;
@@ -48,6 +49,9 @@ public class JerseyModule extends JerseyServletModule {
         // Call metadata interceptor (see CallMetadataHeaders).
         filter("/api/v3/*").through(SimpleHttpCallMetadataResolver.CallMetadataInterceptorFilter.class);
 
+        // Adaptive concurrency limits (load shedding) for the v3 API. Evaluated after the call metadata is resolved.
+        filter("/api/v3/*").through(AdmissionControllerServletFilter.class);
+
         filter("/*").through(LeaderRedirectingFilter.class);
         filter("/*").through(ResettableInputStreamFilter.class);
 
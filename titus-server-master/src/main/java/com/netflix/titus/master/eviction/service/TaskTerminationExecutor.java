@@ -17,37 +17,82 @@
 package com.netflix.titus.master.eviction.service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
 
 import com.netflix.titus.api.eviction.model.event.EvictionEvent;
 import com.netflix.titus.api.eviction.service.EvictionException;
-import com.netflix.titus.api.model.callmetadata.CallMetadata;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.api.jobmanager.model.job.TaskState;
 import com.netflix.titus.api.jobmanager.service.V3JobOperations;
 import com.netflix.titus.api.jobmanager.service.V3JobOperations.Trigger;
+import com.netflix.titus.api.model.callmetadata.CallMetadata;
 import com.netflix.titus.common.runtime.TitusRuntime;
-import com.netflix.titus.common.util.rx.invoker.ReactorSerializedInvoker;
+import com.netflix.titus.common.util.rx.ReactorExt;
+import com.netflix.titus.common.util.time.Clock;
 import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.master.eviction.service.quota.ConsumptionResult;
 import com.netflix.titus.master.eviction.service.quota.TitusQuotasManager;
+import reactor.core.Disposable;
 import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
 import reactor.core.scheduler.Scheduler;
 
+/**
+ * Task terminations are executed sequentially for tasks belonging to the same job, so the job quota is always
+ * evaluated against the result of the previous termination. Terminations of tasks belonging to different jobs
+ * run in parallel.
+ */
 class TaskTerminationExecutor {
 
     private static final Duration TASK_TERMINATE_TIMEOUT = Duration.ofSeconds(5);
 
     private static final Duration TASK_EXCESSIVE_RUNNING_TIMEOUT = Duration.ofSeconds(60);
 
-    private static final int MAX_QUEUE_SIZE = 50;
+    /**
+     * Maximum number of termination requests that may wait for execution, across all jobs.
+     */
+    static final int MAX_QUEUE_SIZE = 500;
+
+    /**
+     * Maximum number of termination requests that may wait for execution for a single job. When many jobs have
+     * pending requests, each job gets an even share of {@link #MAX_QUEUE_SIZE}, but not less than
+     * {@link #MIN_JOB_QUEUE_SIZE}.
+     */
+    static final int MAX_JOB_QUEUE_SIZE = 50;
+
+    static final int MIN_JOB_QUEUE_SIZE = 5;
+
+    /**
+     * Maximum number of jobs for which termination requests are executed at the same time.
+     */
+    private static final int MAX_CONCURRENT_JOBS = 100;
 
     private final V3JobOperations jobOperations;
     private final TitusQuotasManager quotasManager;
-    private final ReactorSerializedInvoker<Void> serializedInvoker;
+    private final Scheduler scheduler;
+    private final Clock clock;
+
+    private final Object admissionLock = new Object();
+    private final Map<String, Integer> queueSizeByJobId = new HashMap<>();
+    private final Set<TerminationRequest> pendingRequests = new HashSet<>();
+
+    private final DirectProcessor<TerminationRequest> requestProcessor = DirectProcessor.create();
+    private final FluxSink<TerminationRequest> requestSink = requestProcessor.sink();
+    private final Disposable requestSubscription;
+
+    private volatile boolean shutdown;
 
     private final DirectProcessor<EvictionEvent> eventProcessor = DirectProcessor.create();
     private final EvictionTransactionLog transactionLog;
@@ -59,20 +104,33 @@ class TaskTerminationExecutor {
                             Scheduler scheduler) {
         this.jobOperations = jobOperations;
         this.quotasManager = quotasManager;
-        this.serializedInvoker = ReactorSerializedInvoker.<Void>newBuilder()
-                .withName("taskTerminationExecutor")
-                .withMaxQueueSize(MAX_QUEUE_SIZE)
-                .withExcessiveRunningTime(TASK_EXCESSIVE_RUNNING_TIMEOUT)
-                .withScheduler(scheduler)
-                .withClock(titusRuntime.getClock())
-                .withRegistry(titusRuntime.getRegistry())
-                .build();
+        this.scheduler = scheduler;
+        this.clock = titusRuntime.getClock();
         this.metrics = new TaskTerminationExecutorMetrics(titusRuntime);
         this.transactionLog = new EvictionTransactionLog();
+        this.requestSubscription = requestProcessor
+                .compose(ReactorExt.flatMapKeyedSerial(
+                        request -> request.getJob().getId(),
+                        null,
+                        this::execute,
+                        MAX_CONCURRENT_JOBS
+                ))
+                .subscribe();
     }
 
     void shutdown() {
-        serializedInvoker.shutdown(Duration.ofSeconds(30));
+        this.shutdown = true;
+        ReactorExt.safeDispose(requestSubscription);
+
+        List<TerminationRequest> requests;
+        synchronized (admissionLock) {
+            requests = new ArrayList<>(pendingRequests);
+        }
+        requests.forEach(request -> {
+            if (release(request)) {
+                request.getSink().error(newShutdownException());
+            }
+        });
     }
 
     Flux<EvictionEvent> events() {
@@ -85,29 +143,176 @@ class TaskTerminationExecutor {
                     Job<?> job = jobTaskPair.getLeft();
                     Task task = jobTaskPair.getRight();
 
-                    return serializedInvoker
-                            .submit(doTerminateTask(taskId, reason, job, task, callerId))
-                            .doOnSuccess(next -> onSuccessfulTermination(job, taskId, reason, callerId))
-                            .doOnError(error -> onTerminationError(job, taskId, reason, callerId, error));
+                    return submit(job, Collections.singletonList(task), reason, callerId);
                 });
     }
 
+    /**
+     * Terminates all the given tasks, which must belong to the same job. The quota is reserved for all of them
+     * at once, so either all tasks are terminated, or the request is rejected as a whole.
+     */
+    public Mono<Void> terminateTasks(List<String> taskIds, String reason, String callerId) {
+        return Mono
+                .defer(() -> {
+                    List<Task> tasks = new ArrayList<>();
+                    Job<?> job = null;
+                    for (String taskId : taskIds) {
+                        Pair<Job<?>, Task> jobTaskPair = checkTaskIsRunningOrThrowAnException(taskId);
+                        if (job == null) {
+                            job = jobTaskPair.getLeft();
+                        } else if (!job.getId().equals(jobTaskPair.getLeft().getId())) {
+                            throw EvictionException.badConfiguration("Tasks belong to different jobs: %s", taskIds);
+                        }
+                        tasks.add(jobTaskPair.getRight());
+                    }
+                    if (job == null) {
+                        throw EvictionException.badConfiguration("No tasks to terminate");
+                    }
+                    return Mono.just(Pair.<Job<?>, List<Task>>of(job, tasks));
+                })
+                .doOnError(error -> onValidationError(String.join(",", taskIds), reason, callerId, error))
+                .flatMap(jobTasksPair -> submit(jobTasksPair.getLeft(), jobTasksPair.getRight(), reason, callerId));
+    }
+
     private Mono<Pair<Job<?>, Task>> findAndVerifyJobAndTask(String taskId, String reason, String callerId) {
         return Mono
                 .defer(() -> Mono.just(checkTaskIsRunningOrThrowAnException(taskId)))
                 .doOnError(error -> onValidationError(taskId, reason, callerId, error));
     }
 
-    private Mono<Void> doTerminateTask(String taskId, String reason, Job<?> job, Task task, String callerId) {
+    private Mono<Void> submit(Job<?> job, List<Task> tasks, String reason, String callerId) {
+        return Mono.<Void>create(sink -> {
+            metrics.onSubmit();
+
+            TerminationRequest request = new TerminationRequest(job, tasks, reason, callerId, sink, clock.wallTime());
+            Optional<String> rejection = admit(request);
+            if (rejection.isPresent()) {
+                metrics.onQueueFull();
+                sink.error(new IllegalStateException(rejection.get()));
+                return;
+            }
+            sink.onCancel(() -> release(request));
+
+            // Checked after the request is admitted, so it is either failed here, or by the shutdown method.
+            if (shutdown) {
+                if (release(request)) {
+                    sink.error(newShutdownException());
+                }
+                return;
+            }
+            requestSink.next(request);
+        })
+                .doOnSuccess(next -> tasks.forEach(task -> onSuccessfulTermination(job, task.getId(), reason, callerId)))
+                .doOnError(error -> tasks.forEach(task -> onTerminationError(job, task.getId(), reason, callerId, error)));
+    }
+
+    /**
+     * Admits a request, unless the total queue limit, or the job queue limit is reached. The job queue limit
+     * depends on the number of jobs with pending requests, so a burst for a single job cannot block the others,
+     * and the total number of pending requests stays bounded.
+     */
+    private Optional<String> admit(TerminationRequest request) {
+        String jobId = request.getJob().getId();
+        synchronized (admissionLock) {
+            int queueSize = pendingRequests.size();
+            if (queueSize >= MAX_QUEUE_SIZE) {
+                return Optional.of(String.format("Too many pending task terminations: limit=%s", MAX_QUEUE_SIZE));
+            }
+            int jobQueueSize = queueSizeByJobId.getOrDefault(jobId, 0);
+            int pendingJobs = jobQueueSize == 0 ? queueSizeByJobId.size() + 1 : queueSizeByJobId.size();
+            int jobQueueLimit = getJobQueueLimit(pendingJobs);
+            if (jobQueueSize >= jobQueueLimit) {
+                return Optional.of(String.format("Too many pending task terminations for job %s: limit=%s", jobId, jobQueueLimit));
+            }
+            queueSizeByJobId.put(jobId, jobQueueSize + 1);
+            pendingRequests.add(request);
+            metrics.setQueueSize(queueSize + 1);
+        }
+        return Optional.empty();
+    }
+
+    static int getJobQueueLimit(int pendingJobs) {
+        return Math.max(MIN_JOB_QUEUE_SIZE, Math.min(MAX_JOB_QUEUE_SIZE, MAX_QUEUE_SIZE / Math.max(1, pendingJobs)));
+    }
+
+    /**
+     * Returns true if the request was pending, and is now released. The caller that released the request is the
+     * only one allowed to complete its sink.
+     */
+    private boolean release(TerminationRequest request) {
+        String jobId = request.getJob().getId();
+        synchronized (admissionLock) {
+            if (!pendingRequests.remove(request)) {
+                return false;
+            }
+            int jobQueueSize = queueSizeByJobId.getOrDefault(jobId, 0);
+            if (jobQueueSize > 1) {
+                queueSizeByJobId.put(jobId, jobQueueSize - 1);
+            } else {
+                queueSizeByJobId.remove(jobId);
+            }
+            metrics.setQueueSize(pendingRequests.size());
+        }
+        return true;
+    }
+
+    private boolean isPending(TerminationRequest request) {
+        synchronized (admissionLock) {
+            return pendingRequests.contains(request);
+        }
+    }
+
+    /**
+     * Errors are passed to the request owner, and never propagated to the request stream.
+     */
+    private Mono<Void> execute(TerminationRequest request) {
         return Mono.defer(() -> {
-            ConsumptionResult consumptionResult = quotasManager.tryConsumeQuota(job, task);
+            // The request was cancelled by its owner while waiting in the queue.
+            if (!isPending(request)) {
+                metrics.onExecutionDisposed(0);
+                return Mono.empty();
+            }
 
-            return consumptionResult.isApproved()
-                    ? jobOperations.killTask(taskId, false, false, Trigger.Eviction, CallMetadata.newBuilder().withCallerId(callerId).withCallReason(reason).build()).timeout(TASK_TERMINATE_TIMEOUT)
-                    : Mono.error(EvictionException.noAvailableJobQuota(job, consumptionResult.getRejectionReason().get()));
+            long startTime = clock.wallTime();
+            metrics.onExecutionStarted(startTime - request.getQueueTimestamp());
+
+            return doTerminateTasks(request)
+                    .timeout(TASK_EXCESSIVE_RUNNING_TIMEOUT, Mono.error(new TimeoutException("Excessive running time")), scheduler)
+                    .doOnSuccess(next -> {
+                        metrics.onExecutionCompleted(clock.wallTime() - startTime);
+                        if (release(request)) {
+                            request.getSink().success();
+                        }
+                    })
+                    .doOnError(error -> {
+                        metrics.onExecutionFailed(clock.wallTime() - startTime, error);
+                        if (release(request)) {
+                            request.getSink().error(error);
+                        }
+                    })
+                    .onErrorResume(error -> Mono.empty());
         });
     }
 
+    private Mono<Void> doTerminateTasks(TerminationRequest request) {
+        return Mono.defer(() -> {
+            Job<?> job = request.getJob();
+            List<Task> tasks = request.getTasks();
+
+            ConsumptionResult consumptionResult = tasks.size() == 1
+                    ? quotasManager.tryConsumeQuota(job, tasks.get(0))
+                    : quotasManager.tryConsumeQuota(job, tasks);
+            if (!consumptionResult.isApproved()) {
+                return Mono.<Void>error(EvictionException.noAvailableJobQuota(job, consumptionResult.getRejectionReason().get()));
+            }
+
+            CallMetadata callMetadata = CallMetadata.newBuilder().withCallerId(request.getCallerId()).withCallReason(request.getReason()).build();
+            return Flux.fromIterable(tasks)
+                    .flatMap(task -> jobOperations.killTask(task.getId(), false, false, Trigger.Eviction, callMetadata).timeout(TASK_TERMINATE_TIMEOUT))
+                    .then();
+        }).subscribeOn(scheduler);
+    }
+
     private Pair<Job<?>, Task> checkTaskIsRunningOrThrowAnException(String taskId) {
         Optional<Pair<Job<?>, Task>> jobAndTask = jobOperations.findTaskById(taskId);
         if (!jobAndTask.isPresent()) {
@@ -143,4 +348,52 @@ class TaskTerminationExecutor {
         transactionLog.logTaskTerminationError(job, taskId, reason, callerId, error);
         eventProcessor.onNext(EvictionEvent.newFailedTaskTerminationEvent(taskId, reason, error));
     }
+
+
+    private static IllegalStateException newShutdownException() {
+        return new IllegalStateException("Task termination executor shut down");
+    }
+
+    private static class TerminationRequest {
+
+        private final Job<?> job;
+        private final List<Task> tasks;
+        private final String reason;
+        private final String callerId;
+        private final MonoSink<Void> sink;
+        private final long queueTimestamp;
+
+        private TerminationRequest(Job<?> job, List<Task> tasks, String reason, String callerId, MonoSink<Void> sink, long queueTimestamp) {
+            this.job = job;
+            this.tasks = tasks;
+            this.reason = reason;
+            this.callerId = callerId;
+            this.sink = sink;
+            this.queueTimestamp = queueTimestamp;
+        }
+
+        private Job<?> getJob() {
+            return job;
+        }
+
+        private List<Task> getTasks() {
+            return tasks;
+        }
+
+        private String getReason() {
+            return reason;
+        }
+
+        private String getCallerId() {
+            return callerId;
+        }
+
+        private MonoSink<Void> getSink() {
+            return sink;
+        }
+
+        private long getQueueTimestamp() {
+            return queueTimestamp;
+        }
+    }
 }
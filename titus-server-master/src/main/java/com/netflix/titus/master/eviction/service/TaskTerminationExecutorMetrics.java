@@ -16,9 +16,13 @@
 
 package com.netflix.titus.master.eviction.service;
 
+import java.util.concurrent.TimeUnit;
+
 import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Gauge;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import com.netflix.titus.api.eviction.service.EvictionException;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.master.MetricConstants;
@@ -27,17 +31,38 @@ class TaskTerminationExecutorMetrics {
 
     private static final String ROOT_NAME = MetricConstants.METRIC_SCHEDULING_EVICTION + "taskTerminationExecutor.";
     private static final String TERMINATE_TASK = ROOT_NAME + "terminateTask";
+    private static final String QUEUE = ROOT_NAME + "queue.";
 
     private final Registry registry;
 
     private final Counter terminatedCounter;
     private final Id unexpectedErrorId;
 
+    private final Counter submitCounter;
+    private final Counter queueFullCounter;
+    private final Gauge queueSize;
+
+    private final Timer queueingTimer;
+    private final Timer executionTimer;
+    private final Timer executionErrorTimer;
+    private final Timer executionDisposedTimer;
+    private final Id executionErrorId;
+
     TaskTerminationExecutorMetrics(TitusRuntime titusRuntime) {
         this.registry = titusRuntime.getRegistry();
 
         this.terminatedCounter = registry.counter(TERMINATE_TASK, "status", "success");
         this.unexpectedErrorId = registry.createId(TERMINATE_TASK, "status", "error");
+
+        this.submitCounter = registry.counter(QUEUE + "submit");
+        this.queueFullCounter = registry.counter(QUEUE + "full");
+        this.queueSize = registry.gauge(QUEUE + "size");
+
+        this.queueingTimer = registry.timer(QUEUE + "queueingTime");
+        this.executionTimer = registry.timer(QUEUE + "executionTime", "status", "success");
+        this.executionErrorTimer = registry.timer(QUEUE + "executionTime", "status", "error");
+        this.executionDisposedTimer = registry.timer(QUEUE + "executionTime", "status", "disposed");
+        this.executionErrorId = registry.createId(QUEUE + "executionError");
     }
 
     void terminated() {
@@ -50,4 +75,33 @@ class TaskTerminationExecutorMetrics {
                 : "unknown";
         registry.counter(unexpectedErrorId.withTags("exception", error.getClass().getSimpleName(), "errorCode", errorCode));
     }
+
+    void onSubmit() {
+        submitCounter.increment();
+    }
+
+    void setQueueSize(int size) {
+        queueSize.set(size);
+    }
+
+    void onQueueFull() {
+        queueFullCounter.increment();
+    }
+
+    void onExecutionStarted(long queueingTimeMs) {
+        queueingTimer.record(queueingTimeMs, TimeUnit.MILLISECONDS);
+    }
+
+    void onExecutionCompleted(long executionTimeMs) {
+        executionTimer.record(executionTimeMs, TimeUnit.MILLISECONDS);
+    }
+
+    void onExecutionFailed(long executionTimeMs, Throwable error) {
+        executionErrorTimer.record(executionTimeMs, TimeUnit.MILLISECONDS);
+        registry.counter(executionErrorId.withTag("error", error.getClass().getSimpleName())).increment();
+    }
+
+    void onExecutionDisposed(long executionTimeMs) {
+        executionDisposedTimer.record(executionTimeMs, TimeUnit.MILLISECONDS);
+    }
 }
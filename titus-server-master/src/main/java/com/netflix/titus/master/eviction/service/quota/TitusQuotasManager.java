@@ -17,6 +17,8 @@
 package com.netflix.titus.master.eviction.service.quota;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -102,31 +104,60 @@ public class TitusQuotasManager {
             return UNKNOWN_JOB;
         }
 
-        String taskId = task.getId();
-
         synchronized (lock) {
-            ConsumptionResult systemResult = systemQuotaController.consume(taskId);
-            ConsumptionResult jobResult = jobQuotaController.consume(taskId);
+            return consumeSystemAndJobQuota(jobQuotaController, task.getId());
+        }
+    }
 
-            if (systemResult.isApproved() && jobResult.isApproved()) {
-                return jobResult;
-            }
+    /**
+     * Consumes quota for all tasks in one step. If quota for any of the tasks is not available, the quota already
+     * consumed for the other tasks is given back, and the rejection result for the first failed task is returned.
+     */
+    public ConsumptionResult tryConsumeQuota(Job<?> job, List<Task> tasks) {
+        JobQuotaController jobQuotaController = jobQuotaControllersByJobId.get(job.getId());
+        if (jobQuotaController == null) {
+            return UNKNOWN_JOB;
+        }
 
-            if (!systemResult.isApproved() && !jobResult.isApproved()) {
-                return ConsumptionResult.rejected(String.format(
-                        "No job and system quota: {systemQuota=%s, jobQuota=%s}",
-                        systemResult.getRejectionReason().get(), jobResult.getRejectionReason().get()
-                ));
+        synchronized (lock) {
+            List<String> consumedTaskIds = new ArrayList<>();
+            for (Task task : tasks) {
+                ConsumptionResult result = consumeSystemAndJobQuota(jobQuotaController, task.getId());
+                if (!result.isApproved()) {
+                    consumedTaskIds.forEach(taskId -> {
+                        systemQuotaController.giveBackConsumedQuota(taskId);
+                        jobQuotaController.giveBackConsumedQuota(taskId);
+                    });
+                    return result;
+                }
+                consumedTaskIds.add(task.getId());
             }
+            return ConsumptionResult.approved();
+        }
+    }
 
-            if (systemResult.isApproved()) {
-                systemQuotaController.giveBackConsumedQuota(taskId);
-                return jobResult;
-            }
+    private ConsumptionResult consumeSystemAndJobQuota(JobQuotaController jobQuotaController, String taskId) {
+        ConsumptionResult systemResult = systemQuotaController.consume(taskId);
+        ConsumptionResult jobResult = jobQuotaController.consume(taskId);
+
+        if (systemResult.isApproved() && jobResult.isApproved()) {
+            return jobResult;
+        }
+
+        if (!systemResult.isApproved() && !jobResult.isApproved()) {
+            return ConsumptionResult.rejected(String.format(
+                    "No job and system quota: {systemQuota=%s, jobQuota=%s}",
+                    systemResult.getRejectionReason().get(), jobResult.getRejectionReason().get()
+            ));
+        }
 
-            jobQuotaController.giveBackConsumedQuota(taskId);
-            return systemResult;
+        if (systemResult.isApproved()) {
+            systemQuotaController.giveBackConsumedQuota(taskId);
+            return jobResult;
         }
+
+        jobQuotaController.giveBackConsumedQuota(taskId);
+        return systemResult;
     }
 
     public Optional<EvictionQuota> findEvictionQuota(Reference reference) {
@@ -41,6 +41,7 @@ import org.slf4j.LoggerFactory;
 import reactor.core.Disposable;
 import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
@@ -61,6 +62,7 @@ public class JobActivityPublisher {
     private final TitusRuntime runtime;
     private final JobActivityPublisherMetrics metrics;
     private final int jobActivityStreamBufferSize;
+    private final int maxConcurrentPublishes;
 
     private final Predicate<Job> jobActivityPublisherEnabledPredicate;
 
@@ -76,20 +78,24 @@ public class JobActivityPublisher {
         this.runtime = runtime;
         this.metrics = new JobActivityPublisherMetrics(runtime.getRegistry());
         this.jobActivityStreamBufferSize = configuration.getJobActivityPublisherMaxStreamSize();
+        this.maxConcurrentPublishes = configuration.getJobActivityPublisherMaxConcurrentPublishes();
     }
 
     @Activator
     public void activate() {
         logger.info("Starting job activity publisher");
-        jobUpdateEventDisposable = jobManagerStream().subscribe(
-                this::handleJobManagerEvent,
-                e -> {
-                    logger.error("Error in job activity publisher stream: ", e);
-                },
-                () -> {
-                    logger.error("Unexpected completion of job activity publisher stream");
-                }
-        );
+        jobUpdateEventDisposable = jobManagerStream()
+                .flatMap(this::handleJobManagerEvent, maxConcurrentPublishes)
+                .subscribe(
+                        next -> {
+                        },
+                        e -> {
+                            logger.error("Error in job activity publisher stream: ", e);
+                        },
+                        () -> {
+                            logger.error("Unexpected completion of job activity publisher stream");
+                        }
+                );
     }
 
     @Deactivator
@@ -101,6 +107,11 @@ public class JobActivityPublisher {
         return !jobUpdateEventDisposable.isDisposed();
     }
 
+    /**
+     * The V3 engine event stream cannot be slowed down, so the buffer decouples it from the store. The buffer is
+     * drained at the pace of store writes (see {@link #maxConcurrentPublishes}), and events are dropped only if it
+     * overflows.
+     */
     private Flux<JobManagerEvent<?>> jobManagerStream() {
         Scheduler scheduler = Schedulers.newSingle(JOB_ACTIVITY_PUBLISHER_SCHEDULER, true);
         // The TitusRuntime emits stream metrics so we avoid explicitly managing them here
@@ -123,14 +134,14 @@ public class JobActivityPublisher {
      * Without failing the job creation or being able to reconcile missed events, errors to publish
      * events will simply result in missed records being published to Job Activity.
      */
-    private void handleJobManagerEvent(JobManagerEvent<?> jobManagerEvent) {
+    private Mono<Void> handleJobManagerEvent(JobManagerEvent<?> jobManagerEvent) {
         try {
             if (jobManagerEvent instanceof JobUpdateEvent) {
                 JobUpdateEvent jobUpdateEvent = (JobUpdateEvent) jobManagerEvent;
-                handleJobUpdateEvent(jobUpdateEvent);
+                return handleJobUpdateEvent(jobUpdateEvent);
             } else if (jobManagerEvent instanceof TaskUpdateEvent) {
                 TaskUpdateEvent taskUpdateEvent = (TaskUpdateEvent) jobManagerEvent;
-                handleTaskUpdateEvent(taskUpdateEvent);
+                return handleTaskUpdateEvent(taskUpdateEvent);
             } else {
                 logger.error("Got other event type: {} on {}", jobManagerEvent.getClass(), Thread.currentThread().getId());
             }
@@ -138,46 +149,45 @@ public class JobActivityPublisher {
             // Paranoid check to avoid Exception propagation to the event stream publisher
             logger.error("Exception caught while processing event stream. DROPPING to avoid impacting publisher: {}", e);
         }
+        return Mono.empty();
     }
 
-    private void handleJobUpdateEvent(JobUpdateEvent jobUpdateEvent) {
+    private Mono<Void> handleJobUpdateEvent(JobUpdateEvent jobUpdateEvent) {
         Job<?> job = jobUpdateEvent.getCurrent();
         if (!jobActivityPublisherEnabledPredicate.test(job)) {
             logger.debug("Skipping job activity publish because feature is disabled for this job");
-            return;
+            return Mono.empty();
         }
 
-        publisher.publishJob(job).subscribe(
-                voidResult -> {},
-                e -> {
-                    metrics.publishError(JobActivityPublisherRecord.RecordType.JOB, job.getId(), e);
-                    logger.error("Failed to publish update for job {}: {}", job.getId(), e);
-                },
-                () -> {
+        return publisher.publishJob(job)
+                .doOnSuccess(voidResult -> {
                     metrics.publishSuccess(JobActivityPublisherRecord.RecordType.JOB);
                     logger.debug("Successfully published update for job {}", job.getId());
-                }
-        );
+                })
+                .onErrorResume(e -> {
+                    metrics.publishError(JobActivityPublisherRecord.RecordType.JOB, job.getId(), e);
+                    logger.error("Failed to publish update for job {}: {}", job.getId(), e);
+                    return Mono.empty();
+                });
     }
 
-    private void handleTaskUpdateEvent(TaskUpdateEvent taskUpdateEvent) {
+    private Mono<Void> handleTaskUpdateEvent(TaskUpdateEvent taskUpdateEvent) {
         Job<?> job = taskUpdateEvent.getCurrentJob();
         Task task = taskUpdateEvent.getCurrentTask();
         if (!jobActivityPublisherEnabledPredicate.test(job)) {
             logger.debug("Skipping job activity publish because feature is disabled for this task's job");
-            return;
+            return Mono.empty();
         }
 
-        publisher.publishTask(task).subscribe(
-                voidResult -> {},
-                e -> {
-                    metrics.publishError(JobActivityPublisherRecord.RecordType.TASK, task.getId(), e);
-                    logger.error("Failed to publish update for task {}: {}",task.getId(), e);
-                },
-                () -> {
+        return publisher.publishTask(task)
+                .doOnSuccess(voidResult -> {
                     metrics.publishSuccess(JobActivityPublisherRecord.RecordType.TASK);
                     logger.debug("Successfully published update for task {}", task.getId());
-                }
-        );
+                })
+                .onErrorResume(e -> {
+                    metrics.publishError(JobActivityPublisherRecord.RecordType.TASK, task.getId(), e);
+                    logger.error("Failed to publish update for task {}: {}", task.getId(), e);
+                    return Mono.empty();
+                });
     }
 }
@@ -24,4 +24,11 @@ public interface JobActivityPublisherConfiguration {
 
     @DefaultValue("5000")
     int getJobActivityPublisherMaxStreamSize();
+
+    /**
+     * Maximum number of job/task records being written to the store at the same time. Events are pulled from
+     * the stream buffer only when there is capacity, so a slow store delays, instead of drops, the updates.
+     */
+    @DefaultValue("1000")
+    int getJobActivityPublisherMaxConcurrentPublishes();
 }
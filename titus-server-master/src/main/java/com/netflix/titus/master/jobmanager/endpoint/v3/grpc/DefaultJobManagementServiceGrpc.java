@@ -89,6 +89,7 @@ import com.netflix.titus.grpc.protogen.TaskStatus;
 import com.netflix.titus.master.config.CellInfoResolver;
 import com.netflix.titus.master.endpoint.common.CellDecorator;
 import com.netflix.titus.master.endpoint.grpc.GrpcMasterEndpointConfiguration;
+import com.netflix.titus.master.jobmanager.service.JobManagerConfiguration;
 import com.netflix.titus.master.jobmanager.service.JobManagerUtil;
 import com.netflix.titus.master.model.ResourceDimensions;
 import com.netflix.titus.master.scheduler.InUseIpAllocationConstraintFailure;
@@ -148,12 +149,14 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
     private final TitusRuntime titusRuntime;
     private final SchedulingService<? extends TaskRequest> schedulingService;
     private final Scheduler observeJobsScheduler;
+    private final ObserveJobsRouter observeJobsRouter;
 
     @Inject
     public DefaultJobManagementServiceGrpc(GrpcMasterEndpointConfiguration configuration,
                                            AgentManagementService agentManagementService,
                                            ApplicationSlaManagementService capacityGroupService,
                                            V3JobOperations jobOperations,
+                                           JobManagerConfiguration jobManagerConfiguration,
                                            LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo,
                                            @Named(JOB_STRICT_SANITIZER) EntitySanitizer entitySanitizer,
                                            ObjectConfigurationResolver<com.netflix.titus.api.jobmanager.model.job.JobDescriptor, CustomJobConfiguration> customJobConfigurationResolver,
@@ -176,6 +179,7 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
         this.schedulingService = schedulingService;
         this.observeJobsScheduler = Schedulers.from(ExecutorsExt.instrumentedFixedSizeThreadPool(
                 titusRuntime.getRegistry(), "observeJobs", configuration.getServerStreamsThreadPoolSize()));
+        this.observeJobsRouter = new ObserveJobsRouter(jobOperations, logStorageInfo, jobManagerConfiguration, titusRuntime);
     }
 
     @Override
@@ -243,11 +247,11 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
                     Integer.MAX_VALUE / 2
             );
 
-            Pair<List<com.netflix.titus.api.jobmanager.model.job.Job<?>>, Pagination> queryResult = PaginationUtil.takePageWithCursor(
+            Pair<List<com.netflix.titus.api.jobmanager.model.job.Job<?>>, Pagination> queryResult = PaginationUtil.selectPageWithCursor(
                     toPage(jobQuery.getPage()),
                     allFilteredJobs,
                     JobManagerCursors.coreJobCursorOrderComparator(),
-                    JobManagerCursors::coreJobIndexOf,
+                    JobManagerCursors::coreJobCursorReference,
                     JobManagerCursors::newCoreCursorFrom
             );
             List<Job> grpcJobs = queryResult.getLeft().stream().map(GrpcJobManagementModelConverters::toGrpcJob).collect(Collectors.toList());
@@ -300,11 +304,11 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
                     Integer.MAX_VALUE / 2
             ).stream().map(Pair::getRight).collect(Collectors.toList());
 
-            Pair<List<com.netflix.titus.api.jobmanager.model.job.Task>, Pagination> queryResult = PaginationUtil.takePageWithCursor(
+            Pair<List<com.netflix.titus.api.jobmanager.model.job.Task>, Pagination> queryResult = PaginationUtil.selectPageWithCursor(
                     toPage(taskQuery.getPage()),
                     allFilteredTasks,
                     JobManagerCursors.coreTaskCursorOrderComparator(),
-                    JobManagerCursors::coreTaskIndexOf,
+                    JobManagerCursors::coreTaskCursorReference,
                     JobManagerCursors::newCoreCursorFrom
             );
 
@@ -600,11 +604,21 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
         V3JobQueryCriteriaEvaluator jobsPredicate = new V3JobQueryCriteriaEvaluator(criteria, titusRuntime);
         V3TaskQueryCriteriaEvaluator tasksPredicate = new V3TaskQueryCriteriaEvaluator(criteria, titusRuntime);
 
-        Observable<JobChangeNotification> eventStream = jobOperations.observeJobs(jobsPredicate, tasksPredicate)
-                // avoid clogging the computation scheduler
-                .observeOn(observeJobsScheduler)
-                .subscribeOn(observeJobsScheduler, false)
-                .map(event -> GrpcJobManagementModelConverters.toGrpcJobChangeNotification(event, logStorageInfo))
+        Observable<JobChangeNotification> updates;
+        if (ObserveJobsRouter.isRoutable(criteria)) {
+            updates = observeJobsRouter.observeJobs(criteria, jobsPredicate, tasksPredicate)
+                    // avoid clogging the computation scheduler
+                    .observeOn(observeJobsScheduler)
+                    .subscribeOn(observeJobsScheduler, false);
+        } else {
+            updates = jobOperations.observeJobs(jobsPredicate, tasksPredicate)
+                    // avoid clogging the computation scheduler
+                    .observeOn(observeJobsScheduler)
+                    .subscribeOn(observeJobsScheduler, false)
+                    .map(event -> GrpcJobManagementModelConverters.toGrpcJobChangeNotification(event, logStorageInfo));
+        }
+
+        Observable<JobChangeNotification> eventStream = updates
                 .compose(ObservableExt.head(() -> {
                     List<JobChangeNotification> snapshot = createJobsSnapshot(jobsPredicate, tasksPredicate);
                     snapshot.add(SNAPSHOT_END_MARKER);
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.jobmanager.endpoint.v3.grpc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
+import com.netflix.titus.api.jobmanager.model.job.LogStorageInfo;
+import com.netflix.titus.api.jobmanager.model.job.Owner;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
+import com.netflix.titus.api.jobmanager.service.V3JobOperations;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.rx.ObservableExt;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.grpc.protogen.JobChangeNotification;
+import com.netflix.titus.grpc.protogen.JobStatus;
+import com.netflix.titus.grpc.protogen.TaskStatus;
+import com.netflix.titus.master.MetricConstants;
+import com.netflix.titus.master.jobmanager.service.JobManagerConfiguration;
+import com.netflix.titus.runtime.endpoint.JobQueryCriteria;
+import com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobManagementModelConverters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.BackpressureOverflow;
+import rx.Emitter;
+import rx.Observable;
+import rx.Subscription;
+
+/**
+ * Shares a single job event stream between the observeJobs subscribers. Subscribers are indexed by their most selective
+ * equality criteria (job ids, application name, capacity group, owner), so each event is evaluated only against
+ * the subscribers that can match it, and is converted to its GRPC form at most once.
+ */
+class ObserveJobsRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObserveJobsRouter.class);
+
+    private static final int BACKPRESSURE_BUFFER_SIZE = 1024;
+
+    private static final String CONFLATION_METRIC_ROOT = MetricConstants.METRIC_ROOT + "grpc.observeJobs.conflation";
+
+    private final V3JobOperations jobOperations;
+    private final LogStorageInfo<Task> logStorageInfo;
+    private final JobManagerConfiguration configuration;
+    private final TitusRuntime titusRuntime;
+
+    private final Object lock = new Object();
+    private final Set<RoutedSubscriber> subscribers = new LinkedHashSet<>();
+    private volatile RoutingIndex index = RoutingIndex.EMPTY;
+    private Subscription eventSubscription;
+
+    ObserveJobsRouter(V3JobOperations jobOperations,
+                      LogStorageInfo<Task> logStorageInfo,
+                      JobManagerConfiguration configuration,
+                      TitusRuntime titusRuntime) {
+        this.jobOperations = jobOperations;
+        this.logStorageInfo = logStorageInfo;
+        this.configuration = configuration;
+        this.titusRuntime = titusRuntime;
+    }
+
+    /**
+     * Job predicates with task level criteria need the job tasks, which are not included in the job update events.
+     * Such subscriptions must be evaluated by {@link V3JobOperations#observeJobs(Predicate, Predicate)} directly.
+     */
+    static boolean isRoutable(JobQueryCriteria<TaskStatus.TaskState, ?> criteria) {
+        return criteria.getTaskIds().isEmpty()
+                && criteria.getTaskStates().isEmpty()
+                && criteria.getTaskStateReasons().isEmpty()
+                && !criteria.isNeedsMigration();
+    }
+
+    Observable<JobChangeNotification> observeJobs(JobQueryCriteria<TaskStatus.TaskState, ?> criteria,
+                                                  Predicate<Pair<Job<?>, List<Task>>> jobsPredicate,
+                                                  Predicate<Pair<Job<?>, Task>> tasksPredicate) {
+        Observable<JobChangeNotification> events = Observable.create(emitter -> {
+            RoutedSubscriber subscriber = new RoutedSubscriber(criteria, jobsPredicate, tasksPredicate, emitter);
+            emitter.setCancellation(() -> unregister(subscriber));
+            register(subscriber);
+        }, Emitter.BackpressureMode.NONE);
+
+        if (configuration.isObserveJobsConflationEnabled()) {
+            return events.compose(ObservableExt.onBackpressureConflate(
+                    ObserveJobsRouter::toConflationKey,
+                    ObserveJobsRouter::isPinnedNotification,
+                    CONFLATION_METRIC_ROOT,
+                    titusRuntime.getRegistry()
+            ));
+        }
+        return events.onBackpressureBuffer(
+                BACKPRESSURE_BUFFER_SIZE,
+                () -> logger.warn("Overflowed the buffer size: " + BACKPRESSURE_BUFFER_SIZE),
+                BackpressureOverflow.ON_OVERFLOW_ERROR
+        );
+    }
+
+    @VisibleForTesting
+    int getSubscriberCount() {
+        return index.size;
+    }
+
+    private void register(RoutedSubscriber subscriber) {
+        synchronized (lock) {
+            subscribers.add(subscriber);
+            index = new RoutingIndex(subscribers);
+            if (eventSubscription == null) {
+                Subscription subscription = jobOperations.observeJobs().subscribe(
+                        this::dispatch,
+                        e -> terminate(Optional.of(e)),
+                        () -> terminate(Optional.empty())
+                );
+                // The event stream may have already terminated during the subscription.
+                if (!subscribers.isEmpty()) {
+                    eventSubscription = subscription;
+                }
+            }
+        }
+    }
+
+    private void unregister(RoutedSubscriber subscriber) {
+        synchronized (lock) {
+            if (!subscribers.remove(subscriber)) {
+                return;
+            }
+            index = new RoutingIndex(subscribers);
+            if (subscribers.isEmpty() && eventSubscription != null) {
+                eventSubscription.unsubscribe();
+                eventSubscription = null;
+            }
+        }
+    }
+
+    private void terminate(Optional<Throwable> error) {
+        List<RoutedSubscriber> terminated;
+        synchronized (lock) {
+            terminated = new ArrayList<>(subscribers);
+            subscribers.clear();
+            index = RoutingIndex.EMPTY;
+            eventSubscription = null;
+        }
+        terminated.forEach(subscriber -> {
+            if (error.isPresent()) {
+                subscriber.emitter.onError(error.get());
+            } else {
+                subscriber.emitter.onCompleted();
+            }
+        });
+    }
+
+    private void dispatch(JobManagerEvent<?> event) {
+        Job<?> job;
+        if (event instanceof TaskUpdateEvent) {
+            job = ((TaskUpdateEvent) event).getCurrentJob();
+        } else if (event instanceof JobUpdateEvent) {
+            job = ((JobUpdateEvent) event).getCurrent();
+        } else {
+            return;
+        }
+
+        JobChangeNotification notification = null;
+        for (RoutedSubscriber subscriber : index.findCandidates(job)) {
+            try {
+                if (subscriber.matches(event, job)) {
+                    if (notification == null) {
+                        notification = GrpcJobManagementModelConverters.toGrpcJobChangeNotification(event, logStorageInfo);
+                    }
+                    subscriber.emitter.onNext(notification);
+                }
+            } catch (Exception e) {
+                // Fail only the affected subscription, so other subscribers keep getting their events.
+                subscriber.emitter.onError(e);
+            }
+        }
+    }
+
+    private static Object toConflationKey(JobChangeNotification notification) {
+        switch (notification.getNotificationCase()) {
+            case JOBUPDATE:
+                return notification.getJobUpdate().getJob().getId();
+            case TASKUPDATE:
+                return notification.getTaskUpdate().getTask().getId();
+        }
+        return null;
+    }
+
+    private static boolean isPinnedNotification(JobChangeNotification notification) {
+        switch (notification.getNotificationCase()) {
+            case JOBUPDATE:
+                return notification.getJobUpdate().getJob().getStatus().getState() == JobStatus.JobState.Finished;
+            case TASKUPDATE:
+                JobChangeNotification.TaskUpdate taskUpdate = notification.getTaskUpdate();
+                return taskUpdate.getMovedFromAnotherJob()
+                        || taskUpdate.getTask().getStatus().getState() == TaskStatus.TaskState.Finished;
+        }
+        return true;
+    }
+
+    private static class RoutedSubscriber {
+
+        private final JobQueryCriteria<TaskStatus.TaskState, ?> criteria;
+        private final Predicate<Pair<Job<?>, List<Task>>> jobsPredicate;
+        private final Predicate<Pair<Job<?>, Task>> tasksPredicate;
+        private final Emitter<JobChangeNotification> emitter;
+
+        private RoutedSubscriber(JobQueryCriteria<TaskStatus.TaskState, ?> criteria,
+                                 Predicate<Pair<Job<?>, List<Task>>> jobsPredicate,
+                                 Predicate<Pair<Job<?>, Task>> tasksPredicate,
+                                 Emitter<JobChangeNotification> emitter) {
+            this.criteria = criteria;
+            this.jobsPredicate = jobsPredicate;
+            this.tasksPredicate = tasksPredicate;
+            this.emitter = emitter;
+        }
+
+        private boolean matches(JobManagerEvent<?> event, Job<?> job) {
+            if (event instanceof TaskUpdateEvent) {
+                return tasksPredicate.test(Pair.of(job, ((TaskUpdateEvent) event).getCurrentTask()));
+            }
+            return jobsPredicate.test(Pair.of(job, Collections.<Task>emptyList()));
+        }
+    }
+
+    /**
+     * Immutable index, rebuilt on each subscription change. A subscriber is placed in exactly one bucket, so it
+     * is never returned twice as a candidate for the same job.
+     */
+    private static class RoutingIndex {
+
+        private static final RoutingIndex EMPTY = new RoutingIndex(Collections.emptyList());
+
+        private final Map<String, List<RoutedSubscriber>> byJobId = new HashMap<>();
+        private final Map<String, List<RoutedSubscriber>> byApplicationName = new HashMap<>();
+        private final Map<String, List<RoutedSubscriber>> byCapacityGroup = new HashMap<>();
+        private final Map<String, List<RoutedSubscriber>> byOwner = new HashMap<>();
+        private final List<RoutedSubscriber> unindexed = new ArrayList<>();
+        private final int size;
+
+        private RoutingIndex(Collection<RoutedSubscriber> subscribers) {
+            for (RoutedSubscriber subscriber : subscribers) {
+                JobQueryCriteria<TaskStatus.TaskState, ?> criteria = subscriber.criteria;
+                if (!criteria.getJobIds().isEmpty()) {
+                    criteria.getJobIds().forEach(jobId -> add(byJobId, jobId, subscriber));
+                } else if (criteria.getAppName().isPresent()) {
+                    add(byApplicationName, criteria.getAppName().get(), subscriber);
+                } else if (criteria.getCapacityGroup().isPresent()) {
+                    add(byCapacityGroup, criteria.getCapacityGroup().get(), subscriber);
+                } else if (criteria.getOwner().isPresent()) {
+                    add(byOwner, criteria.getOwner().get(), subscriber);
+                } else {
+                    unindexed.add(subscriber);
+                }
+            }
+            this.size = subscribers.size();
+        }
+
+        private List<RoutedSubscriber> findCandidates(Job<?> job) {
+            JobDescriptor<?> jobDescriptor = job.getJobDescriptor();
+            Owner owner = jobDescriptor.getOwner();
+
+            List<RoutedSubscriber> candidates = new ArrayList<>(unindexed);
+            addAll(candidates, byJobId, job.getId());
+            addAll(candidates, byApplicationName, jobDescriptor.getApplicationName());
+            addAll(candidates, byCapacityGroup, jobDescriptor.getCapacityGroup());
+            addAll(candidates, byOwner, owner == null ? null : owner.getTeamEmail());
+            return candidates;
+        }
+
+        private static void add(Map<String, List<RoutedSubscriber>> bucket, String key, RoutedSubscriber subscriber) {
+            bucket.computeIfAbsent(key, k -> new ArrayList<>()).add(subscriber);
+        }
+
+        private static void addAll(List<RoutedSubscriber> candidates, Map<String, List<RoutedSubscriber>> bucket, String key) {
+            if (key == null || bucket.isEmpty()) {
+                return;
+            }
+            List<RoutedSubscriber> subscribers = bucket.get(key);
+            if (subscribers != null) {
+                candidates.addAll(subscribers);
+            }
+        }
+    }
+}
@@ -70,6 +70,7 @@ import com.netflix.titus.common.util.guice.annotation.ProxyConfiguration;
 import com.netflix.titus.common.util.rx.ObservableExt;
 import com.netflix.titus.common.util.rx.ReactorExt;
 import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.master.MetricConstants;
 import com.netflix.titus.master.jobmanager.service.common.action.JobEntityHolders;
 import com.netflix.titus.master.jobmanager.service.common.action.TitusChangeAction;
 import com.netflix.titus.master.jobmanager.service.common.action.TitusModelAction;
@@ -105,6 +106,7 @@ public class DefaultV3JobOperations implements V3JobOperations {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultV3JobOperations.class);
     private static final int OBSERVE_JOBS_BACKPRESSURE_BUFFER_SIZE = 1024;
+    private static final String OBSERVE_JOBS_CONFLATION_METRIC_ROOT = MetricConstants.METRIC_ROOT + "jobManager.observeJobs.conflation";
 
     enum IndexKind {StatusCreationTime}
 
@@ -526,6 +528,15 @@ public class DefaultV3JobOperations implements V3JobOperations {
     @Override
     public Observable<JobManagerEvent<?>> observeJobs(Predicate<Pair<Job<?>, List<Task>>> jobsPredicate,
                                                       Predicate<Pair<Job<?>, Task>> tasksPredicate) {
+        if (jobManagerConfiguration.isObserveJobsConflationEnabled()) {
+            return toJobManagerEvents(reconciliationFramework.events(), jobsPredicate, tasksPredicate)
+                    .compose(ObservableExt.onBackpressureConflate(
+                            DefaultV3JobOperations::toConflationKey,
+                            DefaultV3JobOperations::isPinnedEvent,
+                            OBSERVE_JOBS_CONFLATION_METRIC_ROOT,
+                            titusRuntime.getRegistry()
+                    ));
+        }
         Observable<JobManagerReconcilerEvent> events = reconciliationFramework.events()
                 .onBackpressureBuffer(
                         OBSERVE_JOBS_BACKPRESSURE_BUFFER_SIZE,
@@ -600,6 +611,30 @@ public class DefaultV3JobOperations implements V3JobOperations {
         };
     }
 
+    private static Object toConflationKey(JobManagerEvent<?> event) {
+        if (event instanceof TaskUpdateEvent) {
+            return ((TaskUpdateEvent) event).getCurrentTask().getId();
+        }
+        if (event instanceof JobUpdateEvent) {
+            return ((JobUpdateEvent) event).getCurrent().getId();
+        }
+        return null;
+    }
+
+    /**
+     * Finished jobs and tasks, and tasks moved between jobs are never replaced by a later event.
+     */
+    private static boolean isPinnedEvent(JobManagerEvent<?> event) {
+        if (event instanceof TaskUpdateEvent) {
+            TaskUpdateEvent taskEvent = (TaskUpdateEvent) event;
+            return taskEvent.isMovedFromAnotherJob() || taskEvent.getCurrentTask().getStatus().getState() == TaskState.Finished;
+        }
+        if (event instanceof JobUpdateEvent) {
+            return ((JobUpdateEvent) event).getCurrent().getStatus().getState() == JobState.Finished;
+        }
+        return true;
+    }
+
     private Optional<JobManagerEvent<?>> toJobUpdateEvent(JobNewModelReconcilerEvent newModelEvent,
                                                           Predicate<Pair<Job<?>, List<Task>>> jobsPredicate) {
         Job<?> job = newModelEvent.getNewRoot().getEntity();
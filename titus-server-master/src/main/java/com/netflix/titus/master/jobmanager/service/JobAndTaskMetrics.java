@@ -22,7 +22,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -33,18 +32,16 @@ import javax.inject.Singleton;
 import com.netflix.spectator.api.Gauge;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
-import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.api.jobmanager.model.job.TaskState;
-import com.netflix.titus.api.jobmanager.model.job.TaskStatus;
+import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
 import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
 import com.netflix.titus.api.jobmanager.service.V3JobOperations;
 import com.netflix.titus.api.model.ApplicationSLA;
 import com.netflix.titus.api.model.Tier;
 import com.netflix.titus.common.util.CollectionsExt;
 import com.netflix.titus.common.util.DateTimeExt;
-import com.netflix.titus.common.util.StringExt;
 import com.netflix.titus.common.util.guice.annotation.Activator;
 import com.netflix.titus.common.util.histogram.Histogram;
 import com.netflix.titus.common.util.histogram.HistogramDescriptor;
@@ -59,9 +56,9 @@ import rx.Subscription;
 import rx.schedulers.Schedulers;
 
 /**
- * Supplementary metrics based on both job/task state, and elapsed time. These metrics cannot be computed only
- * in response to system state change events. Instead, they are recomputed at regular interval.
- * <p>
+ * Supplementary metrics based on both job/task state, and elapsed time. The job/task state is tracked incrementally
+ * in {@link JobAndTaskMetricsIndex} from the job manager events. As the time in state changes without events, the
+ * gauges are published at regular interval from the precomputed data.
  */
 @Singleton
 public class JobAndTaskMetrics {
@@ -101,6 +98,8 @@ public class JobAndTaskMetrics {
     private final JobManagerConfiguration configuration;
     private final Registry registry;
 
+    private final JobAndTaskMetricsIndex index = new JobAndTaskMetricsIndex();
+
     private final Map<String, Map<String, List<Gauge>>> capacityGroupsMetrics = new HashMap<>();
     private final Id jobCountId;
     private final Id taskCountId;
@@ -128,13 +127,18 @@ public class JobAndTaskMetrics {
 
         this.taskStateUpdateSubscription = v3JobOperations.observeJobs().subscribe(
                 event -> {
-                    if (event instanceof TaskUpdateEvent) {
-                        updateTaskMetrics((TaskUpdateEvent) event);
+                    if (event instanceof JobUpdateEvent) {
+                        index.updateJob(((JobUpdateEvent) event).getCurrent());
+                    } else if (event instanceof TaskUpdateEvent) {
+                        TaskUpdateEvent taskUpdateEvent = (TaskUpdateEvent) event;
+                        index.updateTask(taskUpdateEvent.getCurrentJob(), taskUpdateEvent.getCurrentTask());
+                        updateTaskMetrics(taskUpdateEvent);
                     }
                 },
                 e -> logger.error("Event stream terminated with an error", e),
                 () -> logger.info("Event stream completed")
         );
+        index.load(v3JobOperations::getJobsAndTasks);
 
         this.taskLivenessRefreshSubscription = ObservableExt.schedule(
                 TASK_IN_STATE_ROOT_METRIC_NAME + "scheduler", registry, "TaskLivenessRefreshAction",
@@ -164,14 +168,12 @@ public class JobAndTaskMetrics {
     private void refresh() {
         Map<String, Tier> tierMap = buildTierMap();
 
-        List<Pair<Job, List<Task>>> jobsAndTasks = v3JobOperations.getJobsAndTasks();
-        List<Job> jobs = v3JobOperations.getJobs();
-        List<Task> tasks = v3JobOperations.getTasks();
-
-        updateJobCounts(jobsAndTasks);
-        updateTaskCounts(tasks);
+        updateJobCounts(index.getJobCounters());
+        updateTaskCounts(index.getTaskCounters());
 
-        Map<String, Map<String, Histogram.Builder>> capacityGroupsHistograms = buildCapacityGroupsHistograms(tierMap.keySet(), jobs);
+        Map<String, Map<String, Histogram.Builder>> capacityGroupsHistograms = index.buildLivenessHistograms(
+                tierMap.keySet(), ApplicationSlaManagementService.DEFAULT_APPLICATION, HISTOGRAM_DESCRIPTOR, System.currentTimeMillis()
+        );
         resetDroppedCapacityGroups(capacityGroupsHistograms.keySet());
         updateCapacityGroupCounters(capacityGroupsHistograms, tierMap);
     }
@@ -240,141 +242,43 @@ public class JobAndTaskMetrics {
         return gauges;
     }
 
-    /**
-     * Traverse all active jobs and update the count metrics
-     */
-    private void updateJobCounts(List<Pair<Job, List<Task>>> jobsAndTasks) {
-        int emptyJobs = 0;
-        int serviceJobsOwnedByKubeScheduler = 0;
-        int serviceJobsOwnedByFenzo = 0;
-        int batchJobsOwnedByKubeScheduler = 0;
-        int batchJobsOwnedByFenzo = 0;
-
-        for (Pair<Job, List<Task>> jobAndTasks : jobsAndTasks) {
-            Job job = jobAndTasks.getLeft();
-            List<Task> tasks = jobAndTasks.getRight();
-
-            if (JobFunctions.getJobDesiredSize(job) == 0) {
-                emptyJobs++;
-            } else {
-                boolean ownedByKubeScheduler = tasks.stream().anyMatch(JobFunctions::isOwnedByKubeScheduler);
-                boolean serviceJob = JobFunctions.isServiceJob(job);
-
-                if (ownedByKubeScheduler) {
-                    if (serviceJob) {
-                        serviceJobsOwnedByKubeScheduler++;
-                    } else {
-                        batchJobsOwnedByKubeScheduler++;
-                    }
-                } else {
-                    if (serviceJob) {
-                        serviceJobsOwnedByFenzo++;
-                    } else {
-                        batchJobsOwnedByFenzo++;
-                    }
-                }
-            }
-        }
-
-        registry.gauge(jobCountId.withTag("emptyJobs", "true")).set(emptyJobs);
+    private void updateJobCounts(long[] jobCounters) {
+        registry.gauge(jobCountId.withTag("emptyJobs", "true")).set(jobCounters[JobAndTaskMetricsIndex.JOB_EMPTY]);
 
         registry.gauge(jobCountId.withTags(
                 "jobType", "service",
                 "kubeScheduler", "true"
-        )).set(serviceJobsOwnedByKubeScheduler);
+        )).set(jobCounters[JobAndTaskMetricsIndex.JOB_SERVICE_KUBE_SCHEDULER]);
         registry.gauge(jobCountId.withTags(
                 "jobType", "service",
                 "kubeScheduler", "false"
-        )).set(serviceJobsOwnedByFenzo);
+        )).set(jobCounters[JobAndTaskMetricsIndex.JOB_SERVICE_FENZO]);
 
         registry.gauge(jobCountId.withTags(
                 "jobType", "batch",
                 "kubeScheduler", "true"
-        )).set(batchJobsOwnedByKubeScheduler);
+        )).set(jobCounters[JobAndTaskMetricsIndex.JOB_BATCH_KUBE_SCHEDULER]);
         registry.gauge(jobCountId.withTags(
                 "jobType", "batch",
                 "kubeScheduler", "false"
-        )).set(batchJobsOwnedByFenzo);
+        )).set(jobCounters[JobAndTaskMetricsIndex.JOB_BATCH_FENZO]);
     }
 
-    /**
-     * Traverse all tasks and update the count metrics
-     */
-    private void updateTaskCounts(List<Task> tasks) {
-        int tasksOwnedByKubeScheduler = 0;
-        int tasksWithPodCreated = 0;
-        for (Task task : tasks) {
-            if (JobFunctions.isOwnedByKubeScheduler(task)) {
-                tasksOwnedByKubeScheduler++;
-                if (TaskStatus.hasPod(task)) {
-                    tasksWithPodCreated++;
-                }
-            }
-        }
+    private void updateTaskCounts(long[] taskCounters) {
         registry.gauge(taskCountId.withTags(
                 "kubeScheduler", "true",
                 "podCreated", "true"
-        )).set(tasksWithPodCreated);
+        )).set(taskCounters[JobAndTaskMetricsIndex.TASK_KUBE_SCHEDULER_POD_CREATED]);
         registry.gauge(taskCountId.withTags(
                 "kubeScheduler", "true",
                 "podCreated", "false"
-        )).set(tasksOwnedByKubeScheduler - tasksWithPodCreated);
+        )).set(taskCounters[JobAndTaskMetricsIndex.TASK_KUBE_SCHEDULER_NO_POD]);
 
-        registry.gauge(taskCountId.withTag("kubeScheduler", "false")).set(tasks.size() - tasksOwnedByKubeScheduler);
-    }
-
-    /**
-     * Traverse all active tasks and collect their state and the time they stayed in this state (the latter in form of histogram).
-     *
-     * @return mapOf(capacityGroupName - > mapOf ( taskState, histogram))
-     */
-    private Map<String, Map<String, Histogram.Builder>> buildCapacityGroupsHistograms(Set<String> capacityGroups, List<Job> jobs) {
-        Map<String, Map<String, Histogram.Builder>> capacityGroupsHistograms = newCapacityHistograms(capacityGroups);
-        jobs.forEach(job -> resolveCapacityGroup(job, capacityGroupsHistograms).ifPresent(capacityGroup ->
-                buildCapacityGroupHistogram(job, capacityGroup, capacityGroupsHistograms)
-        ));
-        return capacityGroupsHistograms;
-    }
-
-    private void buildCapacityGroupHistogram(Job<?> job, String capacityGroup, Map<String, Map<String, Histogram.Builder>> capacityGroupsHistograms) {
-        // 'capacityGroupsHistograms' is pre-initialized, but to avoid race condition we make extra check here.
-        Map<String, Histogram.Builder> capacityGroupHistograms = capacityGroupsHistograms.computeIfAbsent(capacityGroup, k -> new HashMap<>());
-        List<Task> tasks;
-        try {
-            tasks = v3JobOperations.getTasks(job.getId());
-        } catch (Exception e) {
-            // We work on live data, which may be removed at any point in time.
-            return;
-        }
-        tasks.forEach(task -> {
-            long timestamp = task.getStatus().getTimestamp();
-            if (timestamp > 0) {
-                long durationMs = System.currentTimeMillis() - timestamp;
-                capacityGroupHistograms.computeIfAbsent(
-                        task.getStatus().getState().name(),
-                        name -> Histogram.newBuilder(HISTOGRAM_DESCRIPTOR)
-                ).increment(durationMs);
-            }
-        });
-    }
-
-    private Optional<String> resolveCapacityGroup(Job<?> job, Map<String, Map<String, Histogram.Builder>> capacityHistograms) {
-        String capacityGroup = job.getJobDescriptor().getCapacityGroup();
-        if (StringExt.isEmpty(capacityGroup)) {
-            capacityGroup = job.getJobDescriptor().getApplicationName();
-        }
-        if (StringExt.isEmpty(capacityGroup)) {
-            return Optional.of(ApplicationSlaManagementService.DEFAULT_APPLICATION);
-        }
-        return Optional.of(capacityHistograms.containsKey(capacityGroup) ? capacityGroup : ApplicationSlaManagementService.DEFAULT_APPLICATION);
+        registry.gauge(taskCountId.withTag("kubeScheduler", "false")).set(taskCounters[JobAndTaskMetricsIndex.TASK_FENZO]);
     }
 
     private Map<String, Tier> buildTierMap() {
         return applicationSlaManagementService.getApplicationSLAs().stream()
                 .collect(Collectors.toMap(ApplicationSLA::getAppName, ApplicationSLA::getTier));
     }
-
-    private Map<String, Map<String, Histogram.Builder>> newCapacityHistograms(Set<String> capacityGroups) {
-        return capacityGroups.stream().collect(Collectors.toMap(name -> name, name -> new HashMap<>()));
-    }
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.jobmanager.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.JobState;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.api.jobmanager.model.job.TaskStatus;
+import com.netflix.titus.common.util.histogram.Histogram;
+import com.netflix.titus.common.util.histogram.HistogramDescriptor;
+import com.netflix.titus.common.util.tuple.Pair;
+
+/**
+ * Job and task counters, and task liveness data maintained incrementally from the job manager events, so
+ * {@link JobAndTaskMetrics} does not have to traverse the full job model on each refresh. The liveness data is kept
+ * as a number of tasks per state entry time, rounded down to {@link #LIVENESS_RESOLUTION_MS}. The histograms are built
+ * from these buckets, which are far fewer than the tasks.
+ * <p>
+ * All methods are synchronized, as the index is updated from the event stream, and read by the refresh loop.
+ */
+class JobAndTaskMetricsIndex {
+
+    static final long LIVENESS_RESOLUTION_MS = 10_000;
+
+    static final int JOB_EMPTY = 0;
+    static final int JOB_SERVICE_KUBE_SCHEDULER = 1;
+    static final int JOB_SERVICE_FENZO = 2;
+    static final int JOB_BATCH_KUBE_SCHEDULER = 3;
+    static final int JOB_BATCH_FENZO = 4;
+
+    static final int TASK_KUBE_SCHEDULER_POD_CREATED = 0;
+    static final int TASK_KUBE_SCHEDULER_NO_POD = 1;
+    static final int TASK_FENZO = 2;
+
+    private final Map<String, JobEntry> jobs = new HashMap<>();
+    private final Map<String, TaskEntry> tasks = new HashMap<>();
+
+    /**
+     * Map of capacityGroup -> task state -> state entry time bucket -> number of tasks.
+     */
+    private final Map<String, Map<String, Map<Long, Long>>> liveness = new HashMap<>();
+
+    private final long[] jobCounters = new long[5];
+    private final long[] taskCounters = new long[3];
+
+    /**
+     * Loads the current job manager state. The snapshot is taken while holding the index lock, so the events applied
+     * before are older than the snapshot, and the events applied after are delivered in order, and converge on the
+     * latest state.
+     */
+    synchronized void load(Supplier<List<Pair<Job, List<Task>>>> snapshotSupplier) {
+        for (Pair<Job, List<Task>> jobAndTasks : snapshotSupplier.get()) {
+            Job<?> job = jobAndTasks.getLeft();
+            updateJob(job);
+            jobAndTasks.getRight().forEach(task -> updateTask(job, task));
+        }
+    }
+
+    synchronized void updateJob(Job<?> job) {
+        if (job.getStatus().getState() == JobState.Finished) {
+            removeJob(job.getId());
+            return;
+        }
+
+        JobEntry entry = jobs.get(job.getId());
+        if (entry == null) {
+            entry = new JobEntry(job);
+            jobs.put(job.getId(), entry);
+            jobCounters[entry.getCategory()]++;
+            return;
+        }
+
+        jobCounters[entry.getCategory()]--;
+        String previousCapacityGroup = entry.capacityGroup;
+        entry.update(job);
+        jobCounters[entry.getCategory()]++;
+
+        if (!previousCapacityGroup.equals(entry.capacityGroup)) {
+            for (String taskId : entry.taskIds) {
+                TaskEntry taskEntry = tasks.get(taskId);
+                removeLiveness(previousCapacityGroup, taskEntry);
+                addLiveness(entry.capacityGroup, taskEntry);
+            }
+        }
+    }
+
+    synchronized void updateTask(Job<?> job, Task task) {
+        removeTask(task.getId());
+        if (task.getStatus().getState() == TaskState.Finished) {
+            return;
+        }
+
+        updateJob(job);
+        JobEntry jobEntry = jobs.get(job.getId());
+        if (jobEntry == null) {
+            return;
+        }
+
+        TaskEntry taskEntry = new TaskEntry(task);
+        tasks.put(task.getId(), taskEntry);
+        taskCounters[taskEntry.getCategory()]++;
+        addLiveness(jobEntry.capacityGroup, taskEntry);
+
+        jobCounters[jobEntry.getCategory()]--;
+        jobEntry.addTask(taskEntry);
+        jobCounters[jobEntry.getCategory()]++;
+    }
+
+    synchronized long[] getJobCounters() {
+        return jobCounters.clone();
+    }
+
+    synchronized long[] getTaskCounters() {
+        return taskCounters.clone();
+    }
+
+    /**
+     * Build the task liveness histograms. Capacity groups not included in the <code>knownCapacityGroups</code>
+     * set are reported under the <code>defaultCapacityGroup</code>.
+     *
+     * @return mapOf(capacityGroupName - > mapOf ( taskState, histogram))
+     */
+    synchronized Map<String, Map<String, Histogram.Builder>> buildLivenessHistograms(Set<String> knownCapacityGroups,
+                                                                                  String defaultCapacityGroup,
+                                                                                  HistogramDescriptor histogramDescriptor,
+                                                                                  long now) {
+        Map<String, Map<String, Histogram.Builder>> result = new HashMap<>();
+        knownCapacityGroups.forEach(capacityGroup -> result.put(capacityGroup, new HashMap<>()));
+
+        liveness.forEach((capacityGroup, byState) -> {
+            String effectiveCapacityGroup = knownCapacityGroups.contains(capacityGroup) ? capacityGroup : defaultCapacityGroup;
+            Map<String, Histogram.Builder> histograms = result.computeIfAbsent(effectiveCapacityGroup, k -> new HashMap<>());
+            byState.forEach((state, buckets) -> {
+                Histogram.Builder builder = histograms.computeIfAbsent(state, s -> Histogram.newBuilder(histogramDescriptor));
+                buckets.forEach((bucket, count) -> builder.add(now - bucket * LIVENESS_RESOLUTION_MS, count));
+            });
+        });
+        return result;
+    }
+
+    private void removeJob(String jobId) {
+        JobEntry entry = jobs.remove(jobId);
+        if (entry == null) {
+            return;
+        }
+        jobCounters[entry.getCategory()]--;
+        for (String taskId : entry.taskIds) {
+            TaskEntry taskEntry = tasks.remove(taskId);
+            taskCounters[taskEntry.getCategory()]--;
+            removeLiveness(entry.capacityGroup, taskEntry);
+        }
+    }
+
+    private void removeTask(String taskId) {
+        TaskEntry taskEntry = tasks.remove(taskId);
+        if (taskEntry == null) {
+            return;
+        }
+        taskCounters[taskEntry.getCategory()]--;
+
+        JobEntry jobEntry = jobs.get(taskEntry.jobId);
+        if (jobEntry != null) {
+            removeLiveness(jobEntry.capacityGroup, taskEntry);
+            jobCounters[jobEntry.getCategory()]--;
+            jobEntry.removeTask(taskEntry);
+            jobCounters[jobEntry.getCategory()]++;
+        }
+    }
+
+    private void addLiveness(String capacityGroup, TaskEntry taskEntry) {
+        if (taskEntry.timestamp <= 0) {
+            return;
+        }
+        liveness.computeIfAbsent(capacityGroup, c -> new HashMap<>())
+                .computeIfAbsent(taskEntry.state, s -> new HashMap<>())
+                .merge(taskEntry.timestamp / LIVENESS_RESOLUTION_MS, 1L, Long::sum);
+    }
+
+    private void removeLiveness(String capacityGroup, TaskEntry taskEntry) {
+        if (taskEntry.timestamp <= 0) {
+            return;
+        }
+        Map<String, Map<Long, Long>> byState = liveness.get(capacityGroup);
+        if (byState == null) {
+            return;
+        }
+        Map<Long, Long> buckets = byState.get(taskEntry.state);
+        if (buckets == null) {
+            return;
+        }
+        buckets.computeIfPresent(taskEntry.timestamp / LIVENESS_RESOLUTION_MS, (bucket, count) -> count > 1 ? count - 1 : null);
+        if (buckets.isEmpty()) {
+            byState.remove(taskEntry.state);
+            if (byState.isEmpty()) {
+                liveness.remove(capacityGroup);
+            }
+        }
+    }
+
+    private static class JobEntry {
+
+        private final Set<String> taskIds = new HashSet<>();
+        private final boolean serviceJob;
+
+        private String capacityGroup;
+        private boolean empty;
+        private int tasksOwnedByKubeScheduler;
+
+        private JobEntry(Job<?> job) {
+            this.serviceJob = JobFunctions.isServiceJob(job);
+            update(job);
+        }
+
+        private void update(Job<?> job) {
+            this.capacityGroup = JobFunctions.getEffectiveCapacityGroup(job);
+            this.empty = JobFunctions.getJobDesiredSize(job) == 0;
+        }
+
+        private void addTask(TaskEntry taskEntry) {
+            taskIds.add(taskEntry.taskId);
+            if (taskEntry.ownedByKubeScheduler) {
+                tasksOwnedByKubeScheduler++;
+            }
+        }
+
+        private void removeTask(TaskEntry taskEntry) {
+            taskIds.remove(taskEntry.taskId);
+            if (taskEntry.ownedByKubeScheduler) {
+                tasksOwnedByKubeScheduler--;
+            }
+        }
+
+        private int getCategory() {
+            if (empty) {
+                return JOB_EMPTY;
+            }
+            boolean ownedByKubeScheduler = tasksOwnedByKubeScheduler > 0;
+            if (serviceJob) {
+                return ownedByKubeScheduler ? JOB_SERVICE_KUBE_SCHEDULER : JOB_SERVICE_FENZO;
+            }
+            return ownedByKubeScheduler ? JOB_BATCH_KUBE_SCHEDULER : JOB_BATCH_FENZO;
+        }
+    }
+
+    private static class TaskEntry {
+
+        private final String taskId;
+        private final String jobId;
+        private final String state;
+        private final long timestamp;
+        private final boolean ownedByKubeScheduler;
+        private final boolean podCreated;
+
+        private TaskEntry(Task task) {
+            this.taskId = task.getId();
+            this.jobId = task.getJobId();
+            this.state = task.getStatus().getState().name();
+            this.timestamp = task.getStatus().getTimestamp();
+            this.ownedByKubeScheduler = JobFunctions.isOwnedByKubeScheduler(task);
+            this.podCreated = ownedByKubeScheduler && TaskStatus.hasPod(task);
+        }
+
+        private int getCategory() {
+            if (!ownedByKubeScheduler) {
+                return TASK_FENZO;
+            }
+            return podCreated ? TASK_KUBE_SCHEDULER_POD_CREATED : TASK_KUBE_SCHEDULER_NO_POD;
+        }
+    }
+}
@@ -32,6 +32,28 @@ public interface JobManagerConfiguration {
     @DefaultValue("1")
     long getReconcilerActiveTimeoutMs();
 
+    /**
+     * If enabled, the difference resolvers are not run for jobs which models did not change since the last
+     * evaluation that produced no actions, until the earliest time based deadline (task timeout, retry delay, etc)
+     * is reached. Disabled by default, until it is rolled out through the configuration.
+     */
+    @DefaultValue("false")
+    boolean isReconcilerDirtyTrackingEnabled();
+
+    /**
+     * Maximum amount of time an unchanged job is not evaluated by the difference resolver. Bounds the delay of
+     * reacting to changes that are not reflected in the job model, like configuration or capacity group updates.
+     */
+    @DefaultValue("30000")
+    long getReconcilerIdleJobReevaluationIntervalMs();
+
+    /**
+     * If enabled, job event subscribers that cannot keep up get only the latest pending update of each job and task,
+     * instead of being disconnected when the event buffer overflows. Finished job and task events are never dropped.
+     */
+    @DefaultValue("false")
+    boolean isObserveJobsConflationEnabled();
+
     /**
      * How many active tasks in the transient state (in other words not Started and not Finished) are allowed in a job.
      * If the number of active tasks in the transient state goes above this limit, no new tasks are created.
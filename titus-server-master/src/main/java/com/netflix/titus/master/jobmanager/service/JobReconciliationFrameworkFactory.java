@@ -66,6 +66,7 @@ import com.netflix.titus.common.util.time.Clock;
 import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.master.MetricConstants;
 import com.netflix.titus.master.jobmanager.service.DefaultV3JobOperations.IndexKind;
+import com.netflix.titus.master.jobmanager.service.common.DirtyTrackingDifferenceResolver;
 import com.netflix.titus.master.jobmanager.service.common.SecurityGroupUtils;
 import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
 import com.netflix.titus.master.jobmanager.service.common.action.TitusChangeAction;
@@ -185,7 +186,7 @@ public class JobReconciliationFrameworkFactory {
         this.loadedTasks = registry.gauge(ROOT_METRIC_NAME + "loadedTasks");
         this.storeLoadTimeMs = registry.gauge(ROOT_METRIC_NAME + "storeLoadTimeMs");
 
-        this.dispatchingResolver = DifferenceResolvers.dispatcher(rootModel -> {
+        DifferenceResolver<JobManagerReconcilerEvent> jobTypeResolver = DifferenceResolvers.dispatcher(rootModel -> {
             Job<?> job = rootModel.getEntity();
             JobDescriptor.JobDescriptorExt extensions = job.getJobDescriptor().getExtensions();
             if (extensions instanceof BatchJobExt) {
@@ -196,6 +197,7 @@ public class JobReconciliationFrameworkFactory {
                 throw new IllegalStateException("Unsupported job type " + extensions.getClass());
             }
         });
+        this.dispatchingResolver = new DirtyTrackingDifferenceResolver(jobTypeResolver, jobManagerConfiguration, titusRuntime);
     }
 
     ReconciliationFramework<JobManagerReconcilerEvent> newInstance() {
@@ -97,27 +97,14 @@ public class KubeNotificationProcessor {
     @Activator
     public void enterActiveMode() {
         this.subscription = kubeApiServerIntegrator.events().mergeWith(kubeJobManagementReconciler.getPodEventSource())
-                .flatMap(event -> {
-                    Pair<Job<?>, Task> jobAndTask = v3JobOperations.findTaskById(event.getTaskId()).orElse(null);
-                    if (jobAndTask == null) {
-                        logger.warn("Got Kube notification about unknown task: {}", event.getTaskId());
-                        return Mono.empty();
-                    }
-
-                    Task task = jobAndTask.getRight();
-                    if (!JobFunctions.isOwnedByKubeScheduler(task)) {
-                        logger.debug("Ignoring notification for task managed via Mesos adapter: taskId={}", task.getId());
-                        return Mono.empty();
-                    }
-
-                    if (event instanceof PodNotFoundEvent) {
-                        return handlePodNotFoundEvent((PodNotFoundEvent) event);
-                    }
-                    // We depend in this flatmap on the fact that the task update event is added by the source thread to
-                    // the job reconciler queue. This guarantees the right order of the execution.
-                    // TODO Implement flatMapWithSequentialSubscription operator
-                    return handlePodUpdatedEvent(event, jobAndTask.getLeft(), task);
-                }, Math.max(1, configuration.getKubeEventConcurrencyLimit()))
+                .compose(ReactorExt.flatMapKeyedSerial(
+                        PodEvent::getTaskId,
+                        // Only the latest pod state matters. Intermediate task states skipped this way are back
+                        // filled by fillInMissingStates.
+                        (previous, next) -> next,
+                        this::handlePodEvent,
+                        Math.max(1, configuration.getKubeEventConcurrencyLimit())
+                ))
                 .ignoreElements()
                 .doOnError(error -> logger.warn("Kube integration event stream terminated with an error (retrying soon)", error))
                 .retryBackoff(Long.MAX_VALUE, Duration.ofSeconds(1))
@@ -130,6 +117,29 @@ public class KubeNotificationProcessor {
                 );
     }
 
+    /**
+     * Events for the same task are handled one at a time, so the task lookup always observes the result of the
+     * previous update.
+     */
+    private Mono<Void> handlePodEvent(PodEvent event) {
+        Pair<Job<?>, Task> jobAndTask = v3JobOperations.findTaskById(event.getTaskId()).orElse(null);
+        if (jobAndTask == null) {
+            logger.warn("Got Kube notification about unknown task: {}", event.getTaskId());
+            return Mono.empty();
+        }
+
+        Task task = jobAndTask.getRight();
+        if (!JobFunctions.isOwnedByKubeScheduler(task)) {
+            logger.debug("Ignoring notification for task managed via Mesos adapter: taskId={}", task.getId());
+            return Mono.empty();
+        }
+
+        if (event instanceof PodNotFoundEvent) {
+            return handlePodNotFoundEvent((PodNotFoundEvent) event);
+        }
+        return handlePodUpdatedEvent(event, jobAndTask.getLeft(), task);
+    }
+
     public void shutdown() {
         ReactorExt.safeDispose(subscription);
     }
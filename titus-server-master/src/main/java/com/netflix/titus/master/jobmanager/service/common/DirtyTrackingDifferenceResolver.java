@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.jobmanager.service.common;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.spectator.api.Counter;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.common.framework.reconciler.ChangeAction;
+import com.netflix.titus.common.framework.reconciler.EntityHolder;
+import com.netflix.titus.common.framework.reconciler.ReconciliationEngine;
+import com.netflix.titus.common.framework.reconciler.ReconciliationEngine.DifferenceResolver;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.time.Clock;
+import com.netflix.titus.master.MetricConstants;
+import com.netflix.titus.master.jobmanager.service.JobManagerConfiguration;
+import com.netflix.titus.master.jobmanager.service.common.action.TaskRetryers;
+import com.netflix.titus.master.jobmanager.service.common.action.task.TaskTimeoutChangeActions;
+import com.netflix.titus.master.jobmanager.service.common.interceptor.RetryActionInterceptor;
+import com.netflix.titus.master.jobmanager.service.event.JobManagerReconcilerEvent;
+
+/**
+ * {@link DifferenceResolver} wrapper, which skips the evaluation of engines that did not change since their last
+ * evaluation, which produced no actions. The reference, running and store models are immutable, so a change is
+ * detected by comparing the model references. As the job difference resolvers are also time dependent, the earliest
+ * time at which an unchanged job may need an action (task state timeout, runtime limit, retry delay) is computed when
+ * the idle state is recorded. Jobs with a pending store retry are always evaluated, as the retry delay is controlled
+ * by the interceptor.
+ */
+public class DirtyTrackingDifferenceResolver implements DifferenceResolver<JobManagerReconcilerEvent> {
+
+    private static final String METRIC_NAME = MetricConstants.METRIC_ROOT + "jobManager.reconciler.skippedEvaluations";
+
+    private final DifferenceResolver<JobManagerReconcilerEvent> delegate;
+    private final JobManagerConfiguration configuration;
+    private final Clock clock;
+    private final Counter skippedEvaluations;
+
+    /**
+     * Engines are weakly referenced, so the entries of the removed engines are garbage collected.
+     */
+    private final Cache<ReconciliationEngine<JobManagerReconcilerEvent>, IdleState> idleStates = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    public DirtyTrackingDifferenceResolver(DifferenceResolver<JobManagerReconcilerEvent> delegate,
+                                           JobManagerConfiguration configuration,
+                                           TitusRuntime titusRuntime) {
+        this.delegate = delegate;
+        this.configuration = configuration;
+        this.clock = titusRuntime.getClock();
+        this.skippedEvaluations = titusRuntime.getRegistry().counter(METRIC_NAME);
+    }
+
+    @Override
+    public List<ChangeAction> apply(ReconciliationEngine<JobManagerReconcilerEvent> engine) {
+        if (!configuration.isReconcilerDirtyTrackingEnabled()) {
+            return delegate.apply(engine);
+        }
+
+        IdleState idleState = idleStates.getIfPresent(engine);
+        if (idleState != null && idleState.isUnchanged(engine) && clock.wallTime() < idleState.nextEvaluationTime) {
+            skippedEvaluations.increment();
+            return Collections.emptyList();
+        }
+
+        List<ChangeAction> actions = delegate.apply(engine);
+        if (actions.isEmpty() && !RetryActionInterceptor.hasRetryRecord(engine.getStoreView())) {
+            idleStates.put(engine, new IdleState(engine, computeNextEvaluationTime(engine)));
+        } else {
+            idleStates.invalidate(engine);
+        }
+        return actions;
+    }
+
+    private long computeNextEvaluationTime(ReconciliationEngine<JobManagerReconcilerEvent> engine) {
+        long nextEvaluationTime = clock.wallTime() + configuration.getReconcilerIdleJobReevaluationIntervalMs();
+
+        for (EntityHolder taskHolder : engine.getReferenceView().getChildren()) {
+            long retryDelayMs = (long) taskHolder.getAttributes().getOrDefault(TaskRetryers.ATTR_TASK_RETRY_DELAY_MS, 0L);
+            if (retryDelayMs > 0) {
+                Task task = taskHolder.getEntity();
+                nextEvaluationTime = Math.min(nextEvaluationTime, task.getStatus().getTimestamp() + retryDelayMs);
+            }
+        }
+
+        EntityHolder runningModel = engine.getRunningView();
+        Job<?> job = runningModel.getEntity();
+        long runtimeLimitMs = JobFunctions.isBatchJob(job)
+                ? Math.max(BatchJobExt.RUNTIME_LIMIT_MIN, ((BatchJobExt) job.getJobDescriptor().getExtensions()).getRuntimeLimitMs())
+                : -1;
+        for (EntityHolder taskHolder : runningModel.getChildren()) {
+            Task task = taskHolder.getEntity();
+            if (runtimeLimitMs > 0 && task.getStatus().getState() == TaskState.Started) {
+                nextEvaluationTime = Math.min(nextEvaluationTime, task.getStatus().getTimestamp() + runtimeLimitMs);
+            }
+            Long timeoutDeadline = TaskTimeoutChangeActions.getTimeoutDeadline(taskHolder).orElse(null);
+            if (timeoutDeadline != null) {
+                nextEvaluationTime = Math.min(nextEvaluationTime, timeoutDeadline);
+            }
+        }
+        return nextEvaluationTime;
+    }
+
+    private static class IdleState {
+
+        private final EntityHolder referenceModel;
+        private final EntityHolder runningModel;
+        private final EntityHolder storeModel;
+        private final long nextEvaluationTime;
+
+        private IdleState(ReconciliationEngine<JobManagerReconcilerEvent> engine, long nextEvaluationTime) {
+            this.referenceModel = engine.getReferenceView();
+            this.runningModel = engine.getRunningView();
+            this.storeModel = engine.getStoreView();
+            this.nextEvaluationTime = nextEvaluationTime;
+        }
+
+        private boolean isUnchanged(ReconciliationEngine<JobManagerReconcilerEvent> engine) {
+            return referenceModel == engine.getReferenceView()
+                    && runningModel == engine.getRunningView()
+                    && storeModel == engine.getStoreView();
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.netflix.titus.master.jobmanager.service.common.action.task;
 
 import java.util.Map;
+import java.util.Optional;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
@@ -132,6 +133,18 @@ public class TaskTimeoutChangeActions {
         return clock.wallTime() < deadline ? TimeoutStatus.Pending : TimeoutStatus.TimedOut;
     }
 
+    /**
+     * Returns the timeout deadline of the task in its current state, if set.
+     */
+    public static Optional<Long> getTimeoutDeadline(EntityHolder taskHolder) {
+        Task task = taskHolder.getEntity();
+        String tag = STATE_TAGS.get(task.getStatus().getState());
+        if (tag == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((Long) taskHolder.getAttributes().get(tag));
+    }
+
     public static int getKillInitiatedAttempts(EntityHolder taskHolder) {
         return (int) taskHolder.getAttributes().getOrDefault(KILL_INITIATED_ATTEMPT_TAG, 0);
     }
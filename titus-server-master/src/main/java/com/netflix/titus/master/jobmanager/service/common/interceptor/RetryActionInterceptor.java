@@ -74,6 +74,18 @@ public class RetryActionInterceptor implements TitusChangeActionInterceptor<Bool
         return scheduler.now() >= pauseTime;
     }
 
+    /**
+     * Returns true if the given holder has a retry record of any {@link RetryActionInterceptor} instance.
+     */
+    public static boolean hasRetryRecord(EntityHolder rootHolder) {
+        for (String attributeName : rootHolder.getAttributes().keySet()) {
+            if (attributeName.startsWith(ATTR_RETRY_RECORD_PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     class RetryChangeAction extends TitusChangeAction {
 
         private final TitusChangeAction delegate;
@@ -64,7 +64,7 @@ public class VirtualMachineMasterServiceMesosImpl implements VirtualMachineMaste
 
     private final MasterConfiguration config;
 
-    private SchedulerDriver mesosDriver;
+    private volatile SchedulerDriver mesosDriver;
     private MesosSchedulerCallbackHandler mesosCallbackHandler;
     private ExecutorService executor;
     private final MesosConfiguration mesosConfiguration;
@@ -78,7 +78,7 @@ public class VirtualMachineMasterServiceMesosImpl implements VirtualMachineMaste
     private final MesosSchedulerDriverFactory mesosDriverFactory;
     private final Injector injector;
     private final TitusRuntime titusRuntime;
-    private boolean active;
+    private volatile boolean active;
     private final BlockingQueue<String> killQueue = new LinkedBlockingQueue<>();
     private final Optional<FitInjection> taskStatusUpdateFitInjection;
 
@@ -16,21 +16,25 @@
 
 package com.netflix.titus.master.mesos.kubeapiserver;
 
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.function.BinaryOperator;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.patterns.PolledMeter;
 import com.netflix.titus.common.annotation.Experimental;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.Evaluators;
 import com.netflix.titus.common.util.ExecutorsExt;
+import com.netflix.titus.common.util.collections.PersistentHashMap;
 import com.netflix.titus.common.util.guice.annotation.Activator;
 import com.netflix.titus.common.util.guice.annotation.Deactivator;
 import com.netflix.titus.master.mesos.kubeapiserver.direct.KubeApiFacade;
@@ -47,10 +51,29 @@ public class KubeOpportunisticResourceProvider implements OpportunisticCpuAvaila
 
     private static final Logger logger = LoggerFactory.getLogger(KubeOpportunisticResourceProvider.class);
 
+    private static final long EXPIRY_CHECK_INTERVAL_MS = 1_000;
+
+    private static final Comparator<OpportunisticCpuAvailability> EXPIRES_AT_COMPARATOR = Comparator
+            .comparing(OpportunisticCpuAvailability::getExpiresAt);
+
     private final KubeApiFacade kubeApiFacade;
     private final TitusRuntime titusRuntime;
     private final Id cpuSupplyId;
 
+    private final Object lock = new Object();
+
+    /**
+     * Instance id -> resource uid -> availability. Updated by the informer event handlers.
+     */
+    private final Map<String, Map<String, OpportunisticCpuAvailability>> resourcesByInstanceId = new HashMap<>();
+
+    private final PriorityQueue<ExpiryEntry> expiryQueue = new PriorityQueue<>(Comparator.comparing((ExpiryEntry entry) -> entry.availability.getExpiresAt()));
+
+    /**
+     * The active availability for each instance, republished on each change, so readers get it without any copying.
+     */
+    private volatile PersistentHashMap<String, OpportunisticCpuAvailability> activeByInstanceId = PersistentHashMap.empty();
+
     private ScheduledExecutorService metricsPollerExecutor;
 
     private static long currentOpportunisticCpuCount(KubeOpportunisticResourceProvider self) {
@@ -75,19 +98,24 @@ public class KubeOpportunisticResourceProvider implements OpportunisticCpuAvaila
                 .withId(cpuSupplyId)
                 .scheduleOn(metricsPollerExecutor)
                 .monitorValue(this, KubeOpportunisticResourceProvider::currentOpportunisticCpuCount);
+        metricsPollerExecutor.scheduleWithFixedDelay(this::removeExpired, EXPIRY_CHECK_INTERVAL_MS, EXPIRY_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
 
         // TODO(fabio): metrics on available opportunistic resources
+        kubeApiFacade.getOpportunisticResourceInformer().getIndexer().list().forEach(this::add);
         kubeApiFacade.getOpportunisticResourceInformer().addEventHandler(new ResourceEventHandler<V1OpportunisticResource>() {
             @Override
             public void onAdd(V1OpportunisticResource resource) {
                 logger.info("New opportunistic resources available: instance {}, expires at {}, cpus {}, name {}",
                         resource.getInstanceId(), resource.getEnd(), resource.getCpus(), resource.getName());
+                add(resource);
             }
 
             @Override
             public void onUpdate(V1OpportunisticResource old, V1OpportunisticResource update) {
                 logger.info("Opportunistic resources update: instance {}, expires at {}, cpus {}, name {}",
                         update.getInstanceId(), update.getEnd(), update.getCpus(), update.getName());
+                remove(old);
+                add(update);
             }
 
             @Override
@@ -99,6 +127,7 @@ public class KubeOpportunisticResourceProvider implements OpportunisticCpuAvaila
                     logger.debug("Opportunistic resource GCed: instance {}, resource {}, name {}",
                             resource.getInstanceId(), resource.getUid(), resource.getName());
                 }
+                remove(resource);
             }
         });
     }
@@ -109,9 +138,6 @@ public class KubeOpportunisticResourceProvider implements OpportunisticCpuAvaila
         Evaluators.acceptNotNull(metricsPollerExecutor, ExecutorService::shutdown);
     }
 
-    private static final Comparator<OpportunisticCpuAvailability> EXPIRES_AT_COMPARATOR = Comparator
-            .comparing(OpportunisticCpuAvailability::getExpiresAt);
-
     /**
      * Assumptions:
      * <ul>
@@ -130,14 +156,73 @@ public class KubeOpportunisticResourceProvider implements OpportunisticCpuAvaila
      */
     @Override
     public Map<String, OpportunisticCpuAvailability> getOpportunisticCpus() {
-        return kubeApiFacade.getOpportunisticResourceInformer().getIndexer().list().stream().collect(Collectors.toMap(
-                V1OpportunisticResource::getInstanceId,
-                resource -> new OpportunisticCpuAvailability(resource.getUid(), resource.getEnd(), resource.getCpus()),
-                BinaryOperator.maxBy(EXPIRES_AT_COMPARATOR)
-        ));
+        return activeByInstanceId;
+    }
+
+    private void add(V1OpportunisticResource resource) {
+        OpportunisticCpuAvailability availability = new OpportunisticCpuAvailability(resource.getUid(), resource.getEnd(), resource.getCpus());
+        synchronized (lock) {
+            resourcesByInstanceId.computeIfAbsent(resource.getInstanceId(), id -> new HashMap<>()).put(resource.getUid(), availability);
+            expiryQueue.add(new ExpiryEntry(resource.getInstanceId(), availability));
+            refreshActive(resource.getInstanceId());
+        }
+    }
+
+    private void remove(V1OpportunisticResource resource) {
+        synchronized (lock) {
+            Map<String, OpportunisticCpuAvailability> resources = resourcesByInstanceId.get(resource.getInstanceId());
+            if (resources != null && resources.remove(resource.getUid()) != null) {
+                refreshActive(resource.getInstanceId());
+            }
+        }
+    }
+
+    /**
+     * Drops windows past their end time, in the expiry order, without waiting for the informer to deliver the
+     * resource deletion.
+     */
+    @VisibleForTesting
+    void removeExpired() {
+        try {
+            synchronized (lock) {
+                ExpiryEntry next;
+                while ((next = expiryQueue.peek()) != null && !isNotExpired(next.availability)) {
+                    expiryQueue.poll();
+                    Map<String, OpportunisticCpuAvailability> resources = resourcesByInstanceId.get(next.instanceId);
+                    // Skip entries for resources that were updated or deleted in the meantime.
+                    if (resources != null && resources.get(next.availability.getAllocationId()) == next.availability) {
+                        resources.remove(next.availability.getAllocationId());
+                        refreshActive(next.instanceId);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Cannot remove expired opportunistic resources", e);
+        }
+    }
+
+    private void refreshActive(String instanceId) {
+        Map<String, OpportunisticCpuAvailability> resources = resourcesByInstanceId.getOrDefault(instanceId, Collections.emptyMap());
+        if (resources.isEmpty()) {
+            resourcesByInstanceId.remove(instanceId);
+            activeByInstanceId = activeByInstanceId.minus(instanceId);
+        } else {
+            activeByInstanceId = activeByInstanceId.plus(instanceId, Collections.max(resources.values(), EXPIRES_AT_COMPARATOR));
+        }
     }
 
     private boolean isNotExpired(OpportunisticCpuAvailability availability) {
         return !titusRuntime.getClock().isPast(availability.getExpiresAt().toEpochMilli());
     }
+
+    private static class ExpiryEntry {
+
+        private final String instanceId;
+        private final OpportunisticCpuAvailability availability;
+
+        private ExpiryEntry(String instanceId, OpportunisticCpuAvailability availability) {
+            this.instanceId = instanceId;
+            this.availability = availability;
+        }
+    }
 }
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
@@ -86,6 +87,7 @@ import com.netflix.titus.master.scheduler.constraint.SystemHardConstraint;
 import com.netflix.titus.master.scheduler.constraint.TaskCacheEventListener;
 import com.netflix.titus.master.scheduler.fitness.AgentManagementFitnessCalculator;
 import com.netflix.titus.master.scheduler.fitness.TitusFitnessCalculator;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
 import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCacheUpdater;
 import com.netflix.titus.master.scheduler.resourcecache.OpportunisticCpuCache;
@@ -164,6 +166,7 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
     private final Scheduler threadScheduler;
     private final TitusRuntime titusRuntime;
     private final AgentResourceCache agentResourceCache;
+    private final AgentEvaluationCache agentEvaluationCache;
     private final AgentResourceCacheUpdater agentResourceCacheUpdater;
     private final TierSlaUpdater tierSlaUpdater;
     private final Registry registry;
@@ -171,6 +174,7 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
     private final ApplicationSlaManagementService capacityGroupService;
     private final SchedulingMachinesFilter schedulingMachinesFilter;
     private Subscription vmStateUpdateSubscription;
+    private volatile Set<String> inactiveInstanceGroupIds = Collections.emptySet();
 
     private final AtomicReference<Map<String, List<TaskAssignmentResult>>> lastSchedulingResult = new AtomicReference<>();
     private final BehaviorSubject<Map<String, List<TaskAssignmentResult>>> schedulingResultSubject = BehaviorSubject.create();
@@ -193,6 +197,7 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
                                     AgentManagementFitnessCalculator agentManagementFitnessCalculator,
                                     TitusRuntime titusRuntime,
                                     AgentResourceCache agentResourceCache,
+                                    AgentEvaluationCache agentEvaluationCache,
                                     Config config,
                                     MesosConfiguration mesosConfiguration,
                                     ApplicationSlaManagementService capacityGroupService,
@@ -200,7 +205,7 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
         this(v3JobOperations, agentManagementService, v3TaskInfoRequestFactory, vmOps, virtualMachineService,
                 masterConfiguration, schedulerConfiguration, systemHardConstraint, taskCache, opportunisticCpuCache,
                 Schedulers.computation(), tierSlaUpdater, registry, preferentialNamedConsumableResourceEvaluator,
-                agentManagementFitnessCalculator, titusRuntime, agentResourceCache, config,
+                agentManagementFitnessCalculator, titusRuntime, agentResourceCache, agentEvaluationCache, config,
                 mesosConfiguration, capacityGroupService, schedulingMachinesFilter);
     }
 
@@ -221,6 +226,7 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
                                     AgentManagementFitnessCalculator agentManagementFitnessCalculator,
                                     TitusRuntime titusRuntime,
                                     AgentResourceCache agentResourceCache,
+                                    AgentEvaluationCache agentEvaluationCache,
                                     Config config,
                                     MesosConfiguration mesosConfiguration,
                                     ApplicationSlaManagementService capacityGroupService,
@@ -236,6 +242,7 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
         this.registry = registry;
         this.titusRuntime = titusRuntime;
         this.agentResourceCache = agentResourceCache;
+        this.agentEvaluationCache = agentEvaluationCache;
         this.systemHardConstraint = systemHardConstraint;
         this.capacityGroupService = capacityGroupService;
         this.schedulingMachinesFilter = schedulingMachinesFilter;
@@ -256,7 +263,7 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
         TaskScheduler.Builder schedulerBuilder = new TaskScheduler.Builder()
                 .withLeaseRejectAction(virtualMachineService::rejectLease)
                 .withLeaseOfferExpirySecs(masterConfiguration.getMesosLeaseOfferExpirySecs())
-                .withFitnessCalculator(new TitusFitnessCalculator(schedulerConfiguration, agentManagementFitnessCalculator, agentResourceCache))
+                .withFitnessCalculator(new TitusFitnessCalculator(schedulerConfiguration, agentManagementFitnessCalculator, agentEvaluationCache))
                 .withFitnessGoodEnoughFunction(TitusFitnessCalculator.fitnessGoodEnoughFunction)
                 .withPreferentialNamedConsumableResourceEvaluator(preferentialNamedConsumableResourceEvaluator)
                 .withMaxConcurrent(schedulerConfiguration.getSchedulerMaxConcurrent())
@@ -369,6 +376,11 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
                     taskScheduler.setActiveVmGroups(ids);
                     logger.info("Updating Fenzo taskScheduler active instance group list to: {}", ids);
                 });
+        titusRuntime.persistentStream(AgentManagementFunctions.observeInactiveInstanceGroupIds(agentManagementService))
+                .subscribe(ids -> {
+                    inactiveInstanceGroupIds = ids;
+                    logger.info("Updating inactive instance group list to: {}", ids);
+                });
     }
 
     private TaskScheduler setupTaskScheduler(Observable<LeaseRescindedEvent> vmLeaseRescindedObservable,
@@ -393,19 +405,14 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
     }
 
     private void setupVmStatesUpdate() {
-        this.vmStateUpdateSubscription = threadScheduler.createWorker().schedulePeriodically(
+        Scheduler.Worker worker = threadScheduler.createWorker();
+        this.vmStateUpdateSubscription = worker;
+        worker.schedulePeriodically(
                 () -> {
                     try {
-                        schedulingService.requestVmCurrentStates(
-                                states -> {
-                                    vmCurrentStatesMap.put(0, states);
-                                    verifyAndReportResourceUsageMetrics(states);
-                                    fenzoLeaseMetrics.update(states);
-                                    fenzoLeaseLogger.dump(states);
-                                    checkInactiveVMs(states);
-                                    vmOps.setAgentInfos(states);
-                                }
-                        );
+                        // The callback is invoked from the Fenzo scheduling loop, so we only hand over the snapshot
+                        // to the worker, and process it there.
+                        schedulingService.requestVmCurrentStates(states -> worker.schedule(() -> processVmCurrentStates(states)));
                     } catch (TaskQueueException e) {
                         logger.error(e.getMessage());
                         logger.debug(e.getMessage(), e);
@@ -416,7 +423,22 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
         );
     }
 
+    private void processVmCurrentStates(List<VirtualMachineCurrentState> states) {
+        try {
+            List<VirtualMachineCurrentState> snapshot = Collections.unmodifiableList(states);
+            vmCurrentStatesMap.put(0, snapshot);
+            verifyAndReportResourceUsageMetrics(snapshot);
+            fenzoLeaseMetrics.update(snapshot);
+            fenzoLeaseLogger.dump(snapshot);
+            checkInactiveVMs(snapshot);
+            vmOps.setAgentInfos(snapshot);
+        } catch (Exception e) {
+            logger.error("Error processing Fenzo VM current states", e);
+        }
+    }
+
     private void preSchedulingHook() {
+        agentEvaluationCache.prepare();
         systemHardConstraint.prepare();
     }
 
@@ -484,10 +506,15 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
         int failedTasksDuringSchedulingResult = schedulingResult.getFailures().size();
 
         long recordingStart = titusRuntime.getClock().wallTime();
-        List<Pair<List<VirtualMachineLease>, List<TaskInfoRequest>>> taskInfoRequests = taskPlacementRecorder.record(schedulingResult);
-        recordTaskPlacementLatencyTimer.record(titusRuntime.getClock().wallTime() - recordingStart, TimeUnit.MILLISECONDS);
-        taskInfoRequests.forEach(ts -> launchTasks(ts.getLeft(), ts.getRight()));
-        assignedDuringSchedulingResult += taskInfoRequests.stream().mapToInt(p -> p.getRight().size()).sum();
+        if (schedulerConfiguration.isAsyncTaskPlacementRecordingEnabled()) {
+            assignedDuringSchedulingResult += taskPlacementRecorder.recordAsync(schedulingResult, this::launchTasks);
+            recordTaskPlacementLatencyTimer.record(titusRuntime.getClock().wallTime() - recordingStart, TimeUnit.MILLISECONDS);
+        } else {
+            List<Pair<List<VirtualMachineLease>, List<TaskInfoRequest>>> taskInfoRequests = taskPlacementRecorder.record(schedulingResult);
+            recordTaskPlacementLatencyTimer.record(titusRuntime.getClock().wallTime() - recordingStart, TimeUnit.MILLISECONDS);
+            taskInfoRequests.forEach(ts -> launchTasks(ts.getLeft(), ts.getRight()));
+            assignedDuringSchedulingResult += taskInfoRequests.stream().mapToInt(p -> p.getRight().size()).sum();
+        }
 
         recordLastSchedulingResult(schedulingResult);
         taskPlacementFailureClassifier.update(schedulingResult);
@@ -774,7 +801,7 @@ public class DefaultSchedulingService implements SchedulingService<V3QueueableTa
     private void checkInactiveVMs(List<VirtualMachineCurrentState> vmCurrentStates) {
         logger.debug("Checking on any workers on VMs that are not active anymore");
         List<VirtualMachineCurrentState> inactiveVmStates = VMStateMgr.getInactiveVMs(schedulerConfiguration.getInstanceAttributeName(),
-                agentManagementService, vmCurrentStates);
+                agentManagementService, inactiveInstanceGroupIds, vmCurrentStates);
 
         // expire all leases on inactive vms
         for (VirtualMachineCurrentState inactiveVmState : inactiveVmStates) {
@@ -122,6 +122,13 @@ public interface SchedulerConfiguration {
     @DefaultValue("true")
     boolean isExitUponFenzoSchedulingErrorEnabled();
 
+    /**
+     * If enabled, task placements are written to the store asynchronously, and the scheduling loop does not wait for
+     * them to complete. Tasks are launched once their placement is recorded.
+     */
+    @DefaultValue("false")
+    boolean isAsyncTaskPlacementRecordingEnabled();
+
     @DefaultValue("30000")
     long getTierSlaUpdateIntervalMs();
 
@@ -67,6 +67,17 @@ class TaskPlacementFailureClassifier<T extends TaskRequest> {
 
     private static final String EXCLUSIVE_HOST_CONSTRAINT_NAME = ExclusiveHostConstraint.class.getName();
 
+    private static final String NO_GUARANTEED_CAPACITY_MESSAGE = "No guaranteed capacity left for queue";
+
+    private static final int AGENT_MANAGEMENT_FLAG = 1;
+    private static final int LAUNCH_GUARD_FLAG = 1 << 1;
+    private static final int AGENT_CONTAINER_LIMIT_FLAG = 1 << 2;
+    private static final int IN_USE_IP_ALLOCATION_FLAG = 1 << 3;
+    private static final int OPPORTUNISTIC_RESOURCE_FLAG = 1 << 4;
+    private static final int ABOVE_CAPACITY_LIMIT_FLAG = 1 << 5;
+
+    private static final int MAX_MESSAGE_FLAGS_CACHE_SIZE = 1_000;
+
     private final CodeInvariants invariants;
     private final Registry registry;
     private final Id failuresCounterId;
@@ -74,6 +85,11 @@ class TaskPlacementFailureClassifier<T extends TaskRequest> {
 
     private final AtomicReference<Map<FailureKind, Map<T, List<TaskPlacementFailure>>>> failuresRef = new AtomicReference<>(Collections.emptyMap());
 
+    /**
+     * Accessed from {@link #update(SchedulingResult)} only, which is called from the scheduling loop.
+     */
+    private final Map<String, Integer> messageFlagsCache = new HashMap<>();
+
     private final TokenBucket loggingTokenBucket = Limiters.createFixedIntervalTokenBucket(
             TaskPlacementFailureClassifier.class.getSimpleName(),
             1,
@@ -126,167 +142,103 @@ class TaskPlacementFailureClassifier<T extends TaskRequest> {
         this.failuresRef.set(failures);
     }
 
+    /**
+     * Classifies the task placement failure in a single pass over the assignment results. The failure kinds are
+     * checked in the priority order below, and the first one that matches is reported:
+     * <ul>
+     * <li>{@link FailureKind#NoActiveAgents}</li>
+     * <li>{@link FailureKind#AboveCapacityLimit}</li>
+     * <li>{@link FailureKind#TooLargeToFit}</li>
+     * <li>{@link FailureKind#LaunchGuard}</li>
+     * <li>{@link FailureKind#AgentContainerLimit}</li>
+     * <li>{@link FailureKind#JobHardConstraint}</li>
+     * <li>{@link FailureKind#WaitingForInUseIpAllocation}</li>
+     * <li>{@link FailureKind#OpportunisticResource}</li>
+     * </ul>
+     */
     private void process(T taskRequest, List<TaskAssignmentResult> assignmentResults,
                          Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
+        boolean anyAgentActive = false;
+        boolean aboveCapacityLimit = false;
+        boolean tooLargeToFit = true;
+        int activeAgentCount = 0;
+        int launchGuardCount = 0;
+        int agentContainerLimitCount = 0;
+        int jobHardConstraintCount = 0;
+        Set<String> hardConstraints = null;
+        int inUseIpAllocationCount = 0;
+        Optional<String> inUseTaskIdCollector = Optional.empty();
+        int opportunisticResourceCount = 0;
 
-        if (!processNoActiveAgent(taskRequest, assignmentResults, resultCollector)
-                && !processAboveCapacityLimit(taskRequest, assignmentResults, resultCollector)
-                && !processTooLargeToFit(taskRequest, assignmentResults, resultCollector)
-                && !processLaunchGuard(taskRequest, assignmentResults, resultCollector)
-                && !processAgentContainerLimit(taskRequest, assignmentResults, resultCollector)
-                && !processJobHardConstraints(taskRequest, assignmentResults, resultCollector)
-                && !processInUseIpAllocation(taskRequest, assignmentResults, resultCollector)
-                && !processOpportunisticResources(taskRequest, assignmentResults, resultCollector)) {
-            addToResultCollector(taskRequest, assignmentResults, resultCollector, -1, FailureKind.Unrecognized);
-        }
-    }
-
-    private boolean processNoActiveAgent(T taskRequest, List<TaskAssignmentResult> assignmentResults,
-                                         Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
-        for (TaskAssignmentResult assignmentResult : assignmentResults) {
-            if (canScheduleOnAgent(assignmentResult)) {
-                return false;
-            }
-        }
-        addToResultCollector(taskRequest, assignmentResults, resultCollector, -1, FailureKind.NoActiveAgents);
-        return true;
-    }
-
-    private boolean processAboveCapacityLimit(T taskRequest, List<TaskAssignmentResult> assignmentResults,
-                                              Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
         for (TaskAssignmentResult assignmentResult : assignmentResults) {
-            if (!CollectionsExt.isNullOrEmpty(assignmentResult.getFailures())) {
-                for (AssignmentFailure assignmentFailure : assignmentResult.getFailures()) {
-                    if (assignmentFailure.getResource() == VMResource.ResAllocs) {
-                        String message = assignmentFailure.getMessage();
-                        if (message != null && message.contains("No guaranteed capacity left for queue")) {
-                            addToResultCollector(taskRequest, assignmentResults, resultCollector, -1, FailureKind.AboveCapacityLimit);
-                            return true;
-                        }
+            ConstraintFailure constraintFailure = assignmentResult.getConstraintFailure();
+            int flags = getConstraintFailureFlags(constraintFailure);
+            List<AssignmentFailure> assignmentFailures = assignmentResult.getFailures();
+
+            if ((flags & AGENT_MANAGEMENT_FLAG) == 0) {
+                anyAgentActive = true;
+                if (tooLargeToFit) {
+                    if (CollectionsExt.isNullOrEmpty(assignmentFailures) || !isOverAgentAvailableResources(assignmentFailures)) {
+                        tooLargeToFit = false;
+                    } else {
+                        activeAgentCount++;
                     }
                 }
             }
-        }
-        return false;
-    }
-
-    private boolean processTooLargeToFit(T taskRequest, List<TaskAssignmentResult> assignmentResults,
-                                         Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
-        int count = 0;
-        for (TaskAssignmentResult assignmentResult : assignmentResults) {
-            if (canScheduleOnAgent(assignmentResult)) {
-                if (CollectionsExt.isNullOrEmpty(assignmentResult.getFailures())) {
-                    return false;
-                }
-                for (AssignmentFailure assignmentFailure : assignmentResult.getFailures()) {
-                    if (!isOverAgentAvailableResources(assignmentFailure)) {
-                        return false;
-                    }
-                }
-                count++;
+            if (!aboveCapacityLimit && !CollectionsExt.isNullOrEmpty(assignmentFailures)) {
+                aboveCapacityLimit = isAboveCapacityLimit(assignmentFailures);
             }
-        }
-        addToResultCollector(taskRequest, assignmentResults, resultCollector, count, FailureKind.TooLargeToFit);
-
-        return true;
-    }
-
-    private boolean processLaunchGuard(T taskRequest, List<TaskAssignmentResult> assignmentResults,
-                                       Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
-        int count = 0;
-        for (TaskAssignmentResult assignmentResult : assignmentResults) {
-            if (isLaunchGuard(assignmentResult)) {
-                count++;
+            if ((flags & LAUNCH_GUARD_FLAG) != 0) {
+                launchGuardCount++;
             }
-        }
-        if (count == 0) {
-            return false;
-        }
-
-        addToResultCollector(taskRequest, assignmentResults, resultCollector, count, FailureKind.LaunchGuard);
-
-        return true;
-    }
-
-    private boolean processAgentContainerLimit(T taskRequest, List<TaskAssignmentResult> assignmentResults,
-                                               Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
-        int count = 0;
-        for (TaskAssignmentResult assignmentResult : assignmentResults) {
-            if (isAgentContainerLimit(assignmentResult)) {
-                count++;
+            if ((flags & AGENT_CONTAINER_LIMIT_FLAG) != 0) {
+                agentContainerLimitCount++;
             }
-        }
-        if (count == 0) {
-            return false;
-        }
-
-        addToResultCollector(taskRequest, assignmentResults, resultCollector, count, FailureKind.AgentContainerLimit);
-
-        return true;
-    }
-
-    private boolean processJobHardConstraints(T taskRequest, List<TaskAssignmentResult> assignmentResults,
-                                              Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
-        int count = 0;
-        Set<String> hardConstraints = new HashSet<>();
-        for (TaskAssignmentResult assignmentResult : assignmentResults) {
-            if (isJobHardConstraint(assignmentResult, hardConstraints)) {
-                count++;
+            if (constraintFailure != null && isJobHardConstraint(constraintFailure.getName())) {
+                jobHardConstraintCount++;
+                if (hardConstraints == null) {
+                    hardConstraints = new HashSet<>();
+                }
+                hardConstraints.add(constraintFailure.getName());
             }
-        }
-        if (count == 0) {
-            return false;
-        }
-
-        resultCollector.computeIfAbsent(FailureKind.JobHardConstraint, k -> new HashMap<>())
-                .computeIfAbsent(taskRequest, k -> new ArrayList<>())
-                .add(new JobHardConstraintPlacementFailure(taskRequest.getId(), count, hardConstraints, SchedulerUtils.getTier((QueuableTask) taskRequest), buildRawDataMap(taskRequest, assignmentResults)));
-
-        return true;
-    }
-
-    private boolean processInUseIpAllocation(T taskRequest, List<TaskAssignmentResult> assignmentResults,
-                                             Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
-        int count = 0;
-        Optional<String> inUseTaskIdCollector = Optional.empty();
-        for (TaskAssignmentResult assignmentResult : assignmentResults) {
-            if (isInUseIpAllocation(assignmentResult)) {
-                count++;
+            if ((flags & IN_USE_IP_ALLOCATION_FLAG) != 0) {
+                inUseIpAllocationCount++;
                 if (!inUseTaskIdCollector.isPresent()) {
-                    inUseTaskIdCollector = IpAllocationConstraint.getTaskIdFromIpAllocationInUseReason(assignmentResult.getConstraintFailure().getReason());
+                    inUseTaskIdCollector = IpAllocationConstraint.getTaskIdFromIpAllocationInUseReason(constraintFailure.getReason());
                 }
             }
+            if ((flags & OPPORTUNISTIC_RESOURCE_FLAG) != 0) {
+                opportunisticResourceCount++;
+            }
         }
-        if (count == 0) {
-            return false;
-        }
-
-        // We expect to have collected a task ID above
-        if (!inUseTaskIdCollector.isPresent()) {
-            invariants.inconsistent("In use IP allocation placement failure with empty in use task ID: failed taskId=%s", taskRequest.getId());
-        }
-        resultCollector.computeIfAbsent(FailureKind.WaitingForInUseIpAllocation, k -> new HashMap<>())
-                .computeIfAbsent(taskRequest, k -> new ArrayList<>())
-                .add(new InUseIpAllocationConstraintFailure(taskRequest.getId(), inUseTaskIdCollector, count, SchedulerUtils.getTier((QueuableTask) taskRequest), buildRawDataMap(taskRequest, assignmentResults)));
-
-        return true;
-    }
 
-    private boolean processOpportunisticResources(T taskRequest, List<TaskAssignmentResult> assignmentResults,
-                                                  Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector) {
-        int count = 0;
-        for (TaskAssignmentResult assignmentResult : assignmentResults) {
-            if (isOpportunisticResource(assignmentResult)) {
-                count++;
+        if (!anyAgentActive) {
+            addToResultCollector(taskRequest, assignmentResults, resultCollector, -1, FailureKind.NoActiveAgents);
+        } else if (aboveCapacityLimit) {
+            addToResultCollector(taskRequest, assignmentResults, resultCollector, -1, FailureKind.AboveCapacityLimit);
+        } else if (tooLargeToFit) {
+            addToResultCollector(taskRequest, assignmentResults, resultCollector, activeAgentCount, FailureKind.TooLargeToFit);
+        } else if (launchGuardCount > 0) {
+            addToResultCollector(taskRequest, assignmentResults, resultCollector, launchGuardCount, FailureKind.LaunchGuard);
+        } else if (agentContainerLimitCount > 0) {
+            addToResultCollector(taskRequest, assignmentResults, resultCollector, agentContainerLimitCount, FailureKind.AgentContainerLimit);
+        } else if (jobHardConstraintCount > 0) {
+            resultCollector.computeIfAbsent(FailureKind.JobHardConstraint, k -> new HashMap<>())
+                    .computeIfAbsent(taskRequest, k -> new ArrayList<>())
+                    .add(new JobHardConstraintPlacementFailure(taskRequest.getId(), jobHardConstraintCount, hardConstraints, SchedulerUtils.getTier((QueuableTask) taskRequest), buildRawDataMap(taskRequest, assignmentResults)));
+        } else if (inUseIpAllocationCount > 0) {
+            // We expect to have collected a task ID above
+            if (!inUseTaskIdCollector.isPresent()) {
+                invariants.inconsistent("In use IP allocation placement failure with empty in use task ID: failed taskId=%s", taskRequest.getId());
             }
+            resultCollector.computeIfAbsent(FailureKind.WaitingForInUseIpAllocation, k -> new HashMap<>())
+                    .computeIfAbsent(taskRequest, k -> new ArrayList<>())
+                    .add(new InUseIpAllocationConstraintFailure(taskRequest.getId(), inUseTaskIdCollector, inUseIpAllocationCount, SchedulerUtils.getTier((QueuableTask) taskRequest), buildRawDataMap(taskRequest, assignmentResults)));
+        } else if (opportunisticResourceCount > 0) {
+            addToResultCollector(taskRequest, assignmentResults, resultCollector, opportunisticResourceCount, FailureKind.OpportunisticResource);
+        } else {
+            addToResultCollector(taskRequest, assignmentResults, resultCollector, -1, FailureKind.Unrecognized);
         }
-        if (count == 0) {
-            return false;
-        }
-
-        addToResultCollector(taskRequest, assignmentResults, resultCollector, count, FailureKind.OpportunisticResource);
-
-        return true;
     }
 
     private void addToResultCollector(T taskRequest, List<TaskAssignmentResult> assignmentResults, Map<FailureKind, Map<T, List<TaskPlacementFailure>>> resultCollector, int count, FailureKind failureKind) {
@@ -302,74 +254,85 @@ class TaskPlacementFailureClassifier<T extends TaskRequest> {
         return rawData;
     }
 
-    private boolean canScheduleOnAgent(TaskAssignmentResult assignmentResult) {
-        ConstraintFailure constraintFailure = assignmentResult.getConstraintFailure();
+    private int getConstraintFailureFlags(ConstraintFailure constraintFailure) {
         if (constraintFailure == null || StringExt.isEmpty(constraintFailure.getReason())) {
-            return true;
+            return 0;
         }
-        return !AgentManagementConstraint.isAgentManagementConstraintReason(constraintFailure.getReason());
+        return getMessageFlags(constraintFailure.getReason());
     }
 
-    private boolean isLaunchGuard(TaskAssignmentResult assignmentResult) {
-        ConstraintFailure constraintFailure = assignmentResult.getConstraintFailure();
-        if (constraintFailure == null || StringExt.isEmpty(constraintFailure.getReason())) {
-            return false;
+    /**
+     * Failure messages come from a small set of constants, so each distinct message is classified once, and the
+     * result is memoized. In use IP allocation reasons include a task id, so they are not memoized.
+     */
+    private int getMessageFlags(String message) {
+        Integer cached = messageFlagsCache.get(message);
+        if (cached != null) {
+            return cached;
         }
-        return AgentLaunchGuardConstraint.isAgentLaunchGuardConstraintReason(constraintFailure.getReason());
-    }
-
-    private boolean isAgentContainerLimit(TaskAssignmentResult assignmentResult) {
-        ConstraintFailure constraintFailure = assignmentResult.getConstraintFailure();
-        if (constraintFailure == null || StringExt.isEmpty(constraintFailure.getReason())) {
-            return false;
+        int flags = 0;
+        if (AgentManagementConstraint.isAgentManagementConstraintReason(message)) {
+            flags |= AGENT_MANAGEMENT_FLAG;
         }
-        return AgentContainerLimitSystemConstraint.isAgentContainerLimitSystemConstraint(constraintFailure.getReason());
-    }
-
-    private boolean isOverAgentAvailableResources(AssignmentFailure assignmentFailure) {
-        switch (assignmentFailure.getResource()) {
-            case CPU:
-            case Memory:
-            case Network:
-            case Ports:
-            case Disk:
-            case ResourceSet:
-                return true;
+        if (AgentLaunchGuardConstraint.isAgentLaunchGuardConstraintReason(message)) {
+            flags |= LAUNCH_GUARD_FLAG;
         }
-        return false;
-    }
-
-    private boolean isJobHardConstraint(TaskAssignmentResult assignmentResult, Set<String> constraintCollector) {
-        ConstraintFailure constraintFailure = assignmentResult.getConstraintFailure();
-        if (constraintFailure == null || StringExt.isEmpty(constraintFailure.getName())) {
-            return false;
+        if (AgentContainerLimitSystemConstraint.isAgentContainerLimitSystemConstraint(message)) {
+            flags |= AGENT_CONTAINER_LIMIT_FLAG;
+        }
+        if (IpAllocationConstraint.isInUseIpAllocationConstraintReason(message)) {
+            flags |= IN_USE_IP_ALLOCATION_FLAG;
+        }
+        if (OpportunisticCpuConstraint.isOpportunisticCpuConstraintReason(message)) {
+            flags |= OPPORTUNISTIC_RESOURCE_FLAG;
+        }
+        if (message.contains(NO_GUARANTEED_CAPACITY_MESSAGE)) {
+            flags |= ABOVE_CAPACITY_LIMIT_FLAG;
         }
 
-        String name = constraintFailure.getName();
-        if (name.equals(V3UniqueHostConstraint.NAME)
-                || name.equals(V3ZoneBalancedHardConstraintEvaluator.NAME)
-                || name.equals(EXCLUSIVE_HOST_CONSTRAINT_NAME)) {
-            constraintCollector.add(name);
-            return true;
+        if ((flags & IN_USE_IP_ALLOCATION_FLAG) == 0) {
+            if (messageFlagsCache.size() >= MAX_MESSAGE_FLAGS_CACHE_SIZE) {
+                messageFlagsCache.clear();
+            }
+            messageFlagsCache.put(message, flags);
         }
+        return flags;
+    }
 
+    private boolean isAboveCapacityLimit(List<AssignmentFailure> assignmentFailures) {
+        for (AssignmentFailure assignmentFailure : assignmentFailures) {
+            if (assignmentFailure.getResource() == VMResource.ResAllocs) {
+                String message = assignmentFailure.getMessage();
+                if (message != null && (getMessageFlags(message) & ABOVE_CAPACITY_LIMIT_FLAG) != 0) {
+                    return true;
+                }
+            }
+        }
         return false;
     }
 
-    private boolean isInUseIpAllocation(TaskAssignmentResult assignmentResult) {
-        ConstraintFailure constraintFailure = assignmentResult.getConstraintFailure();
-        if (constraintFailure == null || StringExt.isEmpty(constraintFailure.getReason())) {
-            return false;
+    private boolean isOverAgentAvailableResources(List<AssignmentFailure> assignmentFailures) {
+        for (AssignmentFailure assignmentFailure : assignmentFailures) {
+            switch (assignmentFailure.getResource()) {
+                case CPU:
+                case Memory:
+                case Network:
+                case Ports:
+                case Disk:
+                case ResourceSet:
+                    break;
+                default:
+                    return false;
+            }
         }
-        return IpAllocationConstraint.isInUseIpAllocationConstraintReason(constraintFailure.getReason());
+        return true;
     }
 
-    private boolean isOpportunisticResource(TaskAssignmentResult assignmentResult) {
-        ConstraintFailure constraintFailure = assignmentResult.getConstraintFailure();
-        if (constraintFailure == null || StringExt.isEmpty(constraintFailure.getReason())) {
-            return false;
-        }
-        return OpportunisticCpuConstraint.isOpportunisticCpuConstraintReason(constraintFailure.getReason());
+    private boolean isJobHardConstraint(String constraintName) {
+        return constraintName != null
+                && (constraintName.equals(V3UniqueHostConstraint.NAME)
+                || constraintName.equals(V3ZoneBalancedHardConstraintEvaluator.NAME)
+                || constraintName.equals(EXCLUSIVE_HOST_CONSTRAINT_NAME));
     }
 
     private void writeToLog() {
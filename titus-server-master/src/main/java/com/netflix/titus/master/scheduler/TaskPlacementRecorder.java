@@ -25,6 +25,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -36,6 +38,7 @@ import com.netflix.fenzo.TaskAssignmentResult;
 import com.netflix.fenzo.TaskSchedulingService;
 import com.netflix.fenzo.VMAssignmentResult;
 import com.netflix.fenzo.VirtualMachineLease;
+import com.netflix.spectator.api.Gauge;
 import com.netflix.titus.api.jobmanager.TaskAttributes;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.Task;
@@ -60,6 +63,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
 
+import static com.netflix.titus.master.MetricConstants.METRIC_SCHEDULING_SERVICE;
+
 @Singleton
 class TaskPlacementRecorder {
 
@@ -76,6 +81,12 @@ class TaskPlacementRecorder {
     private final OpportunisticCpuCache opportunisticCpuCache;
     private final TitusRuntime titusRuntime;
 
+    /**
+     * Number of tasks placed by Fenzo, and waiting for the placement to be recorded before being launched.
+     */
+    private final AtomicInteger pendingLaunches = new AtomicInteger();
+    private final Gauge pendingLaunchesGauge;
+
     @Inject
     TaskPlacementRecorder(Config config,
                           MasterConfiguration masterConfiguration,
@@ -91,12 +102,11 @@ class TaskPlacementRecorder {
         this.v3TaskInfoRequestFactory = v3TaskInfoRequestFactory;
         this.opportunisticCpuCache = opportunisticCpuCache;
         this.titusRuntime = titusRuntime;
+        this.pendingLaunchesGauge = titusRuntime.getRegistry().gauge(METRIC_SCHEDULING_SERVICE + "pendingTaskLaunches");
     }
 
     List<Pair<List<VirtualMachineLease>, List<TaskInfoRequest>>> record(SchedulingResult schedulingResult) {
-        List<AgentAssignment> assignments = schedulingResult.getResultMap().entrySet().stream()
-                .map(entry -> new AgentAssignment(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
+        List<AgentAssignment> assignments = toAgentAssignments(schedulingResult);
 
         long startTime = wallTime();
         try {
@@ -115,6 +125,73 @@ class TaskPlacementRecorder {
         }
     }
 
+    /**
+     * Records task placements without blocking the caller. The leases of an agent are held until the placements of all
+     * tasks assigned to it are recorded, and next the launcher is called for them. The agent resources stay consumed
+     * in Fenzo in the meantime, so the next scheduling iteration can proceed while the store writes are in progress.
+     * Tasks which placement could not be recorded are removed from Fenzo or killed, as in the synchronous mode, and the
+     * leases not used by any task are passed to the launcher with an empty task list, so they can be released.
+     * The launcher is called on the thread that completes the last store write of an agent, not on the scheduler thread.
+     *
+     * @return number of tasks with the placement recording started
+     */
+    int recordAsync(SchedulingResult schedulingResult, BiConsumer<List<VirtualMachineLease>, List<TaskInfoRequest>> launcher) {
+        List<AgentAssignment> assignments = toAgentAssignments(schedulingResult);
+        int taskCount = assignments.stream().mapToInt(a -> a.getV3Assignments().size()).sum();
+        if (taskCount == 0) {
+            assignments.forEach(a -> launcher.accept(a.getLeases(), Collections.emptyList()));
+            return 0;
+        }
+
+        pendingLaunchesGauge.set(pendingLaunches.addAndGet(taskCount));
+        long startTime = wallTime();
+
+        List<Observable<Pair<AgentAssignment, TaskInfoRequest>>> recordActions = new ArrayList<>();
+        for (AgentAssignment assignment : assignments) {
+            List<TaskInfoRequest> taskInfoRequests = Collections.synchronizedList(new ArrayList<>());
+            AtomicInteger remaining = new AtomicInteger(assignment.getV3Assignments().size());
+            if (remaining.get() == 0) {
+                launcher.accept(assignment.getLeases(), Collections.emptyList());
+                continue;
+            }
+            assignment.getV3Assignments().forEach(assignmentResult -> recordActions.add(
+                    processTask(assignment, assignmentResult)
+                            .doOnNext(p -> taskInfoRequests.add(p.getRight()))
+                            .doOnTerminate(() -> {
+                                pendingLaunchesGauge.set(pendingLaunches.decrementAndGet());
+                                if (remaining.decrementAndGet() == 0) {
+                                    launch(assignment, new ArrayList<>(taskInfoRequests), launcher);
+                                }
+                            })
+            ));
+        }
+
+        Observable.merge(recordActions, RECORD_CONCURRENCY_LIMIT).subscribe(
+                next -> {
+                },
+                e -> logger.error("Unexpected error in the asynchronous task placement recording", e),
+                () -> logger.info("Asynchronous task placement recording: tasks={}, executionTimeMs={}", taskCount, wallTime() - startTime)
+        );
+        return taskCount;
+    }
+
+    private void launch(AgentAssignment assignment,
+                        List<TaskInfoRequest> taskInfoRequests,
+                        BiConsumer<List<VirtualMachineLease>, List<TaskInfoRequest>> launcher) {
+        try {
+            launcher.accept(assignment.getLeases(), taskInfoRequests);
+        } catch (Exception e) {
+            logger.error("Cannot launch tasks on agent {}", assignment.getHostname(), e);
+            taskInfoRequests.forEach(request -> killBrokenV3Task(request.getTask().getId(), "launch error: " + ExceptionExt.toMessageChain(e)));
+        }
+    }
+
+    private List<AgentAssignment> toAgentAssignments(SchedulingResult schedulingResult) {
+        return schedulingResult.getResultMap().entrySet().stream()
+                .map(entry -> new AgentAssignment(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
     private long wallTime() {
         return titusRuntime.getClock().wallTime();
     }
@@ -180,20 +257,20 @@ class TaskPlacementRecorder {
                     } else {
                         logger.info("Not launching task due to model update failure: {}", v3Task.getId(), error);
                     }
-                    killBrokenV3Task(fenzoTask, "model update error: " + ExceptionExt.toMessageChain(recordTaskError));
+                    killBrokenV3Task(fenzoTask.getId(), "model update error: " + ExceptionExt.toMessageChain(recordTaskError));
                 }
                 return Observable.empty();
             }).map(taskInfoRequest -> Pair.of(assignment, taskInfoRequest));
         } catch (Exception e) {
-            killBrokenV3Task(fenzoTask, ExceptionExt.toMessageChain(e));
+            killBrokenV3Task(fenzoTask.getId(), ExceptionExt.toMessageChain(e));
             logger.error("Fatal error when creating Mesos#TaskInfo for task: {}", fenzoTask.getId(), e);
             return Observable.empty();
         }
     }
 
-    private void killBrokenV3Task(TitusQueuableTask task, String reason) {
-        String fullReason = String.format("Killing broken task %s (%s)", task.getId(), reason);
-        v3JobOperations.killTask(task.getId(), false, false, Trigger.Scheduler,
+    private void killBrokenV3Task(String taskId, String reason) {
+        String fullReason = String.format("Killing broken task %s (%s)", taskId, reason);
+        v3JobOperations.killTask(taskId, false, false, Trigger.Scheduler,
                 JobManagerConstants.SCHEDULER_CALLMETADATA.toBuilder().withCallReason(fullReason).build()).subscribe(
                 next -> {
                 },
@@ -208,9 +285,9 @@ class TaskPlacementRecorder {
                             return;
                         }
                     }
-                    logger.warn("Attempted to terminate task in potentially inconsistent state due to failed launch process {} failed: {}", task.getId(), e.getMessage());
+                    logger.warn("Attempted to terminate task in potentially inconsistent state due to failed launch process {} failed: {}", taskId, e.getMessage());
                 },
-                () -> logger.warn("Terminated task {} as launch operation could not be completed", task.getId())
+                () -> logger.warn("Terminated task {} as launch operation could not be completed", taskId)
         );
     }
 
@@ -265,6 +342,10 @@ class TaskPlacementRecorder {
             this.v3Assignments = new ArrayList<>(assignmentResult.getTasksAssigned());
         }
 
+        String getHostname() {
+            return hostname;
+        }
+
         List<VirtualMachineLease> getLeases() {
             return assignmentResult.getLeasesUsed();
         }
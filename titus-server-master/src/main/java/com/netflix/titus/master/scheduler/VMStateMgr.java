@@ -20,22 +20,27 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.fenzo.VirtualMachineLease;
 import com.netflix.titus.api.agent.model.AgentInstance;
-import com.netflix.titus.api.agent.model.InstanceGroupLifecycleState;
 import com.netflix.titus.api.agent.service.AgentManagementService;
 
 import static com.netflix.titus.common.util.CollectionsExt.isNullOrEmpty;
 
 class VMStateMgr {
 
+    /**
+     * Returns VMs with running tasks, that belong to one of the given inactive instance groups. The set of inactive
+     * instance groups is maintained from agent management events, so if it is empty no agent lookups are made.
+     */
     static List<VirtualMachineCurrentState> getInactiveVMs(String instanceIdAttributeName,
                                                            AgentManagementService agentManagementService,
+                                                           Set<String> inactiveInstanceGroupIds,
                                                            List<VirtualMachineCurrentState> currentStates) {
-        if (isNullOrEmpty(currentStates)) {
+        if (isNullOrEmpty(currentStates) || inactiveInstanceGroupIds.isEmpty()) {
             return Collections.emptyList();
         }
 
@@ -47,13 +52,8 @@ class VMStateMgr {
                 if (!isNullOrEmpty(runningTasks)) {
                     SchedulerUtils.findInstance(agentManagementService, instanceIdAttributeName, currentState)
                             .map(AgentInstance::getInstanceGroupId)
-                            .flatMap(agentManagementService::findInstanceGroup)
-                            .ifPresent(instanceGroup -> {
-                                InstanceGroupLifecycleState state = instanceGroup.getLifecycleStatus().getState();
-                                if (state == InstanceGroupLifecycleState.Inactive || state == InstanceGroupLifecycleState.Removable) {
-                                    inactiveVMs.add(currentState);
-                                }
-                            });
+                            .filter(inactiveInstanceGroupIds::contains)
+                            .ifPresent(instanceGroupId -> inactiveVMs.add(currentState));
                 }
             }
         }
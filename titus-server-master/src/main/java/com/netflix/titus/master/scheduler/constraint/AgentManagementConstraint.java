@@ -31,13 +31,12 @@ import com.netflix.titus.api.agent.model.AgentInstance;
 import com.netflix.titus.api.agent.model.AgentInstanceGroup;
 import com.netflix.titus.api.agent.model.InstanceGroupLifecycleState;
 import com.netflix.titus.api.agent.model.InstanceLifecycleState;
-import com.netflix.titus.api.agent.service.AgentManagementService;
 import com.netflix.titus.api.agent.service.AgentStatusMonitor;
 import com.netflix.titus.api.model.Tier;
 import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
 import com.netflix.titus.master.scheduler.SchedulerAttributes;
-import com.netflix.titus.master.scheduler.SchedulerConfiguration;
-import com.netflix.titus.master.scheduler.SchedulerUtils;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationContext;
 
 import static com.netflix.titus.master.scheduler.SchedulerUtils.getTaints;
 import static com.netflix.titus.master.scheduler.SchedulerUtils.getTier;
@@ -88,16 +87,13 @@ public class AgentManagementConstraint implements SystemConstraint {
         return reason != null && FAILURE_REASONS.contains(reason);
     }
 
-    private final SchedulerConfiguration schedulerConfiguration;
-    private final AgentManagementService agentManagementService;
+    private final AgentEvaluationCache agentEvaluationCache;
     private final AgentStatusMonitor agentStatusMonitor;
 
     @Inject
-    public AgentManagementConstraint(SchedulerConfiguration schedulerConfiguration,
-                                     AgentManagementService agentManagementService,
+    public AgentManagementConstraint(AgentEvaluationCache agentEvaluationCache,
                                      AgentStatusMonitor agentStatusMonitor) {
-        this.schedulerConfiguration = schedulerConfiguration;
-        this.agentManagementService = agentManagementService;
+        this.agentEvaluationCache = agentEvaluationCache;
         this.agentStatusMonitor = agentStatusMonitor;
     }
 
@@ -109,15 +105,15 @@ public class AgentManagementConstraint implements SystemConstraint {
     @Override
     public Result evaluate(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
         V3QueueableTask v3QueueableTask = (V3QueueableTask) taskRequest;
-        Optional<AgentInstance> instanceOpt = SchedulerUtils.findInstance(agentManagementService, schedulerConfiguration.getInstanceAttributeName(), targetVM);
+        AgentEvaluationContext context = agentEvaluationCache.get(targetVM);
+        Optional<AgentInstance> instanceOpt = context.findInstance();
         if (!instanceOpt.isPresent()) {
             return Failure.INSTANCE_NOT_FOUND.toResult();
         }
 
         AgentInstance instance = instanceOpt.get();
-        String instanceGroupId = instance.getInstanceGroupId();
 
-        Optional<AgentInstanceGroup> instanceGroupOpt = agentManagementService.findInstanceGroup(instanceGroupId);
+        Optional<AgentInstanceGroup> instanceGroupOpt = context.findInstanceGroup();
         if (!instanceGroupOpt.isPresent()) {
             return Failure.INSTANCE_GROUP_NOT_FOUND.toResult();
         }
@@ -23,9 +23,8 @@ import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.titus.api.agent.model.AgentInstance;
-import com.netflix.titus.api.agent.service.AgentManagementService;
-import com.netflix.titus.master.scheduler.SchedulerConfiguration;
-import com.netflix.titus.master.scheduler.SchedulerUtils;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationContext;
 
 /**
  * Constraint such that workloads can prefer a specific machine group.
@@ -36,13 +35,11 @@ public class MachineGroupConstraint implements ConstraintEvaluator {
     private static final Result VALID = new Result(true, null);
     private static final Result MACHINE_DOES_NOT_EXIST = new Result(false, "The machine does not exist");
     private static final Result MACHINE_GROUP_DOES_NOT_MATCH = new Result(false, "The machine group does not match the specified name");
-    private final SchedulerConfiguration configuration;
-    private final AgentManagementService agentManagementService;
+    private final AgentEvaluationCache agentEvaluationCache;
     private final String machineGroup;
 
-    public MachineGroupConstraint(SchedulerConfiguration configuration, AgentManagementService agentManagementService, String machineGroup) {
-        this.configuration = configuration;
-        this.agentManagementService = agentManagementService;
+    public MachineGroupConstraint(AgentEvaluationCache agentEvaluationCache, String machineGroup) {
+        this.agentEvaluationCache = agentEvaluationCache;
         this.machineGroup = machineGroup;
     }
 
@@ -53,7 +50,8 @@ public class MachineGroupConstraint implements ConstraintEvaluator {
 
     @Override
     public Result evaluate(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
-        Optional<AgentInstance> instanceOpt = SchedulerUtils.findInstance(agentManagementService, configuration.getInstanceAttributeName(), targetVM);
+        AgentEvaluationContext context = agentEvaluationCache.get(targetVM);
+        Optional<AgentInstance> instanceOpt = context.findInstance();
         if (!instanceOpt.isPresent()) {
             return MACHINE_DOES_NOT_EXIST;
         }
@@ -23,9 +23,8 @@ import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.titus.api.agent.model.AgentInstance;
-import com.netflix.titus.api.agent.service.AgentManagementService;
-import com.netflix.titus.master.scheduler.SchedulerConfiguration;
-import com.netflix.titus.master.scheduler.SchedulerUtils;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationContext;
 
 /**
  * Constraint such that workloads can prefer a specific machine type.
@@ -36,13 +35,11 @@ public class MachineTypeConstraint implements ConstraintEvaluator {
     private static final Result VALID = new Result(true, null);
     private static final Result MACHINE_DOES_NOT_EXIST = new Result(false, "The machine does not exist");
     private static final Result MACHINE_TYPE_DOES_NOT_MATCH = new Result(false, "The machine type does not match the specified machine type");
-    private final SchedulerConfiguration configuration;
-    private final AgentManagementService agentManagementService;
+    private final AgentEvaluationCache agentEvaluationCache;
     private final String machineType;
 
-    public MachineTypeConstraint(SchedulerConfiguration configuration, AgentManagementService agentManagementService, String machineType) {
-        this.configuration = configuration;
-        this.agentManagementService = agentManagementService;
+    public MachineTypeConstraint(AgentEvaluationCache agentEvaluationCache, String machineType) {
+        this.agentEvaluationCache = agentEvaluationCache;
         this.machineType = machineType;
     }
 
@@ -53,13 +50,12 @@ public class MachineTypeConstraint implements ConstraintEvaluator {
 
     @Override
     public Result evaluate(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
-        Optional<AgentInstance> instanceOpt = SchedulerUtils.findInstance(agentManagementService, configuration.getInstanceAttributeName(), targetVM);
+        AgentEvaluationContext context = agentEvaluationCache.get(targetVM);
+        Optional<AgentInstance> instanceOpt = context.findInstance();
         if (!instanceOpt.isPresent()) {
             return MACHINE_DOES_NOT_EXIST;
         }
 
-        AgentInstance agentInstance = instanceOpt.get();
-        String instanceInstanceType = agentInstance.getAttributes().getOrDefault(configuration.getMachineTypeAttributeName(), "");
-        return instanceInstanceType.equalsIgnoreCase(machineType) ? VALID : MACHINE_TYPE_DOES_NOT_MATCH;
+        return context.getMachineType().equalsIgnoreCase(machineType) ? VALID : MACHINE_TYPE_DOES_NOT_MATCH;
     }
 }
@@ -31,6 +31,7 @@ import com.netflix.titus.common.util.StringExt;
 import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.master.config.MasterConfiguration;
 import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 import com.netflix.titus.master.scheduler.resourcecache.TaskCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,16 +77,19 @@ public class V3ConstraintEvaluatorTransformer implements ConstraintEvaluatorTran
     private final MasterConfiguration config;
     private final SchedulerConfiguration schedulerConfiguration;
     private final TaskCache taskCache;
+    private final AgentEvaluationCache agentEvaluationCache;
     private final AgentManagementService agentManagementService;
 
     @Inject
     public V3ConstraintEvaluatorTransformer(MasterConfiguration config,
                                             SchedulerConfiguration schedulerConfiguration,
                                             TaskCache taskCache,
+                                            AgentEvaluationCache agentEvaluationCache,
                                             AgentManagementService agentManagementService) {
         this.config = config;
         this.schedulerConfiguration = schedulerConfiguration;
         this.taskCache = taskCache;
+        this.agentEvaluationCache = agentEvaluationCache;
         this.agentManagementService = agentManagementService;
     }
 
@@ -100,7 +104,7 @@ public class V3ConstraintEvaluatorTransformer implements ConstraintEvaluatorTran
                 return "true".equals(value) ? Optional.of(new V3UniqueHostConstraint()) : Optional.empty();
             case ZONE_BALANCE:
                 return "true".equals(value)
-                        ? Optional.of(new V3ZoneBalancedHardConstraintEvaluator(taskCache, EXPECTED_NUM_ZONES, config.getHostZoneAttributeName()))
+                        ? Optional.of(new V3ZoneBalancedHardConstraintEvaluator(taskCache, agentEvaluationCache, EXPECTED_NUM_ZONES, config.getHostZoneAttributeName()))
                         : Optional.empty();
             case ACTIVE_HOST:
                 return "true".equals(value)
@@ -116,11 +120,11 @@ public class V3ConstraintEvaluatorTransformer implements ConstraintEvaluatorTran
                         : Optional.empty();
             case MACHINE_GROUP:
                 return StringExt.isNotEmpty(value)
-                        ? Optional.of(new MachineGroupConstraint(schedulerConfiguration, agentManagementService, value))
+                        ? Optional.of(new MachineGroupConstraint(agentEvaluationCache, value))
                         : Optional.empty();
             case MACHINE_TYPE:
                 return StringExt.isNotEmpty(value)
-                        ? Optional.of(new MachineTypeConstraint(schedulerConfiguration, agentManagementService, value))
+                        ? Optional.of(new MachineTypeConstraint(agentEvaluationCache, value))
                         : Optional.empty();
             case TOLERATION:
                 return StringExt.isNotEmpty(value)
@@ -142,7 +146,7 @@ public class V3ConstraintEvaluatorTransformer implements ConstraintEvaluatorTran
                 return "true".equals(value) ? Optional.of(AsSoftConstraint.get(new V3UniqueHostConstraint())) : Optional.empty();
             case ZONE_BALANCE:
                 return "true".equals(value)
-                        ? Optional.of(new V3ZoneBalancedFitnessCalculator(taskCache, EXPECTED_NUM_ZONES, config.getHostZoneAttributeName()))
+                        ? Optional.of(new V3ZoneBalancedFitnessCalculator(taskCache, agentEvaluationCache, EXPECTED_NUM_ZONES, config.getHostZoneAttributeName()))
                         : Optional.empty();
             case ACTIVE_HOST:
                 return "true".equals(value)
@@ -158,11 +162,11 @@ public class V3ConstraintEvaluatorTransformer implements ConstraintEvaluatorTran
                         : Optional.empty();
             case MACHINE_GROUP:
                 return StringExt.isNotEmpty(value)
-                        ? Optional.of(AsSoftConstraint.get(new MachineGroupConstraint(schedulerConfiguration, agentManagementService, value)))
+                        ? Optional.of(AsSoftConstraint.get(new MachineGroupConstraint(agentEvaluationCache, value)))
                         : Optional.empty();
             case MACHINE_TYPE:
                 return StringExt.isNotEmpty(value)
-                        ? Optional.of(AsSoftConstraint.get(new MachineTypeConstraint(schedulerConfiguration, agentManagementService, value)))
+                        ? Optional.of(AsSoftConstraint.get(new MachineTypeConstraint(agentEvaluationCache, value)))
                         : Optional.empty();
             case TOLERATION:
                 return StringExt.isNotEmpty(value)
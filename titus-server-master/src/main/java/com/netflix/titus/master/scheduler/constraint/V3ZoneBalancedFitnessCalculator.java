@@ -24,6 +24,7 @@ import com.netflix.fenzo.VMTaskFitnessCalculator;
 import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
 import com.netflix.titus.master.scheduler.SchedulerUtils;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 import com.netflix.titus.master.scheduler.resourcecache.TaskCache;
 
 public class V3ZoneBalancedFitnessCalculator implements VMTaskFitnessCalculator {
@@ -34,11 +35,16 @@ public class V3ZoneBalancedFitnessCalculator implements VMTaskFitnessCalculator
     private static final double MATCHING = 1.0;
 
     private final TaskCache taskCache;
+    private final AgentEvaluationCache agentEvaluationCache;
     private final int expectedValues;
     private final String zoneAttributeName;
 
-    public V3ZoneBalancedFitnessCalculator(TaskCache taskCache, int expectedValues, String zoneAttributeName) {
+    public V3ZoneBalancedFitnessCalculator(TaskCache taskCache,
+                                           AgentEvaluationCache agentEvaluationCache,
+                                           int expectedValues,
+                                           String zoneAttributeName) {
         this.taskCache = taskCache;
+        this.agentEvaluationCache = agentEvaluationCache;
         this.expectedValues = expectedValues;
         this.zoneAttributeName = zoneAttributeName;
     }
@@ -55,7 +61,7 @@ public class V3ZoneBalancedFitnessCalculator implements VMTaskFitnessCalculator
             return MATCHING;
         }
 
-        String targetZoneId = SchedulerUtils.getAttributeValueOrEmptyString(targetVM, zoneAttributeName);
+        String targetZoneId = agentEvaluationCache.get(targetVM).getZoneId();
         if (targetZoneId.isEmpty()) {
             return NOT_MATCHING;
         }
@@ -24,6 +24,7 @@ import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
 import com.netflix.titus.master.scheduler.SchedulerUtils;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 import com.netflix.titus.master.scheduler.resourcecache.TaskCache;
 
 public class V3ZoneBalancedHardConstraintEvaluator implements ConstraintEvaluator {
@@ -37,9 +38,14 @@ public class V3ZoneBalancedHardConstraintEvaluator implements ConstraintEvaluato
     private final int expectedValues;
     private final String zoneAttributeName;
     private final TaskCache taskCache;
+    private final AgentEvaluationCache agentEvaluationCache;
 
-    protected V3ZoneBalancedHardConstraintEvaluator(TaskCache taskCache, int expectedValues, String zoneAttributeName) {
+    protected V3ZoneBalancedHardConstraintEvaluator(TaskCache taskCache,
+                                                    AgentEvaluationCache agentEvaluationCache,
+                                                    int expectedValues,
+                                                    String zoneAttributeName) {
         this.taskCache = taskCache;
+        this.agentEvaluationCache = agentEvaluationCache;
         this.expectedValues = expectedValues;
         this.zoneAttributeName = zoneAttributeName;
     }
@@ -56,7 +62,7 @@ public class V3ZoneBalancedHardConstraintEvaluator implements ConstraintEvaluato
             return VALID;
         }
 
-        String targetZoneId = SchedulerUtils.getAttributeValueOrEmptyString(targetVM, zoneAttributeName);
+        String targetZoneId = agentEvaluationCache.get(targetVM).getZoneId();
         if (targetZoneId.isEmpty()) {
             return NO_ZONE_ID;
         }
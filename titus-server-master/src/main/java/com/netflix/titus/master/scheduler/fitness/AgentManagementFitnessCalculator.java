@@ -27,11 +27,10 @@ import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.titus.api.agent.model.AgentInstance;
 import com.netflix.titus.api.agent.model.AgentInstanceGroup;
 import com.netflix.titus.api.agent.model.InstanceGroupLifecycleState;
-import com.netflix.titus.api.agent.service.AgentManagementService;
 import com.netflix.titus.master.scheduler.AgentQualityTracker;
 import com.netflix.titus.master.scheduler.SchedulerAttributes;
-import com.netflix.titus.master.scheduler.SchedulerConfiguration;
-import com.netflix.titus.master.scheduler.SchedulerUtils;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,16 +50,13 @@ public class AgentManagementFitnessCalculator implements VMTaskFitnessCalculator
 
     private static final double QUALITY_OF_UNKNOWN_AGENT = 0.5;
 
-    private final SchedulerConfiguration schedulerConfiguration;
-    private final AgentManagementService agentManagementService;
+    private final AgentEvaluationCache agentEvaluationCache;
     private final AgentQualityTracker agentQualityTracker;
 
     @Inject
-    public AgentManagementFitnessCalculator(SchedulerConfiguration schedulerConfiguration,
-                                            AgentManagementService agentManagementService,
+    public AgentManagementFitnessCalculator(AgentEvaluationCache agentEvaluationCache,
                                             AgentQualityTracker agentQualityTracker) {
-        this.schedulerConfiguration = schedulerConfiguration;
-        this.agentManagementService = agentManagementService;
+        this.agentEvaluationCache = agentEvaluationCache;
         this.agentQualityTracker = agentQualityTracker;
     }
 
@@ -71,14 +67,13 @@ public class AgentManagementFitnessCalculator implements VMTaskFitnessCalculator
 
     @Override
     public double calculateFitness(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
-        Optional<AgentInstance> instanceOpt = SchedulerUtils.findInstance(agentManagementService, schedulerConfiguration.getInstanceAttributeName(), targetVM);
+        AgentEvaluationContext context = agentEvaluationCache.get(targetVM);
+        Optional<AgentInstance> instanceOpt = context.findInstance();
         if (!instanceOpt.isPresent()) {
             return DEFAULT_SCORE;
         }
-        AgentInstance instance = instanceOpt.get();
-        String instanceGroupId = instance.getInstanceGroupId();
 
-        Optional<AgentInstanceGroup> instanceGroupOpt = agentManagementService.findInstanceGroup(instanceGroupId);
+        Optional<AgentInstanceGroup> instanceGroupOpt = context.findInstanceGroup();
         if (!instanceGroupOpt.isPresent()) {
             return DEFAULT_SCORE;
         }
@@ -22,7 +22,7 @@ import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VMTaskFitnessCalculator;
 import com.netflix.fenzo.VirtualMachineCurrentState;
-import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCacheFunctions;
 import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCacheImage;
 import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCacheInstance;
@@ -38,10 +38,10 @@ public class CachedImageFitnessCalculator implements VMTaskFitnessCalculator {
     private static final double IMAGE_NOT_CACHED_SCORE = 0.01;
     private static final double IMAGE_CACHED_SCORE = 1.0;
 
-    private final AgentResourceCache agentResourceCache;
+    private final AgentEvaluationCache agentEvaluationCache;
 
-    public CachedImageFitnessCalculator(AgentResourceCache agentResourceCache) {
-        this.agentResourceCache = agentResourceCache;
+    public CachedImageFitnessCalculator(AgentEvaluationCache agentEvaluationCache) {
+        this.agentEvaluationCache = agentEvaluationCache;
     }
 
     @Override
@@ -51,7 +51,7 @@ public class CachedImageFitnessCalculator implements VMTaskFitnessCalculator {
 
     @Override
     public double calculateFitness(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
-        Optional<AgentResourceCacheInstance> instanceOpt = agentResourceCache.get(targetVM.getHostname());
+        Optional<AgentResourceCacheInstance> instanceOpt = agentEvaluationCache.get(targetVM).findResourceCacheInstance();
         if (instanceOpt.isPresent()) {
             AgentResourceCacheInstance instance = instanceOpt.get();
             AgentResourceCacheImage image = AgentResourceCacheFunctions.getImage(taskRequest);
@@ -23,7 +23,7 @@ import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VMTaskFitnessCalculator;
 import com.netflix.fenzo.VirtualMachineCurrentState;
-import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCacheInstance;
 import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCacheNetworkInterface;
 
@@ -41,10 +41,10 @@ public class CachedSecurityGroupFitnessCalculator implements VMTaskFitnessCalcul
     private static final double SECURITY_GROUPS_NOT_CACHED_SCORE = 0.01;
     private static final double SECURITY_GROUPS_CACHED_SCORE = 1.0;
 
-    private final AgentResourceCache agentResourceCache;
+    private final AgentEvaluationCache agentEvaluationCache;
 
-    public CachedSecurityGroupFitnessCalculator(AgentResourceCache agentResourceCache) {
-        this.agentResourceCache = agentResourceCache;
+    public CachedSecurityGroupFitnessCalculator(AgentEvaluationCache agentEvaluationCache) {
+        this.agentEvaluationCache = agentEvaluationCache;
     }
 
     @Override
@@ -54,7 +54,7 @@ public class CachedSecurityGroupFitnessCalculator implements VMTaskFitnessCalcul
 
     @Override
     public double calculateFitness(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
-        Optional<AgentResourceCacheInstance> instanceOpt = agentResourceCache.get(targetVM.getHostname());
+        Optional<AgentResourceCacheInstance> instanceOpt = agentEvaluationCache.get(targetVM).findResourceCacheInstance();
         if (instanceOpt.isPresent()) {
             List<String> taskSecurityGroups = getSecurityGroups(taskRequest);
             AgentResourceCacheInstance instance = instanceOpt.get();
@@ -27,7 +27,7 @@ import com.netflix.fenzo.plugins.BinPackingFitnessCalculators;
 import com.netflix.fenzo.plugins.WeightedAverageFitnessCalculator;
 import com.netflix.fenzo.plugins.WeightedAverageFitnessCalculator.WeightedFitnessCalculator;
 import com.netflix.titus.master.scheduler.SchedulerConfiguration;
-import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 
 import static com.netflix.titus.master.scheduler.fitness.FitnessCalculatorFunctions.isCriticalTier;
 import static com.netflix.titus.master.scheduler.fitness.FitnessCalculatorFunctions.isServiceJob;
@@ -47,12 +47,12 @@ public class TitusFitnessCalculator implements VMTaskFitnessCalculator {
 
     public TitusFitnessCalculator(SchedulerConfiguration configuration,
                                   AgentManagementFitnessCalculator agentManagementFitnessCalculator,
-                                  AgentResourceCache agentResourceCache) {
+                                  AgentEvaluationCache agentEvaluationCache) {
         this.configuration = configuration;
         this.agentManagementFitnessCalculator = agentManagementFitnessCalculator;
         this.criticalServiceJobSpreader = criticalServiceJobSpreader();
-        this.criticalServiceJobBinPacker = criticalServiceJobBinPacker(agentResourceCache);
-        this.defaultFitnessCalculator = defaultFitnessCalculator(agentResourceCache);
+        this.criticalServiceJobBinPacker = criticalServiceJobBinPacker(agentEvaluationCache);
+        this.defaultFitnessCalculator = defaultFitnessCalculator(agentEvaluationCache);
     }
 
     @Override
@@ -91,22 +91,22 @@ public class TitusFitnessCalculator implements VMTaskFitnessCalculator {
         return new WeightedAverageFitnessCalculator(calculators);
     }
 
-    private VMTaskFitnessCalculator criticalServiceJobBinPacker(AgentResourceCache agentResourceCache) {
+    private VMTaskFitnessCalculator criticalServiceJobBinPacker(AgentEvaluationCache agentEvaluationCache) {
         List<WeightedFitnessCalculator> calculators = new ArrayList<>();
         calculators.add(new WeightedFitnessCalculator(new JobTypeFitnessCalculator(), 0.05));
         calculators.add(new WeightedFitnessCalculator(BinPackingFitnessCalculators.cpuMemBinPacker, 0.1));
-        calculators.add(new WeightedFitnessCalculator(new CachedImageFitnessCalculator(agentResourceCache), 0.15));
-        calculators.add(new WeightedFitnessCalculator(new CachedSecurityGroupFitnessCalculator(agentResourceCache), 0.2));
+        calculators.add(new WeightedFitnessCalculator(new CachedImageFitnessCalculator(agentEvaluationCache), 0.15));
+        calculators.add(new WeightedFitnessCalculator(new CachedSecurityGroupFitnessCalculator(agentEvaluationCache), 0.2));
         calculators.add(new WeightedFitnessCalculator(agentManagementFitnessCalculator, 0.5));
         return new WeightedAverageFitnessCalculator(calculators);
     }
 
-    private VMTaskFitnessCalculator defaultFitnessCalculator(AgentResourceCache agentResourceCache) {
+    private VMTaskFitnessCalculator defaultFitnessCalculator(AgentEvaluationCache agentEvaluationCache) {
         List<WeightedFitnessCalculator> calculators = new ArrayList<>();
         calculators.add(new WeightedFitnessCalculator(BinPackingFitnessCalculators.cpuMemBinPacker, 0.1));
         calculators.add(new WeightedFitnessCalculator(new JobTypeFitnessCalculator(), 0.1));
-        calculators.add(new WeightedFitnessCalculator(new CachedImageFitnessCalculator(agentResourceCache), 0.15));
-        calculators.add(new WeightedFitnessCalculator(new CachedSecurityGroupFitnessCalculator(agentResourceCache), 0.15));
+        calculators.add(new WeightedFitnessCalculator(new CachedImageFitnessCalculator(agentEvaluationCache), 0.15));
+        calculators.add(new WeightedFitnessCalculator(new CachedSecurityGroupFitnessCalculator(agentEvaluationCache), 0.15));
         calculators.add(new WeightedFitnessCalculator(agentManagementFitnessCalculator, 0.5));
         return new WeightedAverageFitnessCalculator(calculators);
     }
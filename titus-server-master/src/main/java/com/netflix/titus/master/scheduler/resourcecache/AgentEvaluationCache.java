@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.scheduler.resourcecache;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.netflix.fenzo.VirtualMachineCurrentState;
+import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.agent.service.AgentManagementService;
+import com.netflix.titus.master.config.MasterConfiguration;
+import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import org.apache.mesos.Protos;
+
+import static com.netflix.titus.master.scheduler.SchedulerUtils.getAttributeValueOrEmptyString;
+
+/**
+ * Per scheduling iteration cache of {@link AgentEvaluationContext} values, used by Fenzo constraint/fitness evaluators.
+ * Fenzo calls the evaluators for each task/agent pair, and without the cache each of them would repeat the same
+ * lease attribute parsing, and agent management and agent resource cache lookups. The cache is reset by calling
+ * {@link #prepare()} before each scheduling iteration. Until the first {@link #prepare()} call, the context
+ * is resolved on each request.
+ */
+@Singleton
+public class AgentEvaluationCache {
+
+    private final MasterConfiguration masterConfiguration;
+    private final SchedulerConfiguration schedulerConfiguration;
+    private final AgentManagementService agentManagementService;
+    private final AgentResourceCache agentResourceCache;
+
+    private final AtomicReference<ConcurrentMap<String, AgentEvaluationContext>> currentCacheValue = new AtomicReference<>();
+
+    @Inject
+    public AgentEvaluationCache(MasterConfiguration masterConfiguration,
+                                SchedulerConfiguration schedulerConfiguration,
+                                AgentManagementService agentManagementService,
+                                AgentResourceCache agentResourceCache) {
+        this.masterConfiguration = masterConfiguration;
+        this.schedulerConfiguration = schedulerConfiguration;
+        this.agentManagementService = agentManagementService;
+        this.agentResourceCache = agentResourceCache;
+    }
+
+    public void prepare() {
+        currentCacheValue.set(new ConcurrentHashMap<>());
+    }
+
+    public AgentEvaluationContext get(VirtualMachineCurrentState targetVM) {
+        ConcurrentMap<String, AgentEvaluationContext> cacheValue = currentCacheValue.get();
+        String hostname = targetVM.getHostname();
+        if (cacheValue == null || hostname == null) {
+            return resolve(hostname, targetVM);
+        }
+        AgentEvaluationContext context = cacheValue.get(hostname);
+        if (context == null) {
+            context = resolve(hostname, targetVM);
+            AgentEvaluationContext previous = cacheValue.putIfAbsent(hostname, context);
+            if (previous != null) {
+                context = previous;
+            }
+        }
+        return context;
+    }
+
+    private AgentEvaluationContext resolve(String hostname, VirtualMachineCurrentState targetVM) {
+        Map<String, Protos.Attribute> attributes = targetVM.getCurrAvailableResources().getAttributeMap();
+
+        String instanceId = getAttributeValueOrEmptyString(attributes, schedulerConfiguration.getInstanceAttributeName());
+        Optional<AgentInstance> instance = instanceId.isEmpty()
+                ? Optional.empty()
+                : agentManagementService.findAgentInstance(instanceId);
+        Optional<AgentInstanceGroup> instanceGroup = instance.isPresent()
+                ? agentManagementService.findInstanceGroup(instance.get().getInstanceGroupId())
+                : Optional.empty();
+        String machineType = instance.isPresent()
+                ? instance.get().getAttributes().getOrDefault(schedulerConfiguration.getMachineTypeAttributeName(), "")
+                : "";
+
+        String zoneId = getAttributeValueOrEmptyString(attributes, masterConfiguration.getHostZoneAttributeName());
+        Optional<AgentResourceCacheInstance> resourceCacheInstance = hostname == null
+                ? Optional.empty()
+                : agentResourceCache.get(hostname);
+
+        return new AgentEvaluationContext(hostname, instanceId, instance, instanceGroup, zoneId, machineType, resourceCacheInstance);
+    }
+}
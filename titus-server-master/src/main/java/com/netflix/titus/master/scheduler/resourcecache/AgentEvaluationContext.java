@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.scheduler.resourcecache;
+
+import java.util.Optional;
+
+import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+
+/**
+ * Agent data resolved once per scheduling iteration, and shared by all Fenzo constraint/fitness evaluators
+ * that are called for the same agent. The optional values are resolved upfront, so the accessors do not allocate.
+ */
+public class AgentEvaluationContext {
+
+    private final String hostname;
+    private final String instanceId;
+    private final Optional<AgentInstance> instance;
+    private final Optional<AgentInstanceGroup> instanceGroup;
+    private final String zoneId;
+    private final String machineType;
+    private final Optional<AgentResourceCacheInstance> resourceCacheInstance;
+
+    public AgentEvaluationContext(String hostname,
+                                  String instanceId,
+                                  Optional<AgentInstance> instance,
+                                  Optional<AgentInstanceGroup> instanceGroup,
+                                  String zoneId,
+                                  String machineType,
+                                  Optional<AgentResourceCacheInstance> resourceCacheInstance) {
+        this.hostname = hostname;
+        this.instanceId = instanceId;
+        this.instance = instance;
+        this.instanceGroup = instanceGroup;
+        this.zoneId = zoneId;
+        this.machineType = machineType;
+        this.resourceCacheInstance = resourceCacheInstance;
+    }
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    /**
+     * Instance id read from the lease attributes, or an empty string if not set.
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public Optional<AgentInstance> findInstance() {
+        return instance;
+    }
+
+    public Optional<AgentInstanceGroup> findInstanceGroup() {
+        return instanceGroup;
+    }
+
+    /**
+     * Zone id read from the lease attributes, or an empty string if not set.
+     */
+    public String getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * Machine type read from the agent instance attributes, or an empty string if not set.
+     */
+    public String getMachineType() {
+        return machineType;
+    }
+
+    public Optional<AgentResourceCacheInstance> findResourceCacheInstance() {
+        return resourceCacheInstance;
+    }
+
+    @Override
+    public String toString() {
+        return "AgentEvaluationContext{" +
+                "hostname='" + hostname + '\'' +
+                ", instanceId='" + instanceId + '\'' +
+                ", instanceGroupId=" + instance.map(AgentInstance::getInstanceGroupId).orElse(null) +
+                ", zoneId='" + zoneId + '\'' +
+                ", machineType='" + machineType + '\'' +
+                '}';
+    }
+}
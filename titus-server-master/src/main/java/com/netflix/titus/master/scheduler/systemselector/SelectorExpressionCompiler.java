@@ -0,0 +1,607 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.scheduler.systemselector;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.scheduler.service.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles system selector expressions into Java predicates. The supported language is a subset of JavaScript, with
+ * the same semantics as the script engine evaluation, extended with the 'in' operator for value lists:
+ * <ul>
+ *     <li>field access on job, task, instanceGroup and instance, with property names (job.jobDescriptor.applicationName),
+ *     no argument method calls (task.getStatus().getState()) or map keys (instance.attributes['stack'])</li>
+ *     <li>string, number, boolean and null literals</li>
+ *     <li>comparisons (==, !=, &lt;, &lt;=, &gt;, &gt;=), boolean logic (&amp;&amp;, ||, !) and parentheses</li>
+ *     <li>value lists (instanceGroup.instanceType in ['m4.4xlarge', 'r4.8xlarge'])</li>
+ * </ul>
+ * Field paths are resolved against the model classes during compilation. Expressions outside of this subset,
+ * including those referencing any other variable or global object, are not compiled, and are left to the script engine.
+ */
+final class SelectorExpressionCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SelectorExpressionCompiler.class);
+
+    private static final Map<String, Class<?>> ROOT_TYPES = ImmutableMap.of(
+            SystemSelectorContext.JOB, Job.class,
+            SystemSelectorContext.TASK, Task.class,
+            SystemSelectorContext.INSTANCE_GROUP, AgentInstanceGroup.class,
+            SystemSelectorContext.INSTANCE, AgentInstance.class
+    );
+
+    private static final Map<String, Function<SystemSelectorContext, Object>> ROOT_ACCESSORS = ImmutableMap.<String, Function<SystemSelectorContext, Object>>of(
+            SystemSelectorContext.JOB, SystemSelectorContext::getJob,
+            SystemSelectorContext.TASK, SystemSelectorContext::getTask,
+            SystemSelectorContext.INSTANCE_GROUP, context -> context.isAgentKnown() ? context.getInstanceGroup() : null,
+            SystemSelectorContext.INSTANCE, context -> context.isAgentKnown() ? context.getInstance() : null
+    );
+
+    private static final Set<String> AGENT_ROOTS = ImmutableSet.of(SystemSelectorContext.INSTANCE_GROUP, SystemSelectorContext.INSTANCE);
+
+    /**
+     * JavaScript 'undefined' value. It is loosely equal to null only, and it is NaN in numeric comparisons.
+     */
+    private static final Object UNDEFINED = new Object();
+
+    private SelectorExpressionCompiler() {
+    }
+
+    /**
+     * @return compiled expression, or {@link Optional#empty()} if the expression uses constructs not supported by the compiler
+     */
+    static Optional<Predicate<SystemSelectorContext>> compile(String expression) {
+        try {
+            Parser parser = new Parser(expression, tokenize(expression));
+            Node root = parser.parseExpression();
+            parser.expectEnd();
+            return Optional.of(context -> evaluate(root, context, expression) == Boolean.TRUE);
+        } catch (UnsupportedExpressionException e) {
+            logger.debug("Expression not supported by the compiler, falling back to the script engine: expression={}, reason={}",
+                    expression, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Object evaluate(Node root, SystemSelectorContext context, String expression) {
+        try {
+            return root.evaluate(context);
+        } catch (SchedulerException e) {
+            throw e;
+        } catch (Exception e) {
+            throw SchedulerException.systemSelectorEvaluationError("Unable to evaluate expression: %s", e, expression);
+        }
+    }
+
+    private interface Node {
+        Object evaluate(SystemSelectorContext context);
+    }
+
+    private static class UnsupportedExpressionException extends RuntimeException {
+        private UnsupportedExpressionException(String message) {
+            super(message);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Tokenizer
+
+    private enum TokenType {Identifier, StringLiteral, NumberLiteral, Operator, End}
+
+    private static class Token {
+
+        private final TokenType type;
+        private final String text;
+
+        private Token(TokenType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        private boolean is(TokenType expectedType, String expectedText) {
+            return type == expectedType && text.equals(expectedText);
+        }
+
+        private boolean isOperator(String operator) {
+            return is(TokenType.Operator, operator);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    private static final List<String> OPERATORS = ImmutableList.of(
+            "===", "!==", "==", "!=", "<=", ">=", "&&", "||", "<", ">", "!", "(", ")", "[", "]", ".", ",", "-"
+    );
+
+    private static List<Token> tokenize(String expression) {
+        List<Token> tokens = new ArrayList<>();
+        int pos = 0;
+        int length = expression.length();
+        while (pos < length) {
+            char c = expression.charAt(pos);
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = pos + 1;
+                while (end < length && Character.isJavaIdentifierPart(expression.charAt(end))) {
+                    end++;
+                }
+                tokens.add(new Token(TokenType.Identifier, expression.substring(pos, end)));
+                pos = end;
+            } else if (Character.isDigit(c)) {
+                int end = pos + 1;
+                while (end < length && (Character.isDigit(expression.charAt(end)) || expression.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(new Token(TokenType.NumberLiteral, expression.substring(pos, end)));
+                pos = end;
+            } else if (c == '\'' || c == '"') {
+                StringBuilder value = new StringBuilder();
+                int end = pos + 1;
+                while (end < length && expression.charAt(end) != c) {
+                    char next = expression.charAt(end);
+                    if (next == '\\') {
+                        if (end + 1 >= length) {
+                            throw new UnsupportedExpressionException("Unterminated string literal");
+                        }
+                        next = expression.charAt(++end);
+                    }
+                    value.append(next);
+                    end++;
+                }
+                if (end >= length) {
+                    throw new UnsupportedExpressionException("Unterminated string literal");
+                }
+                tokens.add(new Token(TokenType.StringLiteral, value.toString()));
+                pos = end + 1;
+            } else {
+                String operator = null;
+                for (String candidate : OPERATORS) {
+                    if (expression.startsWith(candidate, pos)) {
+                        operator = candidate;
+                        break;
+                    }
+                }
+                if (operator == null) {
+                    throw new UnsupportedExpressionException("Unsupported character '" + c + "' at position " + pos);
+                }
+                tokens.add(new Token(TokenType.Operator, operator));
+                pos += operator.length();
+            }
+        }
+        tokens.add(new Token(TokenType.End, ""));
+        return tokens;
+    }
+
+    // ------------------------------------------------------------
+    // Parser
+
+    private static class Parser {
+
+        private final String expression;
+        private final List<Token> tokens;
+        private int position;
+
+        private Parser(String expression, List<Token> tokens) {
+            this.expression = expression;
+            this.tokens = tokens;
+        }
+
+        private Token peek() {
+            return tokens.get(position);
+        }
+
+        private Token next() {
+            return tokens.get(position++);
+        }
+
+        private void expectOperator(String operator) {
+            Token token = next();
+            if (!token.isOperator(operator)) {
+                throw new UnsupportedExpressionException("Expected '" + operator + "', but found '" + token + "'");
+            }
+        }
+
+        private void expectEnd() {
+            if (peek().type != TokenType.End) {
+                throw new UnsupportedExpressionException("Unexpected token '" + peek() + "'");
+            }
+        }
+
+        private Node parseExpression() {
+            Node left = parseAnd();
+            while (peek().isOperator("||")) {
+                next();
+                Node first = left;
+                Node second = parseAnd();
+                left = context -> {
+                    Object value = first.evaluate(context);
+                    return isTruthy(value) ? value : second.evaluate(context);
+                };
+            }
+            return left;
+        }
+
+        private Node parseAnd() {
+            Node left = parseComparison();
+            while (peek().isOperator("&&")) {
+                next();
+                Node first = left;
+                Node second = parseComparison();
+                left = context -> {
+                    Object value = first.evaluate(context);
+                    return isTruthy(value) ? second.evaluate(context) : value;
+                };
+            }
+            return left;
+        }
+
+        private Node parseComparison() {
+            Node left = parseUnary();
+            Token token = peek();
+            if (token.is(TokenType.Identifier, "in")) {
+                next();
+                List<Object> values = parseValueList();
+                return context -> {
+                    Object value = left.evaluate(context);
+                    for (Object candidate : values) {
+                        if (looseEquals(value, candidate)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            if (token.type != TokenType.Operator) {
+                return left;
+            }
+            switch (token.text) {
+                case "==": {
+                    next();
+                    Node right = parseUnary();
+                    return context -> looseEquals(left.evaluate(context), right.evaluate(context));
+                }
+                case "!=": {
+                    next();
+                    Node right = parseUnary();
+                    return context -> !looseEquals(left.evaluate(context), right.evaluate(context));
+                }
+                case "<":
+                case "<=":
+                case ">":
+                case ">=": {
+                    next();
+                    Node right = parseUnary();
+                    String operator = token.text;
+                    return context -> compare(operator, left.evaluate(context), right.evaluate(context));
+                }
+                default:
+                    return left;
+            }
+        }
+
+        private Node parseUnary() {
+            if (peek().isOperator("!")) {
+                next();
+                Node operand = parseUnary();
+                return context -> !isTruthy(operand.evaluate(context));
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            Token token = peek();
+            if (token.isOperator("(")) {
+                next();
+                Node node = parseExpression();
+                expectOperator(")");
+                return node;
+            }
+            if (token.type == TokenType.Identifier && !isLiteral(token)) {
+                return parsePath();
+            }
+            Object value = parseLiteral();
+            return context -> value;
+        }
+
+        private boolean isLiteral(Token token) {
+            return token.text.equals("true") || token.text.equals("false") || token.text.equals("null");
+        }
+
+        private Object parseLiteral() {
+            Token token = next();
+            switch (token.type) {
+                case StringLiteral:
+                    return token.text;
+                case NumberLiteral:
+                    return parseNumber(token.text);
+                case Identifier:
+                    if (token.text.equals("true")) {
+                        return Boolean.TRUE;
+                    }
+                    if (token.text.equals("false")) {
+                        return Boolean.FALSE;
+                    }
+                    if (token.text.equals("null")) {
+                        return null;
+                    }
+                    break;
+                case Operator:
+                    if (token.text.equals("-") && peek().type == TokenType.NumberLiteral) {
+                        return -parseNumber(next().text);
+                    }
+                    break;
+            }
+            throw new UnsupportedExpressionException("Unexpected token '" + token + "'");
+        }
+
+        private double parseNumber(String text) {
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new UnsupportedExpressionException("Invalid number " + text);
+            }
+        }
+
+        private List<Object> parseValueList() {
+            expectOperator("[");
+            List<Object> values = new ArrayList<>();
+            if (!peek().isOperator("]")) {
+                values.add(parseLiteral());
+                while (peek().isOperator(",")) {
+                    next();
+                    values.add(parseLiteral());
+                }
+            }
+            expectOperator("]");
+            return values;
+        }
+
+        private Node parsePath() {
+            String rootName = next().text;
+            Class<?> rootType = ROOT_TYPES.get(rootName);
+            if (rootType == null) {
+                throw new UnsupportedExpressionException("Variable '" + rootName + "' not in " + ROOT_TYPES.keySet());
+            }
+            Function<SystemSelectorContext, Object> rootAccessor = ROOT_ACCESSORS.get(rootName);
+
+            List<Function<Object, Object>> steps = new ArrayList<>();
+            Type currentType = rootType;
+            while (peek().isOperator(".") || peek().isOperator("[")) {
+                Class<?> currentClass = toClass(currentType);
+                if (next().isOperator("[")) {
+                    Token key = next();
+                    if (key.type != TokenType.StringLiteral || !Map.class.isAssignableFrom(currentClass)) {
+                        throw new UnsupportedExpressionException("Index access only supported for maps with string keys");
+                    }
+                    expectOperator("]");
+                    steps.add(mapLookup(key.text));
+                    currentType = mapValueType(currentType);
+                    continue;
+                }
+
+                Token name = next();
+                if (name.type != TokenType.Identifier) {
+                    throw new UnsupportedExpressionException("Expected field name, but found '" + name + "'");
+                }
+                boolean methodCall = false;
+                if (peek().isOperator("(")) {
+                    next();
+                    expectOperator(")");
+                    methodCall = true;
+                }
+                if (!methodCall && Map.class.isAssignableFrom(currentClass)) {
+                    steps.add(mapLookup(name.text));
+                    currentType = mapValueType(currentType);
+                } else {
+                    Method getter = findGetter(currentClass, name.text, methodCall);
+                    steps.add(target -> invoke(getter, target));
+                    currentType = getter.getGenericReturnType();
+                }
+            }
+
+            return context -> {
+                Object value = rootAccessor.apply(context);
+                if (value == null) {
+                    if (!AGENT_ROOTS.contains(rootName)) {
+                        throw SchedulerException.systemSelectorEvaluationError("Variable '%s' not defined in expression: %s", null, rootName, expression);
+                    }
+                    // The script engine gets an empty builder for an unknown agent, so its properties are undefined
+                    if (steps.size() > 1) {
+                        throw SchedulerException.systemSelectorEvaluationError("Null value in the field path of expression: %s", null, expression);
+                    }
+                    return UNDEFINED;
+                }
+                for (Function<Object, Object> step : steps) {
+                    if (value == null) {
+                        throw SchedulerException.systemSelectorEvaluationError("Null value in the field path of expression: %s", null, expression);
+                    }
+                    value = step.apply(value);
+                }
+                return value;
+            };
+        }
+    }
+
+    private static Function<Object, Object> mapLookup(String key) {
+        return target -> ((Map<?, ?>) target).get(key);
+    }
+
+    private static Class<?> toClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() instanceof Class) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        throw new UnsupportedExpressionException("Cannot resolve type " + type);
+    }
+
+    private static Type mapValueType(Type mapType) {
+        if (mapType instanceof ParameterizedType) {
+            Type[] typeArguments = ((ParameterizedType) mapType).getActualTypeArguments();
+            if (typeArguments.length == 2 && typeArguments[1] instanceof Class) {
+                return typeArguments[1];
+            }
+        }
+        throw new UnsupportedExpressionException("Cannot resolve map value type of " + mapType);
+    }
+
+    private static Method findGetter(Class<?> type, String name, boolean methodCall) {
+        List<String> candidates = methodCall
+                ? ImmutableList.of(name)
+                : ImmutableList.of("get" + capitalize(name), "is" + capitalize(name), name);
+        for (String candidate : candidates) {
+            try {
+                Method method = type.getMethod(candidate);
+                if (method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        throw new UnsupportedExpressionException("No property or method '" + name + "' in " + type.getSimpleName());
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static Object invoke(Method getter, Object target) {
+        try {
+            return getter.invoke(target);
+        } catch (Exception e) {
+            throw SchedulerException.systemSelectorEvaluationError("Cannot read %s from %s", e, getter.getName(), target.getClass().getSimpleName());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // JavaScript value semantics
+
+    private static boolean isTruthy(Object value) {
+        if (value == null || value == UNDEFINED) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            return number != 0 && !Double.isNaN(number);
+        }
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+        return true;
+    }
+
+    private static boolean looseEquals(Object left, Object right) {
+        if (isNullOrUndefined(left) || isNullOrUndefined(right)) {
+            return isNullOrUndefined(left) && isNullOrUndefined(right);
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return ((Number) left).doubleValue() == ((Number) right).doubleValue();
+        }
+        if (left instanceof String && right instanceof String) {
+            return left.equals(right);
+        }
+        if (left instanceof Boolean && right instanceof Boolean) {
+            return left.equals(right);
+        }
+        if (left instanceof Boolean || right instanceof Boolean || left instanceof Number || right instanceof Number) {
+            return toNumber(left) == toNumber(right);
+        }
+        if (left instanceof String || right instanceof String) {
+            return left.toString().equals(right.toString());
+        }
+        return left == right;
+    }
+
+    private static boolean isNullOrUndefined(Object value) {
+        return value == null || value == UNDEFINED;
+    }
+
+    private static boolean compare(String operator, Object left, Object right) {
+        int result;
+        if (left instanceof String && right instanceof String) {
+            result = ((String) left).compareTo((String) right);
+        } else {
+            double leftNumber = toNumber(left);
+            double rightNumber = toNumber(right);
+            if (Double.isNaN(leftNumber) || Double.isNaN(rightNumber)) {
+                return false;
+            }
+            result = Double.compare(leftNumber, rightNumber);
+        }
+        switch (operator) {
+            case "<":
+                return result < 0;
+            case "<=":
+                return result <= 0;
+            case ">":
+                return result > 0;
+            default:
+                return result >= 0;
+        }
+    }
+
+    private static double toNumber(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value == UNDEFINED) {
+            return Double.NaN;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        String text = value.toString().trim();
+        if (text.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -17,18 +17,16 @@
 package com.netflix.titus.master.scheduler.systemselector;
 
 import java.util.List;
-import java.util.Map;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VirtualMachineCurrentState;
-import com.netflix.titus.api.agent.service.AgentManagementService;
 import com.netflix.titus.api.scheduler.model.Match;
 import com.netflix.titus.api.scheduler.service.SchedulerException;
-import com.netflix.titus.master.scheduler.SchedulerConfiguration;
 import com.netflix.titus.master.scheduler.constraint.SystemConstraint;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,20 +42,17 @@ public class SystemSelectorConstraintEvaluator implements SystemConstraint {
     private static final Result VALID = new Result(true, null);
     private static final Result INVALID = new Result(false, "Failed to match expression");
 
-    private final SchedulerConfiguration schedulerConfiguration;
     private final SystemSelectorService systemSelectorService;
     private final SystemSelectorEvaluator systemSelectorEvaluator;
-    private final AgentManagementService agentManagementService;
+    private final AgentEvaluationCache agentEvaluationCache;
 
     @Inject
-    public SystemSelectorConstraintEvaluator(SchedulerConfiguration schedulerConfiguration,
-                                             SystemSelectorService systemSelectorService,
+    public SystemSelectorConstraintEvaluator(SystemSelectorService systemSelectorService,
                                              SystemSelectorEvaluator systemSelectorEvaluator,
-                                             AgentManagementService agentManagementService) {
-        this.schedulerConfiguration = schedulerConfiguration;
+                                             AgentEvaluationCache agentEvaluationCache) {
         this.systemSelectorService = systemSelectorService;
         this.systemSelectorEvaluator = systemSelectorEvaluator;
-        this.agentManagementService = agentManagementService;
+        this.agentEvaluationCache = agentEvaluationCache;
     }
 
     @Override
@@ -68,9 +63,12 @@ public class SystemSelectorConstraintEvaluator implements SystemConstraint {
     @Override
     public Result evaluate(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
         List<Match> matches = systemSelectorService.getMustMatchesForEvaluation();
+        if (matches.isEmpty()) {
+            return VALID;
+        }
+        SystemSelectorContext context = createContext(taskRequest, agentEvaluationCache.get(targetVM));
         for (Match match : matches) {
             String selectExpression = match.getSelectExpression();
-            Map<String, Object> context = createContext(taskRequest, targetVM, agentManagementService, schedulerConfiguration);
             boolean selectResult = false;
             try {
                 logger.debug("Evaluating select expression: {} for taskRequest: {} on targetVM: {}", selectExpression, taskRequest, targetVM);
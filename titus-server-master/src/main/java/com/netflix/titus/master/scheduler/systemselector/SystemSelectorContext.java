@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.scheduler.systemselector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+
+/**
+ * Values visible to the system selector expressions. Any of them may be null, if not known.
+ */
+public class SystemSelectorContext {
+
+    static final String JOB = "job";
+    static final String TASK = "task";
+    static final String INSTANCE_GROUP = "instanceGroup";
+    static final String INSTANCE = "instance";
+
+    private final Job<?> job;
+    private final Task task;
+    private final AgentInstanceGroup instanceGroup;
+    private final AgentInstance instance;
+
+    public SystemSelectorContext(Job<?> job, Task task, AgentInstanceGroup instanceGroup, AgentInstance instance) {
+        this.job = job;
+        this.task = task;
+        this.instanceGroup = instanceGroup;
+        this.instance = instance;
+    }
+
+    public Job<?> getJob() {
+        return job;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public AgentInstanceGroup getInstanceGroup() {
+        return instanceGroup;
+    }
+
+    public AgentInstance getInstance() {
+        return instance;
+    }
+
+    /**
+     * Agent values are only visible to the expressions if both the instance and its instance group are known.
+     */
+    boolean isAgentKnown() {
+        return instance != null && instanceGroup != null;
+    }
+
+    /**
+     * Script engine bindings, as used by the script based evaluator.
+     */
+    Map<String, Object> toScriptContext() {
+        Map<String, Object> context = new HashMap<>();
+        if (job != null) {
+            context.put(JOB, job);
+            context.put(TASK, task);
+        }
+        if (isAgentKnown()) {
+            context.put(INSTANCE_GROUP, instanceGroup);
+            context.put(INSTANCE, instance);
+        } else {
+            context.put(INSTANCE_GROUP, AgentInstanceGroup.newBuilder());
+            context.put(INSTANCE, AgentInstance.newBuilder());
+        }
+        return context;
+    }
+}
@@ -17,8 +17,10 @@
 package com.netflix.titus.master.scheduler.systemselector;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.script.Compilable;
@@ -39,7 +41,9 @@ import org.slf4j.LoggerFactory;
 import static com.netflix.titus.master.MetricConstants.METRIC_SCHEDULING_SERVICE;
 
 /**
- * Evaluates system selector expressions based on an expression statement and the context.
+ * Evaluates system selector expressions based on an expression statement and the context. Expressions are compiled
+ * into Java predicates by {@link SelectorExpressionCompiler}. The script engine is used only for expressions which
+ * the compiler does not support.
  */
 @Singleton
 public class SystemSelectorEvaluator {
@@ -47,41 +51,52 @@ public class SystemSelectorEvaluator {
     private static final Logger logger = LoggerFactory.getLogger(SystemSelectorEvaluator.class);
     private static final String SCRIPT_ENGINE_NAME = "nashorn";
     private static final String METRIC_SCRIPT_ENGINE_EVALUATORS = "systemSelectorEvaluator.scriptEngineEvaluators";
+    private static final String METRIC_COMPILED_EXPRESSIONS = "systemSelectorEvaluator.compiledExpressions";
+    private static final int MAX_COMPILED_EXPRESSIONS = 1_000;
     private final Cache<Long, ScriptEngineEvaluator> scriptEngineEvaluators;
-    private final ScriptEngine validatorScriptEngine;
+    private final Cache<String, Optional<Predicate<SystemSelectorContext>>> compiledExpressions;
 
     @Inject
     public SystemSelectorEvaluator(SchedulerConfiguration configuration, TitusRuntime titusRuntime) {
         scriptEngineEvaluators = Caches.instrumentedCacheWithMaxSize(
                 configuration.getSchedulerMaxConcurrent(), METRIC_SCHEDULING_SERVICE + METRIC_SCRIPT_ENGINE_EVALUATORS, titusRuntime.getRegistry()
         );
-        validatorScriptEngine = new ScriptEngineManager().getEngineByName(SCRIPT_ENGINE_NAME);
+        compiledExpressions = Caches.instrumentedCacheWithMaxSize(
+                MAX_COMPILED_EXPRESSIONS, METRIC_SCHEDULING_SERVICE + METRIC_COMPILED_EXPRESSIONS, titusRuntime.getRegistry()
+        );
     }
 
-    public void validate(String expression, Map<String, Object> context) {
-        //TODO put this code back once we add have empty instances for all context objects
-//        try {
-//            ScriptContext scriptContext = validatorScriptEngine.getContext();
-//            for (Map.Entry<String, Object> entry : context.entrySet()) {
-//                scriptContext.setAttribute(entry.getKey(), entry.getValue(), ScriptContext.ENGINE_SCOPE);
-//            }
-//            validatorScriptEngine.eval(expression, scriptContext);
-//        } catch (ScriptException e) {
-//            if (logger.isDebugEnabled()) {
-//                logger.debug("Unable to eval expression: {}", expression, e);
-//            }
-//            throw SchedulerException.systemSelectorEvaluationError("Unable to evaluate expression: %s", e, expression);
-//        }
+    /**
+     * Compiles the expression ahead of its first evaluation during scheduling.
+     */
+    public void precompile(String expression) {
+        if (expression != null) {
+            compiledExpressions.get(expression, SelectorExpressionCompiler::compile);
+        }
     }
 
-    public boolean evaluate(String expression, Map<String, Object> context) {
+    /**
+     * Removes the compiled expression, once it is no longer used. If evaluated again, it is compiled again.
+     */
+    public void invalidate(String expression) {
+        if (expression != null) {
+            compiledExpressions.invalidate(expression);
+        }
+    }
+
+    public boolean evaluate(String expression, SystemSelectorContext context) {
+        Optional<Predicate<SystemSelectorContext>> compiled = compiledExpressions.get(expression, SelectorExpressionCompiler::compile);
+        if (compiled.isPresent()) {
+            return compiled.get().test(context);
+        }
+
         // Create a script engine per scheduler thread in order to reduce contention
         long threadId = Thread.currentThread().getId();
         ScriptEngineEvaluator scriptEngineEvaluator = scriptEngineEvaluators.get(threadId, t -> new ScriptEngineEvaluator());
         if (scriptEngineEvaluator == null) {
             throw SchedulerException.systemSelectorEvaluationError("Unable to evaluate expression: %s because scriptEngineEvaluator was null", null, expression);
         }
-        return scriptEngineEvaluator.evaluate(expression, context);
+        return scriptEngineEvaluator.evaluate(expression, context.toScriptContext());
     }
 
     private class ScriptEngineEvaluator {
@@ -105,7 +120,7 @@ public class SystemSelectorEvaluator {
                 }
                 try {
                     logger.debug("Evaluating expression: {}", expression);
-                    Object result = scriptEngine.eval(expression, scriptContext);
+                    Object result = compiledScript.eval(scriptContext);
                     logger.debug("Evaluated expression: {} and got result: {}", expression, result);
                     if (result == Boolean.TRUE) {
                         return true;
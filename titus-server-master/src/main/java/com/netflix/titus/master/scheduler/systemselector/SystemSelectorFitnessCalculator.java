@@ -17,7 +17,6 @@
 package com.netflix.titus.master.scheduler.systemselector;
 
 import java.util.List;
-import java.util.Map;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -25,10 +24,9 @@ import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VMTaskFitnessCalculator;
 import com.netflix.fenzo.VirtualMachineCurrentState;
-import com.netflix.titus.api.agent.service.AgentManagementService;
 import com.netflix.titus.api.scheduler.model.Match;
 import com.netflix.titus.api.scheduler.service.SchedulerException;
-import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,20 +41,17 @@ public class SystemSelectorFitnessCalculator implements VMTaskFitnessCalculator
     private static final Logger logger = LoggerFactory.getLogger(SystemSelectorFitnessCalculator.class);
     private static final double NO_MATCH_SCORE = 0.01;
 
-    private final SchedulerConfiguration schedulerConfiguration;
     private final SystemSelectorService systemSelectorService;
     private final SystemSelectorEvaluator systemSelectorEvaluator;
-    private final AgentManagementService agentManagementService;
+    private final AgentEvaluationCache agentEvaluationCache;
 
     @Inject
-    public SystemSelectorFitnessCalculator(SchedulerConfiguration schedulerConfiguration,
-                                           SystemSelectorService systemSelectorService,
+    public SystemSelectorFitnessCalculator(SystemSelectorService systemSelectorService,
                                            SystemSelectorEvaluator systemSelectorEvaluator,
-                                           AgentManagementService agentManagementService) {
-        this.schedulerConfiguration = schedulerConfiguration;
+                                           AgentEvaluationCache agentEvaluationCache) {
         this.systemSelectorService = systemSelectorService;
         this.systemSelectorEvaluator = systemSelectorEvaluator;
-        this.agentManagementService = agentManagementService;
+        this.agentEvaluationCache = agentEvaluationCache;
     }
 
     @Override
@@ -69,9 +64,12 @@ public class SystemSelectorFitnessCalculator implements VMTaskFitnessCalculator
         List<Match> matches = systemSelectorService.getShouldMatchesForEvaluation();
         double totalMatchEvaluations = 0;
         double totalMatches = 0;
+        if (matches.isEmpty()) {
+            return NO_MATCH_SCORE;
+        }
+        SystemSelectorContext context = createContext(taskRequest, agentEvaluationCache.get(targetVM));
         for (Match match : matches) {
             String selectExpression = match.getSelectExpression();
-            Map<String, Object> context = createContext(taskRequest, targetVM, agentManagementService, schedulerConfiguration);
             boolean selectResult = false;
             try {
                 logger.debug("Evaluating select expression: {} for taskRequest: {} on targetVM: {}", selectExpression, taskRequest, targetVM);
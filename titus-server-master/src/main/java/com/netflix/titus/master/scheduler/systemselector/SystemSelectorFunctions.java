@@ -16,64 +16,27 @@
 
 package com.netflix.titus.master.scheduler.systemselector;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.netflix.fenzo.TaskRequest;
-import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.titus.api.agent.model.AgentInstance;
 import com.netflix.titus.api.agent.model.AgentInstanceGroup;
-import com.netflix.titus.api.agent.service.AgentManagementService;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
-import com.netflix.titus.master.scheduler.SchedulerConfiguration;
-
-import static com.netflix.titus.master.scheduler.fitness.FitnessCalculatorFunctions.getAgentAttributeValue;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationContext;
 
 public class SystemSelectorFunctions {
 
-    //TODO I need to create a context with fake job, task, instance group, instance
-    //TODO I need to convert v2 models into v3 so that all selectors can be written with v3 structure
-
-    private static final String JOB = "job";
-    private static final String TASK = "task";
-    private static final String INSTANCE_GROUP = "instanceGroup";
-    private static final String INSTANCE = "instance";
-
-    public static Map<String, Object> createContext(TaskRequest taskRequest,
-                                                    VirtualMachineCurrentState targetVM,
-                                                    AgentManagementService agentManagementService,
-                                                    SchedulerConfiguration schedulerConfiguration) {
-        Map<String, Object> context = new HashMap<>();
-        setJobAndTask(context, taskRequest);
-        setInstanceGroupAndInstance(context, targetVM, agentManagementService, schedulerConfiguration);
-        return context;
-    }
-
-    private static void setJobAndTask(Map<String, Object> context, TaskRequest taskRequest) {
+    public static SystemSelectorContext createContext(TaskRequest taskRequest, AgentEvaluationContext agentEvaluationContext) {
+        Job<?> job = null;
+        Task task = null;
         if (taskRequest instanceof V3QueueableTask) {
             V3QueueableTask v3QueueableTask = (V3QueueableTask) taskRequest;
-            Job job = v3QueueableTask.getJob();
-            Task task = v3QueueableTask.getTask();
-            context.put(JOB, job);
-            context.put(TASK, task);
+            job = v3QueueableTask.getJob();
+            task = v3QueueableTask.getTask();
         }
-    }
 
-    private static void setInstanceGroupAndInstance(Map<String, Object> context,
-                                                    VirtualMachineCurrentState targetVM,
-                                                    AgentManagementService agentManagementService,
-                                                    SchedulerConfiguration schedulerConfiguration) {
-        String instanceId = getAgentAttributeValue(targetVM, schedulerConfiguration.getInstanceAttributeName());
-        try {
-            AgentInstance instance = agentManagementService.getAgentInstance(instanceId);
-            AgentInstanceGroup instanceGroup = agentManagementService.getInstanceGroup(instance.getInstanceGroupId());
-            context.put(INSTANCE_GROUP, instanceGroup);
-            context.put(INSTANCE, instance);
-        } catch (Exception ignored) {
-            context.put(INSTANCE_GROUP, AgentInstanceGroup.newBuilder());
-            context.put(INSTANCE, AgentInstance.newBuilder());
-        }
+        AgentInstanceGroup instanceGroup = agentEvaluationContext.findInstanceGroup().orElse(null);
+        AgentInstance instance = instanceGroup == null ? null : agentEvaluationContext.findInstance().orElse(null);
+        return new SystemSelectorContext(job, task, instanceGroup, instance);
     }
 }
@@ -18,11 +18,13 @@ package com.netflix.titus.master.scheduler.systemselector;
 
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -45,6 +47,7 @@ import static com.netflix.titus.common.util.guice.ProxyType.Spectator;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 @Singleton
 @ProxyConfiguration(types = {Logging, Spectator, ActiveGuard})
@@ -95,7 +98,7 @@ public class SystemSelectorService {
         return Observable.fromCallable(() -> {
             String id = systemSelector.getId();
             SchedulerException.checkSystemSelectorAlreadyExists(systemSelectorsById.get(id), id);
-            validateSystemSelectorExpressions(systemSelector);
+            precompileSystemSelectorExpressions(systemSelector);
             return systemSelector;
         }).toCompletable().andThen(schedulerStore.storeSystemSelector(systemSelector)).andThen(Completable.fromAction(() -> {
             systemSelectorsById.put(systemSelector.getId(), systemSelector);
@@ -112,8 +115,11 @@ public class SystemSelectorService {
     public Completable deleteSystemSelector(String id) {
         return Observable.fromCallable(() -> getSystemSelector(id)).toCompletable()
                 .andThen(schedulerStore.deleteSystemSelector(id)).andThen(Completable.fromAction(() -> {
-                    systemSelectorsById.remove(id);
+                    SystemSelector removed = systemSelectorsById.remove(id);
                     updateMatchesForEvaluation();
+                    if (removed != null) {
+                        invalidateSystemSelectorExpressions(removed);
+                    }
                 }));
     }
 
@@ -141,17 +147,33 @@ public class SystemSelectorService {
         mustMatchesForEvaluation = selectorListsByType.getOrDefault(Must.class, Collections.emptyList());
     }
 
-    private void validateSystemSelectorExpressions(SystemSelector systemSelector) {
-        Pair<Class<?>, Match> matchByType = getMatchByType(systemSelector);
-        Match match = matchByType.getRight();
+    private void precompileSystemSelectorExpressions(SystemSelector systemSelector) {
+        Match match = getMatchByType(systemSelector).getRight();
         if (match != null) {
-            //TODO create fake context for validation
-            Map<String, Object> context = new HashMap<>();
-            systemSelectorEvaluator.validate(match.getSelectExpression(), context);
-            systemSelectorEvaluator.validate(match.getMatchExpression(), context);
+            systemSelectorEvaluator.precompile(match.getSelectExpression());
+            systemSelectorEvaluator.precompile(match.getMatchExpression());
         }
     }
 
+    /**
+     * Expressions shared with the remaining selectors are kept.
+     */
+    private void invalidateSystemSelectorExpressions(SystemSelector systemSelector) {
+        Match match = getMatchByType(systemSelector).getRight();
+        if (match == null) {
+            return;
+        }
+        Set<String> inUse = systemSelectorsById.values().stream()
+                .map(s -> getMatchByType(s).getRight())
+                .filter(Objects::nonNull)
+                .flatMap(m -> Stream.of(m.getSelectExpression(), m.getMatchExpression()))
+                .filter(Objects::nonNull)
+                .collect(toSet());
+        Stream.of(match.getSelectExpression(), match.getMatchExpression())
+                .filter(expression -> expression != null && !inUse.contains(expression))
+                .forEach(systemSelectorEvaluator::invalidate);
+    }
+
     private Pair<Class<?>, Match> getMatchByType(SystemSelector systemSelector) {
         if (systemSelector.getShould() != null) {
             return Pair.of(Should.class, (Match) systemSelector.getShould().getOperator());
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.agent.service.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.titus.api.connector.cloud.Instance;
+import com.netflix.titus.api.connector.cloud.InstanceGroup;
+import com.netflix.titus.common.data.generator.DataGenerator;
+import com.netflix.titus.master.agent.service.AgentManagementConfiguration;
+import com.netflix.titus.testkit.stub.connector.cloud.InstanceGenerators;
+import com.netflix.titus.testkit.stub.connector.cloud.TestableInstanceCloudConnector;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.observers.AssertableSubscriber;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+import static com.netflix.titus.master.agent.service.cache.InstanceTestUtils.CLOUD_REQUEST_TIMEOUT_MS;
+import static com.netflix.titus.master.agent.service.cache.InstanceTestUtils.mockedAgentManagementConfiguration;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class CoalescingInstanceCloudConnectorTest {
+
+    private static final long BATCH_WINDOW_MS = 100;
+
+    private final TestScheduler testScheduler = Schedulers.test();
+
+    private final AgentManagementConfiguration configuration = mockedAgentManagementConfiguration();
+
+    private final CountingInstanceCloudConnector testConnector = new CountingInstanceCloudConnector();
+
+    private final CoalescingInstanceCloudConnector connector = new CoalescingInstanceCloudConnector(
+            testConnector, configuration, new DefaultRegistry(), testScheduler
+    );
+
+    private String id1;
+    private String id2;
+
+    @Before
+    public void setUp() {
+        when(configuration.getCloudRequestBatchWindowMs()).thenReturn(BATCH_WINDOW_MS);
+
+        DataGenerator<InstanceGroup> instanceGroupsGenerator = InstanceGenerators.instanceGroups(5);
+        instanceGroupsGenerator.apply(testConnector::addInstanceGroup, 2);
+        id1 = testConnector.takeInstanceGroup(0).getId();
+        id2 = testConnector.takeInstanceGroup(1).getId();
+        InstanceGenerators.instances(testConnector.takeInstanceGroup(0)).apply(testConnector::addInstance, 5);
+    }
+
+    @Test
+    public void testInstanceGroupRequestsAreBatched() {
+        AssertableSubscriber<List<InstanceGroup>> first = connector.getInstanceGroups(singletonList(id1)).test();
+        AssertableSubscriber<List<InstanceGroup>> second = connector.getInstanceGroups(asList(id2, "missing")).test();
+        assertThat(testConnector.instanceGroupCalls.get()).isEqualTo(0);
+
+        testScheduler.advanceTimeBy(BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+
+        assertThat(testConnector.instanceGroupCalls.get()).isEqualTo(1);
+        assertThat(testConnector.requestedInstanceGroupIds).containsExactlyInAnyOrder(id1, id2, "missing");
+        first.assertValue(singletonList(testConnector.takeInstanceGroup(0)));
+        second.assertValue(singletonList(testConnector.takeInstanceGroup(1)));
+    }
+
+    @Test
+    public void testConcurrentInstanceGroupRequestsShareCall() {
+        AssertableSubscriber<List<InstanceGroup>> first = connector.getInstanceGroups(singletonList(id1)).test();
+        AssertableSubscriber<List<InstanceGroup>> second = connector.getInstanceGroups(singletonList(id1)).test();
+
+        testScheduler.advanceTimeBy(BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+
+        assertThat(testConnector.instanceGroupCalls.get()).isEqualTo(1);
+        assertThat(testConnector.requestedInstanceGroupIds).containsExactly(id1);
+        first.assertValueCount(1);
+        second.assertValueCount(1);
+    }
+
+    @Test
+    public void testLargeBatchIsSentImmediately() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < CoalescingInstanceCloudConnector.MAX_INSTANCE_GROUP_BATCH_SIZE; i++) {
+            ids.add("instanceGroup#" + i);
+        }
+        connector.getInstanceGroups(ids).test().assertValue(Collections.emptyList());
+        assertThat(testConnector.instanceGroupCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInstanceGroupRequestErrorIsPropagated() {
+        AtomicBoolean failed = new AtomicBoolean();
+        testConnector.addInterceptor(id1, id -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new RuntimeException("Simulated connector error");
+            }
+        });
+        AssertableSubscriber<List<InstanceGroup>> subscriber = connector.getInstanceGroups(singletonList(id1)).test();
+
+        testScheduler.advanceTimeBy(BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+
+        subscriber.assertError(RuntimeException.class);
+
+        // Next request is not affected by the previous failure
+        AssertableSubscriber<List<InstanceGroup>> next = connector.getInstanceGroups(singletonList(id1)).test();
+        testScheduler.advanceTimeBy(BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        next.assertValueCount(1);
+    }
+
+    @Test
+    public void testInstanceGroupRequestTimeout() {
+        testConnector.hangInstanceGroups = true;
+        AssertableSubscriber<List<InstanceGroup>> subscriber = connector.getInstanceGroups(singletonList(id1)).test();
+
+        testScheduler.advanceTimeBy(BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        subscriber.assertNoTerminalEvent();
+
+        testScheduler.advanceTimeBy(CLOUD_REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        subscriber.assertError(TimeoutException.class);
+
+        // The timed out request is not shared with the next one
+        testConnector.hangInstanceGroups = false;
+        AssertableSubscriber<List<InstanceGroup>> next = connector.getInstanceGroups(singletonList(id1)).test();
+        testScheduler.advanceTimeBy(BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        next.assertValue(singletonList(testConnector.takeInstanceGroup(0)));
+        assertThat(testConnector.instanceGroupCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testShutdownFailsInFlightAndPendingRequests() {
+        testConnector.hangInstanceGroups = true;
+        AssertableSubscriber<List<InstanceGroup>> inFlight = connector.getInstanceGroups(singletonList(id1)).test();
+        testScheduler.advanceTimeBy(BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        AssertableSubscriber<List<InstanceGroup>> pending = connector.getInstanceGroups(singletonList(id2)).test();
+
+        connector.shutdown();
+
+        inFlight.assertError(IllegalStateException.class);
+        pending.assertError(IllegalStateException.class);
+        assertThat(testConnector.unsubscribedInstanceGroupCalls.get()).isEqualTo(1);
+
+        connector.getInstanceGroups(singletonList(id1)).test().assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void testConcurrentInstanceRequestsShareCall() {
+        testConnector.delayInstances = true;
+        AssertableSubscriber<List<Instance>> first = connector.getInstancesByInstanceGroupId(id1).test();
+        AssertableSubscriber<List<Instance>> second = connector.getInstancesByInstanceGroupId(id1).test();
+
+        testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        assertThat(testConnector.instanceCalls.get()).isEqualTo(1);
+        first.assertValue(testConnector.takeInstances(0));
+        second.assertValue(testConnector.takeInstances(0));
+
+        // Completed requests are not cached
+        connector.getInstancesByInstanceGroupId(id1).test();
+        testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertThat(testConnector.instanceCalls.get()).isEqualTo(2);
+    }
+
+    private class CountingInstanceCloudConnector extends TestableInstanceCloudConnector {
+
+        private final AtomicInteger instanceGroupCalls = new AtomicInteger();
+        private final List<String> requestedInstanceGroupIds = new ArrayList<>();
+        private final AtomicInteger unsubscribedInstanceGroupCalls = new AtomicInteger();
+        private final AtomicInteger instanceCalls = new AtomicInteger();
+        private volatile boolean delayInstances;
+        private volatile boolean hangInstanceGroups;
+
+        @Override
+        public Observable<List<InstanceGroup>> getInstanceGroups(List<String> instanceGroupIds) {
+            instanceGroupCalls.incrementAndGet();
+            requestedInstanceGroupIds.addAll(instanceGroupIds);
+            if (hangInstanceGroups) {
+                return Observable.<List<InstanceGroup>>never().doOnUnsubscribe(unsubscribedInstanceGroupCalls::incrementAndGet);
+            }
+            return super.getInstanceGroups(instanceGroupIds);
+        }
+
+        @Override
+        public Observable<List<Instance>> getInstancesByInstanceGroupId(String instanceGroupId) {
+            instanceCalls.incrementAndGet();
+            Observable<List<Instance>> result = super.getInstancesByInstanceGroupId(instanceGroupId);
+            return delayInstances ? result.delay(1, TimeUnit.MILLISECONDS, testScheduler) : result;
+        }
+    }
+}
@@ -32,6 +32,7 @@ public final class InstanceTestUtils {
     public static final long CACHE_REFRESH_INTERVAL_MS = 1_000;
     public static final long FULL_CACHE_REFRESH_INTERVAL_MS = 10_000;
     public static final long SYNCNHRONIZE_WITH_INSTANCE_CACHE_INTERVAL = 10_000;
+    public static final long CLOUD_REQUEST_TIMEOUT_MS = 60_000;
 
     public static AgentManagementConfiguration mockedAgentManagementConfiguration() {
         AgentManagementConfiguration configuration = mock(AgentManagementConfiguration.class);
@@ -39,6 +40,7 @@ public final class InstanceTestUtils {
         when(configuration.getFullCacheRefreshIntervalMs()).thenReturn(FULL_CACHE_REFRESH_INTERVAL_MS);
         when(configuration.getSynchronizeWithInstanceCacheIntervalMs()).thenReturn(SYNCNHRONIZE_WITH_INSTANCE_CACHE_INTERVAL);
         when(configuration.getAgentInstanceGroupPattern()).thenReturn(".*");
+        when(configuration.getCloudRequestTimeoutMs()).thenReturn(CLOUD_REQUEST_TIMEOUT_MS);
         return configuration;
     }
 
@@ -17,6 +17,7 @@
 package com.netflix.titus.master.appscale.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,6 +30,7 @@ import java.util.stream.Collectors;
 import com.netflix.spectator.api.DefaultRegistry;
 import com.netflix.titus.api.appscale.model.AutoScalableTarget;
 import com.netflix.titus.api.appscale.model.AutoScalingPolicy;
+import com.netflix.titus.api.appscale.model.PolicyStatus;
 import com.netflix.titus.api.appscale.model.PolicyType;
 import com.netflix.titus.api.appscale.service.AutoScalePolicyException;
 import com.netflix.titus.api.jobmanager.model.job.Capacity;
@@ -56,7 +58,11 @@ import rx.schedulers.Schedulers;
 
 import static com.jayway.awaitility.Awaitility.await;
 import static java.util.Arrays.asList;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -139,6 +145,22 @@ public class DefaultAppScaleManagerTest {
         }
     }
 
+    @Test
+    public void checkV3LiveStreamIgnoresJobsWithoutPolicies() {
+        String jobId = UUID.randomUUID().toString();
+        DefaultAppScaleManager appScaleManager = new DefaultAppScaleManager(new InMemoryPolicyStore(),
+                new AutoScalingPolicyTests.MockAlarmClient(),
+                new AutoScalingPolicyTests.MockAppAutoScalingClient(),
+                mockV3OperationsForJobs(Collections.singletonList(jobId)),
+                new DefaultRegistry(),
+                AutoScalingPolicyTests.mockAppScaleManagerConfiguration(),
+                Schedulers.immediate(),
+                mock(TitusRuntime.class));
+
+        List<String> targetsUpdated = appScaleManager.v3LiveStreamTargetUpdates().toList().toBlocking().single();
+        Assertions.assertThat(targetsUpdated).isEmpty();
+    }
+
     @Test
     public void checkV3LiveStreamTargetUpdates() throws Exception {
         String jobIdOne = UUID.randomUUID().toString();
@@ -186,6 +208,62 @@ public class DefaultAppScaleManagerTest {
         Assertions.assertThat(appScalingClient.getJobScalingPolicyConstraintsForJob(jobIdTwo).getMaxCapacity()).isEqualTo(15);
     }
 
+    @Test
+    public void checkV3LiveStreamTreatsResyncEventsAsChange() throws Exception {
+        String jobIdOne = UUID.randomUUID().toString();
+        String jobIdTwo = UUID.randomUUID().toString();
+
+        InMemoryPolicyStore policyStore = new InMemoryPolicyStore();
+        V3JobOperations v3JobOperations = mockV3Operations(jobIdOne, jobIdTwo);
+        Job jobTwo = v3JobOperations.getJob(jobIdTwo).get();
+        JobManagerEvent<?> resyncEvent = JobUpdateEvent.jobChange(jobTwo, jobTwo, callMetadata);
+        when(v3JobOperations.observeJobs()).thenAnswer(invocation -> Observable.just(resyncEvent));
+
+        AppScaleClientWithScalingPolicyConstraints appScalingClient = new AppScaleClientWithScalingPolicyConstraints();
+        DefaultAppScaleManager appScaleManager = new DefaultAppScaleManager(policyStore,
+                new AutoScalingPolicyTests.MockAlarmClient(),
+                appScalingClient,
+                v3JobOperations,
+                new DefaultRegistry(),
+                AutoScalingPolicyTests.mockAppScaleManagerConfiguration(),
+                Schedulers.immediate(),
+                mock(TitusRuntime.class));
+        submitTwoJobs(appScaleManager, jobIdOne, jobIdTwo, policyStore);
+
+        List<String> targetsUpdated = appScaleManager.v3LiveStreamTargetUpdates().toList().toBlocking().single();
+        Assertions.assertThat(targetsUpdated).containsExactly(jobIdTwo);
+    }
+
+    @Test
+    public void checkV3LiveStreamIgnoresJobsWithDeletedPolicies() throws Exception {
+        String jobIdOne = UUID.randomUUID().toString();
+        String jobIdTwo = UUID.randomUUID().toString();
+
+        InMemoryPolicyStore policyStore = spy(new InMemoryPolicyStore());
+        DefaultAppScaleManager appScaleManager = new DefaultAppScaleManager(policyStore,
+                new AutoScalingPolicyTests.MockAlarmClient(),
+                new AutoScalingPolicyTests.MockAppAutoScalingClient(),
+                mockV3Operations(jobIdOne, jobIdTwo),
+                new DefaultRegistry(),
+                AutoScalingPolicyTests.mockAppScaleManagerConfiguration(),
+                Schedulers.immediate(),
+                mock(TitusRuntime.class));
+
+        String policyRefIdTwo = appScaleManager.createAutoScalingPolicy(AutoScalingPolicyTests.buildStepScalingPolicy(jobIdTwo)).toBlocking().single();
+        AutoScalingPolicyTests.waitForCondition(() ->
+                policyStore.retrievePolicyForRefId(policyRefIdTwo).toBlocking().first().getStatus() == PolicyStatus.Applied
+        );
+        appScaleManager.removeAutoScalingPolicy(policyRefIdTwo).await();
+        AutoScalingPolicyTests.waitForCondition(() ->
+                policyStore.retrievePolicyForRefId(policyRefIdTwo).toBlocking().first().getStatus() == PolicyStatus.Deleted
+        );
+        clearInvocations(policyStore);
+
+        List<String> targetsUpdated = appScaleManager.v3LiveStreamTargetUpdates().toList().toBlocking().single();
+        Assertions.assertThat(targetsUpdated).isEmpty();
+        verify(policyStore, never()).retrievePoliciesForJob(jobIdTwo);
+    }
+
     @Test
     public void checkASGNameBuildingV3() {
 
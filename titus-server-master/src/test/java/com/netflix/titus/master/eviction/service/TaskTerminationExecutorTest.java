@@ -16,8 +16,12 @@
 
 package com.netflix.titus.master.eviction.service;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import com.netflix.titus.api.eviction.model.EvictionQuota;
 import com.netflix.titus.api.eviction.model.event.EvictionEvent;
@@ -28,6 +32,7 @@ import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.api.jobmanager.service.V3JobOperations;
 import com.netflix.titus.api.model.reference.Reference;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.runtime.TitusRuntimes;
@@ -40,11 +45,14 @@ import com.netflix.titus.testkit.rx.TitusRxSubscriber;
 import org.junit.Test;
 import org.mockito.Mockito;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import static com.netflix.titus.testkit.model.job.JobDescriptorGenerator.oneTaskBatchJobDescriptor;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -53,6 +61,8 @@ public class TaskTerminationExecutorTest {
 
     private static final String EVICTION_REASON = "Test eviction";
 
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
     private final TitusRuntime titusRuntime = TitusRuntimes.test();
 
     private final JobComponentStub jobComponentStub = new JobComponentStub(titusRuntime);
@@ -121,6 +131,115 @@ public class TaskTerminationExecutorTest {
 
     }
 
+    @Test
+    public void testTerminateTasksWithEnoughQuota() {
+        Pair<Job, List<Task>> jobAndTasks = createAndStartJobWithTasks(2);
+        Job<?> job = jobAndTasks.getLeft();
+        List<Task> tasks = jobAndTasks.getRight();
+
+        when(quotasManager.tryConsumeQuota(job, tasks)).thenReturn(ConsumptionResult.approved());
+
+        StepVerifier.withVirtualTime(
+                () -> newTerminationExecutor().terminateTasks(Arrays.asList(tasks.get(0).getId(), tasks.get(1).getId()), EVICTION_REASON, "callerContext")
+        ).verifyComplete();
+
+        expectTaskTerminationEvent(tasks.get(0), true);
+        expectTaskTerminationEvent(tasks.get(1), true);
+        verify(quotasManager, times(1)).tryConsumeQuota(job, tasks);
+    }
+
+    @Test
+    public void testTerminateTasksWithNotEnoughQuota() {
+        Pair<Job, List<Task>> jobAndTasks = createAndStartJobWithTasks(2);
+        Job<?> job = jobAndTasks.getLeft();
+        List<Task> tasks = jobAndTasks.getRight();
+
+        when(quotasManager.tryConsumeQuota(job, tasks)).thenReturn(ConsumptionResult.rejected("no quota"));
+
+        StepVerifier
+                .withVirtualTime(() -> newTerminationExecutor().terminateTasks(Arrays.asList(tasks.get(0).getId(), tasks.get(1).getId()), EVICTION_REASON, "callerContext"))
+                .consumeErrorWith(e -> expectEvictionError(e, ErrorCode.NoQuota))
+                .verify();
+
+        expectTaskTerminationEvent(tasks.get(0), false);
+        expectTaskTerminationEvent(tasks.get(1), false);
+        assertThat(jobComponentStub.getJobOperations().getTasks(job.getId())).allMatch(task -> task.getStatus().getState() == TaskState.Started);
+    }
+
+    @Test
+    public void testTerminationsAboveJobQueueLimitAreRejected() {
+        Pair<Job, List<Task>> jobAndTasks = createAndStartJobWithTasks(TaskTerminationExecutor.MAX_JOB_QUEUE_SIZE + 1);
+        List<Task> tasks = jobAndTasks.getRight();
+        Task otherJobTask = createAndStartJobWithTasks(1).getRight().get(0);
+
+        when(quotasManager.tryConsumeQuota(any(), any(Task.class))).thenReturn(ConsumptionResult.approved());
+        TaskTerminationExecutor executor = newTerminationExecutor(newJobOperations(taskId -> Mono.never()));
+
+        tasks.subList(0, TaskTerminationExecutor.MAX_JOB_QUEUE_SIZE).forEach(task ->
+                executor.terminateTask(task.getId(), EVICTION_REASON, "callerContext").subscribe()
+        );
+
+        StepVerifier.create(executor.terminateTask(tasks.get(TaskTerminationExecutor.MAX_JOB_QUEUE_SIZE).getId(), EVICTION_REASON, "callerContext"))
+                .consumeErrorWith(e -> {
+                    assertThat(e).isInstanceOf(IllegalStateException.class);
+                    assertThat(e.getMessage()).contains(jobAndTasks.getLeft().getId());
+                })
+                .verify(TIMEOUT);
+
+        // Other jobs are not affected by the full queue of the first one.
+        StepVerifier.create(executor.terminateTask(otherJobTask.getId(), EVICTION_REASON, "callerContext").timeout(Duration.ofMillis(100)))
+                .expectError(TimeoutException.class)
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    public void testJobQueueLimitShrinksWithNumberOfPendingJobs() {
+        assertThat(TaskTerminationExecutor.getJobQueueLimit(1)).isEqualTo(TaskTerminationExecutor.MAX_JOB_QUEUE_SIZE);
+        assertThat(TaskTerminationExecutor.getJobQueueLimit(20)).isEqualTo(TaskTerminationExecutor.MAX_QUEUE_SIZE / 20);
+        assertThat(TaskTerminationExecutor.getJobQueueLimit(1_000)).isEqualTo(TaskTerminationExecutor.MIN_JOB_QUEUE_SIZE);
+    }
+
+    @Test
+    public void testTerminationsOfDifferentJobsRunInParallel() {
+        Task blockedTask = createAndStartJobWithTasks(1).getRight().get(0);
+        Task otherJobTask = createAndStartJobWithTasks(1).getRight().get(0);
+
+        when(quotasManager.tryConsumeQuota(any(), any(Task.class))).thenReturn(ConsumptionResult.approved());
+        TaskTerminationExecutor executor = newTerminationExecutor(newJobOperations(
+                taskId -> taskId.equals(blockedTask.getId()) ? Mono.never() : Mono.empty()
+        ));
+
+        executor.terminateTask(blockedTask.getId(), EVICTION_REASON, "callerContext").subscribe();
+
+        StepVerifier.create(executor.terminateTask(otherJobTask.getId(), EVICTION_REASON, "callerContext"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void testPendingTerminationsFailOnShutdown() {
+        List<Task> tasks = createAndStartJobWithTasks(2).getRight();
+
+        when(quotasManager.tryConsumeQuota(any(), any(Task.class))).thenReturn(ConsumptionResult.approved());
+        TaskTerminationExecutor executor = newTerminationExecutor(newJobOperations(taskId -> Mono.never()));
+
+        Mono<Void> running = executor.terminateTask(tasks.get(0).getId(), EVICTION_REASON, "callerContext").cache();
+        Mono<Void> queued = executor.terminateTask(tasks.get(1).getId(), EVICTION_REASON, "callerContext").cache();
+        running.subscribe(next -> {
+        }, e -> {
+        });
+        queued.subscribe(next -> {
+        }, e -> {
+        });
+
+        executor.shutdown();
+
+        StepVerifier.create(running).expectError(IllegalStateException.class).verify(TIMEOUT);
+        StepVerifier.create(queued).expectError(IllegalStateException.class).verify(TIMEOUT);
+        StepVerifier.create(executor.terminateTask(tasks.get(0).getId(), EVICTION_REASON, "callerContext"))
+                .expectError(IllegalStateException.class)
+                .verify(TIMEOUT);
+    }
+
     private Flux<Optional<Throwable>> terminate(TaskTerminationExecutor executor, Task task) {
         return executor.terminateTask(task.getId(), EVICTION_REASON, "callerContext")
                 .materialize()
@@ -129,8 +248,12 @@ public class TaskTerminationExecutorTest {
     }
 
     private TaskTerminationExecutor newTerminationExecutor() {
+        return newTerminationExecutor(jobComponentStub.getJobOperations());
+    }
+
+    private TaskTerminationExecutor newTerminationExecutor(V3JobOperations jobOperations) {
         TaskTerminationExecutor executor = new TaskTerminationExecutor(
-                jobComponentStub.getJobOperations(),
+                jobOperations,
                 quotasManager,
                 titusRuntime,
                 Schedulers.parallel()
@@ -139,6 +262,16 @@ public class TaskTerminationExecutorTest {
         return executor;
     }
 
+    /**
+     * Job operations backed by the job component stub, with the kill result provided by the given function.
+     */
+    private V3JobOperations newJobOperations(Function<String, Mono<Void>> killResult) {
+        V3JobOperations jobOperations = Mockito.mock(V3JobOperations.class);
+        when(jobOperations.findTaskById(any())).thenAnswer(invocation -> jobComponentStub.getJobOperations().findTaskById(invocation.getArgument(0)));
+        when(jobOperations.killTask(any(), anyBoolean(), anyBoolean(), any(), any())).thenAnswer(invocation -> killResult.apply(invocation.getArgument(0)));
+        return jobOperations;
+    }
+
     private Pair<Job, List<Task>> createAndStartJobWithTasks(int taskCount) {
         Job job = jobComponentStub.createJob(JobGenerator.batchJobs(oneTaskBatchJobDescriptor().but(JobFunctions.ofBatchSize(taskCount))).getValue());
         List<Task> tasks = jobComponentStub.createDesiredTasks(job);
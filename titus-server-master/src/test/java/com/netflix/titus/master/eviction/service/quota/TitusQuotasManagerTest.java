@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.eviction.service.quota;
+
+import java.time.DayOfWeek;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.jayway.awaitility.Awaitility;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.api.model.reference.Reference;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.time.Clocks;
+import com.netflix.titus.common.util.time.TestClock;
+import com.netflix.titus.master.eviction.service.quota.job.SelfJobDisruptionBudgetResolver;
+import com.netflix.titus.master.eviction.service.quota.system.SystemQuotaController;
+import com.netflix.titus.testkit.model.job.JobComponentStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.netflix.titus.testkit.model.eviction.DisruptionBudgetGenerator.budget;
+import static com.netflix.titus.testkit.model.eviction.DisruptionBudgetGenerator.newBatchJob;
+import static com.netflix.titus.testkit.model.eviction.DisruptionBudgetGenerator.perTaskRelocationLimitPolicy;
+import static com.netflix.titus.testkit.model.eviction.DisruptionBudgetGenerator.ratePerInterval;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TitusQuotasManagerTest {
+
+    private static final int JOB_RATE = 3;
+
+    private final TestClock clock = Clocks.testWorldClock("PST").jumpForwardTo(DayOfWeek.MONDAY).resetTime(9, 0, 0);
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.test(clock);
+
+    private final JobComponentStub jobComponentStub = new JobComponentStub(titusRuntime);
+
+    private final SystemQuotaController systemQuotaController = mock(SystemQuotaController.class);
+
+    private final TitusQuotasManager quotasManager = new TitusQuotasManager(
+            jobComponentStub.getJobOperations(),
+            SelfJobDisruptionBudgetResolver.getInstance(),
+            jobComponentStub.getContainerHealthService(),
+            systemQuotaController,
+            titusRuntime
+    );
+
+    private Job<?> job;
+    private List<Task> tasks;
+
+    @Before
+    public void setUp() {
+        when(systemQuotaController.consume(any())).thenReturn(ConsumptionResult.approved());
+
+        job = newBatchJob(10, budget(perTaskRelocationLimitPolicy(3), ratePerInterval(60_000, JOB_RATE), Collections.emptyList()));
+        jobComponentStub.createJob(job);
+        jobComponentStub.createDesiredTasks(job).forEach(task -> jobComponentStub.moveTaskToState(task, TaskState.Started));
+        tasks = jobComponentStub.getJobOperations().getTasks(job.getId());
+
+        quotasManager.enterActiveMode();
+        Awaitility.await().timeout(5, TimeUnit.SECONDS).until(() -> quotasManager.findEvictionQuota(Reference.job(job.getId())).isPresent());
+        assertThat(getJobQuota()).isEqualTo(JOB_RATE);
+    }
+
+    @After
+    public void tearDown() {
+        quotasManager.shutdown();
+    }
+
+    @Test
+    public void testMultiTaskConsumption() {
+        assertThat(quotasManager.tryConsumeQuota(job, tasks.subList(0, 2)).isApproved()).isTrue();
+        assertThat(getJobQuota()).isEqualTo(JOB_RATE - 2);
+    }
+
+    @Test
+    public void testMultiTaskConsumptionRejectedByJobQuotaGivesBackAllQuota() {
+        ConsumptionResult result = quotasManager.tryConsumeQuota(job, tasks.subList(0, JOB_RATE + 1));
+
+        assertThat(result.isApproved()).isFalse();
+        assertThat(getJobQuota()).isEqualTo(JOB_RATE);
+        for (Task task : tasks.subList(0, JOB_RATE + 1)) {
+            verify(systemQuotaController).giveBackConsumedQuota(task.getId());
+        }
+    }
+
+    @Test
+    public void testMultiTaskConsumptionRejectedBySystemQuotaGivesBackAllQuota() {
+        Task rejectedTask = tasks.get(1);
+        when(systemQuotaController.consume(rejectedTask.getId())).thenReturn(ConsumptionResult.rejected("no system quota"));
+
+        ConsumptionResult result = quotasManager.tryConsumeQuota(job, tasks.subList(0, 2));
+
+        assertThat(result.isApproved()).isFalse();
+        assertThat(result.getRejectionReason()).hasValueSatisfying(reason -> assertThat(reason).contains("no system quota"));
+        assertThat(getJobQuota()).isEqualTo(JOB_RATE);
+        verify(systemQuotaController).giveBackConsumedQuota(tasks.get(0).getId());
+        verify(systemQuotaController, never()).giveBackConsumedQuota(rejectedTask.getId());
+    }
+
+    private long getJobQuota() {
+        return quotasManager.findEvictionQuota(Reference.job(job.getId())).get().getQuota();
+    }
+}
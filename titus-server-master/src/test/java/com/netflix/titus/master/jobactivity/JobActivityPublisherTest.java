@@ -64,6 +64,7 @@ public class JobActivityPublisherTest {
     @Before
     public void setUp() {
         when(configuration.getJobActivityPublisherMaxStreamSize()).thenReturn(5000);
+        when(configuration.getJobActivityPublisherMaxConcurrentPublishes()).thenReturn(100);
 
         publisherStore = new InMemoryJobActivityPublisherStore();
         jobUpdateEvents = createJobUpdateEvents(numBatchJobs);
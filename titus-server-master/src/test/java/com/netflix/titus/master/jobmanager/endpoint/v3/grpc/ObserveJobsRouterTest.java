@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.jobmanager.endpoint.v3.grpc;
+
+import java.util.Collections;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.jobmanager.service.V3JobOperations;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.grpc.protogen.JobChangeNotification;
+import com.netflix.titus.grpc.protogen.TaskStatus;
+import com.netflix.titus.master.jobmanager.service.JobManagerConfiguration;
+import com.netflix.titus.runtime.endpoint.JobQueryCriteria;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3JobQueryCriteriaEvaluator;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3TaskQueryCriteriaEvaluator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.observers.AssertableSubscriber;
+import rx.subjects.PublishSubject;
+
+import static com.netflix.titus.api.jobmanager.service.JobManagerConstants.UNDEFINED_CALL_METADATA;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ObserveJobsRouterTest {
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.internal();
+
+    private final V3JobOperations jobOperations = mock(V3JobOperations.class);
+
+    private final JobManagerConfiguration configuration = mock(JobManagerConfiguration.class);
+
+    private final PublishSubject<JobManagerEvent<?>> eventSubject = PublishSubject.create();
+
+    private ObserveJobsRouter router;
+
+    @Before
+    public void setUp() {
+        when(jobOperations.observeJobs()).thenReturn(eventSubject);
+        router = new ObserveJobsRouter(jobOperations, EmptyLogStorageInfo.empty(), configuration, titusRuntime);
+    }
+
+    @Test
+    public void testEventsAreRoutedByApplicationName() {
+        AssertableSubscriber<JobChangeNotification> appA = observe(newCriteria().withAppName("appA").build()).test();
+        AssertableSubscriber<JobChangeNotification> appB = observe(newCriteria().withAppName("appB").build()).test();
+        AssertableSubscriber<JobChangeNotification> all = observe(newCriteria().build()).test();
+
+        Job<BatchJobExt> job = newJob("appA");
+        eventSubject.onNext(JobUpdateEvent.newJob(job, UNDEFINED_CALL_METADATA));
+
+        appA.assertValueCount(1);
+        assertThat(appA.getOnNextEvents().get(0).getJobUpdate().getJob().getId()).isEqualTo(job.getId());
+        appB.assertNoValues();
+        all.assertValueCount(1);
+    }
+
+    @Test
+    public void testEventsAreRoutedByJobId() {
+        Job<BatchJobExt> job = newJob("appA");
+        Job<BatchJobExt> otherJob = newJob("appA");
+        AssertableSubscriber<JobChangeNotification> subscriber = observe(
+                newCriteria().withJobIds(Collections.singleton(job.getId())).build()
+        ).test();
+
+        Task task = JobGenerator.batchTasks(job).getValue();
+        eventSubject.onNext(JobUpdateEvent.newJob(otherJob, UNDEFINED_CALL_METADATA));
+        eventSubject.onNext(JobUpdateEvent.newJob(job, UNDEFINED_CALL_METADATA));
+        eventSubject.onNext(TaskUpdateEvent.newTask(job, task, UNDEFINED_CALL_METADATA));
+
+        subscriber.assertValueCount(2);
+        assertThat(subscriber.getOnNextEvents().get(0).getJobUpdate().getJob().getId()).isEqualTo(job.getId());
+        assertThat(subscriber.getOnNextEvents().get(1).getTaskUpdate().getTask().getId()).isEqualTo(task.getId());
+    }
+
+    @Test
+    public void testSecondaryCriteriaAreEvaluated() {
+        AssertableSubscriber<JobChangeNotification> subscriber = observe(
+                newCriteria().withAppName("appA").withCapacityGroup("otherGroup").build()
+        ).test();
+
+        eventSubject.onNext(JobUpdateEvent.newJob(newJob("appA"), UNDEFINED_CALL_METADATA));
+
+        subscriber.assertNoValues();
+    }
+
+    @Test
+    public void testEventStreamIsSharedAndReleased() {
+        AssertableSubscriber<JobChangeNotification> first = observe(newCriteria().build()).test();
+        AssertableSubscriber<JobChangeNotification> second = observe(newCriteria().build()).test();
+        assertThat(router.getSubscriberCount()).isEqualTo(2);
+        assertThat(eventSubject.hasObservers()).isTrue();
+
+        first.unsubscribe();
+        assertThat(router.getSubscriberCount()).isEqualTo(1);
+        assertThat(eventSubject.hasObservers()).isTrue();
+
+        second.unsubscribe();
+        assertThat(router.getSubscriberCount()).isEqualTo(0);
+        assertThat(eventSubject.hasObservers()).isFalse();
+    }
+
+    @Test
+    public void testEventStreamErrorIsPropagatedToAllSubscribers() {
+        AssertableSubscriber<JobChangeNotification> first = observe(newCriteria().withAppName("appA").build()).test();
+        AssertableSubscriber<JobChangeNotification> second = observe(newCriteria().build()).test();
+
+        eventSubject.onError(new RuntimeException("simulated error"));
+
+        first.assertError(RuntimeException.class);
+        second.assertError(RuntimeException.class);
+        assertThat(router.getSubscriberCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSlowSubscriberUpdatesAreConflated() {
+        when(configuration.isObserveJobsConflationEnabled()).thenReturn(true);
+        AssertableSubscriber<JobChangeNotification> subscriber = observe(newCriteria().build()).test(0);
+
+        Job<BatchJobExt> job = newJob("appA");
+        Job<BatchJobExt> otherJob = newJob("appA");
+        eventSubject.onNext(JobUpdateEvent.newJob(job, UNDEFINED_CALL_METADATA));
+        eventSubject.onNext(JobUpdateEvent.newJob(otherJob, UNDEFINED_CALL_METADATA));
+        eventSubject.onNext(JobUpdateEvent.jobChange(job, job, UNDEFINED_CALL_METADATA));
+
+        subscriber.requestMore(10);
+        subscriber.assertValueCount(2);
+        assertThat(subscriber.getOnNextEvents().get(0).getJobUpdate().getJob().getId()).isEqualTo(job.getId());
+        assertThat(subscriber.getOnNextEvents().get(1).getJobUpdate().getJob().getId()).isEqualTo(otherJob.getId());
+    }
+
+    @Test
+    public void testTaskCriteriaAreNotRoutable() {
+        assertThat(ObserveJobsRouter.isRoutable(newCriteria().withAppName("appA").build())).isTrue();
+        assertThat(ObserveJobsRouter.isRoutable(newCriteria().withTaskIds(Collections.singleton("taskId")).build())).isFalse();
+        assertThat(ObserveJobsRouter.isRoutable(newCriteria().withTaskStates(Collections.singleton(TaskStatus.TaskState.Started)).build())).isFalse();
+        assertThat(ObserveJobsRouter.isRoutable(newCriteria().withNeedsMigration(true).build())).isFalse();
+    }
+
+    private Observable<JobChangeNotification> observe(JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> criteria) {
+        return router.observeJobs(
+                criteria,
+                new V3JobQueryCriteriaEvaluator(criteria, titusRuntime),
+                new V3TaskQueryCriteriaEvaluator(criteria, titusRuntime)
+        );
+    }
+
+    private JobQueryCriteria.Builder<TaskStatus.TaskState, JobDescriptor.JobSpecCase> newCriteria() {
+        return JobQueryCriteria.newBuilder();
+    }
+
+    private Job<BatchJobExt> newJob(String applicationName) {
+        Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+        return job.toBuilder()
+                .withJobDescriptor(job.getJobDescriptor().toBuilder().withApplicationName(applicationName).build())
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.jobmanager.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.api.jobmanager.TaskAttributes;
+import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobState;
+import com.netflix.titus.api.jobmanager.model.job.JobStatus;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.api.jobmanager.model.job.TaskStatus;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.common.util.histogram.Histogram;
+import com.netflix.titus.common.util.histogram.HistogramDescriptor;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JobAndTaskMetricsIndexTest {
+
+    private static final HistogramDescriptor HISTOGRAM_DESCRIPTOR = HistogramDescriptor.histogramOf(
+            TimeUnit.MINUTES.toMillis(1),
+            TimeUnit.HOURS.toMillis(1)
+    );
+
+    private static final String DEFAULT_CAPACITY_GROUP = "DEFAULT";
+
+    private final JobAndTaskMetricsIndex index = new JobAndTaskMetricsIndex();
+
+    @Test
+    public void testJobAndTaskCounters() {
+        Job<BatchJobExt> job = newJob("cg1");
+        index.updateJob(job);
+        assertThat(index.getJobCounters()[JobAndTaskMetricsIndex.JOB_BATCH_FENZO]).isEqualTo(1);
+
+        List<BatchJobTask> tasks = JobGenerator.batchTasks(job).getValues(2);
+        index.updateTask(job, tasks.get(0));
+        index.updateTask(job, ownedByKubeScheduler(tasks.get(1)));
+
+        assertThat(index.getJobCounters()[JobAndTaskMetricsIndex.JOB_BATCH_FENZO]).isEqualTo(0);
+        assertThat(index.getJobCounters()[JobAndTaskMetricsIndex.JOB_BATCH_KUBE_SCHEDULER]).isEqualTo(1);
+        assertThat(index.getTaskCounters()[JobAndTaskMetricsIndex.TASK_FENZO]).isEqualTo(1);
+        assertThat(index.getTaskCounters()[JobAndTaskMetricsIndex.TASK_KUBE_SCHEDULER_NO_POD]).isEqualTo(1);
+
+        // Finishing the Kube scheduler owned task moves the job back to the Fenzo category.
+        index.updateTask(job, withState(ownedByKubeScheduler(tasks.get(1)), TaskState.Finished, System.currentTimeMillis()));
+        assertThat(index.getJobCounters()[JobAndTaskMetricsIndex.JOB_BATCH_FENZO]).isEqualTo(1);
+        assertThat(index.getJobCounters()[JobAndTaskMetricsIndex.JOB_BATCH_KUBE_SCHEDULER]).isEqualTo(0);
+        assertThat(index.getTaskCounters()[JobAndTaskMetricsIndex.TASK_KUBE_SCHEDULER_NO_POD]).isEqualTo(0);
+
+        // Finishing the job removes its remaining tasks.
+        index.updateJob(job.toBuilder().withStatus(JobStatus.newBuilder().withState(JobState.Finished).build()).build());
+        assertThat(index.getJobCounters()).containsOnly(0L);
+        assertThat(index.getTaskCounters()).containsOnly(0L);
+    }
+
+    @Test
+    public void testLivenessHistograms() {
+        long now = System.currentTimeMillis();
+        Job<BatchJobExt> knownJob = newJob("cg1");
+        Job<BatchJobExt> unknownJob = newJob("unknownCapacityGroup");
+
+        List<BatchJobTask> knownJobTasks = JobGenerator.batchTasks(knownJob).getValues(2);
+        BatchJobTask recentTask = withState(knownJobTasks.get(0), TaskState.Started, now);
+        BatchJobTask oldTask = withState(knownJobTasks.get(1), TaskState.Started, now - TimeUnit.MINUTES.toMillis(10));
+        BatchJobTask unknownGroupTask = withState(JobGenerator.batchTasks(unknownJob).getValue(), TaskState.Launched, now);
+
+        index.load(() -> Collections.singletonList(Pair.of(knownJob, Collections.<Task>singletonList(recentTask))));
+        index.updateTask(knownJob, oldTask);
+        index.updateTask(unknownJob, unknownGroupTask);
+
+        Map<String, Map<String, Histogram.Builder>> histograms = index.buildLivenessHistograms(
+                Collections.singleton("cg1"), DEFAULT_CAPACITY_GROUP, HISTOGRAM_DESCRIPTOR, now
+        );
+
+        assertThat(histograms.get("cg1").get(TaskState.Started.name()).build().getCounters()).containsExactly(1L, 1L, 0L);
+        assertThat(histograms.get(DEFAULT_CAPACITY_GROUP).get(TaskState.Launched.name()).build().getCounters()).containsExactly(1L, 0L, 0L);
+
+        // Moving a task to a new state removes it from the previous state histogram.
+        index.updateTask(knownJob, withState(oldTask, TaskState.KillInitiated, now));
+        histograms = index.buildLivenessHistograms(Collections.singleton("cg1"), DEFAULT_CAPACITY_GROUP, HISTOGRAM_DESCRIPTOR, now);
+        assertThat(histograms.get("cg1").get(TaskState.Started.name()).build().getCounters()).containsExactly(1L, 0L, 0L);
+        assertThat(histograms.get("cg1").get(TaskState.KillInitiated.name()).build().getCounters()).containsExactly(1L, 0L, 0L);
+    }
+
+    private Job<BatchJobExt> newJob(String capacityGroup) {
+        return JobGenerator.batchJobs(
+                JobDescriptorGenerator.oneTaskBatchJobDescriptor().but(jd -> jd.toBuilder().withCapacityGroup(capacityGroup).build())
+        ).getValue();
+    }
+
+    private BatchJobTask ownedByKubeScheduler(BatchJobTask task) {
+        return task.toBuilder().addToTaskContext(TaskAttributes.TASK_ATTRIBUTES_OWNED_BY_KUBE_SCHEDULER, "true").build();
+    }
+
+    private BatchJobTask withState(BatchJobTask task, TaskState state, long timestamp) {
+        return task.toBuilder().withStatus(TaskStatus.newBuilder().withState(state).withTimestamp(timestamp).build()).build();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.jobmanager.service.common;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.api.jobmanager.model.job.TaskStatus;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.common.framework.reconciler.ChangeAction;
+import com.netflix.titus.common.framework.reconciler.EntityHolder;
+import com.netflix.titus.common.framework.reconciler.ReconciliationEngine;
+import com.netflix.titus.common.framework.reconciler.ReconciliationEngine.DifferenceResolver;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.time.TestClock;
+import com.netflix.titus.master.jobmanager.service.JobManagerConfiguration;
+import com.netflix.titus.master.jobmanager.service.common.action.TaskRetryers;
+import com.netflix.titus.master.jobmanager.service.event.JobManagerReconcilerEvent;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DirtyTrackingDifferenceResolverTest {
+
+    private static final long IDLE_REEVALUATION_INTERVAL_MS = 30_000;
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.test();
+    private final TestClock clock = (TestClock) titusRuntime.getClock();
+
+    private final JobManagerConfiguration configuration = mock(JobManagerConfiguration.class);
+
+    @SuppressWarnings("unchecked")
+    private final DifferenceResolver<JobManagerReconcilerEvent> delegate = mock(DifferenceResolver.class);
+
+    @SuppressWarnings("unchecked")
+    private final ReconciliationEngine<JobManagerReconcilerEvent> engine = mock(ReconciliationEngine.class);
+
+    private final Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+
+    private DirtyTrackingDifferenceResolver resolver;
+
+    @Before
+    public void setUp() {
+        when(configuration.isReconcilerDirtyTrackingEnabled()).thenReturn(true);
+        when(configuration.getReconcilerIdleJobReevaluationIntervalMs()).thenReturn(IDLE_REEVALUATION_INTERVAL_MS);
+        when(delegate.apply(any())).thenReturn(Collections.emptyList());
+
+        resolver = new DirtyTrackingDifferenceResolver(delegate, configuration, titusRuntime);
+    }
+
+    @Test
+    public void testUnchangedEngineIsNotEvaluatedUntilIdleIntervalPasses() {
+        EntityHolder model = EntityHolder.newRoot(job.getId(), job);
+        setModels(model, model, model);
+
+        resolver.apply(engine);
+        resolver.apply(engine);
+        verify(delegate, times(1)).apply(engine);
+
+        clock.advanceTime(IDLE_REEVALUATION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        resolver.apply(engine);
+        verify(delegate, times(2)).apply(engine);
+    }
+
+    @Test
+    public void testModelChangeTriggersEvaluation() {
+        EntityHolder model = EntityHolder.newRoot(job.getId(), job);
+        setModels(model, model, model);
+        resolver.apply(engine);
+
+        EntityHolder changedModel = model.addTag("someTag", "someValue");
+        setModels(model, changedModel, model);
+        resolver.apply(engine);
+
+        verify(delegate, times(2)).apply(engine);
+    }
+
+    @Test
+    public void testEngineWithActionsIsAlwaysEvaluated() {
+        EntityHolder model = EntityHolder.newRoot(job.getId(), job);
+        setModels(model, model, model);
+        when(delegate.apply(any())).thenReturn(Collections.singletonList(mock(ChangeAction.class)));
+
+        resolver.apply(engine);
+        resolver.apply(engine);
+
+        verify(delegate, times(2)).apply(engine);
+    }
+
+    @Test
+    public void testTaskRetryDelayTriggersEvaluation() {
+        BatchJobTask task = JobGenerator.batchTasks(job).getValue().toBuilder()
+                .withStatus(TaskStatus.newBuilder().withState(TaskState.Finished).withTimestamp(clock.wallTime()).build())
+                .build();
+        EntityHolder taskHolder = EntityHolder.newRoot(task.getId(), task).addTag(TaskRetryers.ATTR_TASK_RETRY_DELAY_MS, 1_000L);
+        EntityHolder model = EntityHolder.newRoot(job.getId(), job).addChild(taskHolder);
+        setModels(model, model, model);
+
+        resolver.apply(engine);
+        clock.advanceTime(500, TimeUnit.MILLISECONDS);
+        resolver.apply(engine);
+        verify(delegate, times(1)).apply(engine);
+
+        clock.advanceTime(500, TimeUnit.MILLISECONDS);
+        resolver.apply(engine);
+        verify(delegate, times(2)).apply(engine);
+    }
+
+    @Test
+    public void testBatchRuntimeLimitTriggersEvaluation() {
+        long runtimeLimitMs = job.getJobDescriptor().getExtensions().getRuntimeLimitMs();
+        BatchJobTask task = JobGenerator.batchTasks(job).getValue().toBuilder()
+                .withStatus(TaskStatus.newBuilder().withState(TaskState.Started).withTimestamp(clock.wallTime() - runtimeLimitMs + 1_000).build())
+                .build();
+        EntityHolder model = EntityHolder.newRoot(job.getId(), job).addChild(EntityHolder.newRoot(task.getId(), task));
+        setModels(model, model, model);
+
+        resolver.apply(engine);
+        clock.advanceTime(1_000, TimeUnit.MILLISECONDS);
+        resolver.apply(engine);
+
+        verify(delegate, times(2)).apply(engine);
+    }
+
+    @Test
+    public void testDisabledTrackingAlwaysEvaluates() {
+        when(configuration.isReconcilerDirtyTrackingEnabled()).thenReturn(false);
+        EntityHolder model = EntityHolder.newRoot(job.getId(), job);
+        setModels(model, model, model);
+
+        resolver.apply(engine);
+        resolver.apply(engine);
+
+        verify(delegate, times(2)).apply(engine);
+    }
+
+    private void setModels(EntityHolder reference, EntityHolder running, EntityHolder store) {
+        when(engine.getReferenceView()).thenReturn(reference);
+        when(engine.getRunningView()).thenReturn(running);
+        when(engine.getStoreView()).thenReturn(store);
+    }
+}
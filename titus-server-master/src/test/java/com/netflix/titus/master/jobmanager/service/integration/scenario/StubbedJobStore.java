@@ -369,6 +369,11 @@ class StubbedJobStore implements JobStore {
         throw new IllegalStateException("not implemented yet");
     }
 
+    @Override
+    public Observable<Pair<List<String>, String>> retrieveArchivedTaskIdsForJob(String jobId, int pageSize, String pagingState) {
+        throw new IllegalStateException("not implemented yet");
+    }
+
     private Completable beforeCompletable(Supplier<Completable> action) {
         switch (storeState) {
             case Normal:
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.mesos.kubeapiserver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.time.Clocks;
+import com.netflix.titus.common.util.time.TestClock;
+import com.netflix.titus.master.mesos.kubeapiserver.direct.KubeApiFacade;
+import com.netflix.titus.master.mesos.kubeapiserver.model.v1.V1OpportunisticResource;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.cache.Indexer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KubeOpportunisticResourceProviderTest {
+
+    private final TestClock clock = Clocks.test();
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.test(clock);
+
+    private final KubeApiFacade kubeApiFacade = mock(KubeApiFacade.class);
+
+    @SuppressWarnings("unchecked")
+    private final SharedIndexInformer<V1OpportunisticResource> informer = mock(SharedIndexInformer.class);
+
+    @SuppressWarnings("unchecked")
+    private final Indexer<V1OpportunisticResource> indexer = mock(Indexer.class);
+
+    private final KubeOpportunisticResourceProvider provider = new KubeOpportunisticResourceProvider(kubeApiFacade, titusRuntime);
+
+    private ResourceEventHandler<V1OpportunisticResource> handler;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(kubeApiFacade.getOpportunisticResourceInformer()).thenReturn(informer);
+        when(informer.getIndexer()).thenReturn(indexer);
+        when(indexer.list()).thenReturn(Collections.emptyList());
+
+        provider.enterActiveMode();
+
+        ArgumentCaptor<ResourceEventHandler> captor = ArgumentCaptor.forClass(ResourceEventHandler.class);
+        verify(informer).addEventHandler(captor.capture());
+        handler = captor.getValue();
+    }
+
+    @After
+    public void tearDown() {
+        provider.shutdown();
+    }
+
+    @Test
+    public void testLatestWindowIsActive() {
+        Instant now = Instant.ofEpochMilli(clock.wallTime());
+        V1OpportunisticResource first = newResource("r1", "i1", now.plusSeconds(60), 2);
+        V1OpportunisticResource second = newResource("r2", "i1", now.plusSeconds(120), 4);
+
+        handler.onAdd(first);
+        handler.onAdd(second);
+        assertThat(provider.getOpportunisticCpus().get("i1").getAllocationId()).isEqualTo("r2");
+        assertThat(provider.getOpportunisticCpus().get("i1").getCount()).isEqualTo(4);
+
+        handler.onDelete(second, false);
+        assertThat(provider.getOpportunisticCpus().get("i1").getAllocationId()).isEqualTo("r1");
+
+        handler.onDelete(first, false);
+        assertThat(provider.getOpportunisticCpus()).isEmpty();
+    }
+
+    @Test
+    public void testUpdate() {
+        Instant now = Instant.ofEpochMilli(clock.wallTime());
+        V1OpportunisticResource resource = newResource("r1", "i1", now.plusSeconds(60), 2);
+        V1OpportunisticResource updated = newResource("r1", "i1", now.plusSeconds(60), 3);
+
+        handler.onAdd(resource);
+        handler.onUpdate(resource, updated);
+        assertThat(provider.getOpportunisticCpus()).hasSize(1);
+        assertThat(provider.getOpportunisticCpus().get("i1").getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testReadsDoNotCopy() {
+        handler.onAdd(newResource("r1", "i1", Instant.ofEpochMilli(clock.wallTime()).plusSeconds(60), 2));
+        assertThat(provider.getOpportunisticCpus()).isSameAs(provider.getOpportunisticCpus());
+    }
+
+    @Test
+    public void testExpiredWindowIsRemoved() {
+        Instant now = Instant.ofEpochMilli(clock.wallTime());
+        handler.onAdd(newResource("r1", "i1", now.plusSeconds(60), 2));
+        handler.onAdd(newResource("r2", "i1", now.plusSeconds(120), 4));
+        handler.onAdd(newResource("r3", "i2", now.plusSeconds(60), 1));
+
+        clock.advanceTime(Duration.ofSeconds(59));
+        provider.removeExpired();
+        assertThat(provider.getOpportunisticCpus()).containsOnlyKeys("i1", "i2");
+
+        clock.advanceTime(Duration.ofSeconds(2));
+        provider.removeExpired();
+        assertThat(provider.getOpportunisticCpus()).containsOnlyKeys("i1");
+        assertThat(provider.getOpportunisticCpus().get("i1").getAllocationId()).isEqualTo("r2");
+
+        clock.advanceTime(Duration.ofSeconds(60));
+        provider.removeExpired();
+        assertThat(provider.getOpportunisticCpus()).isEmpty();
+    }
+
+    @Test
+    public void testUpdatedResourceIsNotRemovedByStaleExpiryEntry() {
+        Instant now = Instant.ofEpochMilli(clock.wallTime());
+        V1OpportunisticResource resource = newResource("r1", "i1", now.plusSeconds(60), 2);
+        V1OpportunisticResource updated = newResource("r1", "i1", now.plusSeconds(180), 3);
+
+        handler.onAdd(resource);
+        handler.onUpdate(resource, updated);
+
+        clock.advanceTime(Duration.ofSeconds(61));
+        provider.removeExpired();
+        assertThat(provider.getOpportunisticCpus()).containsOnlyKeys("i1");
+        assertThat(provider.getOpportunisticCpus().get("i1").getCount()).isEqualTo(3);
+
+        clock.advanceTime(Duration.ofSeconds(120));
+        provider.removeExpired();
+        assertThat(provider.getOpportunisticCpus()).isEmpty();
+    }
+
+    private V1OpportunisticResource newResource(String uid, String instanceId, Instant end, int cpus) {
+        V1OpportunisticResource resource = mock(V1OpportunisticResource.class);
+        when(resource.getUid()).thenReturn(uid);
+        when(resource.getInstanceId()).thenReturn(instanceId);
+        when(resource.getEnd()).thenReturn(end);
+        when(resource.getCpus()).thenReturn(cpus);
+        when(resource.getName()).thenReturn(uid);
+        return resource;
+    }
+}
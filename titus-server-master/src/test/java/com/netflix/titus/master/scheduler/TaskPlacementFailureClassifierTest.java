@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.scheduler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.fenzo.AssignmentFailure;
+import com.netflix.fenzo.ConstraintFailure;
+import com.netflix.fenzo.SchedulingResult;
+import com.netflix.fenzo.TaskAssignmentResult;
+import com.netflix.fenzo.TaskRequest;
+import com.netflix.fenzo.VMResource;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.master.scheduler.TaskPlacementFailure.FailureKind;
+import com.netflix.titus.master.scheduler.constraint.V3UniqueHostConstraint;
+import org.junit.Test;
+
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.TASK_ID;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.createTaskRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskPlacementFailureClassifierTest {
+
+    private final TaskPlacementFailureClassifier<TaskRequest> classifier = new TaskPlacementFailureClassifier<>(
+            TitusRuntimes.test(), task -> Collections.emptyMap()
+    );
+
+    private final TaskRequest taskRequest = createTaskRequest(TASK_ID);
+
+    @Test
+    public void testNoActiveAgents() {
+        TaskPlacementFailure failure = classify(
+                assignmentResult(constraintFailure("AgentManagementConstraint", "Instance not found")),
+                assignmentResult(constraintFailure("AgentManagementConstraint", "Unhealthy agent"))
+        );
+        assertThat(failure.getFailureKind()).isEqualTo(FailureKind.NoActiveAgents);
+    }
+
+    @Test
+    public void testAboveCapacityLimit() {
+        TaskPlacementFailure failure = classify(
+                assignmentResult(null, assignmentFailure(VMResource.ResAllocs, "No guaranteed capacity left for queue flex"))
+        );
+        assertThat(failure.getFailureKind()).isEqualTo(FailureKind.AboveCapacityLimit);
+    }
+
+    @Test
+    public void testTooLargeToFit() {
+        TaskPlacementFailure failure = classify(
+                assignmentResult(null, assignmentFailure(VMResource.CPU, "cpu")),
+                assignmentResult(null, assignmentFailure(VMResource.Memory, "memory")),
+                assignmentResult(constraintFailure("AgentManagementConstraint", "Instance not found"))
+        );
+        assertThat(failure.getFailureKind()).isEqualTo(FailureKind.TooLargeToFit);
+        assertThat(failure.getAgentCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLaunchGuardTakesPrecedenceOverJobHardConstraint() {
+        TaskPlacementFailure failure = classify(
+                assignmentResult(constraintFailure("AgentLaunchGuardConstraint", "The agent has reached the launch guard limit")),
+                assignmentResult(constraintFailure(V3UniqueHostConstraint.NAME, "Task from the same job already running on the agent"))
+        );
+        assertThat(failure.getFailureKind()).isEqualTo(FailureKind.LaunchGuard);
+        assertThat(failure.getAgentCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testJobHardConstraint() {
+        TaskPlacementFailure failure = classify(
+                assignmentResult(constraintFailure(V3UniqueHostConstraint.NAME, "Task from the same job already running on the agent")),
+                assignmentResult(constraintFailure(V3UniqueHostConstraint.NAME, "Task from the same job already running on the agent"))
+        );
+        assertThat(failure.getFailureKind()).isEqualTo(FailureKind.JobHardConstraint);
+        assertThat(failure.getAgentCount()).isEqualTo(2);
+        assertThat(((JobHardConstraintPlacementFailure) failure).getHardConstraints()).containsExactly(V3UniqueHostConstraint.NAME);
+    }
+
+    @Test
+    public void testUnrecognized() {
+        TaskPlacementFailure failure = classify(
+                assignmentResult(constraintFailure("SomeConstraint", "Some reason"))
+        );
+        assertThat(failure.getFailureKind()).isEqualTo(FailureKind.Unrecognized);
+    }
+
+    private TaskPlacementFailure classify(TaskAssignmentResult... assignmentResults) {
+        SchedulingResult schedulingResult = mock(SchedulingResult.class);
+        when(schedulingResult.getFailures()).thenReturn(Collections.singletonMap(taskRequest, Arrays.asList(assignmentResults)));
+
+        classifier.update(schedulingResult);
+
+        Map<FailureKind, Map<TaskRequest, List<TaskPlacementFailure>>> failures = classifier.getLastTaskPlacementFailures();
+        assertThat(failures).hasSize(1);
+        List<TaskPlacementFailure> taskFailures = failures.values().iterator().next().get(taskRequest);
+        assertThat(taskFailures).hasSize(1);
+        return taskFailures.get(0);
+    }
+
+    private TaskAssignmentResult assignmentResult(ConstraintFailure constraintFailure, AssignmentFailure... assignmentFailures) {
+        TaskAssignmentResult assignmentResult = mock(TaskAssignmentResult.class);
+        when(assignmentResult.getConstraintFailure()).thenReturn(constraintFailure);
+        when(assignmentResult.getFailures()).thenReturn(Arrays.asList(assignmentFailures));
+        return assignmentResult;
+    }
+
+    private ConstraintFailure constraintFailure(String name, String reason) {
+        ConstraintFailure constraintFailure = mock(ConstraintFailure.class);
+        when(constraintFailure.getName()).thenReturn(name);
+        when(constraintFailure.getReason()).thenReturn(reason);
+        return constraintFailure;
+    }
+
+    private AssignmentFailure assignmentFailure(VMResource resource, String message) {
+        AssignmentFailure assignmentFailure = mock(AssignmentFailure.class);
+        when(assignmentFailure.getResource()).thenReturn(resource);
+        when(assignmentFailure.getMessage()).thenReturn(message);
+        return assignmentFailure;
+    }
+}
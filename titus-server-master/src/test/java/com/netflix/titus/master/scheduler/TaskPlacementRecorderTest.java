@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import com.netflix.archaius.api.Config;
+import com.netflix.fenzo.PreferentialNamedConsumableResourceSet;
+import com.netflix.fenzo.SchedulingResult;
+import com.netflix.fenzo.TaskAssignmentResult;
+import com.netflix.fenzo.TaskSchedulingService;
+import com.netflix.fenzo.VMAssignmentResult;
+import com.netflix.fenzo.VirtualMachineLease;
+import com.netflix.fenzo.queues.QAttributes;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.service.V3JobOperations;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.master.config.MasterConfiguration;
+import com.netflix.titus.master.mesos.TaskInfoRequest;
+import com.netflix.titus.master.mesos.TaskInfoRequestFactory;
+import com.netflix.titus.master.model.job.TitusQueuableTask;
+import com.netflix.titus.master.scheduler.resourcecache.OpportunisticCpuCache;
+import org.apache.mesos.Protos;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import rx.Completable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskPlacementRecorderTest {
+
+    private static final String HOSTNAME = "agent1";
+
+    private final TaskSchedulingService schedulingService = mock(TaskSchedulingService.class);
+    private final V3JobOperations v3JobOperations = mock(V3JobOperations.class);
+    private final TaskInfoRequestFactory taskInfoRequestFactory = mock(TaskInfoRequestFactory.class);
+
+    private final TaskPlacementRecorder recorder = new TaskPlacementRecorder(
+            mock(Config.class),
+            mock(MasterConfiguration.class),
+            schedulingService,
+            v3JobOperations,
+            taskInfoRequestFactory,
+            mock(OpportunisticCpuCache.class),
+            TitusRuntimes.internal()
+    );
+
+    private final VirtualMachineLease lease = newLease();
+
+    private final List<Pair<List<VirtualMachineLease>, List<TaskInfoRequest>>> launched = new ArrayList<>();
+    private final BiConsumer<List<VirtualMachineLease>, List<TaskInfoRequest>> launcher = (leases, requests) -> launched.add(Pair.of(leases, requests));
+
+    @Before
+    public void setUp() {
+        when(v3JobOperations.killTask(any(), anyBoolean(), anyBoolean(), any(), any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    public void testAllPlacementsRecorded() {
+        TaskAssignmentResult task1 = newAssignment("task1", Completable.complete());
+        TaskAssignmentResult task2 = newAssignment("task2", Completable.complete());
+
+        int count = recorder.recordAsync(newSchedulingResult(task1, task2), launcher);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(launched).hasSize(1);
+        assertThat(launched.get(0).getLeft()).containsExactly(lease);
+        assertThat(taskIdsOf(launched.get(0).getRight())).containsExactlyInAnyOrder("task1", "task2");
+        verify(v3JobOperations, never()).killTask(any(), anyBoolean(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void testPartialWriteFailureLaunchesRecordedTasksOnly() {
+        TaskAssignmentResult task1 = newAssignment("task1", Completable.complete());
+        TaskAssignmentResult task2 = newAssignment("task2", Completable.error(new RuntimeException("simulated store error")));
+
+        int count = recorder.recordAsync(newSchedulingResult(task1, task2), launcher);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(launched).hasSize(1);
+        assertThat(launched.get(0).getLeft()).containsExactly(lease);
+        assertThat(taskIdsOf(launched.get(0).getRight())).containsExactly("task1");
+        verify(v3JobOperations).killTask(eq("task2"), anyBoolean(), anyBoolean(), any(), any());
+        verify(v3JobOperations, never()).killTask(eq("task1"), anyBoolean(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void testFullWriteFailureReleasesLeases() {
+        TaskAssignmentResult task1 = newAssignment("task1", Completable.error(new RuntimeException("simulated store error")));
+        TaskAssignmentResult task2 = newAssignment("task2", Completable.error(new RuntimeException("simulated store error")));
+
+        recorder.recordAsync(newSchedulingResult(task1, task2), launcher);
+
+        // An empty task list makes the launcher reject the leases.
+        assertThat(launched).hasSize(1);
+        assertThat(launched.get(0).getLeft()).containsExactly(lease);
+        assertThat(launched.get(0).getRight()).isEmpty();
+        verify(v3JobOperations).killTask(eq("task1"), anyBoolean(), anyBoolean(), any(), any());
+        verify(v3JobOperations).killTask(eq("task2"), anyBoolean(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void testLaunchExceptionKillsTasks() {
+        TaskAssignmentResult task1 = newAssignment("task1", Completable.complete());
+        TaskAssignmentResult task2 = newAssignment("task2", Completable.complete());
+
+        recorder.recordAsync(newSchedulingResult(task1, task2), (leases, requests) -> {
+            throw new RuntimeException("simulated launch error");
+        });
+
+        verify(v3JobOperations).killTask(eq("task1"), anyBoolean(), anyBoolean(), any(), any());
+        verify(v3JobOperations).killTask(eq("task2"), anyBoolean(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void testUnknownTaskIsRemovedFromFenzo() {
+        TaskAssignmentResult task1 = newAssignment("task1", Completable.complete());
+        when(v3JobOperations.findTaskById("task1")).thenReturn(Optional.empty());
+
+        recorder.recordAsync(newSchedulingResult(task1), launcher);
+
+        verify(schedulingService).removeTask(eq("task1"), any(), eq(HOSTNAME));
+        assertThat(launched).hasSize(1);
+        assertThat(launched.get(0).getRight()).isEmpty();
+    }
+
+    private SchedulingResult newSchedulingResult(TaskAssignmentResult... assignments) {
+        VMAssignmentResult vmAssignmentResult = mock(VMAssignmentResult.class);
+        when(vmAssignmentResult.getLeasesUsed()).thenReturn(Collections.singletonList(lease));
+        when(vmAssignmentResult.getTasksAssigned()).thenReturn(new LinkedHashSet<>(Arrays.asList(assignments)));
+
+        SchedulingResult schedulingResult = mock(SchedulingResult.class);
+        Map<String, VMAssignmentResult> resultMap = Collections.singletonMap(HOSTNAME, vmAssignmentResult);
+        when(schedulingResult.getResultMap()).thenReturn(resultMap);
+        return schedulingResult;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TaskAssignmentResult newAssignment(String taskId, Completable storeResult) {
+        TitusQueuableTask<Job, Task> fenzoTask = mock(TitusQueuableTask.class);
+        when(fenzoTask.getId()).thenReturn(taskId);
+        when(fenzoTask.getQAttributes()).thenReturn(mock(QAttributes.class));
+
+        TaskAssignmentResult assignmentResult = mock(TaskAssignmentResult.class);
+        when(assignmentResult.getRequest()).thenReturn(fenzoTask);
+        when(assignmentResult.getHostname()).thenReturn(HOSTNAME);
+        when(assignmentResult.getrSets()).thenReturn(Collections.singletonList(
+                new PreferentialNamedConsumableResourceSet.ConsumeResult(0, "ENIs", "sg-12345678", 1.0)
+        ));
+
+        Job<?> job = mock(Job.class);
+        when(job.getId()).thenReturn("job1");
+        Task task = mock(Task.class);
+        when(task.getId()).thenReturn(taskId);
+        when(v3JobOperations.findTaskById(taskId)).thenReturn(Optional.of(Pair.of(job, task)));
+        when(v3JobOperations.recordTaskPlacement(eq(taskId), any(), any())).thenReturn(storeResult);
+
+        TaskInfoRequest taskInfoRequest = new TaskInfoRequest(job, task, Protos.TaskInfo.getDefaultInstance(), Collections.emptyMap());
+        when(taskInfoRequestFactory.newTaskInfo(eq(fenzoTask), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(taskInfoRequest);
+
+        return assignmentResult;
+    }
+
+    private static VirtualMachineLease newLease() {
+        VirtualMachineLease lease = mock(VirtualMachineLease.class);
+        when(lease.hostname()).thenReturn(HOSTNAME);
+        when(lease.getAttributeMap()).thenReturn(Collections.emptyMap());
+        when(lease.getOffer()).thenReturn(Protos.Offer.newBuilder()
+                .setId(Protos.OfferID.newBuilder().setValue("offer1"))
+                .setFrameworkId(Protos.FrameworkID.newBuilder().setValue("framework1"))
+                .setSlaveId(Protos.SlaveID.newBuilder().setValue("slave1"))
+                .setHostname(HOSTNAME)
+                .build()
+        );
+        return lease;
+    }
+
+    private static List<String> taskIdsOf(List<TaskInfoRequest> requests) {
+        return requests.stream().map(request -> request.getTask().getId()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.scheduler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import com.netflix.fenzo.TaskRequest;
+import com.netflix.fenzo.VirtualMachineCurrentState;
+import com.netflix.titus.api.agent.service.AgentManagementService;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.INSTANCE_GROUP_ID;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.INSTANCE_ID;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.TASK_ID;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.UNKNOWN_INSTANCE_GROUP_ID;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.createAgentInstance;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.createTaskRequest;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.createVirtualMachineCurrentStateMock;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VMStateMgrTest {
+
+    private static final String INSTANCE_ID_ATTRIBUTE_NAME = "id";
+
+    private final AgentManagementService agentManagementService = mock(AgentManagementService.class);
+
+    private final List<TaskRequest> runningTasks = Collections.singletonList(createTaskRequest(TASK_ID));
+
+    @Before
+    public void setUp() {
+        when(agentManagementService.findAgentInstance(INSTANCE_ID)).thenReturn(Optional.of(createAgentInstance(INSTANCE_ID, INSTANCE_GROUP_ID)));
+    }
+
+    @Test
+    public void testVmInInactiveInstanceGroupIsReturned() {
+        VirtualMachineCurrentState currentState = createVirtualMachineCurrentStateMock(INSTANCE_ID, runningTasks, Collections.emptyList());
+
+        List<VirtualMachineCurrentState> inactiveVMs = VMStateMgr.getInactiveVMs(INSTANCE_ID_ATTRIBUTE_NAME, agentManagementService,
+                Collections.singleton(INSTANCE_GROUP_ID), Collections.singletonList(currentState));
+        assertThat(inactiveVMs).containsExactly(currentState);
+    }
+
+    @Test
+    public void testVmInActiveInstanceGroupIsNotReturned() {
+        VirtualMachineCurrentState currentState = createVirtualMachineCurrentStateMock(INSTANCE_ID, runningTasks, Collections.emptyList());
+
+        List<VirtualMachineCurrentState> inactiveVMs = VMStateMgr.getInactiveVMs(INSTANCE_ID_ATTRIBUTE_NAME, agentManagementService,
+                Collections.singleton(UNKNOWN_INSTANCE_GROUP_ID), Collections.singletonList(currentState));
+        assertThat(inactiveVMs).isEmpty();
+    }
+
+    @Test
+    public void testVmWithoutRunningTasksIsNotReturned() {
+        VirtualMachineCurrentState currentState = createVirtualMachineCurrentStateMock(INSTANCE_ID, Collections.emptyList(), Collections.emptyList());
+
+        List<VirtualMachineCurrentState> inactiveVMs = VMStateMgr.getInactiveVMs(INSTANCE_ID_ATTRIBUTE_NAME, agentManagementService,
+                Collections.singleton(INSTANCE_GROUP_ID), Collections.singletonList(currentState));
+        assertThat(inactiveVMs).isEmpty();
+    }
+
+    @Test
+    public void testNoAgentLookupsWithoutInactiveInstanceGroups() {
+        VirtualMachineCurrentState currentState = createVirtualMachineCurrentStateMock(INSTANCE_ID, runningTasks, Collections.emptyList());
+
+        List<VirtualMachineCurrentState> inactiveVMs = VMStateMgr.getInactiveVMs(INSTANCE_ID_ATTRIBUTE_NAME, agentManagementService,
+                Collections.emptySet(), Collections.singletonList(currentState));
+        assertThat(inactiveVMs).isEmpty();
+        verify(agentManagementService, never()).findAgentInstance(any());
+    }
+}
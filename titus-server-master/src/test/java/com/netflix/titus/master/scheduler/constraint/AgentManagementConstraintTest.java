@@ -40,9 +40,12 @@ import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
 import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
 import com.netflix.titus.api.model.ResourceDimension;
 import com.netflix.titus.api.model.Tier;
+import com.netflix.titus.master.config.MasterConfiguration;
 import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
 import com.netflix.titus.master.scheduler.SchedulerAttributes;
 import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
 import com.netflix.titus.testkit.model.job.JobGenerator;
 import org.apache.mesos.Protos;
 import org.junit.Before;
@@ -63,7 +66,10 @@ public class AgentManagementConstraintTest {
     private final AgentManagementService agentManagementService = mock(AgentManagementService.class);
     private final AgentStatusMonitor agentStatusMonitor = mock(AgentStatusMonitor.class);
 
-    private final AgentManagementConstraint agentManagementConstraint = new AgentManagementConstraint(schedulerConfiguration, agentManagementService, agentStatusMonitor);
+    private final AgentEvaluationCache agentEvaluationCache = new AgentEvaluationCache(mock(MasterConfiguration.class),
+            schedulerConfiguration, agentManagementService, mock(AgentResourceCache.class));
+
+    private final AgentManagementConstraint agentManagementConstraint = new AgentManagementConstraint(agentEvaluationCache, agentStatusMonitor);
 
     @Before
     public void setUp() throws Exception {
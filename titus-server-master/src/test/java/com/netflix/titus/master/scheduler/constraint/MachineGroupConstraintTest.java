@@ -21,7 +21,10 @@ import java.util.Optional;
 import com.netflix.fenzo.ConstraintEvaluator.Result;
 import com.netflix.titus.api.agent.model.AgentInstance;
 import com.netflix.titus.api.agent.service.AgentManagementService;
+import com.netflix.titus.master.config.MasterConfiguration;
 import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
 import com.netflix.titus.testkit.model.agent.AgentGenerator;
 import org.junit.Before;
 import org.junit.Test;
@@ -41,7 +44,10 @@ public class MachineGroupConstraintTest {
     private final SchedulerConfiguration schedulerConfiguration = mock(SchedulerConfiguration.class);
     private final AgentManagementService agentManagementService = mock(AgentManagementService.class);
 
-    private final MachineGroupConstraint constraint = new MachineGroupConstraint(schedulerConfiguration, agentManagementService, MACHINE_GROUP);
+    private final AgentEvaluationCache agentEvaluationCache = new AgentEvaluationCache(mock(MasterConfiguration.class),
+            schedulerConfiguration, agentManagementService, mock(AgentResourceCache.class));
+
+    private final MachineGroupConstraint constraint = new MachineGroupConstraint(agentEvaluationCache, MACHINE_GROUP);
 
     @Before
     public void setUp() throws Exception {
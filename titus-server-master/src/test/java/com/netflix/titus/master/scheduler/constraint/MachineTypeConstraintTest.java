@@ -22,7 +22,10 @@ import java.util.Optional;
 import com.netflix.fenzo.ConstraintEvaluator.Result;
 import com.netflix.titus.api.agent.model.AgentInstance;
 import com.netflix.titus.api.agent.service.AgentManagementService;
+import com.netflix.titus.master.config.MasterConfiguration;
 import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
 import com.netflix.titus.testkit.model.agent.AgentGenerator;
 import org.junit.Before;
 import org.junit.Test;
@@ -43,7 +46,10 @@ public class MachineTypeConstraintTest {
     private final SchedulerConfiguration schedulerConfiguration = mock(SchedulerConfiguration.class);
     private final AgentManagementService agentManagementService = mock(AgentManagementService.class);
 
-    private final MachineTypeConstraint constraint = new MachineTypeConstraint(schedulerConfiguration, agentManagementService, MACHINE_TYPE);
+    private final AgentEvaluationCache agentEvaluationCache = new AgentEvaluationCache(mock(MasterConfiguration.class),
+            schedulerConfiguration, agentManagementService, mock(AgentResourceCache.class));
+
+    private final MachineTypeConstraint constraint = new MachineTypeConstraint(agentEvaluationCache, MACHINE_TYPE);
 
     @Before
     public void setUp() throws Exception {
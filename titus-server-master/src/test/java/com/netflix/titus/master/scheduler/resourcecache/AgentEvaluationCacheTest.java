@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.scheduler.resourcecache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.netflix.fenzo.VirtualMachineCurrentState;
+import com.netflix.fenzo.VirtualMachineLease;
+import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.agent.service.AgentManagementService;
+import com.netflix.titus.master.config.MasterConfiguration;
+import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.testkit.model.agent.AgentGenerator;
+import org.apache.mesos.Protos;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AgentEvaluationCacheTest {
+
+    private static final String HOSTNAME = "host1";
+    private static final String INSTANCE_ID = "i-1234";
+    private static final String ZONE_ID = "zoneA";
+    private static final String MACHINE_TYPE = "m5.xlarge";
+
+    private final MasterConfiguration masterConfiguration = mock(MasterConfiguration.class);
+    private final SchedulerConfiguration schedulerConfiguration = mock(SchedulerConfiguration.class);
+    private final AgentManagementService agentManagementService = mock(AgentManagementService.class);
+    private final AgentResourceCache agentResourceCache = mock(AgentResourceCache.class);
+
+    private final AgentEvaluationCache cache = new AgentEvaluationCache(masterConfiguration, schedulerConfiguration,
+            agentManagementService, agentResourceCache);
+
+    private final AgentInstanceGroup instanceGroup = AgentGenerator.agentServerGroups().getValue();
+    private final AgentInstance instance = AgentGenerator.agentInstances(instanceGroup).getValue().toBuilder()
+            .withId(INSTANCE_ID)
+            .withAttributes(Collections.singletonMap("machineType", MACHINE_TYPE))
+            .build();
+    private final AgentResourceCacheInstance resourceCacheInstance = AgentResourceCacheInstance.newBuilder()
+            .withHostname(HOSTNAME)
+            .withImages(Collections.emptySet())
+            .withNetworkInterfaces(Collections.emptyMap())
+            .build();
+
+    @Before
+    public void setUp() {
+        when(masterConfiguration.getHostZoneAttributeName()).thenReturn("zone");
+        when(schedulerConfiguration.getInstanceAttributeName()).thenReturn("id");
+        when(schedulerConfiguration.getMachineTypeAttributeName()).thenReturn("machineType");
+        when(agentManagementService.findAgentInstance(INSTANCE_ID)).thenReturn(Optional.of(instance));
+        when(agentManagementService.findInstanceGroup(instanceGroup.getId())).thenReturn(Optional.of(instanceGroup));
+        when(agentResourceCache.get(HOSTNAME)).thenReturn(Optional.of(resourceCacheInstance));
+    }
+
+    @Test
+    public void testContextResolution() {
+        cache.prepare();
+        AgentEvaluationContext context = cache.get(createVirtualMachineCurrentState());
+
+        assertThat(context.getHostname()).isEqualTo(HOSTNAME);
+        assertThat(context.getInstanceId()).isEqualTo(INSTANCE_ID);
+        assertThat(context.findInstance()).contains(instance);
+        assertThat(context.findInstanceGroup()).contains(instanceGroup);
+        assertThat(context.getZoneId()).isEqualTo(ZONE_ID);
+        assertThat(context.getMachineType()).isEqualTo(MACHINE_TYPE);
+        assertThat(context.findResourceCacheInstance()).contains(resourceCacheInstance);
+    }
+
+    @Test
+    public void testUnknownInstance() {
+        when(agentManagementService.findAgentInstance(INSTANCE_ID)).thenReturn(Optional.empty());
+
+        cache.prepare();
+        AgentEvaluationContext context = cache.get(createVirtualMachineCurrentState());
+
+        assertThat(context.findInstance()).isEmpty();
+        assertThat(context.findInstanceGroup()).isEmpty();
+        assertThat(context.getMachineType()).isEmpty();
+        assertThat(context.getZoneId()).isEqualTo(ZONE_ID);
+    }
+
+    @Test
+    public void testContextIsResolvedOncePerIteration() {
+        VirtualMachineCurrentState targetVM = createVirtualMachineCurrentState();
+
+        cache.prepare();
+        AgentEvaluationContext first = cache.get(targetVM);
+        assertThat(cache.get(targetVM)).isSameAs(first);
+        verify(agentManagementService, times(1)).findAgentInstance(INSTANCE_ID);
+        verify(agentResourceCache, times(1)).get(HOSTNAME);
+
+        cache.prepare();
+        assertThat(cache.get(targetVM)).isNotSameAs(first);
+        verify(agentManagementService, times(2)).findAgentInstance(INSTANCE_ID);
+    }
+
+    @Test
+    public void testContextIsNotCachedBeforeFirstIteration() {
+        VirtualMachineCurrentState targetVM = createVirtualMachineCurrentState();
+
+        cache.get(targetVM);
+        cache.get(targetVM);
+        verify(agentManagementService, times(2)).findAgentInstance(INSTANCE_ID);
+    }
+
+    private VirtualMachineCurrentState createVirtualMachineCurrentState() {
+        Map<String, Protos.Attribute> attributes = new HashMap<>();
+        attributes.put("id", textAttribute("id", INSTANCE_ID));
+        attributes.put("zone", textAttribute("zone", ZONE_ID));
+
+        VirtualMachineLease lease = mock(VirtualMachineLease.class);
+        when(lease.getAttributeMap()).thenReturn(attributes);
+
+        VirtualMachineCurrentState currentState = mock(VirtualMachineCurrentState.class);
+        when(currentState.getHostname()).thenReturn(HOSTNAME);
+        when(currentState.getCurrAvailableResources()).thenReturn(lease);
+        return currentState;
+    }
+
+    private Protos.Attribute textAttribute(String name, String value) {
+        return Protos.Attribute.newBuilder()
+                .setName(name)
+                .setType(Protos.Value.Type.TEXT)
+                .setText(Protos.Value.Text.newBuilder().setValue(value))
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.master.scheduler.systemselector;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.scheduler.service.SchedulerException;
+import com.netflix.titus.testkit.model.agent.AgentGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SelectorExpressionCompilerTest {
+
+    private final Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+    private final Task task = JobGenerator.batchTasks(job).getValue();
+    private final AgentInstanceGroup instanceGroup = AgentGenerator.agentServerGroups().getValue();
+    private final AgentInstance instance = AgentGenerator.agentInstances(instanceGroup).getValue().toBuilder()
+            .withAttributes(ImmutableMap.of("stack", "main"))
+            .build();
+
+    private final SystemSelectorContext context = new SystemSelectorContext(job, task, instanceGroup, instance);
+
+    @Test
+    public void testFieldAccess() {
+        String appName = job.getJobDescriptor().getApplicationName();
+        assertThat(evaluate("job.jobDescriptor.applicationName == '" + appName + "'")).isTrue();
+        assertThat(evaluate("job.getJobDescriptor().getApplicationName() == \"" + appName + "\"")).isTrue();
+        assertThat(evaluate("job.jobDescriptor.applicationName != '" + appName + "'")).isFalse();
+        assertThat(evaluate("instanceGroup.id == '" + instanceGroup.getId() + "'")).isTrue();
+    }
+
+    @Test
+    public void testEnumComparedWithString() {
+        assertThat(evaluate("task.status.state == '" + task.getStatus().getState().name() + "'")).isTrue();
+        assertThat(evaluate("instanceGroup.tier == 'NoSuchTier'")).isFalse();
+    }
+
+    @Test
+    public void testMapAccess() {
+        assertThat(evaluate("instance.attributes['stack'] == 'main'")).isTrue();
+        assertThat(evaluate("instance.attributes.stack == 'main'")).isTrue();
+        assertThat(evaluate("instance.attributes.missing == null")).isTrue();
+    }
+
+    @Test
+    public void testNumericComparison() {
+        int desired = instanceGroup.getDesired();
+        assertThat(evaluate("instanceGroup.desired >= " + desired)).isTrue();
+        assertThat(evaluate("instanceGroup.desired > " + desired)).isFalse();
+        assertThat(evaluate("instanceGroup.desired > -1")).isTrue();
+    }
+
+    @Test
+    public void testBooleanLogic() {
+        assertThat(evaluate("instance.attributes.stack == 'main' && instanceGroup.desired >= 0")).isTrue();
+        assertThat(evaluate("instance.attributes.stack == 'other' || instanceGroup.desired >= 0")).isTrue();
+        assertThat(evaluate("!(instance.attributes.stack == 'main')")).isFalse();
+        assertThat(evaluate("instance.attributes.stack == 'other' || (true && !false)")).isTrue();
+    }
+
+    @Test
+    public void testNonBooleanResultIsFalse() {
+        assertThat(evaluate("instance.attributes.stack")).isFalse();
+        assertThat(evaluate("true && instance.attributes.stack")).isFalse();
+    }
+
+    @Test
+    public void testInOperator() {
+        assertThat(evaluate("instance.attributes.stack in ['test', 'main']")).isTrue();
+        assertThat(evaluate("instance.attributes.stack in ['test']")).isFalse();
+    }
+
+    @Test
+    public void testUnsupportedExpressionsAreNotCompiled() {
+        assertThat(SelectorExpressionCompiler.compile("job.jobDescriptor.applicationName.indexOf('x') >= 0")).isEmpty();
+        assertThat(SelectorExpressionCompiler.compile("job.jobDescriptor.extensions.size > 1")).isEmpty();
+        assertThat(SelectorExpressionCompiler.compile("job.id === 'x'")).isEmpty();
+        assertThat(SelectorExpressionCompiler.compile("Math.max(1, 2) > 1")).isEmpty();
+    }
+
+    @Test
+    public void testUnknownVariablesAreNotCompiled() {
+        assertThat(SelectorExpressionCompiler.compile("agent.id == 'x'")).isEmpty();
+        assertThat(SelectorExpressionCompiler.compile("Object.keys(instance.attributes).length > 0")).isEmpty();
+        assertThat(SelectorExpressionCompiler.compile("Array.isArray(job.jobDescriptor.containerAttributes)")).isEmpty();
+        assertThat(SelectorExpressionCompiler.compile("RegExp('main').test(instance.attributes.stack)")).isEmpty();
+        assertThat(SelectorExpressionCompiler.compile("java.lang.Math.abs(instanceGroup.desired) > 0")).isEmpty();
+    }
+
+    @Test
+    public void testMissingJobIsEvaluationError() {
+        Predicate<SystemSelectorContext> predicate = SelectorExpressionCompiler.compile("job.id == 'x'").get();
+        SystemSelectorContext noJobContext = new SystemSelectorContext(null, null, instanceGroup, instance);
+        assertThatThrownBy(() -> predicate.test(noJobContext)).isInstanceOf(SchedulerException.class);
+    }
+
+    @Test
+    public void testUnknownAgentPropertiesAreUndefined() {
+        SystemSelectorContext unknownAgentContext = new SystemSelectorContext(job, task, instanceGroup, null);
+        assertThat(evaluate("instanceGroup.instanceType == '" + instanceGroup.getInstanceType() + "'", unknownAgentContext)).isFalse();
+        assertThat(evaluate("instanceGroup.instanceType != 'x'", unknownAgentContext)).isTrue();
+        assertThat(evaluate("instance.id == null", unknownAgentContext)).isTrue();
+        assertThat(evaluate("instanceGroup.desired >= 0", unknownAgentContext)).isFalse();
+        assertThat(evaluate("instanceGroup.desired < 0", unknownAgentContext)).isFalse();
+        assertThat(evaluate("!instance.id", unknownAgentContext)).isTrue();
+
+        Predicate<SystemSelectorContext> nestedPath = SelectorExpressionCompiler.compile("instance.attributes.stack == 'main'").get();
+        assertThatThrownBy(() -> nestedPath.test(unknownAgentContext)).isInstanceOf(SchedulerException.class);
+    }
+
+    private boolean evaluate(String expression) {
+        return evaluate(expression, context);
+    }
+
+    private boolean evaluate(String expression, SystemSelectorContext context) {
+        Optional<Predicate<SystemSelectorContext>> predicate = SelectorExpressionCompiler.compile(expression);
+        assertThat(predicate).describedAs("Expression not compiled: %s", expression).isPresent();
+        return predicate.get().test(context);
+    }
+}
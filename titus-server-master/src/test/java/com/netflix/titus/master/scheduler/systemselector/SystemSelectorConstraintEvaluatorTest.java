@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.scheduler.systemselector;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import com.netflix.fenzo.ConstraintEvaluator.Result;
+import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.agent.service.AgentManagementService;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.scheduler.model.Match;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.master.config.MasterConfiguration;
+import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.resourcecache.AgentEvaluationCache;
+import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
+import com.netflix.titus.testkit.model.agent.AgentGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.INSTANCE_ID;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.TASK_ID;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.createTaskRequest;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.createTaskTrackerState;
+import static com.netflix.titus.master.scheduler.SchedulerTestUtils.createVirtualMachineCurrentStateMock;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SystemSelectorConstraintEvaluatorTest {
+
+    private final Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+    private final Task task = JobGenerator.batchTasks(job).getValue();
+    private final AgentInstanceGroup instanceGroup = AgentGenerator.agentServerGroups().getValue();
+    private final AgentInstance instance = AgentGenerator.agentInstances(instanceGroup).getValue().toBuilder()
+            .withId(INSTANCE_ID)
+            .build();
+
+    private final SchedulerConfiguration schedulerConfiguration = mock(SchedulerConfiguration.class);
+    private final AgentManagementService agentManagementService = mock(AgentManagementService.class);
+    private final SystemSelectorService systemSelectorService = mock(SystemSelectorService.class);
+
+    private final AgentEvaluationCache agentEvaluationCache = new AgentEvaluationCache(mock(MasterConfiguration.class),
+            schedulerConfiguration, agentManagementService, mock(AgentResourceCache.class));
+
+    private final SystemSelectorConstraintEvaluator evaluator = new SystemSelectorConstraintEvaluator(
+            systemSelectorService,
+            new SystemSelectorEvaluator(schedulerConfiguration, TitusRuntimes.internal()),
+            agentEvaluationCache
+    );
+
+    @Before
+    public void setUp() {
+        when(schedulerConfiguration.getSchedulerMaxConcurrent()).thenReturn(1);
+        when(schedulerConfiguration.getInstanceAttributeName()).thenReturn("id");
+        when(agentManagementService.findAgentInstance(INSTANCE_ID)).thenReturn(Optional.of(instance));
+        when(agentManagementService.findInstanceGroup(instanceGroup.getId())).thenReturn(Optional.of(instanceGroup));
+    }
+
+    @Test
+    public void testMustSelectorMatchingAgent() {
+        mustMatch("instanceGroup.instanceType == '" + instanceGroup.getInstanceType() + "'");
+        assertThat(evaluate(INSTANCE_ID).isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void testMustSelectorNotMatchingAgent() {
+        mustMatch("instanceGroup.instanceType == 'noSuchInstanceType'");
+        assertThat(evaluate(INSTANCE_ID).isSuccessful()).isFalse();
+    }
+
+    @Test
+    public void testMustSelectorWithUnknownAgent() {
+        when(agentManagementService.findAgentInstance("unknownInstance")).thenReturn(Optional.empty());
+        mustMatch("instanceGroup.instanceType == '" + instanceGroup.getInstanceType() + "'");
+        assertThat(evaluate("unknownInstance").isSuccessful()).isFalse();
+    }
+
+    @Test
+    public void testMustSelectorWithUnknownInstanceGroup() {
+        when(agentManagementService.findInstanceGroup(instanceGroup.getId())).thenReturn(Optional.empty());
+        mustMatch("instanceGroup.instanceType == '" + instanceGroup.getInstanceType() + "'");
+        assertThat(evaluate(INSTANCE_ID).isSuccessful()).isFalse();
+    }
+
+    private void mustMatch(String matchExpression) {
+        String selectExpression = "job.jobDescriptor.applicationName == '" + job.getJobDescriptor().getApplicationName() + "'";
+        when(systemSelectorService.getMustMatchesForEvaluation()).thenReturn(Collections.singletonList(new Match(selectExpression, matchExpression)));
+    }
+
+    private Result evaluate(String instanceId) {
+        return evaluator.evaluate(createTaskRequest(TASK_ID, job, task), createVirtualMachineCurrentStateMock(instanceId), createTaskTrackerState());
+    }
+}
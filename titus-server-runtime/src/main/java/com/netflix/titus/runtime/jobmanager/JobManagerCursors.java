@@ -136,13 +136,7 @@ public final class JobManagerCursors {
      * If the element pointed to by the cursor would be the first element in the list (index=0) this returns -1.
      */
     public static Optional<Integer> coreJobIndexOf(List<com.netflix.titus.api.jobmanager.model.job.Job<?>> jobs, String cursor) {
-        return decode(cursor).map(cursorValues -> {
-            String jobId = cursorValues.getLeft();
-            long timestamp = cursorValues.getRight();
-            com.netflix.titus.api.jobmanager.model.job.Job<?> referenceJob = com.netflix.titus.api.jobmanager.model.job.Job.newBuilder()
-                    .withId(jobId)
-                    .withStatus(com.netflix.titus.api.jobmanager.model.job.JobStatus.newBuilder().withState(JobState.Accepted).withTimestamp(timestamp).build())
-                    .build();
+        return coreJobCursorReference(cursor).map(referenceJob -> {
             int idx = Collections.binarySearch(jobs, referenceJob, coreJobCursorOrderComparator());
             if (idx >= 0) {
                 return idx;
@@ -181,13 +175,7 @@ public final class JobManagerCursors {
      * If the element pointed to by the cursor would be the first element in the list (index=0) this returns -1.
      */
     public static Optional<Integer> coreTaskIndexOf(List<com.netflix.titus.api.jobmanager.model.job.Task> tasks, String cursor) {
-        return decode(cursor).map(cursorValues -> {
-            String taskId = cursorValues.getLeft();
-            long timestamp = cursorValues.getRight();
-            BatchJobTask referenceTask = BatchJobTask.newBuilder()
-                    .withId(taskId)
-                    .withStatus(com.netflix.titus.api.jobmanager.model.job.TaskStatus.newBuilder().withState(TaskState.Accepted).withTimestamp(timestamp).build())
-                    .build();
+        return coreTaskCursorReference(cursor).map(referenceTask -> {
             int idx = Collections.binarySearch(tasks, referenceTask, coreTaskCursorOrderComparator());
             if (idx >= 0) {
                 return idx;
@@ -196,6 +184,28 @@ public final class JobManagerCursors {
         });
     }
 
+    /**
+     * Build a job entity placed in the {@link #coreJobCursorOrderComparator()} order at the position pointed to by the cursor.
+     */
+    public static Optional<com.netflix.titus.api.jobmanager.model.job.Job<?>> coreJobCursorReference(String cursor) {
+        return decode(cursor).<com.netflix.titus.api.jobmanager.model.job.Job<?>>map(cursorValues -> com.netflix.titus.api.jobmanager.model.job.Job.newBuilder()
+                .withId(cursorValues.getLeft())
+                .withStatus(com.netflix.titus.api.jobmanager.model.job.JobStatus.newBuilder().withState(JobState.Accepted).withTimestamp(cursorValues.getRight()).build())
+                .build()
+        );
+    }
+
+    /**
+     * Build a task entity placed in the {@link #coreTaskCursorOrderComparator()} order at the position pointed to by the cursor.
+     */
+    public static Optional<com.netflix.titus.api.jobmanager.model.job.Task> coreTaskCursorReference(String cursor) {
+        return decode(cursor).<com.netflix.titus.api.jobmanager.model.job.Task>map(cursorValues -> BatchJobTask.newBuilder()
+                .withId(cursorValues.getLeft())
+                .withStatus(com.netflix.titus.api.jobmanager.model.job.TaskStatus.newBuilder().withState(TaskState.Accepted).withTimestamp(cursorValues.getRight()).build())
+                .build()
+        );
+    }
+
     public static String newCursorFrom(Job job) {
         return encode(job.getId(), getCursorTimestamp(job));
     }
@@ -17,6 +17,7 @@
 package com.netflix.titus.runtime.store.v3.memory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.inject.Singleton;
@@ -163,6 +164,21 @@ public class InMemoryJobStore implements JobStore {
         return Observable.from(archivedTasks.asMap().values()).filter(task -> task.getJobId().equals(jobId));
     }
 
+    @Override
+    public Observable<Pair<List<String>, String>> retrieveArchivedTaskIdsForJob(String jobId, int pageSize, String pagingState) {
+        return Observable.fromCallable(() -> {
+            List<String> taskIds = archivedTasks.asMap().values().stream()
+                    .filter(task -> task.getJobId().equals(jobId))
+                    .map(Task::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+            int offset = pagingState.isEmpty() ? 0 : Integer.parseInt(pagingState);
+            int endOffset = Math.min(taskIds.size(), offset + pageSize);
+            List<String> page = offset < endOffset ? new ArrayList<>(taskIds.subList(offset, endOffset)) : Collections.emptyList();
+            return Pair.of(page, endOffset < taskIds.size() ? Integer.toString(endOffset) : "");
+        });
+    }
+
     @Override
     public Observable<Task> retrieveArchivedTask(String taskId) {
         return Observable.fromCallable(() -> {
@@ -17,10 +17,12 @@ package com.netflix.titus.supplementary.taskspublisher;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.netflix.titus.api.jobmanager.JobAttributes;
-import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.grpc.protogen.Job;
+import com.netflix.titus.grpc.protogen.JobStatus;
 import com.netflix.titus.grpc.protogen.Task;
 import com.netflix.titus.runtime.endpoint.v3.grpc.GrpcJobManagementModelConverters;
 import com.netflix.titus.supplementary.taskspublisher.es.ElasticSearchUtils;
@@ -32,6 +34,13 @@ import reactor.core.scheduler.Schedulers;
 public class TaskEventsGenerator {
 
     private final Map<String, String> taskDocumentBaseContext;
+
+    /**
+     * Core jobs built from the job updates present in the event stream. Each job update replaces the entry, so
+     * a job is converted once per version, and not once per task event.
+     */
+    private final ConcurrentMap<String, com.netflix.titus.api.jobmanager.model.job.Job<?>> coreJobs = new ConcurrentHashMap<>();
+
     private TitusClient titusClient;
     private ConnectableFlux<TaskDocument> taskEvents;
 
@@ -48,17 +57,16 @@ public class TaskEventsGenerator {
 
     private void buildEventStream() {
         taskEvents = titusClient.getJobAndTaskUpdates()
+                .doOnSubscribe(subscription -> coreJobs.clear())
                 .publishOn(Schedulers.elastic())
-                .flatMap(jobOrTaskUpdate -> jobOrTaskUpdate.hasTask() ? Flux.just(jobOrTaskUpdate.getTask()) : Flux.empty())
-                .map(task -> {
-                    final Mono<Job> jobById = titusClient.getJobById(task.getJobId());
-                    return Pair.of(task, jobById);
-                })
-                .flatMap(taskMonoPair -> {
-                    final Task task = taskMonoPair.getLeft();
-                    return taskMonoPair.getRight()
-                            .map(job -> {
-                                final com.netflix.titus.api.jobmanager.model.job.Job coreJob = GrpcJobManagementModelConverters.toCoreJob(job);
+                .flatMap(jobOrTaskUpdate -> {
+                    if (jobOrTaskUpdate.hasJob()) {
+                        updateCoreJob(jobOrTaskUpdate.getJob());
+                        return Flux.empty();
+                    }
+                    final Task task = jobOrTaskUpdate.getTask();
+                    return getCoreJob(task.getJobId())
+                            .map(coreJob -> {
                                 final com.netflix.titus.api.jobmanager.model.job.Task coreTask = GrpcJobManagementModelConverters.toCoreTask(coreJob, task);
                                 return TaskDocument.fromV3Task(coreTask, coreJob, ElasticSearchUtils.DATE_FORMAT, buildTaskContext(task));
                             }).flux();
@@ -68,6 +76,26 @@ public class TaskEventsGenerator {
                 .publish();
     }
 
+    private void updateCoreJob(Job job) {
+        if (job.getStatus().getState() == JobStatus.JobState.Finished) {
+            coreJobs.remove(job.getId());
+        } else {
+            coreJobs.put(job.getId(), GrpcJobManagementModelConverters.toCoreJob(job));
+        }
+    }
+
+    /**
+     * Jobs are emitted by the event stream ahead of their tasks, so the lookup falls back to the Titus API only if
+     * the job update was not observed (for example a task update arriving after its job finished).
+     */
+    private Mono<com.netflix.titus.api.jobmanager.model.job.Job<?>> getCoreJob(String jobId) {
+        final com.netflix.titus.api.jobmanager.model.job.Job<?> cached = coreJobs.get(jobId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return titusClient.getJobById(jobId).map(GrpcJobManagementModelConverters::toCoreJob);
+    }
+
     private Map<String, String> buildTaskContext(Task task) {
         String stack = "";
         if (task.getTaskContextMap().containsKey(JobAttributes.JOB_ATTRIBUTES_CELL)) {
@@ -16,6 +16,7 @@
 package com.netflix.titus.supplementary.taskspublisher;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -23,6 +24,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
 import com.netflix.titus.ext.elasticsearch.EsClient;
 import com.netflix.titus.ext.elasticsearch.model.BulkEsIndexResp;
 import com.netflix.titus.ext.elasticsearch.model.BulkEsIndexRespItem;
@@ -44,6 +48,8 @@ import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -106,4 +112,24 @@ public class TaskEventsGeneratorTest {
             fail("Timeout in checkPublisherState ", e);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void jobsFromEventStreamAreUsedForTaskDocuments() {
+        Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+        List<JobOrTaskUpdate> updates = new ArrayList<>();
+        updates.add(JobOrTaskUpdate.jobUpdate(GrpcJobManagementModelConverters.toGrpcJob(job)));
+        for (BatchJobTask task : JobGenerator.batchTasks(job).getValues(3)) {
+            updates.add(JobOrTaskUpdate.taskUpdate(GrpcJobManagementModelConverters.toGrpcTask(task, new EmptyLogStorageInfo<>())));
+        }
+
+        TitusClient titusClient = mock(TitusClient.class);
+        when(titusClient.getJobAndTaskUpdates()).thenReturn(Flux.fromIterable(updates));
+
+        TaskEventsGenerator taskEventsGenerator = new TaskEventsGenerator(titusClient, Collections.emptyMap());
+        List<TaskDocument> documents = taskEventsGenerator.getTaskEvents().autoConnect().take(3).collectList().block(Duration.ofSeconds(30));
+
+        assertThat(documents).hasSize(3);
+        documents.forEach(document -> assertThat(document.getJobId()).isEqualTo(job.getId()));
+        verify(titusClient, never()).getJobById(anyString());
+    }
+}
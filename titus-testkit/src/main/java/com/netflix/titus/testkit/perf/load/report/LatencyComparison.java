@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.report;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A single metric difference between two {@link LatencyReport}s.
+ */
+public class LatencyComparison {
+
+    private final String operation;
+    private final String metric;
+    private final double baseline;
+    private final double current;
+    private final double changeRatio;
+    private final boolean regression;
+
+    @JsonCreator
+    public LatencyComparison(@JsonProperty("operation") String operation,
+                             @JsonProperty("metric") String metric,
+                             @JsonProperty("baseline") double baseline,
+                             @JsonProperty("current") double current,
+                             @JsonProperty("changeRatio") double changeRatio,
+                             @JsonProperty("regression") boolean regression) {
+        this.operation = operation;
+        this.metric = metric;
+        this.baseline = baseline;
+        this.current = current;
+        this.changeRatio = changeRatio;
+        this.regression = regression;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public double getBaseline() {
+        return baseline;
+    }
+
+    public double getCurrent() {
+        return current;
+    }
+
+    public double getChangeRatio() {
+        return changeRatio;
+    }
+
+    public boolean isRegression() {
+        return regression;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: %.0f -> %.0f (%+.1f%%)%s",
+                operation, metric, baseline, current, changeRatio * 100, regression ? " REGRESSION" : ""
+        );
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.report;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.LongStream;
+
+import com.google.common.base.Preconditions;
+import com.netflix.titus.common.util.histogram.Histogram;
+import com.netflix.titus.common.util.histogram.HistogramDescriptor;
+
+/**
+ * Thread safe latency recorder, with log-linear buckets (each power of two range is split into 16 linear sub-buckets)
+ * which gives ~6% relative precision over the whole range, like HDR histograms do. Values are recorded in microseconds.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 16;
+    private static final int MAX_EXPONENT = 32;
+
+    static final HistogramDescriptor DESCRIPTOR = HistogramDescriptor.histogramOf(newLogLinearBounds());
+
+    private static final long[] BOUNDS = DESCRIPTOR.getValueBounds().stream().mapToLong(Long::longValue).toArray();
+
+    private final AtomicLongArray counters = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordMicros(long valueMicros) {
+        long value = Math.max(0, valueMicros);
+        counters.incrementAndGet(positionOf(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public Histogram toHistogram() {
+        Histogram.Builder builder = Histogram.newBuilder(DESCRIPTOR);
+        for (int i = 0; i < BOUNDS.length; i++) {
+            builder.add(BOUNDS[i], counters.get(i));
+        }
+        builder.add(BOUNDS[BOUNDS.length - 1] + 1, counters.get(BOUNDS.length));
+        return builder.build();
+    }
+
+    public LatencyStats toStats() {
+        Histogram histogram = toHistogram();
+        long maxValue = max.get();
+        return new LatencyStats(
+                histogram.getCounters().stream().mapToLong(Long::longValue).sum(),
+                valueAtPercentile(histogram, 50, maxValue),
+                valueAtPercentile(histogram, 90, maxValue),
+                valueAtPercentile(histogram, 99, maxValue),
+                valueAtPercentile(histogram, 99.9, maxValue),
+                maxValue
+        );
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the requested percentile, capped by the max recorded value.
+     */
+    static long valueAtPercentile(Histogram histogram, double percentile, long maxValue) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 100, "Percentile out of range: %s", percentile);
+
+        List<Long> counters = histogram.getCounters();
+        long total = counters.stream().mapToLong(Long::longValue).sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        List<Long> bounds = histogram.getHistogramDescriptor().getValueBounds();
+        long cumulative = 0;
+        for (int i = 0; i < counters.size(); i++) {
+            cumulative += counters.get(i);
+            if (cumulative >= rank) {
+                return i < bounds.size() ? Math.min(bounds.get(i), maxValue) : maxValue;
+            }
+        }
+        return maxValue;
+    }
+
+    private static int positionOf(long value) {
+        int position = Arrays.binarySearch(BOUNDS, value);
+        return position >= 0 ? position : -(position + 1);
+    }
+
+    private static long[] newLogLinearBounds() {
+        return LongStream.range(0, MAX_EXPONENT)
+                .flatMap(exponent -> {
+                    long base = 1L << exponent;
+                    long step = Math.max(1, base / SUB_BUCKETS);
+                    return LongStream.iterate(base, v -> v + step).limit(base / step);
+                })
+                .distinct()
+                .toArray();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.report;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class LatencyReport {
+
+    private final String scenarioExecutionId;
+    private final long startTime;
+    private final long durationMs;
+    private final List<OperationLatencyReport> operations;
+
+    @JsonCreator
+    public LatencyReport(@JsonProperty("scenarioExecutionId") String scenarioExecutionId,
+                         @JsonProperty("startTime") long startTime,
+                         @JsonProperty("durationMs") long durationMs,
+                         @JsonProperty("operations") List<OperationLatencyReport> operations) {
+        this.scenarioExecutionId = scenarioExecutionId;
+        this.startTime = startTime;
+        this.durationMs = durationMs;
+        this.operations = operations;
+    }
+
+    public String getScenarioExecutionId() {
+        return scenarioExecutionId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public List<OperationLatencyReport> getOperations() {
+        return operations;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.report;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Compares response times of two latency reports. A metric is flagged as a regression if it got worse by more than
+ * the given threshold ratio, and the absolute difference is above the noise floor.
+ */
+public final class LatencyReportComparator {
+
+    private static final long NOISE_FLOOR_MICROS = 1_000;
+
+    private LatencyReportComparator() {
+    }
+
+    public static List<LatencyComparison> compare(LatencyReport baseline, LatencyReport current, double thresholdRatio) {
+        Preconditions.checkArgument(thresholdRatio >= 0, "Threshold ratio must be >= 0: %s", thresholdRatio);
+
+        Map<String, OperationLatencyReport> baselineByOperation = baseline.getOperations().stream()
+                .collect(Collectors.toMap(OperationLatencyReport::getOperation, Function.identity()));
+
+        List<LatencyComparison> result = new ArrayList<>();
+        for (OperationLatencyReport currentOperation : current.getOperations()) {
+            OperationLatencyReport baselineOperation = baselineByOperation.get(currentOperation.getOperation());
+            if (baselineOperation == null) {
+                continue;
+            }
+            LatencyStats before = baselineOperation.getResponseTime();
+            LatencyStats after = currentOperation.getResponseTime();
+            String operation = currentOperation.getOperation();
+
+            result.add(compareLatency(operation, "p50", before, after, LatencyStats::getP50, thresholdRatio));
+            result.add(compareLatency(operation, "p90", before, after, LatencyStats::getP90, thresholdRatio));
+            result.add(compareLatency(operation, "p99", before, after, LatencyStats::getP99, thresholdRatio));
+            result.add(compareLatency(operation, "p999", before, after, LatencyStats::getP999, thresholdRatio));
+            result.add(compareLatency(operation, "max", before, after, LatencyStats::getMax, thresholdRatio));
+
+            double errorRateBefore = errorRate(baselineOperation);
+            double errorRateAfter = errorRate(currentOperation);
+            result.add(new LatencyComparison(operation, "errorRate", errorRateBefore, errorRateAfter,
+                    changeRatio(errorRateBefore, errorRateAfter), errorRateAfter > errorRateBefore
+            ));
+        }
+        return result;
+    }
+
+    public static boolean hasRegressions(List<LatencyComparison> comparisons) {
+        return comparisons.stream().anyMatch(LatencyComparison::isRegression);
+    }
+
+    private static LatencyComparison compareLatency(String operation,
+                                                    String metric,
+                                                    LatencyStats baseline,
+                                                    LatencyStats current,
+                                                    ToLongFunction<LatencyStats> getter,
+                                                    double thresholdRatio) {
+        long before = getter.applyAsLong(baseline);
+        long after = getter.applyAsLong(current);
+        double changeRatio = changeRatio(before, after);
+        boolean regression = changeRatio > thresholdRatio && (after - before) > NOISE_FLOOR_MICROS;
+        return new LatencyComparison(operation, metric, before, after, changeRatio, regression);
+    }
+
+    private static double changeRatio(double before, double after) {
+        if (before == 0) {
+            return after == 0 ? 0 : 1;
+        }
+        return (after - before) / before;
+    }
+
+    private static double errorRate(OperationLatencyReport report) {
+        long total = report.getResponseTime().getCount() + report.getErrors();
+        return total == 0 ? 0 : ((double) report.getErrors()) / total;
+    }
+}
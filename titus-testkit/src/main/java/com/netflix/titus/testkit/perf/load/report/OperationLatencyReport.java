@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.report;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OperationLatencyReport {
+
+    private final String operation;
+    private final double ratePerSec;
+    private final long errors;
+    private final LatencyStats responseTime;
+    private final LatencyStats serviceTime;
+
+    /**
+     * @param responseTime latency measured from the intended start time of an operation (coordinated omission corrected)
+     * @param serviceTime  latency measured from the actual start time of an operation
+     */
+    @JsonCreator
+    public OperationLatencyReport(@JsonProperty("operation") String operation,
+                                  @JsonProperty("ratePerSec") double ratePerSec,
+                                  @JsonProperty("errors") long errors,
+                                  @JsonProperty("responseTime") LatencyStats responseTime,
+                                  @JsonProperty("serviceTime") LatencyStats serviceTime) {
+        this.operation = operation;
+        this.ratePerSec = ratePerSec;
+        this.errors = errors;
+        this.responseTime = responseTime;
+        this.serviceTime = serviceTime;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public double getRatePerSec() {
+        return ratePerSec;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public LatencyStats getResponseTime() {
+        return responseTime;
+    }
+
+    public LatencyStats getServiceTime() {
+        return serviceTime;
+    }
+}
@@ -18,6 +18,7 @@ package com.netflix.titus.testkit.perf.load.rest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -30,17 +31,24 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import com.google.common.collect.ImmutableMap;
+import com.netflix.titus.common.util.CollectionsExt;
 import com.netflix.titus.common.util.StringExt;
 import com.netflix.titus.testkit.perf.load.plan.ExecutionPlan;
 import com.netflix.titus.testkit.perf.load.plan.JobExecutableGenerator;
 import com.netflix.titus.testkit.perf.load.plan.catalog.AgentExecutableGeneratorCatalog;
 import com.netflix.titus.testkit.perf.load.plan.catalog.JobExecutableGeneratorCatalog;
+import com.netflix.titus.testkit.perf.load.report.LatencyComparison;
+import com.netflix.titus.testkit.perf.load.report.LatencyReport;
+import com.netflix.titus.testkit.perf.load.report.LatencyReportComparator;
 import com.netflix.titus.testkit.perf.load.report.MetricsCollector;
+import com.netflix.titus.testkit.perf.load.rest.representation.CompareLatencyReportsRequest;
 import com.netflix.titus.testkit.perf.load.rest.representation.ScenarioExecutionRepresentation;
 import com.netflix.titus.testkit.perf.load.rest.representation.ScenarioRepresentation;
+import com.netflix.titus.testkit.perf.load.rest.representation.StartLatencyScenarioRequest;
 import com.netflix.titus.testkit.perf.load.rest.representation.StartScenarioRequest;
 import com.netflix.titus.testkit.perf.load.runner.AgentTerminator;
 import com.netflix.titus.testkit.perf.load.runner.JobTerminator;
+import com.netflix.titus.testkit.perf.load.runner.LatencyScenarioRunner;
 import com.netflix.titus.testkit.perf.load.runner.Orchestrator;
 import com.netflix.titus.testkit.perf.load.runner.ScenarioRunner;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -199,6 +207,51 @@ public class ScenarioSpringResource {
         return Response.noContent().build();
     }
 
+    /**
+     * Starts open loop load with the given operation rates (see {@link LatencyScenarioRunner} for the supported
+     * operations). Works equally well against the embedded stack with the simulated cloud, so latency changes can be
+     * evaluated locally.
+     */
+    @RequestMapping(method = RequestMethod.POST, path = "/latency/executions", consumes = MediaType.APPLICATION_JSON)
+    public Response startLatencyScenario(@RequestBody StartLatencyScenarioRequest request) throws URISyntaxException {
+        if (CollectionsExt.isNullOrEmpty(request.getOperationRates()) || request.getDurationSec() <= 0) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        LatencyScenarioRunner runner;
+        try {
+            runner = orchestrator.startLatencyScenario(request.getOperationRates(), Duration.ofSeconds(request.getDurationSec()));
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+        }
+        return Response.created(new URI(runner.getScenarioExecutionId())).build();
+    }
+
+    @RequestMapping(method = RequestMethod.DELETE, path = "/latency/executions/{id}")
+    public Response stopLatencyScenario(@PathVariable("id") String id) {
+        if (!orchestrator.getLatencyScenarioRunners().containsKey(id)) {
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
+        }
+        orchestrator.stopLatencyScenarioExecution(id);
+        return Response.noContent().build();
+    }
+
+    @RequestMapping(method = RequestMethod.GET, path = "/latency/executions/{id}/report", produces = MediaType.APPLICATION_JSON)
+    public LatencyReport getLatencyReport(@PathVariable("id") String id) {
+        LatencyScenarioRunner runner = orchestrator.getLatencyScenarioRunners().get(id);
+        if (runner == null) {
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
+        }
+        return runner.getReport();
+    }
+
+    @RequestMapping(method = RequestMethod.POST, path = "/latency/compare", consumes = MediaType.APPLICATION_JSON, produces = MediaType.APPLICATION_JSON)
+    public List<LatencyComparison> compareLatencyReports(@RequestBody CompareLatencyReportsRequest request) {
+        if (request.getBaseline() == null || request.getCurrent() == null) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        return LatencyReportComparator.compare(request.getBaseline(), request.getCurrent(), request.getThresholdRatio());
+    }
+
     @RequestMapping(method = RequestMethod.GET, path = "/report/metrics", produces = MediaType.APPLICATION_JSON)
     public Map<String, Object> getMetrics() {
         MetricsCollector metrics = orchestrator.getMetricsCollector();
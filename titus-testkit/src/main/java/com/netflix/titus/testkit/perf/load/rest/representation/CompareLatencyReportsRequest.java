@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.rest.representation;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.netflix.titus.testkit.perf.load.report.LatencyReport;
+
+public class CompareLatencyReportsRequest {
+
+    private final LatencyReport baseline;
+    private final LatencyReport current;
+    private final double thresholdRatio;
+
+    @JsonCreator
+    public CompareLatencyReportsRequest(@JsonProperty("baseline") LatencyReport baseline,
+                                        @JsonProperty("current") LatencyReport current,
+                                        @JsonProperty("thresholdRatio") double thresholdRatio) {
+        this.baseline = baseline;
+        this.current = current;
+        this.thresholdRatio = thresholdRatio;
+    }
+
+    public LatencyReport getBaseline() {
+        return baseline;
+    }
+
+    public LatencyReport getCurrent() {
+        return current;
+    }
+
+    public double getThresholdRatio() {
+        return thresholdRatio;
+    }
+}
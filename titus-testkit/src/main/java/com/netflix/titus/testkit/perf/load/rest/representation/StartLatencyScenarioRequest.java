@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.rest.representation;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class StartLatencyScenarioRequest {
+
+    private final Map<String, Double> operationRates;
+    private final long durationSec;
+
+    @JsonCreator
+    public StartLatencyScenarioRequest(@JsonProperty("operationRates") Map<String, Double> operationRates,
+                                       @JsonProperty("durationSec") long durationSec) {
+        this.operationRates = operationRates;
+        this.durationSec = durationSec;
+    }
+
+    public Map<String, Double> getOperationRates() {
+        return operationRates;
+    }
+
+    public long getDurationSec() {
+        return durationSec;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.runner;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.google.common.base.Preconditions;
+import com.netflix.titus.common.util.rx.ReactorExt;
+import com.netflix.titus.testkit.perf.load.report.LatencyHistogram;
+import com.netflix.titus.testkit.perf.load.report.OperationLatencyReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Open loop load driver, that starts operations at a constant rate, independently of how long the previous ones take.
+ * The response time is measured from the intended start time of each operation, so a stalled server is not hidden by
+ * the load generator backing off (coordinated omission). The service time, measured from the actual start time,
+ * is recorded as well.
+ */
+public class ConstantRateDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConstantRateDriver.class);
+
+    private static final Duration OPERATION_TIMEOUT = Duration.ofSeconds(60);
+
+    private final String operation;
+    private final double ratePerSec;
+    private final Supplier<Mono<Void>> operationSupplier;
+    private final Scheduler scheduler;
+
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+
+    private Disposable subscription;
+
+    /**
+     * @param operationSupplier returns the next operation to execute, or null if there is nothing to do for the given tick
+     */
+    public ConstantRateDriver(String operation, double ratePerSec, Supplier<Mono<Void>> operationSupplier, Scheduler scheduler) {
+        Preconditions.checkArgument(ratePerSec > 0, "Rate must be > 0: %s", ratePerSec);
+        this.operation = operation;
+        this.ratePerSec = ratePerSec;
+        this.operationSupplier = operationSupplier;
+        this.scheduler = scheduler;
+    }
+
+    public void start() {
+        Preconditions.checkState(subscription == null, "Driver already started");
+
+        long periodNs = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSec);
+        long startTimeNs = System.nanoTime();
+
+        this.subscription = Flux.interval(Duration.ZERO, Duration.ofNanos(periodNs), scheduler)
+                .onBackpressureBuffer()
+                .flatMap(tick -> execute(startTimeNs + tick * periodNs), Integer.MAX_VALUE)
+                .subscribe(
+                        ignored -> {
+                        },
+                        e -> logger.error("Driver for operation {} terminated with an error", operation, e)
+                );
+    }
+
+    public void stop() {
+        ReactorExt.safeDispose(subscription);
+    }
+
+    public OperationLatencyReport toReport() {
+        return new OperationLatencyReport(operation, ratePerSec, errors.get(), responseTime.toStats(), serviceTime.toStats());
+    }
+
+    private Mono<Void> execute(long intendedStartTimeNs) {
+        Mono<Void> action = operationSupplier.get();
+        if (action == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            long actualStartTimeNs = System.nanoTime();
+            return action
+                    .timeout(OPERATION_TIMEOUT)
+                    .doOnSuccess(ignored -> {
+                        long endTimeNs = System.nanoTime();
+                        responseTime.recordMicros(TimeUnit.NANOSECONDS.toMicros(endTimeNs - intendedStartTimeNs));
+                        serviceTime.recordMicros(TimeUnit.NANOSECONDS.toMicros(endTimeNs - actualStartTimeNs));
+                    })
+                    .onErrorResume(e -> {
+                        errors.incrementAndGet();
+                        logger.debug("Operation {} failed: {}", operation, e.getMessage());
+                        return Mono.empty();
+                    });
+        });
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.runner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Preconditions;
+import com.netflix.titus.api.jobmanager.model.job.Capacity;
+import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
+import com.netflix.titus.api.model.Page;
+import com.netflix.titus.common.util.CollectionsExt;
+import com.netflix.titus.common.util.rx.ReactorExt;
+import com.netflix.titus.testkit.perf.load.ExecutionContext;
+import com.netflix.titus.testkit.perf.load.plan.catalog.JobDescriptorCatalog;
+import com.netflix.titus.testkit.perf.load.plan.catalog.JobDescriptorCatalog.ContainerResourceAllocation;
+import com.netflix.titus.testkit.perf.load.report.LatencyReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static com.netflix.titus.testkit.perf.load.runner.LoadGeneratorConstants.JOB_TERMINATOR_CALL_METADATA;
+import static com.netflix.titus.testkit.perf.load.runner.LoadGeneratorConstants.TEST_CALL_METADATA;
+
+/**
+ * Runs a set of job management operations at a constant rate for a fixed amount of time, and collects their latency
+ * distributions. Supported operations:
+ * <ul>
+ *     <li>submitJob - creates a small batch job</li>
+ *     <li>killJob - kills a job created by the submitJob operation (skipped if there is none)</li>
+ *     <li>scaleJob - toggles the desired size of a service job between 0 and 1</li>
+ *     <li>findJobs - queries the first page of jobs</li>
+ * </ul>
+ */
+public class LatencyScenarioRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyScenarioRunner.class);
+
+    public static final String OPERATION_SUBMIT_JOB = "submitJob";
+    public static final String OPERATION_KILL_JOB = "killJob";
+    public static final String OPERATION_SCALE_JOB = "scaleJob";
+    public static final String OPERATION_FIND_JOBS = "findJobs";
+
+    private static final Page FIND_JOBS_PAGE = Page.newBuilder().withPageSize(10).build();
+
+    private final String scenarioExecutionId;
+    private final ExecutionContext context;
+    private final long startTime;
+    private final Duration duration;
+
+    private final Queue<String> submittedJobIds = new ConcurrentLinkedQueue<>();
+    private final List<ConstantRateDriver> drivers = new ArrayList<>();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    private volatile String scaledJobId;
+    private volatile boolean scaledUp;
+    private volatile long endTime;
+
+    private final Disposable stopSubscription;
+
+    public LatencyScenarioRunner(String scenarioExecutionId,
+                                 Map<String, Double> operationRates,
+                                 Duration duration,
+                                 ExecutionContext context) {
+        Preconditions.checkArgument(!operationRates.isEmpty(), "No operations configured");
+
+        this.scenarioExecutionId = scenarioExecutionId;
+        this.context = context;
+        this.duration = duration;
+
+        operationRates.forEach((operation, rate) -> drivers.add(
+                new ConstantRateDriver(operation, rate, newOperation(operation), Schedulers.parallel())
+        ));
+
+        if (operationRates.containsKey(OPERATION_SCALE_JOB)) {
+            JobDescriptor<?> serviceJob = JobDescriptorCatalog.serviceJob(ContainerResourceAllocation.Small, 0, 0, 1);
+            this.scaledJobId = context.getJobManagementClient().createJob(tagged(serviceJob), TEST_CALL_METADATA).block();
+        }
+
+        this.startTime = System.currentTimeMillis();
+        drivers.forEach(ConstantRateDriver::start);
+        this.stopSubscription = Mono.delay(duration).subscribe(ignored -> stop());
+    }
+
+    public String getScenarioExecutionId() {
+        return scenarioExecutionId;
+    }
+
+    public boolean isCompleted() {
+        return stopped.get();
+    }
+
+    public LatencyReport getReport() {
+        long durationMs = stopped.get() ? endTime - startTime : System.currentTimeMillis() - startTime;
+        return new LatencyReport(
+                scenarioExecutionId,
+                startTime,
+                durationMs,
+                drivers.stream().map(ConstantRateDriver::toReport).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Stops the load, and removes all jobs created by this scenario.
+     */
+    public void stop() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        this.endTime = System.currentTimeMillis();
+        ReactorExt.safeDispose(stopSubscription);
+        drivers.forEach(ConstantRateDriver::stop);
+
+        List<String> jobIds = new ArrayList<>(submittedJobIds);
+        submittedJobIds.clear();
+        if (scaledJobId != null) {
+            jobIds.add(scaledJobId);
+        }
+        jobIds.forEach(jobId -> context.getJobManagementClient().killJob(jobId, JOB_TERMINATOR_CALL_METADATA)
+                .subscribe(
+                        ignored -> {
+                        },
+                        e -> logger.warn("Cannot kill job {} created by latency scenario {}: {}", jobId, scenarioExecutionId, e.getMessage())
+                )
+        );
+        logger.info("Latency scenario {} stopped after {}ms", scenarioExecutionId, endTime - startTime);
+    }
+
+    private Supplier<Mono<Void>> newOperation(String operation) {
+        switch (operation) {
+            case OPERATION_SUBMIT_JOB:
+                return () -> {
+                    JobDescriptor<?> batchJob = JobDescriptorCatalog.batchJob(ContainerResourceAllocation.Small, 1, Duration.ofSeconds(30));
+                    return context.getJobManagementClient().createJob(tagged(batchJob), TEST_CALL_METADATA)
+                            .doOnNext(submittedJobIds::add)
+                            .then();
+                };
+            case OPERATION_KILL_JOB:
+                return () -> {
+                    String jobId = submittedJobIds.poll();
+                    return jobId == null ? null : context.getJobManagementClient().killJob(jobId, TEST_CALL_METADATA);
+                };
+            case OPERATION_SCALE_JOB:
+                return () -> {
+                    scaledUp = !scaledUp;
+                    int desired = scaledUp ? 1 : 0;
+                    Capacity capacity = Capacity.newBuilder().withMin(0).withDesired(desired).withMax(1).build();
+                    return context.getJobManagementClient().updateJobCapacity(scaledJobId, capacity, TEST_CALL_METADATA);
+                };
+            case OPERATION_FIND_JOBS:
+                return () -> context.getJobManagementClient().findJobs(Collections.emptyMap(), FIND_JOBS_PAGE).then();
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    private JobDescriptor<?> tagged(JobDescriptor<?> jobSpec) {
+        return jobSpec.toBuilder().withAttributes(
+                CollectionsExt.copyAndAdd(jobSpec.getAttributes(), ExecutionContext.LABEL_SESSION, scenarioExecutionId)
+        ).build();
+    }
+}
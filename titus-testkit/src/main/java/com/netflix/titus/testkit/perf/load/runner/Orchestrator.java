@@ -16,6 +16,7 @@
 
 package com.netflix.titus.testkit.perf.load.runner;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -46,6 +47,7 @@ public class Orchestrator {
     private final AtomicInteger nextSequenceId = new AtomicInteger();
 
     private final ConcurrentMap<String, ScenarioRunner> scenarioRunners = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyScenarioRunner> latencyScenarioRunners = new ConcurrentHashMap<>();
 
     @Inject
     public Orchestrator(ExecutionContext context) {
@@ -59,12 +61,17 @@ public class Orchestrator {
     @PreDestroy
     public void shutdown() {
         textReporter.stop();
+        latencyScenarioRunners.values().forEach(LatencyScenarioRunner::stop);
     }
 
     public Map<String, ScenarioRunner> getScenarioRunners() {
         return scenarioRunners;
     }
 
+    public Map<String, LatencyScenarioRunner> getLatencyScenarioRunners() {
+        return latencyScenarioRunners;
+    }
+
     public MetricsCollector getMetricsCollector() {
         return metricsCollector;
     }
@@ -87,4 +94,23 @@ public class Orchestrator {
         logger.info("Stopping scenario: " + id);
         runner.shutdown();
     }
+
+    public LatencyScenarioRunner startLatencyScenario(Map<String, Double> operationRates, Duration duration) {
+        logger.info("Starting new latency scenario: operationRates={}, duration={}", operationRates, duration);
+
+        String id = this.context.getSessionId() + "$latency$" + nextSequenceId.getAndIncrement();
+        LatencyScenarioRunner runner = new LatencyScenarioRunner(id, operationRates, duration, context);
+        latencyScenarioRunners.put(id, runner);
+        return runner;
+    }
+
+    public void stopLatencyScenarioExecution(String id) {
+        LatencyScenarioRunner runner = latencyScenarioRunners.get(id);
+        if (runner == null) {
+            throw new IllegalArgumentException("Latency scenario execution not found: " + id);
+        }
+
+        logger.info("Stopping latency scenario: " + id);
+        runner.stop();
+    }
 }
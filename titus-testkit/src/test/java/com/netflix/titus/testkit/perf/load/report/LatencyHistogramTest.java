@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.report;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.recordMicros(i);
+        }
+
+        LatencyStats stats = histogram.toStats();
+        assertThat(stats.getCount()).isEqualTo(10_000);
+        assertThat(stats.getP50()).isCloseTo(5_000, within(5_000L / 16));
+        assertThat(stats.getP90()).isCloseTo(9_000, within(9_000L / 16));
+        assertThat(stats.getP99()).isCloseTo(9_900, within(9_900L / 16));
+        assertThat(stats.getP999()).isLessThanOrEqualTo(10_000);
+        assertThat(stats.getMax()).isEqualTo(10_000);
+    }
+
+    @Test
+    public void testOutliersAreVisibleInHighPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.recordMicros(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.recordMicros(5_000_000);
+        }
+
+        LatencyStats stats = histogram.toStats();
+        assertThat(stats.getP50()).isCloseTo(1_000, within(1_000L / 16));
+        assertThat(stats.getP99()).isCloseTo(1_000, within(1_000L / 16));
+        assertThat(stats.getP999()).isEqualTo(5_000_000);
+        assertThat(stats.getMax()).isEqualTo(5_000_000);
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyStats stats = new LatencyHistogram().toStats();
+        assertThat(stats.getCount()).isZero();
+        assertThat(stats.getP99()).isZero();
+        assertThat(stats.getMax()).isZero();
+    }
+}
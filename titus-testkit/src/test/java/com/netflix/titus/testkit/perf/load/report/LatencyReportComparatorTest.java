@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netflix.titus.testkit.perf.load.report;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyReportComparatorTest {
+
+    @Test
+    public void testRegressionIsFlagged() {
+        LatencyReport baseline = newReport(new LatencyStats(1000, 10_000, 20_000, 50_000, 80_000, 100_000), 0);
+        LatencyReport current = newReport(new LatencyStats(1000, 10_500, 20_000, 150_000, 200_000, 250_000), 0);
+
+        List<LatencyComparison> comparisons = LatencyReportComparator.compare(baseline, current, 0.2);
+
+        assertThat(LatencyReportComparator.hasRegressions(comparisons)).isTrue();
+        assertThat(find(comparisons, "p50").isRegression()).isFalse();
+        assertThat(find(comparisons, "p99").isRegression()).isTrue();
+        assertThat(find(comparisons, "p99").getChangeRatio()).isEqualTo(2.0);
+    }
+
+    @Test
+    public void testChangesBelowNoiseFloorAreIgnored() {
+        LatencyReport baseline = newReport(new LatencyStats(1000, 100, 200, 300, 400, 500), 0);
+        LatencyReport current = newReport(new LatencyStats(1000, 200, 400, 600, 800, 1000), 0);
+
+        assertThat(LatencyReportComparator.hasRegressions(LatencyReportComparator.compare(baseline, current, 0.2))).isFalse();
+    }
+
+    @Test
+    public void testErrorRateIncreaseIsFlagged() {
+        LatencyStats stats = new LatencyStats(1000, 10_000, 20_000, 50_000, 80_000, 100_000);
+        List<LatencyComparison> comparisons = LatencyReportComparator.compare(newReport(stats, 0), newReport(stats, 10), 0.2);
+
+        assertThat(find(comparisons, "errorRate").isRegression()).isTrue();
+    }
+
+    private static LatencyReport newReport(LatencyStats responseTime, long errors) {
+        return new LatencyReport("test", 0, 60_000, Collections.singletonList(
+                new OperationLatencyReport("submitJob", 10, errors, responseTime, responseTime)
+        ));
+    }
+
+    private static LatencyComparison find(List<LatencyComparison> comparisons, String metric) {
+        return comparisons.stream().filter(c -> c.getMetric().equals(metric)).findFirst().orElseThrow(IllegalStateException::new);
+    }
+}